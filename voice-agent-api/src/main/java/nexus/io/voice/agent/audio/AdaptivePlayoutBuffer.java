@@ -0,0 +1,317 @@
+package nexus.io.voice.agent.audio;
+
+import java.util.Arrays;
+
+/**
+ * Adaptive playout (jitter) buffer for bursty model audio on top of {@link PcmRingBuffer}.
+ *
+ * - the producer (model SDK thread) calls {@link #write(short[], int, int)}
+ * - the consumer (RTP tick) calls {@link #read(short[], int, int)}
+ *
+ * Playout starts only after {@code targetDepth} samples are queued, or when the producer has gone quiet (end of an
+ * answer shorter than the target). When the buffer runs dry and audio resumes shortly after, that is counted as an
+ * underrun and the target grows by one step. Every adaptation window without underrun the target decays towards the
+ * measured burst jitter, so the added latency stays as low as the stream allows.
+ *
+ * Jitter is the smoothed lateness of each chunk compared to the playout duration of the previous chunk; gaps longer
+ * than the underrun window are treated as the start of a new answer and ignored.
+ */
+public class AdaptivePlayoutBuffer {
+
+  private static final long NANOS_PER_MS = 1_000_000L;
+
+  /**
+   * Audio arriving within this time after the buffer ran dry means the stream was interrupted, not finished.
+   */
+  private static final long UNDERRUN_RESUME_WINDOW_MS = 1_000L;
+
+  /**
+   * How often the target is re-evaluated, in played milliseconds.
+   */
+  private static final int ADAPT_WINDOW_MS = 2_000;
+
+  /**
+   * Target grows by this much on every underrun.
+   */
+  private static final int GROW_STEP_MS = 40;
+
+  /**
+   * Target shrinks at most by this much per adaptation window.
+   */
+  private static final int SHRINK_STEP_MS = 20;
+
+  /**
+   * Target is kept at this multiple of the measured jitter.
+   */
+  private static final int JITTER_FACTOR = 2;
+
+  private final PcmRingBuffer ring;
+  private final int sampleRate;
+  private final int minTargetSamples;
+  private final int maxTargetSamples;
+  private final int growStepSamples;
+  private final int shrinkStepSamples;
+  private final int adaptWindowSamples;
+
+  // ---- producer state, read by the consumer ----
+  private volatile long lastWriteNanos = 0L;
+  private volatile long lastChunkNanos = 0L;
+  private volatile long jitterNanos = 0L;
+
+  // ---- consumer state ----
+  private volatile boolean playing = false;
+  private volatile int targetSamples;
+  private long dryAtNanos = 0L;
+  private int windowPlayed = 0;
+  private int windowMinDepth = Integer.MAX_VALUE;
+  private boolean windowUnderrun = false;
+
+  // ---- barge-in flush request, set by any thread, executed by the consumer ----
+  private volatile long flushMark = -1L;
+  private volatile int flushFadeSamples = 0;
+
+  private volatile long underruns = 0L;
+  private volatile long flushes = 0L;
+  private volatile long flushedSamples = 0L;
+  private volatile long prebufferCount = 0L;
+  private volatile long playedSamples = 0L;
+
+  /**
+   * @param sampleRate      sample rate of the queued audio
+   * @param maxBufferMs     ring capacity
+   * @param overrunPolicy   what the ring does when full
+   * @param minTargetMs     lower bound of the pre-buffer depth
+   * @param initialTargetMs pre-buffer depth before anything has been measured
+   * @param maxTargetMs     upper bound of the pre-buffer depth
+   */
+  public AdaptivePlayoutBuffer(int sampleRate, int maxBufferMs, PcmOverrunPolicy overrunPolicy, int minTargetMs,
+      int initialTargetMs, int maxTargetMs) {
+    this(sampleRate, maxBufferMs, overrunPolicy, minTargetMs, initialTargetMs, maxTargetMs, 0);
+  }
+
+  /**
+   * @param highWatermarkMs depth at which {@link #isAboveHighWatermark()} turns true, 0 for 2/3 of the capacity
+   */
+  public AdaptivePlayoutBuffer(int sampleRate, int maxBufferMs, PcmOverrunPolicy overrunPolicy, int minTargetMs,
+      int initialTargetMs, int maxTargetMs, int highWatermarkMs) {
+    if (sampleRate <= 0) {
+      throw new IllegalArgumentException("sampleRate must be > 0: " + sampleRate);
+    }
+    this.sampleRate = sampleRate;
+    int capacity = msToSamples(Math.max(maxBufferMs, maxTargetMs));
+    this.minTargetSamples = msToSamples(Math.max(0, minTargetMs));
+    this.maxTargetSamples = Math.max(minTargetSamples, msToSamples(maxTargetMs));
+    this.targetSamples = clamp(msToSamples(initialTargetMs));
+    this.growStepSamples = msToSamples(GROW_STEP_MS);
+    this.shrinkStepSamples = msToSamples(SHRINK_STEP_MS);
+    this.adaptWindowSamples = msToSamples(ADAPT_WINDOW_MS);
+    // low watermark: 200ms, high watermark: 2/3 of capacity unless configured
+    int highWatermark = highWatermarkMs > 0 ? msToSamples(highWatermarkMs) : capacity / 3 * 2;
+    this.ring = new PcmRingBuffer(capacity, overrunPolicy, sampleRate / 5, highWatermark);
+  }
+
+  /**
+   * Producer side.
+   *
+   * @return number of samples queued
+   */
+  public int write(short[] src, int off, int len) {
+    if (src == null || len <= 0) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    if (lastWriteNanos > 0L) {
+      long gap = now - lastWriteNanos;
+      // a longer gap is the start of a new answer, not jitter inside a stream
+      if (gap < UNDERRUN_RESUME_WINDOW_MS * NANOS_PER_MS) {
+        long lateness = Math.max(0L, gap - lastChunkNanos);
+        // RFC 3550 style smoothing, 1/16 gain
+        long j = jitterNanos;
+        jitterNanos = j + (lateness - j) / 16;
+      }
+    }
+    int written = ring.write(src, off, len);
+    lastChunkNanos = (long) len * 1_000_000_000L / sampleRate;
+    lastWriteNanos = now;
+    return written;
+  }
+
+  /**
+   * Consumer side. Fills {@code out[off, off+len)} with audio.
+   *
+   * @return number of real samples played; 0 while pre-buffering (out is left untouched). When the buffer runs dry
+   *         mid-frame the rest of the frame is zero-filled.
+   */
+  public int read(short[] out, int off, int len) {
+    if (out == null || len <= 0) {
+      return 0;
+    }
+
+    if (flushMark >= 0L) {
+      return executeFlush(out, off, len);
+    }
+
+    int depth = ring.size();
+    if (!playing) {
+      if (depth == 0) {
+        return 0;
+      }
+      long now = System.nanoTime();
+      if (dryAtNanos > 0L) {
+        if (lastWriteNanos - dryAtNanos < UNDERRUN_RESUME_WINDOW_MS * NANOS_PER_MS) {
+          onUnderrun();
+        }
+        dryAtNanos = 0L;
+      }
+
+      long idleNanos = now - lastWriteNanos;
+      long targetNanos = (long) targetSamples * 1_000_000_000L / sampleRate;
+      boolean producerQuiet = idleNanos >= Math.max(targetNanos, 2 * lastChunkNanos);
+      if (depth < targetSamples && !producerQuiet) {
+        return 0;
+      }
+      playing = true;
+      prebufferCount++;
+    }
+
+    int n = ring.read(out, off, len);
+    if (n < len) {
+      Arrays.fill(out, off + n, off + len, (short) 0);
+      playing = false;
+      dryAtNanos = System.nanoTime();
+    }
+
+    playedSamples += n;
+    adapt(ring.size(), n);
+    return n;
+  }
+
+  private void onUnderrun() {
+    underruns++;
+    windowUnderrun = true;
+    targetSamples = clamp(targetSamples + growStepSamples);
+  }
+
+  private void adapt(int depthAfterRead, int played) {
+    windowPlayed += played;
+    if (depthAfterRead < windowMinDepth) {
+      windowMinDepth = depthAfterRead;
+    }
+    if (windowPlayed < adaptWindowSamples) {
+      return;
+    }
+
+    if (!windowUnderrun) {
+      int jitterTarget = (int) (JITTER_FACTOR * jitterNanos * sampleRate / 1_000_000_000L);
+      int t = targetSamples;
+      if (t > jitterTarget) {
+        // only shrink when the buffer never came close to running dry in this window
+        if (windowMinDepth > 0) {
+          targetSamples = clamp(t - Math.min(shrinkStepSamples, t - jitterTarget));
+        }
+      } else {
+        targetSamples = clamp(jitterTarget);
+      }
+    }
+
+    windowPlayed = 0;
+    windowMinDepth = Integer.MAX_VALUE;
+    windowUnderrun = false;
+  }
+
+  /**
+   * Barge-in: drop everything queued so far and go back to pre-buffering. Audio written after this call (the next
+   * answer) is kept. The drop itself is O(1) and happens on the next {@link #read(short[], int, int)}, which first plays
+   * up to {@code fadeSamples} of the old audio with a linear fade-out to avoid a click.
+   */
+  public void flush(int fadeSamples) {
+    flushFadeSamples = Math.max(0, fadeSamples);
+    flushMark = ring.writePosition();
+  }
+
+  private int executeFlush(short[] out, int off, int len) {
+    long mark = flushMark;
+    flushMark = -1L;
+
+    int faded = 0;
+    if (playing) {
+      int fade = (int) Math.min(Math.min(flushFadeSamples, len), Math.max(0L, mark - ring.readPosition()));
+      faded = ring.read(out, off, fade);
+      for (int i = 0; i < faded; i++) {
+        out[off + i] = (short) (out[off + i] * (faded - i) / (faded + 1));
+      }
+      if (faded > 0 && faded < len) {
+        Arrays.fill(out, off + faded, off + len, (short) 0);
+      }
+    }
+
+    int dropped = ring.discardUpTo(mark);
+    flushes++;
+    flushedSamples += dropped;
+    playing = false;
+    dryAtNanos = 0L;
+    playedSamples += faded;
+    return faded;
+  }
+
+  /**
+   * Drop everything queued in O(1) and go back to pre-buffering.
+   *
+   * @return number of samples discarded
+   */
+  public int clear() {
+    int dropped = ring.truncate();
+    playing = false;
+    dryAtNanos = 0L;
+    return dropped;
+  }
+
+  public int size() {
+    return ring.size();
+  }
+
+  public boolean isEmpty() {
+    return ring.isEmpty();
+  }
+
+  public boolean isPlaying() {
+    return playing;
+  }
+
+  public boolean isAboveHighWatermark() {
+    return ring.isAboveHighWatermark();
+  }
+
+  public boolean isBelowLowWatermark() {
+    return ring.isBelowLowWatermark();
+  }
+
+  public PcmOverrunPolicy getOverrunPolicy() {
+    return ring.getOverrunPolicy();
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public PlayoutBufferStats getStats() {
+    return new PlayoutBufferStats(sampleRate, samplesToMs(ring.size()), samplesToMs(targetSamples),
+        (int) (jitterNanos / NANOS_PER_MS), playing, underruns, ring.getOverrunCount(), ring.getOverrunSamples(),
+        prebufferCount, playedSamples, flushes, flushedSamples);
+  }
+
+  private int clamp(int samples) {
+    if (samples < minTargetSamples) {
+      return minTargetSamples;
+    }
+    return Math.min(samples, maxTargetSamples);
+  }
+
+  private int msToSamples(int ms) {
+    return (int) ((long) ms * sampleRate / 1000L);
+  }
+
+  private int samplesToMs(int samples) {
+    return (int) ((long) samples * 1000L / sampleRate);
+  }
+}
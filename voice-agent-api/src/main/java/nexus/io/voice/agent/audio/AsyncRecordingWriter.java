@@ -0,0 +1,203 @@
+package nexus.io.voice.agent.audio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves recording I/O off the media threads. Callers only enqueue the chunk with its arrival time into a lock-free
+ * queue; a writer thread from {@link SessionAudioExecutor#RECORDING_WRITE_EXECUTOR} drains the whole queue in one go
+ * into the {@link RecorderHandle}, whose WAV writers turn the many small chunks into large sequential writes.
+ *
+ * At most one drain per session runs at a time, so chunks are applied in arrival order. {@link #stop} drains what is
+ * queued before closing the handle. If the disk falls behind by more than {@link #MAX_PENDING_BYTES}, new chunks are
+ * dropped instead of growing the heap.
+ */
+@Slf4j
+public class AsyncRecordingWriter {
+
+  /**
+   * Per-session backlog limit, about 4 minutes of 16 kHz audio
+   */
+  public static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+  private static final int USER = 0;
+  private static final int MODEL = 1;
+  private static final int INTERRUPT = 2;
+
+  private final RecorderHandle handle;
+  private final Executor executor;
+
+  private final ConcurrentLinkedQueue<Chunk> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingBytes = new AtomicInteger();
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private final AtomicBoolean finished = new AtomicBoolean(false);
+  private final AtomicLong droppedBytes = new AtomicLong();
+
+  private volatile boolean stopping = false;
+  private volatile boolean abort = false;
+  private volatile AudioFinishCallback finishCallback;
+  private volatile boolean writeErrorReported = false;
+
+  public AsyncRecordingWriter(RecorderHandle handle, Executor executor) {
+    this.handle = handle;
+    this.executor = executor;
+  }
+
+  public RecorderHandle getHandle() {
+    return handle;
+  }
+
+  /**
+   * Takes ownership of {@code pcm}; the caller must not modify it afterwards.
+   */
+  public void appendUser(byte[] pcm) {
+    if (pcm != null) {
+      enqueue(USER, pcm, pcm.length);
+    }
+  }
+
+  /**
+   * Copies {@code pcm[off, off+len)}, so the caller may reuse the array.
+   */
+  public void appendUser(byte[] pcm, int off, int len) {
+    if (pcm != null && len > 0) {
+      enqueue(USER, Arrays.copyOfRange(pcm, off, off + len), len);
+    }
+  }
+
+  /**
+   * Takes ownership of {@code pcm}; the caller must not modify it afterwards.
+   */
+  public void appendModel(byte[] pcm) {
+    if (pcm != null) {
+      enqueue(MODEL, pcm, pcm.length);
+    }
+  }
+
+  /**
+   * Barge-in: queued behind the audio that arrived before it, see {@link RecorderHandle#interruptModel}
+   */
+  public void interruptModel() {
+    if (!stopping) {
+      queue.offer(new Chunk(INTERRUPT, null, 0, System.nanoTime()));
+      schedule();
+    }
+  }
+
+  /**
+   * Write everything queued so far, then close the handle and run the combine/callback.
+   *
+   * @return the combined recording path (written asynchronously)
+   */
+  public Path stop(AudioFinishCallback callback) {
+    this.finishCallback = callback;
+    this.stopping = true;
+    schedule();
+    return handle.combinedWav;
+  }
+
+  /**
+   * Write everything queued so far and close the files without combining.
+   */
+  public void closeQuietly() {
+    this.abort = true;
+    this.stopping = true;
+    schedule();
+  }
+
+  public int getPendingBytes() {
+    return pendingBytes.get();
+  }
+
+  public long getDroppedBytes() {
+    return droppedBytes.get();
+  }
+
+  private void enqueue(int kind, byte[] pcm, int len) {
+    if (len <= 0 || stopping) {
+      return;
+    }
+    if (pendingBytes.addAndGet(len) > MAX_PENDING_BYTES) {
+      pendingBytes.addAndGet(-len);
+      droppedBytes.addAndGet(len);
+      return;
+    }
+    queue.offer(new Chunk(kind, pcm, len, System.nanoTime()));
+    schedule();
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      writePending();
+      if (stopping && finished.compareAndSet(false, true)) {
+        finish();
+      }
+      scheduled.set(false);
+      boolean more = !queue.isEmpty() || (stopping && !finished.get());
+      if (!more || !scheduled.compareAndSet(false, true)) {
+        return;
+      }
+    }
+  }
+
+  private void writePending() {
+    Chunk c;
+    while ((c = queue.poll()) != null) {
+      pendingBytes.addAndGet(-c.length);
+      try {
+        if (c.kind == USER) {
+          handle.writeUser(c.pcm, 0, c.length, c.arrivalNanos);
+        } else if (c.kind == MODEL) {
+          handle.writeModel(c.pcm, 0, c.length, c.arrivalNanos);
+        } else {
+          handle.interruptModel(c.arrivalNanos);
+        }
+      } catch (IOException e) {
+        // a failing disk fails every chunk, report only the first
+        if (!writeErrorReported) {
+          writeErrorReported = true;
+          log.error("recording {} write failed", handle.sessionId, e);
+        }
+      }
+    }
+  }
+
+  private void finish() {
+    if (droppedBytes.get() > 0) {
+      log.warn("recording {} dropped {} bytes, writer backlog", handle.sessionId, droppedBytes.get());
+    }
+    if (abort) {
+      handle.closeQuietly();
+    } else {
+      handle.finishAndClose(finishCallback);
+    }
+  }
+
+  private static final class Chunk {
+    private final int kind;
+    private final byte[] pcm;
+    private final int length;
+    private final long arrivalNanos;
+
+    private Chunk(int kind, byte[] pcm, int length, long arrivalNanos) {
+      this.kind = kind;
+      this.pcm = pcm;
+      this.length = length;
+      this.arrivalNanos = arrivalNanos;
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package nexus.io.voice.agent.audio;
+
+import java.util.Arrays;
+
+/**
+ * Lightweight frame based voice activity detector on mono PCM16: log energy against an adaptive noise floor, with the
+ * zero-crossing rate used to reject quiet broadband noise (fan, hiss) that sits just above the floor.
+ *
+ * - speech starts after {@code onsetFrames} consecutive speech frames
+ * - speech stops once no speech frame has been seen for the hangover time
+ * - the noise floor follows quieter frames quickly and louder non-speech frames slowly
+ * - during speech the floor only leaks slowly up towards the minimum energy of the last {@link #MIN_WINDOW_MS}: pauses
+ *   between words keep that minimum at the real floor, while noise that rises and stays up (a fan, a car) lifts it, so
+ *   the detector cannot latch on in the speaking state
+ *
+ * Not thread safe: one instance per stream.
+ */
+public class EnergyVad {
+
+  /**
+   * Frames below this level are never speech
+   */
+  private static final double MIN_SPEECH_DB = -50.0;
+
+  /**
+   * Starting noise floor, before anything has been measured
+   */
+  private static final double INITIAL_FLOOR_DB = -60.0;
+
+  private static final double FLOOR_DOWN_GAIN = 0.2;
+  private static final double FLOOR_UP_GAIN = 0.02;
+
+  /**
+   * Minimum statistics window, kept as {@link #MIN_SUBWINDOWS} sub-window minima
+   */
+  static final int MIN_WINDOW_MS = 2000;
+  private static final int MIN_SUBWINDOWS = 8;
+
+  /**
+   * Frames less than this much above the speech threshold with a higher zero-crossing rate are treated as noise
+   */
+  private static final double NOISE_MARGIN_DB = 10.0;
+  private static final double NOISE_ZCR = 0.35;
+
+  private final int sampleRate;
+  private final int frameSamples;
+  private final double thresholdDb;
+  private final int onsetFrames;
+  private final int hangoverFrames;
+  private final int frameMs;
+
+  private double floorDb = INITIAL_FLOOR_DB;
+  private boolean speaking = false;
+  private int speechRun = 0;
+  private int hangoverLeft = 0;
+  private long speechFrames = 0L;
+
+  // minimum frame energy per sub-window, oldest overwritten first
+  private final double[] subMinDb = new double[MIN_SUBWINDOWS];
+  private final int subWindowFrames;
+  private int subIndex = 0;
+  private int subFill = 0;
+  private double currentMinDb = Double.MAX_VALUE;
+
+  private double lastEnergyDb = INITIAL_FLOOR_DB;
+  private double lastZcr = 0.0;
+
+  /**
+   * @param sampleRate  input sample rate
+   * @param frameMs     analysis frame length
+   * @param thresholdDb how far above the noise floor a frame must be to count as speech
+   * @param onsetMs     speech needed before a start is reported
+   * @param hangoverMs  silence needed before a stop is reported
+   */
+  public EnergyVad(int sampleRate, int frameMs, double thresholdDb, int onsetMs, int hangoverMs) {
+    if (sampleRate <= 0 || frameMs <= 0) {
+      throw new IllegalArgumentException("invalid vad config: rate=" + sampleRate + ", frameMs=" + frameMs);
+    }
+    this.sampleRate = sampleRate;
+    this.frameMs = frameMs;
+    this.frameSamples = sampleRate * frameMs / 1000;
+    this.thresholdDb = thresholdDb;
+    this.onsetFrames = Math.max(1, onsetMs / frameMs);
+    this.hangoverFrames = Math.max(1, hangoverMs / frameMs);
+    this.subWindowFrames = Math.max(1, MIN_WINDOW_MS / MIN_SUBWINDOWS / frameMs);
+    Arrays.fill(subMinDb, Double.MAX_VALUE);
+  }
+
+  public int getFrameSamples() {
+    return frameSamples;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Classify {@code frame[off, off + frameSamples)}.
+   */
+  public VadEvent process(short[] frame, int off) {
+    long sum = 0L;
+    int crossings = 0;
+    int prev = frame[off];
+    for (int i = 0; i < frameSamples; i++) {
+      int s = frame[off + i];
+      sum += s * s;
+      if ((s ^ prev) < 0) {
+        crossings++;
+      }
+      prev = s;
+    }
+    double meanSquare = (double) sum / frameSamples / (32768.0 * 32768.0);
+    double db = 10.0 * Math.log10(meanSquare + 1e-10);
+    double zcr = (double) crossings / frameSamples;
+    lastEnergyDb = db;
+    lastZcr = zcr;
+    trackMinimum(db);
+
+    double speechDb = Math.max(floorDb + thresholdDb, MIN_SPEECH_DB);
+    boolean voiced = db > speechDb && !(db < speechDb + NOISE_MARGIN_DB && zcr > NOISE_ZCR);
+
+    if (!speaking) {
+      if (voiced) {
+        leakFloorUp();
+        if (++speechRun >= onsetFrames) {
+          speaking = true;
+          speechRun = 0;
+          hangoverLeft = hangoverFrames;
+          speechFrames = onsetFrames;
+          return VadEvent.SPEECH_START;
+        }
+      } else {
+        speechRun = 0;
+        floorDb += (db - floorDb) * (db < floorDb ? FLOOR_DOWN_GAIN : FLOOR_UP_GAIN);
+      }
+      return VadEvent.NONE;
+    }
+
+    speechFrames++;
+    leakFloorUp();
+    if (voiced) {
+      hangoverLeft = hangoverFrames;
+      return VadEvent.NONE;
+    }
+    if (--hangoverLeft <= 0) {
+      speaking = false;
+      return VadEvent.SPEECH_STOP;
+    }
+    return VadEvent.NONE;
+  }
+
+  private void trackMinimum(double db) {
+    if (db < currentMinDb) {
+      currentMinDb = db;
+    }
+    if (++subFill >= subWindowFrames) {
+      subMinDb[subIndex] = currentMinDb;
+      subIndex = (subIndex + 1) % MIN_SUBWINDOWS;
+      subFill = 0;
+      currentMinDb = Double.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Speech frames cannot be used for the floor directly; move it up towards the recent minimum instead
+   */
+  private void leakFloorUp() {
+    double min = currentMinDb;
+    for (double m : subMinDb) {
+      if (m < min) {
+        min = m;
+      }
+    }
+    if (min > floorDb && min != Double.MAX_VALUE) {
+      floorDb += (min - floorDb) * FLOOR_UP_GAIN;
+    }
+  }
+
+  /**
+   * true from the start event until the stop event, including the hangover
+   */
+  public boolean isSpeaking() {
+    return speaking;
+  }
+
+  /**
+   * Length of the current (or last) speech segment in milliseconds, hangover included
+   */
+  public long getSpeechMs() {
+    return speechFrames * frameSamples * 1000L / sampleRate;
+  }
+
+  /**
+   * Silence included at the end of a segment before the stop is reported
+   */
+  public long getHangoverMs() {
+    return (long) hangoverFrames * frameMs;
+  }
+
+  public double getNoiseFloorDb() {
+    return floorDb;
+  }
+
+  public double getLastEnergyDb() {
+    return lastEnergyDb;
+  }
+
+  public double getLastZcr() {
+    return lastZcr;
+  }
+
+  public void reset() {
+    floorDb = INITIAL_FLOOR_DB;
+    Arrays.fill(subMinDb, Double.MAX_VALUE);
+    subIndex = 0;
+    subFill = 0;
+    currentMinDb = Double.MAX_VALUE;
+    speaking = false;
+    speechRun = 0;
+    hangoverLeft = 0;
+    speechFrames = 0L;
+  }
+}
@@ -0,0 +1,81 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * Streaming linear-interpolation resampler with integer phase accumulation.
+ *
+ * The input is treated as one continuous stream: the last sample of the previous chunk is carried over, so chunk
+ * boundaries do not produce clicks or drift.
+ */
+public class LinearPcmResampler implements PcmResampler {
+
+  private final int inRate;
+  private final int outRate;
+
+  // position of the next output sample in input samples * outRate, relative to lastSample
+  private long phase = 0L;
+  private short lastSample = 0;
+  private boolean primed = false;
+
+  public LinearPcmResampler(int inRate, int outRate) {
+    if (inRate <= 0 || outRate <= 0) {
+      throw new IllegalArgumentException("invalid rates: " + inRate + " -> " + outRate);
+    }
+    this.inRate = inRate;
+    this.outRate = outRate;
+  }
+
+  @Override
+  public int getInputRate() {
+    return inRate;
+  }
+
+  @Override
+  public int getOutputRate() {
+    return outRate;
+  }
+
+  @Override
+  public int maxOutputLength(int inLen) {
+    return (int) ((long) inLen * outRate / inRate) + 2;
+  }
+
+  @Override
+  public int resample(short[] in, int inOff, int inLen, short[] out, int outOff) {
+    if (inLen <= 0) {
+      return 0;
+    }
+    if (inRate == outRate) {
+      System.arraycopy(in, inOff, out, outOff, inLen);
+      return inLen;
+    }
+    if (!primed) {
+      lastSample = in[inOff];
+      primed = true;
+    }
+
+    // virtual input: v[0] = lastSample, v[i] = in[inOff + i - 1]
+    int o = outOff;
+    while (true) {
+      long idx = phase / outRate;
+      if (idx >= inLen) {
+        break;
+      }
+      int frac = (int) (phase - idx * outRate);
+      int a = idx == 0 ? lastSample : in[inOff + (int) idx - 1];
+      int b = in[inOff + (int) idx];
+      out[o++] = (short) (a + (long) (b - a) * frac / outRate);
+      phase += inRate;
+    }
+
+    phase -= (long) inLen * outRate;
+    lastSample = in[inOff + inLen - 1];
+    return o - outOff;
+  }
+
+  @Override
+  public void reset() {
+    phase = 0L;
+    lastSample = 0;
+    primed = false;
+  }
+}
@@ -0,0 +1,262 @@
+package nexus.io.voice.agent.audio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Writes one interleaved stereo WAV (left=user, right=model) while the call is running.
+ *
+ * Both inputs are resampled to the target rate as they arrive. Placement is decided by the {@link RecordingClock}
+ * channels in {@link RecorderHandle}, in samples at the source rate: the silence before a chunk and the one-sample
+ * drift correction are passed in, and {@link #padUser}/{@link #padModel} keep a silent side from holding back the other
+ * one. Each channel is padded at the target rate up to its source position converted to the target rate, so resampler
+ * rounding never accumulates. Frames are written as soon as both channels have them; only the part where one side runs
+ * ahead of the other (e.g. a model burst faster than real time) is kept in memory.
+ *
+ * Not thread safe: {@link RecorderHandle} serializes all calls.
+ */
+public class LiveStereoRecorder {
+
+  private static final int BYTES_PER_SAMPLE = 2;
+
+  private final WavFileWriter out;
+  private final int targetSampleRate;
+  private final int userSampleRate;
+  private final int modelSampleRate;
+  private final PcmResampler userResampler;
+  private final PcmResampler modelResampler;
+
+  private final SampleQueue left = new SampleQueue();
+  private final SampleQueue right = new SampleQueue();
+  // samples queued so far on each channel, at the target rate
+  private long leftPos = 0L;
+  private long rightPos = 0L;
+  // samples placed so far on each channel, at the source rate
+  private long userSrcPos = 0L;
+  private long modelSrcPos = 0L;
+
+  private short[] inScratch = new short[0];
+  private short[] outScratch = new short[0];
+  private byte[] frameScratch = new byte[0];
+
+  public LiveStereoRecorder(Path outWav, int userSampleRate, int modelSampleRate, int targetSampleRate,
+      String infoName) throws IOException {
+    this.out = new WavFileWriter(outWav, targetSampleRate, 2, infoName);
+    this.targetSampleRate = targetSampleRate;
+    this.userSampleRate = userSampleRate;
+    this.modelSampleRate = modelSampleRate;
+    this.userResampler = PcmResamplers.create(userSampleRate, targetSampleRate);
+    this.modelResampler = PcmResamplers.create(modelSampleRate, targetSampleRate);
+  }
+
+  public Path getPath() {
+    return out.getPath();
+  }
+
+  /**
+   * @param padSamples silence before the chunk, at the user rate
+   * @param correction see {@link RecordingClock.Channel#getCorrection()}
+   */
+  public void writeUser(byte[] pcm, int off, int len, long padSamples, int correction) throws IOException {
+    padUser(padSamples);
+    int n = resample(userResampler, pcm, off, len, correction);
+    left.append(outScratch, n);
+    leftPos += n;
+    userSrcPos += len / BYTES_PER_SAMPLE + correction;
+    drain();
+  }
+
+  /**
+   * @param padSamples silence before the chunk, at the model rate
+   * @param correction see {@link RecordingClock.Channel#getCorrection()}
+   */
+  public void writeModel(byte[] pcm, int off, int len, long padSamples, int correction) throws IOException {
+    padModel(padSamples);
+    int n = resample(modelResampler, pcm, off, len, correction);
+    right.append(outScratch, n);
+    rightPos += n;
+    modelSrcPos += len / BYTES_PER_SAMPLE + correction;
+    drain();
+  }
+
+  /**
+   * Silence on the user channel, at the user rate
+   */
+  public void padUser(long samples) throws IOException {
+    if (samples <= 0) {
+      return;
+    }
+    userSrcPos += samples;
+    long expected = userSrcPos * targetSampleRate / userSampleRate;
+    if (leftPos < expected) {
+      left.appendZeros((int) (expected - leftPos));
+      leftPos = expected;
+    }
+    drain();
+  }
+
+  /**
+   * Silence on the model channel, at the model rate
+   */
+  public void padModel(long samples) throws IOException {
+    if (samples <= 0) {
+      return;
+    }
+    modelSrcPos += samples;
+    long expected = modelSrcPos * targetSampleRate / modelSampleRate;
+    if (rightPos < expected) {
+      right.appendZeros((int) (expected - rightPos));
+      rightPos = expected;
+    }
+    drain();
+  }
+
+  /**
+   * Take back the last {@code samples} of the model channel, at the model rate (barge-in, see
+   * {@link RecordingClock.Channel#interrupt}). Only the part still queued ahead of the user channel can be removed;
+   * frames already in the file stay.
+   */
+  public void discardModel(long samples) {
+    if (samples <= 0) {
+      return;
+    }
+    modelSrcPos = Math.max(0, modelSrcPos - samples);
+    long expected = modelSrcPos * targetSampleRate / modelSampleRate;
+    int drop = (int) Math.min(rightPos - expected, right.size());
+    if (drop > 0) {
+      right.dropTail(drop);
+      rightPos -= drop;
+    }
+  }
+
+  /**
+   * Flush what the resamplers still hold, pad the shorter channel to the longer one, write everything and patch the
+   * header.
+   */
+  public void close() throws IOException {
+    try {
+      leftPos += flush(userResampler, left);
+      rightPos += flush(modelResampler, right);
+      long end = Math.max(leftPos, rightPos);
+      left.appendZeros((int) (end - leftPos));
+      right.appendZeros((int) (end - rightPos));
+      leftPos = rightPos = end;
+      drain();
+    } finally {
+      out.close();
+    }
+  }
+
+  private int flush(PcmResampler resampler, SampleQueue queue) {
+    int max = resampler.maxFlushLength();
+    if (outScratch.length < max) {
+      outScratch = new short[max];
+    }
+    int n = resampler.flush(outScratch, 0);
+    queue.append(outScratch, n);
+    return n;
+  }
+
+  /**
+   * Resample pcm into {@link #outScratch}; correction +1 repeats the first sample, -n skips the first n samples.
+   */
+  private int resample(PcmResampler resampler, byte[] pcm, int off, int len, int correction) {
+    int samples = len / BYTES_PER_SAMPLE;
+    int skip = correction < 0 ? Math.min(-correction, samples) : 0;
+    int extra = correction > 0 ? 1 : 0;
+    if (inScratch.length < samples + extra) {
+      inScratch = new short[samples + extra];
+    }
+    PcmKernels.bytesToShorts(pcm, off, inScratch, extra, samples);
+    if (extra > 0 && samples > 0) {
+      inScratch[0] = inScratch[1];
+    }
+    int count = samples + extra - skip;
+    int max = resampler.maxOutputLength(count);
+    if (outScratch.length < max) {
+      outScratch = new short[max];
+    }
+    return resampler.resample(inScratch, skip, count, outScratch, 0);
+  }
+
+  private void drain() throws IOException {
+    int frames = Math.min(left.size(), right.size());
+    if (frames == 0) {
+      return;
+    }
+    if (frameScratch.length < frames * 4) {
+      frameScratch = new byte[frames * 4];
+    }
+    PcmKernels.interleave(left.array(), left.head(), right.array(), right.head(), frameScratch, 0, frames);
+    left.consume(frames);
+    right.consume(frames);
+    out.write(frameScratch, 0, frames * 4);
+  }
+
+  /**
+   * Growable FIFO of samples backed by one array; consumed space is reclaimed by compacting on append.
+   */
+  private static final class SampleQueue {
+    private short[] buf = new short[4096];
+    private int head = 0;
+    private int tail = 0;
+
+    int size() {
+      return tail - head;
+    }
+
+    short[] array() {
+      return buf;
+    }
+
+    int head() {
+      return head;
+    }
+
+    void consume(int n) {
+      head += n;
+      if (head == tail) {
+        head = tail = 0;
+      }
+    }
+
+    void dropTail(int n) {
+      tail -= n;
+      if (head == tail) {
+        head = tail = 0;
+      }
+    }
+
+    void append(short[] src, int n) {
+      ensure(n);
+      System.arraycopy(src, 0, buf, tail, n);
+      tail += n;
+    }
+
+    void appendZeros(int n) {
+      if (n <= 0) {
+        return;
+      }
+      ensure(n);
+      Arrays.fill(buf, tail, tail + n, (short) 0);
+      tail += n;
+    }
+
+    private void ensure(int n) {
+      if (tail + n <= buf.length) {
+        return;
+      }
+      int size = size();
+      if (size + n <= buf.length && head > 0) {
+        System.arraycopy(buf, head, buf, 0, size);
+      } else {
+        short[] bigger = new short[Math.max(buf.length * 2, size + n)];
+        System.arraycopy(buf, head, bigger, 0, size);
+        buf = bigger;
+      }
+      head = 0;
+      tail = size;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package nexus.io.voice.agent.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Block reader for 16-bit little-endian PCM stored as raw .pcm or inside a WAV data chunk. Stereo WAV is down-mixed to
+ * mono by averaging. Only one block buffer is held, so memory does not depend on the file size.
+ *
+ * If the WAV sizes were never patched (recorder crashed), everything after the data chunk header is read.
+ */
+public class PcmFileReader implements Closeable {
+
+  public static final int DEFAULT_BLOCK_SAMPLES = 8192;
+
+  private final FileChannel channel;
+  private final ByteBuffer block;
+  private final int channels;
+  private final long dataEnd;
+  private long position;
+
+  private PcmFileReader(FileChannel channel, long dataStart, long dataEnd, int channels, int blockSamples) {
+    this.channel = channel;
+    this.position = dataStart;
+    this.dataEnd = dataEnd;
+    this.channels = channels;
+    this.block = ByteBuffer.allocateDirect(blockSamples * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  public static PcmFileReader open(Path path) throws IOException {
+    return open(path, DEFAULT_BLOCK_SAMPLES);
+  }
+
+  public static PcmFileReader open(Path path, int blockSamples) throws IOException {
+    FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = ch.size();
+      ByteBuffer head = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(ch, head, 0);
+      if (!isWav(head)) {
+        return new PcmFileReader(ch, 0, size, 1, blockSamples);
+      }
+
+      int channels = 1;
+      int bitsPerSample = 16;
+      long idx = 12;
+      ByteBuffer chunk = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+      while (idx + 8 <= size) {
+        window(chunk, 8);
+        readFully(ch, chunk, idx);
+        int id = chunk.getInt(0);
+        long chunkSize = chunk.getInt(4) & 0xffffffffL;
+        if (id == fourCC("fmt ")) {
+          window(chunk, 16);
+          readFully(ch, chunk, idx + 8);
+          channels = chunk.getShort(2);
+          bitsPerSample = chunk.getShort(14);
+        } else if (id == fourCC("data")) {
+          if (bitsPerSample != 16) {
+            throw new IOException("Only 16-bit WAV supported in this reader. bitsPerSample=" + bitsPerSample);
+          }
+          if (channels != 1 && channels != 2) {
+            throw new IOException("Unsupported channel count: " + channels);
+          }
+          long dataStart = idx + 8;
+          long dataEnd = chunkSize == 0 || dataStart + chunkSize > size ? size : dataStart + chunkSize;
+          return new PcmFileReader(ch, dataStart, dataEnd, channels, blockSamples);
+        }
+        idx += 8 + chunkSize + (chunkSize & 1);
+      }
+      throw new IOException("No data chunk found in WAV");
+    } catch (IOException | RuntimeException e) {
+      ch.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Read the next block of mono samples into dst.
+   *
+   * @return number of samples, or -1 at end of data
+   */
+  public int read(short[] dst, int off, int maxSamples) throws IOException {
+    int frameBytes = channels * 2;
+    long remaining = (dataEnd - position) / frameBytes * frameBytes;
+    if (remaining <= 0) {
+      return -1;
+    }
+    int want = (int) Math.min(Math.min(block.capacity(), remaining), (long) maxSamples * frameBytes);
+    window(block, want);
+    int got = 0;
+    while (block.hasRemaining()) {
+      int r = channel.read(block, position + got);
+      if (r < 0) {
+        break;
+      }
+      got += r;
+    }
+    int frames = got / frameBytes;
+    if (frames == 0) {
+      return -1;
+    }
+    position += (long) frames * frameBytes;
+    ((Buffer) block).flip();
+
+    if (channels == 1) {
+      block.asShortBuffer().get(dst, off, frames);
+    } else {
+      for (int i = 0; i < frames; i++) {
+        int l = block.getShort(i * 4);
+        int r = block.getShort(i * 4 + 2);
+        dst[off + i] = (short) ((l + r) / 2);
+      }
+    }
+    return frames;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private static boolean isWav(ByteBuffer head) {
+    return head.limit() >= 12 && head.getInt(0) == fourCC("RIFF") && head.getInt(8) == fourCC("WAVE");
+  }
+
+  private static int fourCC(String s) {
+    return (s.charAt(0) & 0xff) | (s.charAt(1) & 0xff) << 8 | (s.charAt(2) & 0xff) << 16 | (s.charAt(3) & 0xff) << 24;
+  }
+
+  private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+    while (buf.hasRemaining()) {
+      int r = ch.read(buf, pos);
+      if (r < 0) {
+        break;
+      }
+      pos += r;
+    }
+    ((Buffer) buf).flip();
+  }
+
+  // Buffer casts keep the bytecode runnable on Java 8
+  private static void window(ByteBuffer buf, int limit) {
+    ((Buffer) buf).clear();
+    ((Buffer) buf).limit(limit);
+  }
+}
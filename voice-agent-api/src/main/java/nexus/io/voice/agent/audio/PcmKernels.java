@@ -0,0 +1,245 @@
+package nexus.io.voice.agent.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * PCM16 little-endian conversion kernels shared by the recording, combine and SIP paths.
+ *
+ * Two implementations, picked once at class load:
+ * - bulk: little-endian {@link ByteBuffer} views over the caller's arrays. Short conversions use the bulk
+ *   {@code ShortBuffer.get/put} copies, interleave and down-mix move one stereo frame per 32-bit access. The views cost
+ *   a few dozen bytes of garbage per call that escape analysis does not remove
+ * - scalar: plain per-byte loops, used when {@code -Dvoice.agent.pcm.kernels=scalar} is set or the bulk path fails its
+ *   self check
+ *
+ * Calls shorter than {@link #BULK_MIN_SAMPLES} always take the scalar loops, so per-frame media paths (a 20 ms frame
+ * is at most 960 samples) allocate nothing; bulk saves only a few hundred ns there but pays off on the combiner's large
+ * blocks (PcmKernelsBenchmark).
+ *
+ * Interleaved output is always PCM16 LE stereo (L R L R ...).
+ */
+public class PcmKernels {
+
+  public static final String BULK = "bulk";
+  public static final String SCALAR = "scalar";
+
+  /**
+   * Shortest call, in samples or stereo frames, that uses the bulk implementation
+   */
+  public static final int BULK_MIN_SAMPLES = Integer.getInteger("voice.agent.pcm.kernels.bulk.min", 1024);
+
+  private static final Kernels SCALAR_IMPL = new ScalarKernels();
+  private static final Kernels IMPL = select(System.getProperty("voice.agent.pcm.kernels", BULK));
+
+  /**
+   * Name of the implementation in use
+   */
+  public static String implementation() {
+    return IMPL.name();
+  }
+
+  /**
+   * {@code samples} PCM16 LE samples from {@code src[srcOff]} into {@code dst[dstOff]}
+   */
+  public static void bytesToShorts(byte[] src, int srcOff, short[] dst, int dstOff, int samples) {
+    if (samples > 0) {
+      impl(samples).bytesToShorts(src, srcOff, dst, dstOff, samples);
+    }
+  }
+
+  /**
+   * {@code samples} shorts from {@code src[srcOff]} as PCM16 LE into {@code dst[dstOff]}
+   */
+  public static void shortsToBytes(short[] src, int srcOff, byte[] dst, int dstOff, int samples) {
+    if (samples > 0) {
+      impl(samples).shortsToBytes(src, srcOff, dst, dstOff, samples);
+    }
+  }
+
+  /**
+   * Interleave two mono channels into PCM16 LE stereo bytes. A null channel is written as silence.
+   */
+  public static void interleave(short[] left, int leftOff, short[] right, int rightOff, byte[] dst, int dstOff,
+      int frames) {
+    if (frames <= 0) {
+      return;
+    }
+    if (left == null && right == null) {
+      Arrays.fill(dst, dstOff, dstOff + frames * 4, (byte) 0);
+      return;
+    }
+    impl(frames).interleave(left, leftOff, right, rightOff, dst, dstOff, frames);
+  }
+
+  /**
+   * Average PCM16 LE stereo bytes down to mono shorts
+   */
+  public static void stereoToMono(byte[] src, int srcOff, short[] dst, int dstOff, int frames) {
+    if (frames > 0) {
+      impl(frames).stereoToMono(src, srcOff, dst, dstOff, frames);
+    }
+  }
+
+  private static Kernels impl(int samples) {
+    return samples < BULK_MIN_SAMPLES ? SCALAR_IMPL : IMPL;
+  }
+
+  private static Kernels select(String requested) {
+    if (SCALAR.equalsIgnoreCase(requested)) {
+      return SCALAR_IMPL;
+    }
+    Kernels bulk = new BulkKernels();
+    return selfCheck(bulk) ? bulk : SCALAR_IMPL;
+  }
+
+  /**
+   * Run both implementations on the same odd-offset data and compare.
+   */
+  private static boolean selfCheck(Kernels candidate) {
+    try {
+      Kernels reference = new ScalarKernels();
+      int n = 67;
+      short[] l = new short[n + 1];
+      short[] r = new short[n + 1];
+      for (int i = 0; i < l.length; i++) {
+        l[i] = (short) (i * 977 - 32768);
+        r[i] = (short) (32767 - i * 1231);
+      }
+      byte[] a = new byte[n * 4 + 3];
+      byte[] b = new byte[n * 4 + 3];
+      candidate.interleave(l, 1, r, 1, a, 3, n);
+      reference.interleave(l, 1, r, 1, b, 3, n);
+      if (!Arrays.equals(a, b)) {
+        return false;
+      }
+      short[] x = new short[n + 1];
+      short[] y = new short[n + 1];
+      candidate.stereoToMono(a, 3, x, 1, n);
+      reference.stereoToMono(a, 3, y, 1, n);
+      if (!Arrays.equals(x, y)) {
+        return false;
+      }
+      candidate.bytesToShorts(a, 3, x, 1, n);
+      reference.bytesToShorts(a, 3, y, 1, n);
+      if (!Arrays.equals(x, y)) {
+        return false;
+      }
+      candidate.shortsToBytes(l, 1, a, 3, n);
+      reference.shortsToBytes(l, 1, b, 3, n);
+      return Arrays.equals(a, b);
+    } catch (RuntimeException e) {
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  interface Kernels {
+    String name();
+
+    void bytesToShorts(byte[] src, int srcOff, short[] dst, int dstOff, int samples);
+
+    void shortsToBytes(short[] src, int srcOff, byte[] dst, int dstOff, int samples);
+
+    void interleave(short[] left, int leftOff, short[] right, int rightOff, byte[] dst, int dstOff, int frames);
+
+    void stereoToMono(byte[] src, int srcOff, short[] dst, int dstOff, int frames);
+  }
+
+  static final class ScalarKernels implements Kernels {
+
+    @Override
+    public String name() {
+      return SCALAR;
+    }
+
+    @Override
+    public void bytesToShorts(byte[] src, int srcOff, short[] dst, int dstOff, int samples) {
+      for (int i = 0, j = srcOff; i < samples; i++, j += 2) {
+        dst[dstOff + i] = (short) ((src[j] & 0xff) | (src[j + 1] << 8));
+      }
+    }
+
+    @Override
+    public void shortsToBytes(short[] src, int srcOff, byte[] dst, int dstOff, int samples) {
+      for (int i = 0, j = dstOff; i < samples; i++, j += 2) {
+        int v = src[srcOff + i];
+        dst[j] = (byte) v;
+        dst[j + 1] = (byte) (v >>> 8);
+      }
+    }
+
+    @Override
+    public void interleave(short[] left, int leftOff, short[] right, int rightOff, byte[] dst, int dstOff,
+        int frames) {
+      for (int i = 0, j = dstOff; i < frames; i++, j += 4) {
+        int l = left == null ? 0 : left[leftOff + i];
+        int r = right == null ? 0 : right[rightOff + i];
+        dst[j] = (byte) l;
+        dst[j + 1] = (byte) (l >>> 8);
+        dst[j + 2] = (byte) r;
+        dst[j + 3] = (byte) (r >>> 8);
+      }
+    }
+
+    @Override
+    public void stereoToMono(byte[] src, int srcOff, short[] dst, int dstOff, int frames) {
+      for (int i = 0, j = srcOff; i < frames; i++, j += 4) {
+        int l = (short) ((src[j] & 0xff) | (src[j + 1] << 8));
+        int r = (short) ((src[j + 2] & 0xff) | (src[j + 3] << 8));
+        dst[dstOff + i] = (short) ((l + r) / 2);
+      }
+    }
+  }
+
+  static final class BulkKernels implements Kernels {
+
+    @Override
+    public String name() {
+      return BULK;
+    }
+
+    @Override
+    public void bytesToShorts(byte[] src, int srcOff, short[] dst, int dstOff, int samples) {
+      ByteBuffer.wrap(src, srcOff, samples * 2).slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(dst, dstOff,
+          samples);
+    }
+
+    @Override
+    public void shortsToBytes(short[] src, int srcOff, byte[] dst, int dstOff, int samples) {
+      ByteBuffer.wrap(dst, dstOff, samples * 2).slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(src, srcOff,
+          samples);
+    }
+
+    @Override
+    public void interleave(short[] left, int leftOff, short[] right, int rightOff, byte[] dst, int dstOff,
+        int frames) {
+      // one LE int per frame: low half left, high half right
+      IntBuffer out = ByteBuffer.wrap(dst, dstOff, frames * 4).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+      if (left == null) {
+        for (int i = 0; i < frames; i++) {
+          out.put(i, right[rightOff + i] << 16);
+        }
+      } else if (right == null) {
+        for (int i = 0; i < frames; i++) {
+          out.put(i, left[leftOff + i] & 0xffff);
+        }
+      } else {
+        for (int i = 0; i < frames; i++) {
+          out.put(i, (left[leftOff + i] & 0xffff) | (right[rightOff + i] << 16));
+        }
+      }
+    }
+
+    @Override
+    public void stereoToMono(byte[] src, int srcOff, short[] dst, int dstOff, int frames) {
+      IntBuffer in = ByteBuffer.wrap(src, srcOff, frames * 4).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+      for (int i = 0; i < frames; i++) {
+        int v = in.get(i);
+        dst[dstOff + i] = (short) (((short) v + (v >> 16)) / 2);
+      }
+    }
+  }
+}
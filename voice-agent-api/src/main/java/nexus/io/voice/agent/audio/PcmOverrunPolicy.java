@@ -0,0 +1,15 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * What a bounded {@link PcmRingBuffer} does when a write does not fit.
+ */
+public enum PcmOverrunPolicy {
+  /**
+   * Discard the oldest queued samples to make room, keeping playout close to real time.
+   */
+  DROP_OLDEST,
+  /**
+   * Keep the queued samples and discard the part of the write that does not fit.
+   */
+  DROP_NEWEST
+}
@@ -0,0 +1,50 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * Streaming mono PCM16 resampler. Implementations carry their filter state between calls, so a stream can be fed in
+ * arbitrary chunks, and write into caller owned arrays so the hot path does not allocate.
+ *
+ * Not thread safe: use one instance per stream.
+ */
+public interface PcmResampler {
+
+  int getInputRate();
+
+  int getOutputRate();
+
+  /**
+   * Upper bound of the samples produced by one {@link #resample(short[], int, int, short[], int)} call with
+   * {@code inLen} input samples.
+   */
+  int maxOutputLength(int inLen);
+
+  /**
+   * Resample {@code in[inOff, inOff+inLen)} into {@code out} starting at {@code outOff}.
+   *
+   * @return number of samples written
+   */
+  int resample(short[] in, int inOff, int inLen, short[] out, int outOff);
+
+  /**
+   * Upper bound of the samples produced by {@link #flush(short[], int)}.
+   */
+  default int maxFlushLength() {
+    return 0;
+  }
+
+  /**
+   * End of stream: write out the samples still held back by the filter delay into {@code out} starting at
+   * {@code outOff}, then {@link #reset()}. Without it the last samples of a finite stream (a file) are lost.
+   *
+   * @return number of samples written
+   */
+  default int flush(short[] out, int outOff) {
+    reset();
+    return 0;
+  }
+
+  /**
+   * Forget the carried state, e.g. when a new stream starts.
+   */
+  void reset();
+}
@@ -0,0 +1,21 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * Creates the resampler used by the media paths for a given rate pair.
+ *
+ * Polyphase FIR by default; {@code -Dvoice.agent.resampler=linear} switches back to linear interpolation.
+ */
+public class PcmResamplers {
+
+  public static final String POLYPHASE = "polyphase";
+  public static final String LINEAR = "linear";
+
+  private static final String TYPE = System.getProperty("voice.agent.resampler", POLYPHASE);
+
+  public static PcmResampler create(int inRate, int outRate) {
+    if (LINEAR.equalsIgnoreCase(TYPE)) {
+      return new LinearPcmResampler(inRate, outRate);
+    }
+    return new PolyphasePcmResampler(inRate, outRate);
+  }
+}
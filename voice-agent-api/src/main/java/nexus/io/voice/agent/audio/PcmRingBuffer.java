@@ -0,0 +1,273 @@
+package nexus.io.voice.agent.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free ring buffer of 16-bit PCM samples.
+ *
+ * - one producer thread calls {@link #write(short[], int, int)}
+ * - one consumer thread calls {@link #read(short[], int, int)}
+ * - {@link #truncate()} may be called from any thread
+ *
+ * Positions are monotonically increasing sample counters, the slot is {@code position & mask}. The read position is
+ * advanced with CAS so that the producer (DROP_OLDEST) and {@link #truncate()} can move it without a lock; a consumer
+ * whose CAS fails simply discards what it copied and retries.
+ *
+ * Capacity is rounded up to a power of two. Reads and writes are at most two {@link System#arraycopy} calls and never
+ * allocate.
+ */
+public class PcmRingBuffer {
+
+  private final short[] buffer;
+  private final int capacity;
+  private final int mask;
+  private final PcmOverrunPolicy overrunPolicy;
+  private final int lowWatermark;
+  private final int highWatermark;
+
+  private final AtomicLong readPosition = new AtomicLong(0L);
+  private final AtomicLong writePosition = new AtomicLong(0L);
+
+  // written by the producer only
+  private volatile long overrunSamples = 0L;
+  private volatile long overrunCount = 0L;
+
+  /**
+   * @param minCapacity   minimum number of samples the buffer must hold
+   * @param overrunPolicy behaviour when a write does not fit
+   * @param lowWatermark  depth (samples) at or below which {@link #isBelowLowWatermark()} is true
+   * @param highWatermark depth (samples) at or above which {@link #isAboveHighWatermark()} is true
+   */
+  public PcmRingBuffer(int minCapacity, PcmOverrunPolicy overrunPolicy, int lowWatermark, int highWatermark) {
+    if (minCapacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0: " + minCapacity);
+    }
+    if (minCapacity > (1 << 30)) {
+      throw new IllegalArgumentException("capacity too large: " + minCapacity);
+    }
+    this.capacity = minCapacity == 1 ? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+    this.mask = capacity - 1;
+    this.buffer = new short[capacity];
+    this.overrunPolicy = overrunPolicy == null ? PcmOverrunPolicy.DROP_OLDEST : overrunPolicy;
+    this.lowWatermark = Math.max(0, lowWatermark);
+    this.highWatermark = highWatermark <= 0 ? capacity : Math.min(highWatermark, capacity);
+  }
+
+  public PcmRingBuffer(int minCapacity, PcmOverrunPolicy overrunPolicy) {
+    this(minCapacity, overrunPolicy, 0, 0);
+  }
+
+  /**
+   * Producer side. Appends {@code len} samples from {@code src}.
+   *
+   * @return number of samples actually queued
+   */
+  public int write(short[] src, int off, int len) {
+    if (src == null || len <= 0) {
+      return 0;
+    }
+
+    long dropped = 0L;
+    if (len > capacity) {
+      // more than the whole buffer: only the tail can ever survive
+      if (overrunPolicy == PcmOverrunPolicy.DROP_OLDEST) {
+        dropped += len - capacity;
+        off += len - capacity;
+      } else {
+        dropped += len - capacity;
+      }
+      len = capacity;
+    }
+
+    long w = writePosition.get();
+    int free = capacity - (int) (w - readPosition.get());
+    if (len > free) {
+      if (overrunPolicy == PcmOverrunPolicy.DROP_OLDEST) {
+        dropped += dropOldest(w, len);
+      } else {
+        dropped += len - free;
+        len = free;
+      }
+    }
+
+    if (len > 0) {
+      int start = (int) (w & mask);
+      int first = Math.min(len, capacity - start);
+      System.arraycopy(src, off, buffer, start, first);
+      if (first < len) {
+        System.arraycopy(src, off + first, buffer, 0, len - first);
+      }
+      writePosition.lazySet(w + len);
+    }
+
+    if (dropped > 0) {
+      overrunSamples += dropped;
+      overrunCount++;
+    }
+    return len;
+  }
+
+  /**
+   * Consumer side. Copies up to {@code len} samples into {@code dst}.
+   *
+   * @return number of samples copied (0 when empty)
+   */
+  public int read(short[] dst, int off, int len) {
+    if (dst == null || len <= 0) {
+      return 0;
+    }
+    while (true) {
+      long r = readPosition.get();
+      long w = writePosition.get();
+      int n = (int) Math.min(len, w - r);
+      if (n <= 0) {
+        return 0;
+      }
+      int start = (int) (r & mask);
+      int first = Math.min(n, capacity - start);
+      System.arraycopy(buffer, start, dst, off, first);
+      if (first < n) {
+        System.arraycopy(buffer, 0, dst, off + first, n - first);
+      }
+      if (readPosition.compareAndSet(r, r + n)) {
+        return n;
+      }
+      // producer dropped old samples or buffer was truncated while copying: retry with the new read position
+    }
+  }
+
+  /**
+   * Discard up to {@code len} samples without copying them.
+   *
+   * @return number of samples skipped
+   */
+  public int skip(int len) {
+    if (len <= 0) {
+      return 0;
+    }
+    while (true) {
+      long r = readPosition.get();
+      long w = writePosition.get();
+      int n = (int) Math.min(len, w - r);
+      if (n <= 0) {
+        return 0;
+      }
+      if (readPosition.compareAndSet(r, r + n)) {
+        return n;
+      }
+    }
+  }
+
+  /**
+   * Drop everything queued so far in O(1). Samples written concurrently after the snapshot are kept.
+   *
+   * @return number of samples discarded
+   */
+  public int truncate() {
+    return discardUpTo(writePosition.get());
+  }
+
+  /**
+   * Move the read position forward to {@code position} (a value previously returned by {@link #writePosition()}).
+   *
+   * @return number of samples discarded
+   */
+  public int discardUpTo(long position) {
+    while (true) {
+      long r = readPosition.get();
+      if (position <= r) {
+        return 0;
+      }
+      long target = Math.min(position, writePosition.get());
+      if (target <= r) {
+        return 0;
+      }
+      if (readPosition.compareAndSet(r, target)) {
+        return (int) (target - r);
+      }
+    }
+  }
+
+  /**
+   * Advance the read position until {@code len} samples fit after {@code w}. The shortfall is recomputed from a fresh
+   * read position on every retry, the consumer may have freed part of it meanwhile.
+   */
+  private long dropOldest(long w, int len) {
+    while (true) {
+      long r = readPosition.get();
+      int toDrop = len - (capacity - (int) (w - r));
+      if (toDrop <= 0) {
+        return 0L;
+      }
+      if (readPosition.compareAndSet(r, r + toDrop)) {
+        return toDrop;
+      }
+    }
+  }
+
+  /**
+   * Number of samples currently queued.
+   */
+  public int size() {
+    long r = readPosition.get();
+    long w = writePosition.get();
+    int size = (int) (w - r);
+    return size < 0 ? 0 : size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public boolean isBelowLowWatermark() {
+    return size() <= lowWatermark;
+  }
+
+  public boolean isAboveHighWatermark() {
+    return size() >= highWatermark;
+  }
+
+  public int getLowWatermark() {
+    return lowWatermark;
+  }
+
+  public int getHighWatermark() {
+    return highWatermark;
+  }
+
+  public PcmOverrunPolicy getOverrunPolicy() {
+    return overrunPolicy;
+  }
+
+  /**
+   * Total samples written so far, usable as a mark for {@link #discardUpTo(long)}.
+   */
+  public long writePosition() {
+    return writePosition.get();
+  }
+
+  /**
+   * Total samples consumed or discarded so far.
+   */
+  public long readPosition() {
+    return readPosition.get();
+  }
+
+  /**
+   * Samples lost because of overruns.
+   */
+  public long getOverrunSamples() {
+    return overrunSamples;
+  }
+
+  /**
+   * Number of writes that hit an overrun.
+   */
+  public long getOverrunCount() {
+    return overrunCount;
+  }
+}
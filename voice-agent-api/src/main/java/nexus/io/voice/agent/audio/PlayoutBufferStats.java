@@ -0,0 +1,32 @@
+package nexus.io.voice.agent.audio;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of {@link AdaptivePlayoutBuffer} counters. Depths are in milliseconds at the buffer sample rate.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayoutBufferStats {
+  private int sampleRate;
+  // current queued audio
+  private int depthMs;
+  // pre-buffer depth required before playout starts
+  private int targetDepthMs;
+  // smoothed burst lateness of incoming audio
+  private int jitterMs;
+  private boolean playing;
+  // playout ran dry while the stream was still arriving
+  private long underruns;
+  // writes that did not fit into the buffer
+  private long overruns;
+  private long overrunSamples;
+  private long prebufferCount;
+  private long playedSamples;
+  // barge-in flushes and the samples they discarded
+  private long flushes;
+  private long flushedSamples;
+}
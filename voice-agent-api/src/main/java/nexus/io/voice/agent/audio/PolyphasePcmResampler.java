@@ -0,0 +1,253 @@
+package nexus.io.voice.agent.audio;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming polyphase FIR resampler (Kaiser windowed sinc) with Q15 coefficient tables.
+ *
+ * The rate pair is reduced to {@code L/M} (upsample by L, filter, decimate by M). One output sample is a dot product
+ * of {@link Table#taps} input samples with one of the L coefficient phases, so the inner loop is pure int math over a
+ * contiguous window. Tables depend only on L/M and are built once per ratio and shared by all instances; the ratios
+ * used by the media paths (24k/16k, 24k/8k, 8k/16k, 48k/16k, ...) are built at class load.
+ *
+ * The last {@code taps - 1} input samples are carried between calls. The filter adds a constant group delay of about
+ * {@code taps / 2} input samples; {@link #flush(short[], int)} pushes that much silence through at end of stream so the
+ * tail of a finite input is not lost.
+ */
+public class PolyphasePcmResampler implements PcmResampler {
+
+  /**
+   * Zero crossings of the sinc on each side, measured at the lower of the two rates
+   */
+  private static final int HALF_ZERO_CROSSINGS = 8;
+
+  /**
+   * Pass band edge relative to the lower Nyquist frequency
+   */
+  private static final double CUTOFF = 0.92;
+
+  private static final double KAISER_BETA = 7.0;
+
+  private static final int COEF_BITS = 15;
+  private static final int ROUND = 1 << (COEF_BITS - 1);
+
+  private static final Map<Long, Table> TABLES = new ConcurrentHashMap<>();
+
+  static {
+    int[][] common = { { 24000, 16000 }, { 24000, 8000 }, { 8000, 16000 }, { 48000, 16000 }, { 16000, 8000 },
+        { 16000, 24000 }, { 8000, 24000 }, { 16000, 48000 } };
+    for (int[] r : common) {
+      table(r[0], r[1]);
+    }
+  }
+
+  private final int inRate;
+  private final int outRate;
+  private final Table table;
+
+  // history (taps - 1 samples) followed by the current chunk
+  private short[] window;
+  // position of the next output: input index relative to the current chunk, and filter phase
+  private int inputIndex = 0;
+  private int phase = 0;
+
+  public PolyphasePcmResampler(int inRate, int outRate) {
+    if (inRate <= 0 || outRate <= 0) {
+      throw new IllegalArgumentException("invalid rates: " + inRate + " -> " + outRate);
+    }
+    this.inRate = inRate;
+    this.outRate = outRate;
+    this.table = inRate == outRate ? null : table(inRate, outRate);
+    this.window = new short[table == null ? 0 : table.taps - 1];
+  }
+
+  @Override
+  public int getInputRate() {
+    return inRate;
+  }
+
+  @Override
+  public int getOutputRate() {
+    return outRate;
+  }
+
+  @Override
+  public int maxOutputLength(int inLen) {
+    if (table == null) {
+      return inLen;
+    }
+    return (int) ((long) inLen * table.up / table.down) + 2;
+  }
+
+  @Override
+  public int resample(short[] in, int inOff, int inLen, short[] out, int outOff) {
+    if (inLen <= 0) {
+      return 0;
+    }
+    if (table == null) {
+      System.arraycopy(in, inOff, out, outOff, inLen);
+      return inLen;
+    }
+
+    Table t = this.table;
+    int hist = t.taps - 1;
+    if (window.length < hist + inLen) {
+      short[] grown = new short[hist + inLen];
+      System.arraycopy(window, 0, grown, 0, hist);
+      window = grown;
+    }
+    short[] w = window;
+    System.arraycopy(in, inOff, w, hist, inLen);
+
+    short[][] coefs = t.coefs;
+    int[] nextPhase = t.nextPhase;
+    int[] advance = t.advance;
+    int taps = t.taps;
+
+    int n = inputIndex;
+    int p = phase;
+    int o = outOff;
+    // output for input index n uses w[n, n + taps), i.e. input samples n - taps + 1 .. n
+    while (n < inLen) {
+      short[] c = coefs[p];
+      int acc = ROUND;
+      for (int k = 0; k < taps; k++) {
+        acc += c[k] * w[n + k];
+      }
+      acc >>= COEF_BITS;
+      out[o++] = (short) (acc > Short.MAX_VALUE ? Short.MAX_VALUE : acc < Short.MIN_VALUE ? Short.MIN_VALUE : acc);
+      n += advance[p];
+      p = nextPhase[p];
+    }
+
+    inputIndex = n - inLen;
+    phase = p;
+    // keep the last taps - 1 samples for the next call
+    System.arraycopy(w, inLen, w, 0, hist);
+    return o - outOff;
+  }
+
+  @Override
+  public int maxFlushLength() {
+    return table == null ? 0 : maxOutputLength(table.delay);
+  }
+
+  @Override
+  public int flush(short[] out, int outOff) {
+    if (table == null) {
+      return 0;
+    }
+    // end of stream only, so the silence is not worth keeping around
+    int n = resample(new short[table.delay], 0, table.delay, out, outOff);
+    reset();
+    return n;
+  }
+
+  @Override
+  public void reset() {
+    inputIndex = 0;
+    phase = 0;
+    Arrays.fill(window, (short) 0);
+  }
+
+  private static Table table(int inRate, int outRate) {
+    int g = gcd(inRate, outRate);
+    int up = outRate / g;
+    int down = inRate / g;
+    long key = ((long) up << 32) | down;
+    return TABLES.computeIfAbsent(key, k -> new Table(up, down));
+  }
+
+  private static int gcd(int a, int b) {
+    while (b != 0) {
+      int t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+
+  /**
+   * Coefficients for one L/M ratio. {@code coefs[p][k]} multiplies input sample {@code n - taps + 1 + k} for phase p
+   * (reversed, so the dot product walks the window forwards).
+   */
+  static final class Table {
+    final int up;
+    final int down;
+    final int taps;
+    // group delay rounded up to whole input samples
+    final int delay;
+    final short[][] coefs;
+    // phase after the current one and how many input samples to move on
+    final int[] nextPhase;
+    final int[] advance;
+
+    Table(int up, int down) {
+      this.up = up;
+      this.down = down;
+      int factor = Math.max(up, down);
+      // prototype runs at up * inRate, cutoff at the lower Nyquist
+      int half = HALF_ZERO_CROSSINGS * factor;
+      this.taps = (2 * half + up - 1) / up;
+      int length = taps * up;
+      this.delay = (length - 1 + 2 * up - 1) / (2 * up);
+      double fc = CUTOFF * 0.5 / factor;
+      double center = (length - 1) / 2.0;
+      double i0Beta = bessel0(KAISER_BETA);
+
+      double[] proto = new double[length];
+      for (int i = 0; i < length; i++) {
+        double x = i - center;
+        double sinc = x == 0 ? 2 * fc : Math.sin(2 * Math.PI * fc * x) / (Math.PI * x);
+        double r = x / (center + 1);
+        double win = bessel0(KAISER_BETA * Math.sqrt(Math.max(0.0, 1 - r * r))) / i0Beta;
+        proto[i] = sinc * win;
+      }
+
+      this.coefs = new short[up][taps];
+      for (int p = 0; p < up; p++) {
+        // phase p takes prototype taps p, p + up, p + 2 * up, ... ; normalise each phase to unity DC gain so the
+        // quantised phases do not ripple against each other
+        double sum = 0;
+        for (int j = 0; j < taps; j++) {
+          sum += proto[p + j * up];
+        }
+        double sumAbs = 0;
+        for (int j = 0; j < taps; j++) {
+          double v = proto[p + j * up] / sum;
+          sumAbs += Math.abs(v);
+          long q = Math.round(v * (1 << COEF_BITS));
+          coefs[p][taps - 1 - j] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, q));
+        }
+        // int accumulation must not overflow for full scale input
+        if (sumAbs * (1 << COEF_BITS) * 32768.0 + ROUND >= Integer.MAX_VALUE) {
+          throw new IllegalStateException("filter gain too large for int accumulation: " + up + "/" + down);
+        }
+      }
+
+      this.nextPhase = new int[up];
+      this.advance = new int[up];
+      for (int p = 0; p < up; p++) {
+        int t = p + down;
+        nextPhase[p] = t % up;
+        advance[p] = t / up;
+      }
+    }
+
+    private static double bessel0(double x) {
+      double sum = 1;
+      double term = 1;
+      double half = x / 2;
+      for (int k = 1; k < 50; k++) {
+        term *= (half / k) * (half / k);
+        sum += term;
+        if (term < sum * 1e-12) {
+          break;
+        }
+      }
+      return sum;
+    }
+  }
+}
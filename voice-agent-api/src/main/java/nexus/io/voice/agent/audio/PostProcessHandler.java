@@ -0,0 +1,8 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * 按 {@link PostProcessJob#getType()} 注册到 {@link PostProcessScheduler} 的任务处理器
+ */
+public interface PostProcessHandler {
+  void handle(PostProcessJob job) throws Exception;
+}
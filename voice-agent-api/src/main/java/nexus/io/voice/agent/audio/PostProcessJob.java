@@ -0,0 +1,48 @@
+package nexus.io.voice.agent.audio;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 通话结束后处理任务记录。除 callback 外全部是可以落盘的字符串数据，队列满时整条记录写入 spill 目录。
+ */
+@Data
+@NoArgsConstructor
+public class PostProcessJob {
+  private String id;
+  private String type;
+  private PostProcessPriority priority;
+  private String sessionId;
+  // 提交时间，用于统计排队等待时间
+  private long createdAtMillis;
+  private Map<String, String> params = new LinkedHashMap<>();
+  // 只保存在内存中，进程重启后从 spill 恢复的任务没有 callback
+  private transient AudioFinishCallback callback;
+
+  public static PostProcessJob of(String type, PostProcessPriority priority, String sessionId) {
+    PostProcessJob job = new PostProcessJob();
+    job.setId(UUID.randomUUID().toString().replace("-", ""));
+    job.setType(type);
+    job.setPriority(priority);
+    job.setSessionId(sessionId);
+    job.setCreatedAtMillis(System.currentTimeMillis());
+    return job;
+  }
+
+  public PostProcessJob param(String key, Object value) {
+    params.put(key, String.valueOf(value));
+    return this;
+  }
+
+  public String getParam(String key) {
+    return params.get(key);
+  }
+
+  public int getIntParam(String key) {
+    return Integer.parseInt(params.get(key));
+  }
+}
@@ -0,0 +1,12 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * 通话结束后处理任务的优先级，HIGH 最先执行
+ */
+public enum PostProcessPriority {
+  // 合成录音等直接影响录音可用时间的任务
+  HIGH,
+  NORMAL,
+  // mp3 转码等可以延后的任务
+  LOW
+}
@@ -0,0 +1,264 @@
+package nexus.io.voice.agent.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded priority scheduler for post-call work (stereo combine, mp3 transcode, ...).
+ *
+ * - a fixed number of worker threads, so a burst of finished calls never spawns a thread per call
+ * - jobs run by priority, then by submit order
+ * - at most {@code maxQueued} jobs wait in memory; the rest are written as small property files into the spill
+ *   directory and loaded back, highest priority first, as workers free up
+ * - spill files left over from a previous process are picked up by {@link #recoverSpilled()} once the handlers are
+ *   registered
+ */
+@Slf4j
+public class PostProcessScheduler {
+
+  private static final String SPILL_SUFFIX = ".job";
+
+  private final String name;
+  private final int parallelism;
+  private final int maxQueued;
+  private final Path spillDir;
+
+  private final Map<String, PostProcessHandler> handlers = new ConcurrentHashMap<>();
+  private final PriorityBlockingQueue<Entry> queue = new PriorityBlockingQueue<>();
+
+  // spill file names sort by priority, then sequence
+  private final Object spillLock = new Object();
+  private final TreeSet<String> spilled = new TreeSet<>();
+  private final Map<String, AudioFinishCallback> spilledCallbacks = new ConcurrentHashMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong totalWaitMs = new AtomicLong();
+  private final AtomicLong maxWaitMs = new AtomicLong();
+  private final AtomicLong totalDurationMs = new AtomicLong();
+  private final AtomicLong maxDurationMs = new AtomicLong();
+
+  /**
+   * @param parallelism number of worker threads
+   * @param maxQueued   jobs kept in memory before spilling to disk
+   * @param spillDir    directory for spilled job records
+   */
+  public PostProcessScheduler(String name, int parallelism, int maxQueued, Path spillDir) {
+    this.name = name;
+    this.parallelism = Math.max(1, parallelism);
+    this.maxQueued = Math.max(1, maxQueued);
+    this.spillDir = spillDir;
+
+    for (int i = 0; i < this.parallelism; i++) {
+      Thread t = new Thread(this::workLoop, name + "-" + i);
+      t.setDaemon(true);
+      t.start();
+    }
+  }
+
+  public void registerHandler(String type, PostProcessHandler handler) {
+    handlers.put(type, handler);
+  }
+
+  public void submit(PostProcessJob job) {
+    submitted.incrementAndGet();
+    Entry e = new Entry(job, sequence.incrementAndGet());
+    synchronized (spillLock) {
+      // once something is on disk, new jobs queue behind it there as well, unless they outrank it
+      if (queue.size() < maxQueued && (spilled.isEmpty() || spillKey(e).compareTo(spilled.first()) < 0)) {
+        queue.offer(e);
+        return;
+      }
+      try {
+        spill(e);
+      } catch (IOException ex) {
+        // disk problem: keep the job in memory rather than lose it
+        log.warn("{} spill failed, keeping job {} in memory", name, job.getId(), ex);
+        queue.offer(e);
+      }
+    }
+  }
+
+  /**
+   * Load spill files left by a previous process. Call after all handlers are registered.
+   */
+  public void recoverSpilled() {
+    if (spillDir == null || !Files.isDirectory(spillDir)) {
+      return;
+    }
+    synchronized (spillLock) {
+      try (DirectoryStream<Path> ds = Files.newDirectoryStream(spillDir, "*" + SPILL_SUFFIX)) {
+        for (Path p : ds) {
+          spilled.add(p.getFileName().toString());
+        }
+      } catch (IOException e) {
+        log.error("{} cannot list spill directory {}", name, spillDir, e);
+      }
+    }
+    refill();
+  }
+
+  public PostProcessStats getStats() {
+    long done = completed.get() + failed.get();
+    int spilledCount;
+    synchronized (spillLock) {
+      spilledCount = spilled.size();
+    }
+    return new PostProcessStats(name, parallelism, running.get(), queue.size(), spilledCount, submitted.get(),
+        completed.get(), failed.get(), done == 0 ? 0 : totalWaitMs.get() / done, maxWaitMs.get(),
+        done == 0 ? 0 : totalDurationMs.get() / done, maxDurationMs.get());
+  }
+
+  private void workLoop() {
+    while (true) {
+      Entry e;
+      try {
+        e = queue.take();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      run(e.job);
+      refill();
+    }
+  }
+
+  private void run(PostProcessJob job) {
+    long start = System.currentTimeMillis();
+    long wait = Math.max(0L, start - job.getCreatedAtMillis());
+    running.incrementAndGet();
+    boolean ok = false;
+    try {
+      PostProcessHandler handler = handlers.get(job.getType());
+      if (handler == null) {
+        throw new IllegalStateException("no post-process handler for type " + job.getType());
+      }
+      handler.handle(job);
+      ok = true;
+    } catch (Throwable t) {
+      log.error("{} job failed, type={}, session={}", name, job.getType(), job.getSessionId(), t);
+    } finally {
+      running.decrementAndGet();
+      long duration = System.currentTimeMillis() - start;
+      (ok ? completed : failed).incrementAndGet();
+      totalWaitMs.addAndGet(wait);
+      totalDurationMs.addAndGet(duration);
+      updateMax(maxWaitMs, wait);
+      updateMax(maxDurationMs, duration);
+    }
+  }
+
+  /**
+   * Move spilled jobs back into memory while there is room.
+   */
+  private void refill() {
+    synchronized (spillLock) {
+      while (queue.size() < maxQueued && !spilled.isEmpty()) {
+        String fileName = spilled.pollFirst();
+        Path p = spillDir.resolve(fileName);
+        try {
+          PostProcessJob job = readSpill(p);
+          job.setCallback(spilledCallbacks.remove(job.getId()));
+          queue.offer(new Entry(job, sequence.incrementAndGet()));
+          Files.deleteIfExists(p);
+        } catch (Exception ex) {
+          log.error("{} drop unreadable spill file {}", name, p, ex);
+        }
+      }
+    }
+  }
+
+  private void spill(Entry e) throws IOException {
+    Files.createDirectories(spillDir);
+    PostProcessJob job = e.job;
+    Properties props = new Properties();
+    props.setProperty("id", job.getId());
+    props.setProperty("type", job.getType());
+    props.setProperty("priority", job.getPriority().name());
+    if (job.getSessionId() != null) {
+      props.setProperty("sessionId", job.getSessionId());
+    }
+    props.setProperty("createdAtMillis", Long.toString(job.getCreatedAtMillis()));
+    for (Map.Entry<String, String> p : job.getParams().entrySet()) {
+      props.setProperty("param." + p.getKey(), p.getValue());
+    }
+
+    String fileName = spillKey(e) + SPILL_SUFFIX;
+    Path tmp = spillDir.resolve(fileName + ".tmp");
+    try (OutputStream out = Files.newOutputStream(tmp)) {
+      props.store(out, null);
+    }
+    Files.move(tmp, spillDir.resolve(fileName));
+    if (job.getCallback() != null) {
+      spilledCallbacks.put(job.getId(), job.getCallback());
+    }
+    spilled.add(fileName);
+  }
+
+  private static PostProcessJob readSpill(Path p) throws IOException {
+    Properties props = new Properties();
+    try (InputStream in = Files.newInputStream(p)) {
+      props.load(in);
+    }
+    PostProcessJob job = new PostProcessJob();
+    job.setId(props.getProperty("id"));
+    job.setType(props.getProperty("type"));
+    job.setPriority(PostProcessPriority.valueOf(props.getProperty("priority")));
+    job.setSessionId(props.getProperty("sessionId"));
+    job.setCreatedAtMillis(Long.parseLong(props.getProperty("createdAtMillis")));
+    for (String key : props.stringPropertyNames()) {
+      if (key.startsWith("param.")) {
+        job.getParams().put(key.substring("param.".length()), props.getProperty(key));
+      }
+    }
+    return job;
+  }
+
+  // <priority>-<created>-<seq>: lexical order is priority first, then submit order
+  private static String spillKey(Entry e) {
+    return e.job.getPriority().ordinal() + "-" + String.format("%013d-%010d", e.job.getCreatedAtMillis(), e.seq);
+  }
+
+  private static void updateMax(AtomicLong max, long v) {
+    long cur;
+    while (v > (cur = max.get()) && !max.compareAndSet(cur, v)) {
+      // retry
+    }
+  }
+
+  private static final class Entry implements Comparable<Entry> {
+    private final PostProcessJob job;
+    private final long seq;
+
+    private Entry(PostProcessJob job, long seq) {
+      this.job = job;
+      this.seq = seq;
+    }
+
+    @Override
+    public int compareTo(Entry o) {
+      int c = job.getPriority().compareTo(o.job.getPriority());
+      if (c != 0) {
+        return c;
+      }
+      c = Long.compare(job.getCreatedAtMillis(), o.job.getCreatedAtMillis());
+      return c != 0 ? c : Long.compare(seq, o.seq);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package nexus.io.voice.agent.audio;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of {@link PostProcessScheduler} counters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostProcessStats {
+  private String name;
+  private int parallelism;
+  private int running;
+  // jobs waiting in memory
+  private int queued;
+  // jobs waiting on disk because the memory queue was full
+  private int spilled;
+  private long submitted;
+  private long completed;
+  private long failed;
+  // time from submit to start
+  private long avgWaitMs;
+  private long maxWaitMs;
+  // time from start to end
+  private long avgDurationMs;
+  private long maxDurationMs;
+}
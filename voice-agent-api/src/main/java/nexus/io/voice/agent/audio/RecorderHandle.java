@@ -1,196 +1,271 @@
 package nexus.io.voice.agent.audio;
 
-import java.io.BufferedOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
- * RecorderHandle with time-aligned writes:
- * - sessionStartMillis: reference time for all pads
- * - userSamplesWritten / modelSamplesWritten: counts samples written so far (samples, not bytes)
- * - writeUser/writeModel are synchronized and will insert zero-bytes (silence) if the arrival time
- *   implies there should be earlier samples that haven't been written.
+ * RecorderHandle with time-aligned writes straight into the final WAV files (header with LIST/INFO written up front,
+ * RIFF/data sizes patched on close):
+ * - clock: {@link RecordingClock} started with the session, arrival times are {@link System#nanoTime()}
+ * - userClock: realtime channel, user audio is laid end to end and kept on the source clock (jitter absorbed, drift
+ *   corrected one sample at a time, silence only for real gaps)
+ * - modelClock: playout channel, model audio is placed where the client plays it, not when it arrived; on barge-in
+ *   {@link #interruptModel} removes the part the client never played
+ * - writeUser/writeModel are synchronized and write the silence and correction the clock asks for before the chunk.
+ *
+ * In {@link RecordingMode#LIVE_STEREO} the same placement feeds a {@link LiveStereoRecorder} instead, and the
+ * combined file is complete as soon as the handle is closed.
  *
  * Assumes 16-bit PCM, mono (2 bytes / sample).
  */
 public class RecorderHandle {
+  /**
+   * sample rate of the combined stereo recording
+   */
+  public static final int COMBINED_SAMPLE_RATE = 16000;
+
   public final String sessionId;
+  public final RecordingMode mode;
   public final int userSampleRate;
   public final int modelSampleRate;
-  public final Path userRaw;
-  public final Path modelRaw;
   public final Path userWav;
   public final Path modelWav;
-  public final BufferedOutputStream userOut;
-  public final BufferedOutputStream modelOut;
+  public final Path combinedWav;
+  // SEPARATE mode only
+  public final WavFileWriter userOut;
+  public final WavFileWriter modelOut;
+  // LIVE_STEREO mode only
+  private final LiveStereoRecorder liveStereo;
 
-  // session absolute start time (ms)
-  private final long sessionStartMillis;
+  // media clock of the session, positions in samples per channel
+  private final RecordingClock clock;
+  private final RecordingClock.Channel userClock;
+  private final RecordingClock.Channel modelClock;
 
-  // samples written so far for each channel (in samples, not bytes)
-  private long userSamplesWritten = 0L;
-  private long modelSamplesWritten = 0L;
+  // late writes after close are dropped
+  private boolean closed = false;
 
   // helper: bytes per sample for 16-bit PCM mono
   private static final int BYTES_PER_SAMPLE = 2;
 
   public RecorderHandle(String sessionId, int userSampleRate, int modelSampleRate) throws IOException {
+    this(sessionId, userSampleRate, modelSampleRate, RecordingMode.SEPARATE);
+  }
+
+  public RecorderHandle(String sessionId, int userSampleRate, int modelSampleRate, RecordingMode mode)
+      throws IOException {
     this.sessionId = sessionId;
+    this.mode = mode;
     this.userSampleRate = userSampleRate;
     this.modelSampleRate = modelSampleRate;
-    this.userRaw = Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR, "session-" + sessionId + "_user.pcm");
-    this.modelRaw = Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR, "session-" + sessionId + "_model.pcm");
     this.userWav = Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR, "session-" + sessionId + "_user.wav");
     this.modelWav = Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR, "session-" + sessionId + "_model.wav");
 
+    // 输出合成文件路径：session-<id>-combined-<target>hz-stereo.wav
+    this.combinedWav = Paths.get(SessionAudioConst.RECORDINGS_OUT_DIR,
+        "session-" + sessionId + "-combined-" + COMBINED_SAMPLE_RATE + "hz-stereo.wav");
+
     // ensure directory exists
     Files.createDirectories(Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR));
+    Files.createDirectories(Paths.get(SessionAudioConst.RECORDINGS_OUT_DIR));
 
-    // start fresh: overwrite existing files for new session
-    this.userOut = new BufferedOutputStream(new FileOutputStream(userRaw.toFile(), false));
-    this.modelOut = new BufferedOutputStream(new FileOutputStream(modelRaw.toFile(), false));
+    this.clock = new RecordingClock();
+    this.userClock = clock.realtime(userSampleRate);
+    this.modelClock = clock.playout(modelSampleRate);
 
-    this.sessionStartMillis = System.currentTimeMillis();
-    this.userSamplesWritten = 0L;
-    this.modelSamplesWritten = 0L;
+    // start fresh: overwrite existing files for new session
+    if (mode == RecordingMode.LIVE_STEREO) {
+      this.userOut = null;
+      this.modelOut = null;
+      this.liveStereo = new LiveStereoRecorder(combinedWav, userSampleRate, modelSampleRate, COMBINED_SAMPLE_RATE,
+          infoName(sessionId, "combined"));
+    } else {
+      this.liveStereo = null;
+      this.userOut = new WavFileWriter(userWav, userSampleRate, 1, infoName(sessionId, "user"));
+      try {
+        this.modelOut = new WavFileWriter(modelWav, modelSampleRate, 1, infoName(sessionId, "model"));
+      } catch (IOException e) {
+        userOut.close();
+        throw e;
+      }
+    }
   }
 
   /**
    * Write user PCM (16-bit mono). Synchronized to avoid concurrent pad/write races.
    * pcm - raw bytes (must be multiple of 2)
    */
-  public synchronized void writeUser(byte[] pcm) throws IOException {
-    if (pcm == null || pcm.length == 0) {
+  public void writeUser(byte[] pcm) throws IOException {
+    if (pcm == null) {
       return;
     }
-    // calculate expected samples according to wall-clock
-    long now = System.currentTimeMillis();
-    long expectedSamples = ((now - sessionStartMillis) * userSampleRate) / 1000L;
-    long toPadSamples = expectedSamples - userSamplesWritten;
-    if (toPadSamples > 0) {
-      writeZeros(userOut, toPadSamples * BYTES_PER_SAMPLE);
-      userSamplesWritten += toPadSamples;
+    writeUser(pcm, 0, pcm.length);
+  }
+
+  /**
+   * Write user PCM from pcm[off, off+len). The bytes are consumed before returning, so the caller may reuse the array.
+   */
+  public void writeUser(byte[] pcm, int off, int len) throws IOException {
+    writeUser(pcm, off, len, System.nanoTime());
+  }
+
+  /**
+   * Write user PCM that arrived at {@code arrivalNanos} ({@link System#nanoTime()}). Used by
+   * {@link AsyncRecordingWriter}, which applies chunks later on a writer thread but must still place them by their
+   * arrival time.
+   */
+  public synchronized void writeUser(byte[] pcm, int off, int len, long arrivalNanos) throws IOException {
+    if (closed || pcm == null || len < BYTES_PER_SAMPLE) {
+      return;
     }
-    // write actual pcm
-    userOut.write(pcm);
-    // update sample counter
-    userSamplesWritten += pcm.length / BYTES_PER_SAMPLE;
+    long pad = userClock.place(len / BYTES_PER_SAMPLE, arrivalNanos);
+    int correction = userClock.getCorrection();
+    if (liveStereo != null) {
+      liveStereo.writeUser(pcm, off, len, pad, correction);
+      // the model side may have been quiet, don't let it hold back the user channel
+      liveStereo.padModel(modelClock.idleTo(arrivalNanos));
+      return;
+    }
+    write(userOut, pad, correction, pcm, off, len);
   }
 
   /**
    * Write model PCM (16-bit mono). Synchronized.
    */
-  public synchronized void writeModel(byte[] pcm) throws IOException {
-    if (pcm == null || pcm.length == 0) {
+  public void writeModel(byte[] pcm) throws IOException {
+    if (pcm == null) {
       return;
     }
-    long now = System.currentTimeMillis();
-    long expectedSamples = ((now - sessionStartMillis) * modelSampleRate) / 1000L;
-    long toPadSamples = expectedSamples - modelSamplesWritten;
-    if (toPadSamples > 0) {
-      writeZeros(modelOut, toPadSamples * BYTES_PER_SAMPLE);
-      modelSamplesWritten += toPadSamples;
+    writeModel(pcm, 0, pcm.length, System.nanoTime());
+  }
+
+  /**
+   * Write model PCM from pcm[off, off+len) that arrived at {@code arrivalNanos} ({@link System#nanoTime()}). The chunk
+   * is placed on the playout timeline: right after the previous chunk while the model is speaking.
+   */
+  public synchronized void writeModel(byte[] pcm, int off, int len, long arrivalNanos) throws IOException {
+    if (closed || pcm == null || len < BYTES_PER_SAMPLE) {
+      return;
+    }
+    long pad = modelClock.place(len / BYTES_PER_SAMPLE, arrivalNanos);
+    int correction = modelClock.getCorrection();
+    if (liveStereo != null) {
+      liveStereo.writeModel(pcm, off, len, pad, correction);
+      liveStereo.padUser(userClock.idleTo(arrivalNanos));
+      return;
     }
-    modelOut.write(pcm);
-    modelSamplesWritten += pcm.length / BYTES_PER_SAMPLE;
+    write(modelOut, pad, correction, pcm, off, len);
   }
 
   /**
-   * Ensure stream flushed and closed, then produce wav files (with INFO) and kick off combine.
+   * Barge-in at {@code nowNanos}: model audio placed after now was dropped by the client, take it back out of the
+   * recording so the next answer is placed at its arrival.
    */
-  public Path finishAndClose(AudioFinishCallback callback) {
-    // 1) 关闭流，写出 wav（带 INFO）
-    try {
-      synchronized (this) {
-        // flush any buffered data
-        try {
-          userOut.flush();
-        } catch (IOException ignored) {
-        }
-        try {
-          modelOut.flush();
-        } catch (IOException ignored) {
-        }
-      }
-      userOut.close();
-    } catch (IOException ignored) {
+  public synchronized void interruptModel(long nowNanos) {
+    if (closed) {
+      return;
     }
-    try {
-      modelOut.close();
-    } catch (IOException ignored) {
+    long discard = modelClock.interrupt(nowNanos);
+    if (discard <= 0) {
+      return;
+    }
+    if (liveStereo != null) {
+      liveStereo.discardModel(discard);
+    } else {
+      modelOut.discardTail(discard * BYTES_PER_SAMPLE);
     }
+  }
 
-    try {
-      AudioWavUtils.writeWavFromPcmWithInfo(userRaw.toFile(), userWav.toFile(), userSampleRate, 16, 1, sessionId,
-          "user");
-    } catch (Exception e) {
-      // 这里尽量不要抛出，记录并继续尝试处理另一个文件
-      e.printStackTrace();
+  public RecordingClock.Channel getUserClock() {
+    return userClock;
+  }
+
+  public RecordingClock.Channel getModelClock() {
+    return modelClock;
+  }
+
+  /**
+   * Silence, then the chunk with the clock's correction: +1 writes the first sample twice, -n skips the first n.
+   */
+  private static void write(WavFileWriter out, long padSamples, int correction, byte[] pcm, int off, int len)
+      throws IOException {
+    if (padSamples > 0) {
+      out.writeZeros(padSamples * BYTES_PER_SAMPLE);
     }
-    try {
-      AudioWavUtils.writeWavFromPcmWithInfo(modelRaw.toFile(), modelWav.toFile(), modelSampleRate, 16, 1, sessionId,
-          "model");
-    } catch (Exception e) {
-      e.printStackTrace();
+    if (correction > 0) {
+      out.write(pcm, off, BYTES_PER_SAMPLE);
+    } else if (correction < 0) {
+      int skip = Math.min(-correction * BYTES_PER_SAMPLE, len);
+      off += skip;
+      len -= skip;
     }
+    out.write(pcm, off, len);
+  }
 
-    // 2) 异步合并为 stereo，并把合成文件命名里包含 sessionId
-    // 输出合成文件路径：session-<id>-combined-<target>hz-stereo.wav
-    int targetRate = 16000; // 按需调整
-    Path outCombined = Paths.get(SessionAudioConst.RECORDINGS_OUT_DIR,
-        "session-" + sessionId + "-combined-" + targetRate + "hz-stereo.wav");
+  /**
+   * Flush, patch the WAV headers and close, then kick off combine.
+   */
+  public Path finishAndClose(AudioFinishCallback callback) {
+    // 1) 写出缓冲区并回填 RIFF/data 大小，wav 文件即为最终文件
+    synchronized (this) {
+      closeAll();
+    }
 
-    SessionAudioExecutor.COMBINE_EXECUTOR.submit(() -> {
-      try {
-        // 传入 userWav 和 modelWav（Combiner/SessionAudioCombiner 会识别 wav 并读取采样率）
-        SessionAudioCombiner.combineToStereoWav(sessionId, userWav, userSampleRate, modelWav, modelSampleRate,
-            outCombined, targetRate);
-        if (callback != null) {
-          callback.done(outCombined);
-        }
-
-        // 合成完成后（可选）删除中间 wav 文件
-        // Files.deleteIfExists(userWav);
-        // Files.deleteIfExists(modelWav);
-      } catch (Throwable t) {
-        t.printStackTrace();
-      } finally {
-        // 3) 删除原始 raw pcm
-        try {
-          Files.deleteIfExists(userRaw);
-        } catch (IOException ignored) {
-        }
-        try {
-          Files.deleteIfExists(modelRaw);
-        } catch (IOException ignored) {
-        }
+    Path outCombined = combinedWav;
+    PostProcessJob job;
+    if (liveStereo != null) {
+      // 边录边合成，文件已经完整，只需要异步执行回调（例如转 mp3）
+      if (callback == null) {
+        return outCombined;
       }
-    });
+      job = PostProcessJob.of(SessionAudioExecutor.JOB_NOTIFY, PostProcessPriority.HIGH, sessionId);
+    } else {
+      // 2) 异步合并为 stereo，并把合成文件命名里包含 sessionId
+      job = PostProcessJob.of(SessionAudioExecutor.JOB_COMBINE, PostProcessPriority.HIGH, sessionId)
+          .param("user", userWav).param("userRate", userSampleRate)
+          .param("model", modelWav).param("modelRate", modelSampleRate)
+          .param("targetRate", COMBINED_SAMPLE_RATE);
+    }
+    job.param("out", outCombined);
+    job.setCallback(callback);
+    SessionAudioExecutor.postProcess().submit(job);
     return outCombined;
   }
 
-  public void closeQuietly() {
-    try {
-      userOut.close();
-    } catch (Exception ignore) {
+  public synchronized void closeQuietly() {
+    closeAll();
+  }
+
+  private void closeAll() {
+    if (closed) {
+      return;
     }
-    try {
-      modelOut.close();
-    } catch (Exception ignore) {
+    closed = true;
+    if (liveStereo != null) {
+      try {
+        liveStereo.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+      return;
     }
+    closeWriter(userOut);
+    closeWriter(modelOut);
   }
 
-  // ---------- helper: write zero bytes ----------
-  private void writeZeros(BufferedOutputStream out, long bytesToWrite) throws IOException {
-    final int chunk = 4096;
-    byte[] zeros = new byte[chunk];
-    while (bytesToWrite > 0) {
-      int w = (int) Math.min(chunk, bytesToWrite);
-      out.write(zeros, 0, w);
-      bytesToWrite -= w;
+  private static void closeWriter(WavFileWriter out) {
+    try {
+      out.close();
+    } catch (IOException e) {
+      // 这里尽量不要抛出，记录并继续处理另一个文件
+      e.printStackTrace();
     }
   }
-}
\ No newline at end of file
+
+  // INAM = "session:<sessionId>;role:<role>"
+  private static String infoName(String sessionId, String role) {
+    return "session:" + sessionId + ";role:" + role;
+  }
+}
@@ -0,0 +1,320 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * Media clock for one recording. Positions are sample counts per channel; arrival times are {@link System#nanoTime()}
+ * relative to the clock start, so NTP steps do not move anything.
+ *
+ * Two kinds of channel:
+ * - {@link #realtime}: a live source with its own sample clock (the caller's microphone). Chunks are laid end to end;
+ *   arrival jitter is absorbed by tracking the lowest lateness seen in a sliding window instead of padding every late
+ *   chunk. Silence is inserted only for a real gap (no audio for {@link #GAP_MS}) or a lateness step that persisted
+ *   for a whole window. Slow drift between the source clock and ours is corrected one sample per chunk (repeat or drop
+ *   the first sample), which is inaudible.
+ * - {@link #playout}: bursty model audio. A chunk starts where the previous one ended, or at its arrival (plus the
+ *   client's playout lead) if the channel was idle, i.e. where the client actually plays it. On barge-in the client
+ *   drops what it has not played yet, {@link Channel#interrupt} moves the position back to now to match.
+ *
+ * Not thread safe: {@link RecorderHandle} serializes all calls.
+ */
+public class RecordingClock {
+
+  /**
+   * Lateness above the floor that counts as a gap in a live source rather than jitter
+   */
+  public static final int GAP_MS = Integer.getInteger("voice.agent.recording.gap.ms", 1000);
+
+  /**
+   * Window of the lateness floor; drift is measured against the floor of the first window
+   */
+  public static final int WINDOW_MS = Integer.getInteger("voice.agent.recording.window.ms", 10_000);
+
+  /**
+   * Drift below this is left alone
+   */
+  public static final int DEADBAND_MS = Integer.getInteger("voice.agent.recording.deadband.ms", 2);
+
+  /**
+   * A floor shift above this is a step (e.g. a short pause in sending), not drift, and is fixed in one go
+   */
+  public static final int STEP_MS = Integer.getInteger("voice.agent.recording.step.ms", 40);
+
+  /**
+   * How long the client buffers model audio before it starts playing
+   */
+  public static final int PLAYOUT_LEAD_MS = Integer.getInteger("voice.agent.recording.playout.lead.ms", 0);
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final long NANOS_PER_MS = 1_000_000L;
+
+  private final long startNanos;
+
+  public RecordingClock() {
+    this(System.nanoTime());
+  }
+
+  public RecordingClock(long startNanos) {
+    this.startNanos = startNanos;
+  }
+
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  public Channel realtime(int sampleRate) {
+    return new Channel(this, sampleRate, true);
+  }
+
+  public Channel playout(int sampleRate) {
+    return new Channel(this, sampleRate, false);
+  }
+
+  public static final class Channel {
+    private final RecordingClock clock;
+    private final int sampleRate;
+    private final boolean realtime;
+
+    // samples placed so far, including inserted silence and corrections
+    private long position = 0L;
+    private int correction = 0;
+
+    // realtime only: lateness = arrival - media time of the chunk start
+    private boolean started = false;
+    private long firstNanos;
+    private long windowStartNanos;
+    private long currentMin;
+    private long previousMin;
+    private boolean targetSet = false;
+    private long targetLateness;
+    // drift estimate, refreshed each half window
+    private long driftRefNanos;
+    private long driftRefFloor;
+    private double driftPpm = 0.0;
+
+    // stats
+    private long paddedSamples = 0L;
+    private long insertedSamples = 0L;
+    private long droppedSamples = 0L;
+    private long discardedSamples = 0L;
+
+    private Channel(RecordingClock clock, int sampleRate, boolean realtime) {
+      this.clock = clock;
+      this.sampleRate = sampleRate;
+      this.realtime = realtime;
+    }
+
+    /**
+     * Place a chunk of {@code samples} that arrived at {@code arrivalNanos}.
+     *
+     * @return samples of silence to write before the chunk; then apply {@link #getCorrection()} to the chunk itself
+     */
+    public long place(int samples, long arrivalNanos) {
+      long t = arrivalNanos - clock.startNanos;
+      correction = 0;
+      long pad = realtime ? placeRealtime(samples, t) : placePlayout(t);
+      paddedSamples += pad;
+      position += pad + samples + correction;
+      return pad;
+    }
+
+    /**
+     * Correction for the chunk just placed: +1 means write its first sample twice, -n means skip its first n samples
+     */
+    public int getCorrection() {
+      return correction;
+    }
+
+    /**
+     * Silence to write so that this channel is not behind {@code nowNanos} while it has nothing to send, so the other
+     * channel of a stereo file never waits for it. A live source is only padded once it has been quiet for a gap.
+     */
+    public long idleTo(long nowNanos) {
+      long t = nowNanos - clock.startNanos;
+      long expected;
+      if (!realtime || !started) {
+        expected = samplesAt(t);
+      } else {
+        long lateness = t - mediaNanos(position);
+        if (lateness - floor() <= GAP_MS * NANOS_PER_MS) {
+          return 0;
+        }
+        expected = samplesAt(t - floor());
+      }
+      long pad = expected - position;
+      if (pad <= 0) {
+        return 0;
+      }
+      position += pad;
+      paddedSamples += pad;
+      return pad;
+    }
+
+    /**
+     * Barge-in at {@code nowNanos}: the client stops playing and drops what is still queued. A playout channel placed
+     * past now moves back to now, so the next answer starts at its arrival instead of after the dropped tail.
+     *
+     * @return samples placed after now that were never played; the caller removes them from what it wrote. Always 0
+     *         for a realtime channel.
+     */
+    public long interrupt(long nowNanos) {
+      if (realtime) {
+        return 0;
+      }
+      long t = nowNanos - clock.startNanos;
+      long discard = position - samplesAt(t + PLAYOUT_LEAD_MS * NANOS_PER_MS);
+      if (discard <= 0) {
+        return 0;
+      }
+      position -= discard;
+      discardedSamples += discard;
+      return discard;
+    }
+
+    private long placePlayout(long t) {
+      long start = samplesAt(t + PLAYOUT_LEAD_MS * NANOS_PER_MS);
+      return Math.max(0, start - position);
+    }
+
+    private long placeRealtime(int samples, long t) {
+      if (!started) {
+        // first chunk starts at its arrival, like the old wall-clock placement
+        started = true;
+        long pad = Math.max(0, samplesAt(t) - position);
+        long lateness = t - mediaNanos(position + pad);
+        firstNanos = windowStartNanos = t;
+        currentMin = previousMin = lateness;
+        driftRefNanos = t;
+        driftRefFloor = lateness;
+        return pad;
+      }
+
+      long pad = 0;
+      long lateness = t - mediaNanos(position);
+      long floor = floor();
+      if (lateness - floor > GAP_MS * NANOS_PER_MS) {
+        // the source stopped sending; resume on the floor
+        pad = samplesFor(lateness - floor);
+        lateness -= mediaNanos(pad);
+      }
+      observe(lateness, t);
+
+      if (!targetSet) {
+        if (t - firstNanos >= WINDOW_MS * NANOS_PER_MS) {
+          targetSet = true;
+          targetLateness = floor();
+        }
+        return pad;
+      }
+
+      // error > 0: samples are placed earlier than they are heard (source clock slow or a short pause)
+      long error = floor() - targetLateness;
+      if (error > STEP_MS * NANOS_PER_MS) {
+        long step = samplesFor(error);
+        pad += step;
+        shiftFloor(mediaNanos(step));
+      } else if (error > DEADBAND_MS * NANOS_PER_MS) {
+        correction = 1;
+        insertedSamples++;
+        shiftFloor(mediaNanos(1));
+      } else if (error < -DEADBAND_MS * NANOS_PER_MS && samples > 1) {
+        // placed later than heard: drop 1 sample per chunk, up to 1% while recovering from a large offset
+        int drop = error < -STEP_MS * NANOS_PER_MS ? Math.max(1, samples / 100) : 1;
+        drop = (int) Math.min(drop, samplesFor(-error));
+        correction = -drop;
+        droppedSamples += drop;
+        shiftFloor(-mediaNanos(drop));
+      }
+      return pad;
+    }
+
+    private void observe(long lateness, long t) {
+      if (lateness < currentMin) {
+        currentMin = lateness;
+      }
+      if (t - windowStartNanos >= WINDOW_MS * NANOS_PER_MS / 2) {
+        // the reference floor is shifted with every correction, so the difference is the uncorrected drift
+        long floor = floor();
+        long dt = t - driftRefNanos;
+        if (dt > 0) {
+          double ppm = (floor - driftRefFloor) * 1e6 / dt;
+          driftPpm = driftPpm == 0.0 ? ppm : driftPpm * 0.8 + ppm * 0.2;
+        }
+        driftRefNanos = t;
+        driftRefFloor = floor;
+
+        previousMin = currentMin;
+        currentMin = lateness;
+        windowStartNanos = t;
+      }
+    }
+
+    /**
+     * Placing extra samples before later chunks lowers their lateness by the same amount; shift what we already
+     * observed so the floor does not ask for the same correction again.
+     */
+    private void shiftFloor(long nanos) {
+      currentMin -= nanos;
+      previousMin -= nanos;
+      driftRefFloor -= nanos;
+    }
+
+    private long floor() {
+      return Math.min(currentMin, previousMin);
+    }
+
+    private long samplesAt(long nanos) {
+      return nanos <= 0 ? 0 : nanos * sampleRate / NANOS_PER_SECOND;
+    }
+
+    private long samplesFor(long nanos) {
+      return nanos <= 0 ? 0 : (nanos * sampleRate + NANOS_PER_SECOND / 2) / NANOS_PER_SECOND;
+    }
+
+    private long mediaNanos(long samples) {
+      return samples * NANOS_PER_SECOND / sampleRate;
+    }
+
+    public int getSampleRate() {
+      return sampleRate;
+    }
+
+    public long getPosition() {
+      return position;
+    }
+
+    public long getPaddedSamples() {
+      return paddedSamples;
+    }
+
+    public long getInsertedSamples() {
+      return insertedSamples;
+    }
+
+    public long getDroppedSamples() {
+      return droppedSamples;
+    }
+
+    /**
+     * Samples taken back by {@link #interrupt}
+     */
+    public long getDiscardedSamples() {
+      return discardedSamples;
+    }
+
+    /**
+     * Estimated source clock drift against ours, positive when the source is slow
+     */
+    public double getDriftPpm() {
+      return driftPpm;
+    }
+
+    /**
+     * Current lateness floor minus the reference floor, in ms; stays near 0 while the channel is aligned
+     */
+    public double getAlignmentErrorMs() {
+      if (!realtime || !targetSet) {
+        return 0.0;
+      }
+      return (floor() - targetLateness) / (double) NANOS_PER_MS;
+    }
+  }
+}
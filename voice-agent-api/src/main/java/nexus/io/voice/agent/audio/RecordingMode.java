@@ -0,0 +1,15 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * How {@link RecorderHandle} lays out a session recording.
+ */
+public enum RecordingMode {
+  /**
+   * user and model WAV files, combined to stereo after the call
+   */
+  SEPARATE,
+  /**
+   * one stereo WAV (left=user, right=model) mixed while recording, ready when the call ends
+   */
+  LIVE_STEREO
+}
@@ -11,6 +11,7 @@ import java.nio.file.Path;
 
 /**
  * Pure Java utility:
+ * - combine a user and a model recording into one stereo WAV (left=user, right=model), streaming block by block
  * - read PCM/WAV (16-bit little-endian, mono) into short[]
  * - resample short[] by linear interpolation
  * - interleave two mono streams into stereo short[]
@@ -29,29 +30,98 @@ import java.nio.file.Path;
  */
 public class SessionAudioCombiner {
 
+  /**
+   * Stereo frames written per block
+   */
+  private static final int STEREO_BLOCK_FRAMES = 8192;
+
   // ---------- High level combine function ----------
+  /**
+   * Streams both inputs through {@link PcmFileReader} and a streaming resampler and writes the interleaved result
+   * through {@link WavFileWriter}. Heap use is a few fixed-size blocks regardless of the call length. The shorter side
+   * is padded with silence.
+   */
   public static Path combineToStereoWav(String sessionId, Path userPcmOrWav, int userSampleRate, Path modelPcmOrWav,
       int modelSampleRate, Path outWav, int targetSampleRate) throws IOException {
-    short[] user = readPcm16Mono(userPcmOrWav);
-    short[] model = readPcm16Mono(modelPcmOrWav);
+    try (PcmFileReader userIn = PcmFileReader.open(userPcmOrWav);
+        PcmFileReader modelIn = PcmFileReader.open(modelPcmOrWav);
+        WavFileWriter out = new WavFileWriter(outWav, targetSampleRate, 2, null)) {
 
-    // resample to targetSampleRate if needed
-    if (userSampleRate != targetSampleRate) {
-      user = resampleLinear(user, userSampleRate, targetSampleRate);
-    }
-    if (modelSampleRate != targetSampleRate) {
-      model = resampleLinear(model, modelSampleRate, targetSampleRate);
-    }
+      MonoStream left = new MonoStream(userIn, userSampleRate, targetSampleRate);
+      MonoStream right = new MonoStream(modelIn, modelSampleRate, targetSampleRate);
+      byte[] stereo = new byte[STEREO_BLOCK_FRAMES * 4];
 
-    // make stereo interleaved: left=user, right=model
-    short[] stereo = interleaveToStereo(user, model);
+      while (true) {
+        boolean hasLeft = left.fill();
+        boolean hasRight = right.fill();
+        if (!hasLeft && !hasRight) {
+          break;
+        }
 
-    // write wav (16-bit LE, stereo)
-    writeWav16BitLE(outWav.toFile(), stereo, targetSampleRate, 2);
+        int frames;
+        if (hasLeft && hasRight) {
+          frames = Math.min(left.available(), right.available());
+        } else {
+          frames = hasLeft ? left.available() : right.available();
+        }
+        frames = Math.min(frames, STEREO_BLOCK_FRAMES);
 
+        PcmKernels.interleave(hasLeft ? left.out : null, left.pos, hasRight ? right.out : null, right.pos, stereo, 0,
+            frames);
+        if (hasLeft) {
+          left.pos += frames;
+        }
+        if (hasRight) {
+          right.pos += frames;
+        }
+        out.write(stereo, 0, frames * 4);
+      }
+    }
     return outWav;
   }
 
+  /**
+   * One input channel: block reader + streaming resampler + the resampled block being consumed.
+   */
+  private static final class MonoStream {
+    private final PcmFileReader reader;
+    private final PcmResampler resampler;
+    private final short[] in = new short[PcmFileReader.DEFAULT_BLOCK_SAMPLES];
+    private final short[] out;
+    private int pos = 0;
+    private int len = 0;
+    private boolean eof = false;
+
+    private MonoStream(PcmFileReader reader, int inRate, int outRate) {
+      this.reader = reader;
+      this.resampler = PcmResamplers.create(inRate, outRate);
+      this.out = new short[Math.max(resampler.maxOutputLength(in.length), resampler.maxFlushLength())];
+    }
+
+    /**
+     * @return false once the input is exhausted and everything has been consumed
+     */
+    private boolean fill() throws IOException {
+      while (pos == len && !eof) {
+        int n = reader.read(in, 0, in.length);
+        if (n < 0) {
+          // the filter still holds the last group delay worth of input
+          len = resampler.flush(out, 0);
+          pos = 0;
+          eof = true;
+        } else {
+          len = resampler.resample(in, 0, n, out, 0);
+          pos = 0;
+        }
+      }
+      return pos < len;
+    }
+
+    private int available() {
+      return len - pos;
+    }
+  }
+
   // ---------- Read utilities ----------
   // Supports raw pcm (s16le mono) or wav (reads data chunk only)
   public static short[] readPcm16Mono(Path path) throws IOException {
@@ -96,21 +166,13 @@ public class SessionAudioCombiner {
         int dataStart = idx + 8;
         int bytes = chunkSize;
         if (channels == 1) {
-          byte[] pcm = new byte[bytes];
-          System.arraycopy(wav, dataStart, pcm, 0, bytes);
-          return bytesToShortsLE(pcm);
+          short[] mono = new short[bytes / 2];
+          PcmKernels.bytesToShorts(wav, dataStart, mono, 0, mono.length);
+          return mono;
         } else if (channels == 2) {
-          // convert stereo to mono by taking left channel (or average)
-          byte[] pcm = new byte[bytes];
-          System.arraycopy(wav, dataStart, pcm, 0, bytes);
-          short[] stereo = bytesToShortsLE(pcm);
-          short[] mono = new short[stereo.length / 2];
-          for (int i = 0, j = 0; i < mono.length; i++, j += 2) {
-            // average left & right to mono to be safe
-            int l = stereo[j];
-            int r = stereo[j + 1];
-            mono[i] = (short) ((l + r) / 2);
-          }
+          // convert stereo to mono by averaging left & right
+          short[] mono = new short[bytes / 4];
+          PcmKernels.stereoToMono(wav, dataStart, mono, 0, mono.length);
           return mono;
         } else {
           throw new IOException("Unsupported channel count: " + channels);
@@ -123,28 +185,19 @@ public class SessionAudioCombiner {
 
   // ---------- Conversion helpers ----------
   private static short[] bytesToShortsLE(byte[] buf) {
-    int n = buf.length / 2;
-    short[] s = new short[n];
-    for (int i = 0; i < n; i++) {
-      int low = buf[2 * i] & 0xff;
-      int high = buf[2 * i + 1]; // signed
-      s[i] = (short) ((high << 8) | low);
-    }
+    short[] s = new short[buf.length / 2];
+    PcmKernels.bytesToShorts(buf, 0, s, 0, s.length);
     return s;
   }
 
   private static byte[] shortsToBytesLE(short[] s) {
     byte[] b = new byte[s.length * 2];
-    for (int i = 0; i < s.length; i++) {
-      int v = s[i];
-      b[2 * i] = (byte) (v & 0xff);
-      b[2 * i + 1] = (byte) ((v >>> 8) & 0xff);
-    }
+    PcmKernels.shortsToBytes(s, 0, b, 0, s.length);
     return b;
   }
 
   // ---------- Resampling by linear interpolation ----------
-  // inRate -> outRate
+  // inRate -> outRate, whole-array helper kept for callers of the old API; streaming paths use PcmResamplers
   public static short[] resampleLinear(short[] in, int inRate, int outRate) {
     if (inRate == outRate)
       return in;
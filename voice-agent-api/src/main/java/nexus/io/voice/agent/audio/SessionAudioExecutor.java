@@ -1,5 +1,7 @@
 package nexus.io.voice.agent.audio;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -17,5 +19,90 @@ public class SessionAudioExecutor {
     }
   };
 
+  /**
+   * @deprecated 无上限的线程池，通话结束后的合成/转码请提交到 {@link #postProcess()}
+   */
+  @Deprecated
   public static final ExecutorService COMBINE_EXECUTOR = Executors.newCachedThreadPool(FACTORY);
-}
\ No newline at end of file
+
+  /**
+   * 内置的后处理任务类型
+   */
+  public static final String JOB_COMBINE = "combine";
+  public static final String JOB_NOTIFY = "notify";
+
+  private static volatile int postProcessParallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  private static volatile int postProcessMaxQueued = 200;
+  private static volatile Path postProcessSpillDir = Paths.get("temp", "voice-postprocess");
+  private static volatile PostProcessScheduler postProcess;
+
+  /**
+   * 录音写盘线程数，-Dvoice.agent.recording.writer.threads 可调整
+   */
+  public static final int RECORDING_WRITER_THREADS = Math.max(1,
+      Integer.getInteger("voice.agent.recording.writer.threads", 2));
+
+  /**
+   * 所有会话共用的录音写盘线程，由 {@link AsyncRecordingWriter} 使用
+   */
+  public static final ExecutorService RECORDING_WRITE_EXECUTOR = Executors
+      .newFixedThreadPool(RECORDING_WRITER_THREADS, new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r);
+          t.setName("session-audio-writer-" + counter.getAndIncrement());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+
+  /**
+   * 修改后处理线程数、内存队列长度和 spill 目录，必须在第一次调用 {@link #postProcess()} 之前执行
+   */
+  public static synchronized void configurePostProcess(int parallelism, int maxQueued, Path spillDir) {
+    if (postProcess != null) {
+      throw new IllegalStateException("post-process scheduler already started");
+    }
+    postProcessParallelism = parallelism;
+    postProcessMaxQueued = maxQueued;
+    postProcessSpillDir = spillDir;
+  }
+
+  /**
+   * 通话结束后的合成、转码等任务共用的有界调度器，第一次使用时创建并注册内置任务类型
+   */
+  public static PostProcessScheduler postProcess() {
+    PostProcessScheduler s = postProcess;
+    if (s == null) {
+      synchronized (SessionAudioExecutor.class) {
+        s = postProcess;
+        if (s == null) {
+          s = new PostProcessScheduler("session-audio-postprocess", postProcessParallelism, postProcessMaxQueued,
+              postProcessSpillDir);
+          s.registerHandler(JOB_COMBINE, SessionAudioExecutor::combine);
+          s.registerHandler(JOB_NOTIFY, SessionAudioExecutor::runCallback);
+          postProcess = s;
+        }
+      }
+    }
+    return s;
+  }
+
+  private static void combine(PostProcessJob job) throws Exception {
+    Path out = Paths.get(job.getParam("out"));
+    SessionAudioCombiner.combineToStereoWav(job.getSessionId(), Paths.get(job.getParam("user")),
+        job.getIntParam("userRate"), Paths.get(job.getParam("model")), job.getIntParam("modelRate"), out,
+        job.getIntParam("targetRate"));
+    if (job.getCallback() != null) {
+      job.getCallback().done(out);
+    }
+  }
+
+  private static void runCallback(PostProcessJob job) {
+    if (job.getCallback() != null) {
+      job.getCallback().done(Paths.get(job.getParam("out")));
+    }
+  }
+}
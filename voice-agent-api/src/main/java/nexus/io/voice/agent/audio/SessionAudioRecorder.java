@@ -7,9 +7,12 @@ import java.nio.file.Paths;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+/**
+ * 会话录音入口。append* 只把音频块放进会话的 {@link AsyncRecordingWriter} 队列，不在调用线程上做磁盘 I/O。
+ */
 public class SessionAudioRecorder {
 
-  private static final ConcurrentMap<String, RecorderHandle> handles = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, AsyncRecordingWriter> handles = new ConcurrentHashMap<>();
 
   static {
     try {
@@ -21,46 +24,81 @@ public class SessionAudioRecorder {
   }
 
   public static void start(String sessionId, int userSampleRate, int modelSampleRate) throws IOException {
-    RecorderHandle h = new RecorderHandle(sessionId, userSampleRate, modelSampleRate);
-    RecorderHandle old = handles.put(sessionId, h);
+    start(sessionId, userSampleRate, modelSampleRate, RecordingMode.SEPARATE);
+  }
+
+  public static void start(String sessionId, int userSampleRate, int modelSampleRate, RecordingMode mode)
+      throws IOException {
+    RecorderHandle h = new RecorderHandle(sessionId, userSampleRate, modelSampleRate, mode);
+    AsyncRecordingWriter w = new AsyncRecordingWriter(h, SessionAudioExecutor.RECORDING_WRITE_EXECUTOR);
+    AsyncRecordingWriter old = handles.put(sessionId, w);
     if (old != null) {
       old.closeQuietly();
     }
   }
 
+  /**
+   * 先写完已排队的音频再关闭文件并合成，返回合成文件路径（异步生成）
+   */
   public static Path stop(String sessionId, AudioFinishCallback callback) {
-    RecorderHandle h = handles.remove(sessionId);
-    if (h != null) {
-      return h.finishAndClose(callback);
+    AsyncRecordingWriter w = handles.remove(sessionId);
+    if (w != null) {
+      return w.stop(callback);
     }
     return null;
   }
 
+  /**
+   * pcm16k 交给录音线程，调用方之后不能再修改该数组
+   */
   public static void appendUserPcm(String sessionId, byte[] pcm16k) throws IOException {
-    RecorderHandle h = handles.get(sessionId);
-    if (h != null) {
-      h.writeUser(pcm16k);
+    AsyncRecordingWriter w = handles.get(sessionId);
+    if (w != null) {
+      w.appendUser(pcm16k);
+    }
+  }
+
+  /**
+   * 拷贝 pcm16k[off, off+len)，调用方可以立即复用数组
+   */
+  public static void appendUserPcm(String sessionId, byte[] pcm16k, int off, int len) throws IOException {
+    AsyncRecordingWriter w = handles.get(sessionId);
+    if (w != null) {
+      w.appendUser(pcm16k, off, len);
     }
   }
 
+  /**
+   * pcm 交给录音线程，调用方之后不能再修改该数组
+   */
   public static void appendModelPcm(String sessionId, byte[] pcm) throws IOException {
-    RecorderHandle h = handles.get(sessionId);
-    if (h != null) {
-      h.writeModel(pcm);
+    AsyncRecordingWriter w = handles.get(sessionId);
+    if (w != null) {
+      w.appendModel(pcm);
+    }
+  }
+
+  /**
+   * 用户打断：客户端丢弃了尚未播放的模型音频，录音里也去掉这部分
+   */
+  public static void interruptModel(String sessionId) {
+    AsyncRecordingWriter w = handles.get(sessionId);
+    if (w != null) {
+      w.interruptModel();
     }
   }
 
   public static Path getUserWavPath(String sessionId) {
-    RecorderHandle h = handles.get(sessionId);
-    if (h != null)
-      return h.userWav;
+    AsyncRecordingWriter w = handles.get(sessionId);
+    if (w != null)
+      return w.getHandle().userWav;
     return Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR, "session-" + sessionId + "_user.wav");
   }
 
   public static Path getModelWavPath(String sessionId) {
-    RecorderHandle h = handles.get(sessionId);
-    if (h != null)
-      return h.modelWav;
+    AsyncRecordingWriter w = handles.get(sessionId);
+    if (w != null)
+      return w.getHandle().modelWav;
     return Paths.get(SessionAudioConst.TEMP_RECORDINGS_OUT_DIR, "session-" + sessionId + "_model.wav");
   }
 
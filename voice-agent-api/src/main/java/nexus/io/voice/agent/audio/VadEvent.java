@@ -0,0 +1,8 @@
+package nexus.io.voice.agent.audio;
+
+/**
+ * Transition reported by {@link EnergyVad#process(short[], int)} for one frame.
+ */
+public enum VadEvent {
+  NONE, SPEECH_START, SPEECH_STOP
+}
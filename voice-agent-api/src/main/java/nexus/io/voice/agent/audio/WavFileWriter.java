@@ -0,0 +1,219 @@
+package nexus.io.voice.agent.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming 16-bit PCM WAV writer. The header (fmt, optional LIST/INFO with INAM, data) is written up front with zero
+ * sizes; {@link #close()} patches the RIFF and data sizes in place with positional writes, so the audio is never
+ * copied a second time.
+ *
+ * Small writes are collected in a direct buffer and flushed as large sequential writes. Not thread safe.
+ */
+public class WavFileWriter implements Closeable {
+
+  private static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+  private static final byte[] ZEROS = new byte[4096];
+
+  private final Path path;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int sampleRate;
+  private final int channels;
+  private final long dataSizeOffset;
+  private final long dataStart;
+  private long dataBytes = 0L;
+  private boolean closed = false;
+
+  /**
+   * @param infoName value of the LIST/INFO INAM tag, null for a plain header
+   */
+  public WavFileWriter(Path path, int sampleRate, int channels, String infoName) throws IOException {
+    this(path, sampleRate, channels, infoName, DEFAULT_BUFFER_BYTES);
+  }
+
+  public WavFileWriter(Path path, int sampleRate, int channels, String infoName, int bufferBytes) throws IOException {
+    this.path = path;
+    this.sampleRate = sampleRate;
+    this.channels = channels;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE);
+    this.buffer = ByteBuffer.allocateDirect(Math.max(4096, bufferBytes)).order(ByteOrder.LITTLE_ENDIAN);
+
+    try {
+      ByteBuffer header = buildHeader(sampleRate, channels, infoName);
+      this.dataStart = header.limit();
+      this.dataSizeOffset = dataStart - 4;
+      writeFully(header, 0L);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public int getChannels() {
+    return channels;
+  }
+
+  /**
+   * Bytes of audio written so far (including data still in the write buffer).
+   */
+  public long getDataBytes() {
+    return dataBytes;
+  }
+
+  public void write(byte[] pcm, int off, int len) throws IOException {
+    while (len > 0) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      int n = Math.min(buffer.remaining(), len);
+      buffer.put(pcm, off, n);
+      off += n;
+      len -= n;
+      dataBytes += n;
+    }
+  }
+
+  /**
+   * Append {@code bytes} zero bytes (silence).
+   */
+  public void writeZeros(long bytes) throws IOException {
+    while (bytes > 0) {
+      int n = (int) Math.min(ZEROS.length, bytes);
+      write(ZEROS, 0, n);
+      bytes -= n;
+    }
+  }
+
+  /**
+   * Take back the last {@code bytes} written, e.g. model audio the client dropped on barge-in. Later writes overwrite
+   * them; whatever is left past the data end is cut off on close.
+   */
+  public void discardTail(long bytes) {
+    bytes = Math.min(bytes, dataBytes);
+    if (bytes <= 0) {
+      return;
+    }
+    int buffered = buffer.position();
+    if (bytes <= buffered) {
+      ((Buffer) buffer).position(buffered - (int) bytes);
+    } else {
+      ((Buffer) buffer).clear();
+    }
+    dataBytes -= bytes;
+  }
+
+  /**
+   * Write the buffered audio to the file. The header sizes are only patched on close.
+   */
+  public void flush() throws IOException {
+    ((Buffer) buffer).flip();
+    long pos = dataStart + dataBytes - buffer.remaining();
+    writeFully(buffer, pos);
+    ((Buffer) buffer).clear();
+  }
+
+  /**
+   * Flush, patch the RIFF and data chunk sizes, and close the file.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flush();
+      patchSizes();
+      channel.truncate(dataStart + dataBytes + (dataBytes & 1));
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void patchSizes() throws IOException {
+    ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+    // an odd data chunk needs a pad byte to keep RIFF chunks aligned
+    if ((dataBytes & 1) != 0) {
+      b.put((byte) 0);
+      ((Buffer) b).flip();
+      writeFully(b, dataStart + dataBytes);
+      ((Buffer) b).clear();
+    }
+    long riffSize = dataStart - 8 + dataBytes + (dataBytes & 1);
+    b.putInt(0, (int) Math.min(riffSize, 0xffffffffL));
+    writeFully(b, 4L);
+    ((Buffer) b).clear();
+    b.putInt(0, (int) Math.min(dataBytes, 0xffffffffL));
+    writeFully(b, dataSizeOffset);
+  }
+
+  private void writeFully(ByteBuffer b, long pos) throws IOException {
+    while (b.hasRemaining()) {
+      pos += channel.write(b, pos);
+    }
+  }
+
+  private static ByteBuffer buildHeader(int sampleRate, int channels, String infoName) {
+    byte[] inam = infoName == null ? null : infoName.getBytes(StandardCharsets.UTF_8);
+    int listSize = 0;
+    if (inam != null) {
+      // "INFO" + "INAM" + size + value (+ pad)
+      listSize = 4 + 8 + inam.length + (inam.length & 1);
+    }
+    int headerSize = 12 + 8 + 16 + (inam != null ? 8 + listSize : 0) + 8;
+
+    ByteBuffer h = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+    putAscii(h, "RIFF");
+    h.putInt(0);
+    putAscii(h, "WAVE");
+
+    putAscii(h, "fmt ");
+    h.putInt(16);
+    h.putShort((short) 1);
+    h.putShort((short) channels);
+    h.putInt(sampleRate);
+    h.putInt(sampleRate * channels * 2);
+    h.putShort((short) (channels * 2));
+    h.putShort((short) 16);
+
+    if (inam != null) {
+      putAscii(h, "LIST");
+      h.putInt(listSize);
+      putAscii(h, "INFO");
+      putAscii(h, "INAM");
+      h.putInt(inam.length);
+      h.put(inam);
+      if ((inam.length & 1) != 0) {
+        h.put((byte) 0);
+      }
+    }
+
+    putAscii(h, "data");
+    h.putInt(0);
+    ((Buffer) h).flip();
+    return h;
+  }
+
+  private static void putAscii(ByteBuffer b, String s) {
+    for (int i = 0; i < s.length(); i++) {
+      b.put((byte) s.charAt(i));
+    }
+  }
+}
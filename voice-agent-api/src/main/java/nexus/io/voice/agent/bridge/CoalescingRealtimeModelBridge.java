@@ -0,0 +1,167 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上行音频合并：把调用方零散推来的 PCM16 16k 小块攒成 frameMs 的整帧再交给真正的 bridge，
+ * 减少上游 WebSocket 消息数量以及每条消息的 JSON/base64 开销。
+ *
+ * - 攒满一帧立即发送
+ * - 第一块数据进入缓冲后 deadlineMs 仍未攒满，由定时器提前发送
+ * - endAudioInput 之前先把缓冲区发出去；close 丢弃未发送的部分
+ *
+ * 数据在 sendPcm16k 内同步拷贝进内部缓冲区，调用方可以立即复用自己的数组。
+ */
+public class CoalescingRealtimeModelBridge implements RealtimeModelBridge {
+
+  private static final int BYTES_PER_MS_16K = 16000 * 2 / 1000;
+
+  /**
+   * 合并帧长的允许范围（毫秒）
+   */
+  public static final int MIN_FRAME_MS = 10;
+  public static final int MAX_FRAME_MS = 200;
+
+  private final RealtimeModelBridge delegate;
+  private final ScheduledExecutorService scheduler;
+  private final long deadlineMs;
+
+  private final Object lock = new Object();
+  private final byte[] pending;
+  private int pendingLength = 0;
+  private ScheduledFuture<?> deadlineFuture;
+  private boolean closed = false;
+
+  /**
+   * @param delegate   真正发送到模型的 bridge
+   * @param frameMs    合并后的帧长（毫秒）
+   * @param deadlineMs 缓冲区最老数据的最大等待时间（毫秒）
+   * @param scheduler  用于 deadline 定时发送
+   */
+  public CoalescingRealtimeModelBridge(RealtimeModelBridge delegate, int frameMs, long deadlineMs,
+      ScheduledExecutorService scheduler) {
+    if (frameMs < MIN_FRAME_MS || frameMs > MAX_FRAME_MS) {
+      throw new IllegalArgumentException(
+          "frameMs must be in [" + MIN_FRAME_MS + ", " + MAX_FRAME_MS + "]: " + frameMs);
+    }
+    this.delegate = delegate;
+    this.scheduler = scheduler;
+    this.deadlineMs = deadlineMs > 0 ? deadlineMs : frameMs;
+    this.pending = new byte[frameMs * BYTES_PER_MS_16K];
+  }
+
+  /**
+   * 校验外部（如客户端 setup 消息）指定的帧长：为空或超出 [MIN_FRAME_MS, MAX_FRAME_MS] 时使用 defaultMs，否则按 10ms 向下对齐
+   */
+  public static int resolveFrameMs(Integer requestedMs, int defaultMs) {
+    if (requestedMs == null || requestedMs < MIN_FRAME_MS || requestedMs > MAX_FRAME_MS) {
+      return defaultMs;
+    }
+    return requestedMs / 10 * 10;
+  }
+
+  @Override
+  public CompletableFuture<Void> connect(RealtimeSetup setup) {
+    return delegate.connect(setup);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
+    if (pcm16k == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return sendPcm16k(pcm16k, 0, pcm16k.length);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendPcm16k(byte[] buf, int off, int len) {
+    CompletableFuture<Void> last = null;
+    synchronized (lock) {
+      if (closed || buf == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+      while (len > 0) {
+        int n = Math.min(pending.length - pendingLength, len);
+        System.arraycopy(buf, off, pending, pendingLength, n);
+        pendingLength += n;
+        off += n;
+        len -= n;
+        if (pendingLength == pending.length) {
+          last = flushLocked();
+        }
+      }
+      if (pendingLength > 0 && deadlineFuture == null) {
+        deadlineFuture = scheduler.schedule(this::flushOnDeadline, deadlineMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    return last != null ? last : CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * 立即发送缓冲区中已有的音频
+   */
+  public CompletableFuture<Void> flush() {
+    synchronized (lock) {
+      if (closed) {
+        return CompletableFuture.completedFuture(null);
+      }
+      return flushLocked();
+    }
+  }
+
+  private void flushOnDeadline() {
+    synchronized (lock) {
+      deadlineFuture = null;
+      if (!closed) {
+        flushLocked();
+      }
+    }
+  }
+
+  private CompletableFuture<Void> flushLocked() {
+    cancelDeadlineLocked();
+    if (pendingLength == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    int length = pendingLength;
+    pendingLength = 0;
+    // 在锁内交给 delegate，保证多帧之间的顺序；需要持有数组的 delegate 由默认实现拷贝
+    return delegate.sendPcm16k(pending, 0, length);
+  }
+
+  private void cancelDeadlineLocked() {
+    ScheduledFuture<?> f = deadlineFuture;
+    if (f != null) {
+      deadlineFuture = null;
+      f.cancel(false);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> endAudioInput() {
+    flush();
+    return delegate.endAudioInput();
+  }
+
+  @Override
+  public CompletableFuture<Void> sendText(String text) {
+    return delegate.sendText(text);
+  }
+
+  @Override
+  public CompletableFuture<Void> close() {
+    synchronized (lock) {
+      closed = true;
+      pendingLength = 0;
+      cancelDeadlineLocked();
+    }
+    return delegate.close();
+  }
+
+  public RealtimeModelBridge getDelegate() {
+    return delegate;
+  }
+}
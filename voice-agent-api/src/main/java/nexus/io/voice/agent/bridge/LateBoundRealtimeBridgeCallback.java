@@ -0,0 +1,134 @@
+package nexus.io.voice.agent.bridge;
+
+import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
+
+/**
+ * 池中 bridge 使用的 callback：预热时还没有会话，事件直接丢弃；checkout 时再绑定真正的会话 callback。
+ *
+ * 绑定前收到 close 会记下来，池据此淘汰这个连接。
+ */
+public class LateBoundRealtimeBridgeCallback implements RealtimeBridgeCallback {
+
+  private volatile RealtimeBridgeCallback target;
+  private volatile boolean closed = false;
+
+  public void bind(RealtimeBridgeCallback target) {
+    this.target = target;
+  }
+
+  public boolean isBound() {
+    return target != null;
+  }
+
+  /**
+   * 上游在绑定前就关闭了连接
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void sendText(String json) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.sendText(json);
+    }
+  }
+
+  @Override
+  public void sendMessage(WsVoiceAgentResponseMessage message) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.sendMessage(message);
+    }
+  }
+
+  @Override
+  public void sendBinary(byte[] bytes) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.sendBinary(bytes);
+    }
+  }
+
+  @Override
+  public void sendBinary(String turnId, byte[] bytes) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.sendBinary(turnId, bytes);
+    }
+  }
+
+  @Override
+  public void sendAudio(String turnId, String audioBase64) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.sendAudio(turnId, audioBase64);
+    }
+  }
+
+  @Override
+  public void close(String reason) {
+    closed = true;
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.close(reason);
+    }
+  }
+
+  @Override
+  public void session(String sessionId) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.session(sessionId);
+    }
+  }
+
+  @Override
+  public void turnComplete(String role, String text) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.turnComplete(role, text);
+    }
+  }
+
+  @Override
+  public void start(RealtimeSetup setup) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.start(setup);
+    }
+  }
+
+  @Override
+  public void onUserAudioActivity() {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.onUserAudioActivity();
+    }
+  }
+
+  @Override
+  public void onLocalSpeechStart() {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.onLocalSpeechStart();
+    }
+  }
+
+  @Override
+  public void onLocalSpeechStop(long speechMs, long trailingSilenceMs) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.onLocalSpeechStop(speechMs, trailingSilenceMs);
+    }
+  }
+
+  @Override
+  public void onUserTextActivity(String text) {
+    RealtimeBridgeCallback t = target;
+    if (t != null) {
+      t.onUserTextActivity(text);
+    }
+  }
+}
@@ -1,9 +1,31 @@
 package nexus.io.voice.agent.bridge;
 
+import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
+
 public interface RealtimeBridgeCallback {
+  /**
+   * 发送已经序列化好的 JSON 文本。实现方如需读取事件类型只能再解析一次，bridge 应优先使用 {@link #sendMessage}。
+   */
   void sendText(String json);
 
+  /**
+   * 类型化事件通道：bridge 直接交出消息对象，callback 按 type 更新自身状态，JSON 只在发往客户端时序列化一次。
+   * 默认序列化后交给 {@link #sendText}，行为与旧版本一致；能直接使用消息对象的实现再覆盖。
+   */
+  default void sendMessage(WsVoiceAgentResponseMessage message) {
+    if (message != null) {
+      sendText(message.toJson());
+    }
+  }
+
   void sendBinary(byte[] bytes);
+
+  /**
+   * 带轮次的模型音频，支持二进制帧协议的 callback 会把 turnId 写进帧头
+   */
+  default void sendBinary(String turnId, byte[] bytes) {
+    sendBinary(bytes);
+  }
   
   void sendAudio(String turnId, String audioBase64);
 
@@ -17,5 +39,17 @@ public interface RealtimeBridgeCallback {
 
   void onUserAudioActivity();
 
+  /**
+   * 本地 VAD 检测到用户开始说话（{@link VadRealtimeModelBridge}），比模型侧事件更早且不受模型是否开启 VAD 影响
+   */
+  default void onLocalSpeechStart() {
+  }
+
+  /**
+   * 本地 VAD 检测到用户停止说话，speechMs 包含 hangover，真实的说话结束时间是当前时间减去 trailingSilenceMs
+   */
+  default void onLocalSpeechStop(long speechMs, long trailingSilenceMs) {
+  }
+
   void onUserTextActivity(String text);
 }
\ No newline at end of file
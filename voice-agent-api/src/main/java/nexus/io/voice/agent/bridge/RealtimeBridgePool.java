@@ -0,0 +1,337 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 单个平台的预热连接池。
+ *
+ * 空闲连接已经建立好上游 WebSocket 并下发了会话无关的配置，{@link #checkout} 时绑定会话 callback，
+ * 会话调用 connect 只会下发本会话的提示词。池为空时返回 null，调用方按原方式现连。
+ *
+ * 后台按 checkIntervalMs 巡检：淘汰超过 ttl 或已断开的连接，再补足到目标数量。目标数量为
+ * max(minIdle, 上一周期的 checkout 次数)，不超过 maxIdle，来电集中时池会跟着变大。
+ */
+@Slf4j
+public class RealtimeBridgePool {
+
+  public interface Factory {
+    WarmableRealtimeModelBridge create(RealtimeBridgeCallback callback);
+  }
+
+  private static class Entry {
+    final WarmableRealtimeModelBridge bridge;
+    final LateBoundRealtimeBridgeCallback callback;
+    final long readyAtMillis;
+
+    Entry(WarmableRealtimeModelBridge bridge, LateBoundRealtimeBridgeCallback callback, long readyAtMillis) {
+      this.bridge = bridge;
+      this.callback = callback;
+      this.readyAtMillis = readyAtMillis;
+    }
+  }
+
+  private final String name;
+  private final Factory factory;
+  private final int minIdle;
+  private final int maxIdle;
+  private final long ttlMs;
+  private final long checkIntervalMs;
+  private final long warmUpTimeoutMs;
+  private final ScheduledExecutorService scheduler;
+
+  // 新预热好的放在尾部，checkout 优先取最新的，最老的留给巡检按 ttl 淘汰
+  private final Deque<Entry> idle = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicInteger warming = new AtomicInteger();
+  private final AtomicInteger demand = new AtomicInteger();
+  private volatile int recentDemand = 0;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong warmed = new AtomicLong();
+  private final AtomicLong warmFailures = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+  private final AtomicLong unhealthy = new AtomicLong();
+  private final AtomicLong totalWarmUpMs = new AtomicLong();
+  private final AtomicLong maxWarmUpMs = new AtomicLong();
+
+  private volatile boolean shutdown = false;
+  private volatile ScheduledFuture<?> maintainTask;
+
+  public RealtimeBridgePool(String name, Factory factory, int minIdle, int maxIdle, long ttlMs, long checkIntervalMs,
+      long warmUpTimeoutMs, ScheduledExecutorService scheduler) {
+    if (minIdle < 0 || maxIdle < minIdle) {
+      throw new IllegalArgumentException("invalid pool size, min=" + minIdle + ", max=" + maxIdle);
+    }
+    this.name = name;
+    this.factory = factory;
+    this.minIdle = minIdle;
+    this.maxIdle = maxIdle;
+    this.ttlMs = ttlMs;
+    this.checkIntervalMs = Math.max(100, checkIntervalMs);
+    this.warmUpTimeoutMs = warmUpTimeoutMs;
+    this.scheduler = scheduler;
+  }
+
+  public synchronized void start() {
+    if (maintainTask == null && !shutdown) {
+      maintainTask = scheduler.scheduleWithFixedDelay(this::maintain, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 取一个预热好的连接并绑定 callback，池为空时返回 null
+   */
+  public RealtimeModelBridge checkout(RealtimeBridgeCallback callback) {
+    if (shutdown) {
+      return null;
+    }
+    demand.incrementAndGet();
+
+    RealtimeModelBridge result = null;
+    long now = System.currentTimeMillis();
+    Entry e;
+    while ((e = idle.pollLast()) != null) {
+      idleCount.decrementAndGet();
+      if (isExpired(e, now)) {
+        expired.incrementAndGet();
+        discard(e);
+        continue;
+      }
+      if (!isHealthy(e)) {
+        unhealthy.incrementAndGet();
+        discard(e);
+        continue;
+      }
+      e.callback.bind(callback);
+      result = new PooledRealtimeModelBridge(e.bridge);
+      break;
+    }
+
+    if (result != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    scheduler.execute(this::refill);
+    return result;
+  }
+
+  public synchronized void shutdown() {
+    shutdown = true;
+    ScheduledFuture<?> task = maintainTask;
+    if (task != null) {
+      task.cancel(false);
+    }
+    drainIdle();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public RealtimeBridgePoolStats getStats() {
+    long n = warmed.get();
+    return new RealtimeBridgePoolStats(name, minIdle, maxIdle, idleCount.get(), warming.get(), hits.get(),
+        misses.get(), n, warmFailures.get(), expired.get(), unhealthy.get(), n == 0 ? 0 : totalWarmUpMs.get() / n,
+        maxWarmUpMs.get());
+  }
+
+  private void maintain() {
+    if (shutdown) {
+      return;
+    }
+    try {
+      recentDemand = demand.getAndSet(0);
+
+      long now = System.currentTimeMillis();
+      for (Iterator<Entry> it = idle.iterator(); it.hasNext();) {
+        Entry e = it.next();
+        boolean isExpired = isExpired(e, now);
+        if (!isExpired && isHealthy(e)) {
+          continue;
+        }
+        // checkout 可能同时取走了它
+        if (idle.removeFirstOccurrence(e)) {
+          idleCount.decrementAndGet();
+          (isExpired ? expired : unhealthy).incrementAndGet();
+          discard(e);
+        }
+      }
+      refill();
+    } catch (Throwable e) {
+      log.error("bridge pool {} maintain failed", name, e);
+    }
+  }
+
+  private int targetIdle() {
+    int d = Math.max(recentDemand, demand.get());
+    return Math.min(maxIdle, Math.max(minIdle, d));
+  }
+
+  private void refill() {
+    int target = targetIdle();
+    // 每个空位本轮最多尝试一次：同步失败的预热不能在这里空转，留给下一次巡检重试
+    for (int attempts = target; attempts > 0 && !shutdown;) {
+      int w = warming.get();
+      if (idleCount.get() + w >= target) {
+        return;
+      }
+      if (warming.compareAndSet(w, w + 1)) {
+        attempts--;
+        warmOne();
+      }
+    }
+  }
+
+  /**
+   * 调用前 warming 已加一，无论成功失败都要减回去
+   */
+  private void warmOne() {
+    long begin = System.currentTimeMillis();
+    LateBoundRealtimeBridgeCallback callback = new LateBoundRealtimeBridgeCallback();
+    WarmableRealtimeModelBridge bridge;
+    try {
+      bridge = factory.create(callback);
+    } catch (Throwable e) {
+      warming.decrementAndGet();
+      warmFailures.incrementAndGet();
+      log.warn("bridge pool {} create failed", name, e);
+      return;
+    }
+
+    AtomicBoolean settled = new AtomicBoolean(false);
+    ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+      if (settled.compareAndSet(false, true)) {
+        warming.decrementAndGet();
+        warmFailures.incrementAndGet();
+        closeQuietly(bridge);
+      }
+    }, warmUpTimeoutMs, TimeUnit.MILLISECONDS);
+
+    CompletableFuture<Void> future;
+    try {
+      future = bridge.warmUp();
+    } catch (Throwable e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+
+    future.whenComplete((v, ex) -> {
+      if (!settled.compareAndSet(false, true)) {
+        // 已超时，连接已关闭
+        return;
+      }
+      timeout.cancel(false);
+      warming.decrementAndGet();
+
+      if (ex != null || !bridge.isHealthy() || callback.isClosed()) {
+        warmFailures.incrementAndGet();
+        closeQuietly(bridge);
+        return;
+      }
+
+      long now = System.currentTimeMillis();
+      long cost = now - begin;
+      warmed.incrementAndGet();
+      totalWarmUpMs.addAndGet(cost);
+      long max;
+      while (cost > (max = maxWarmUpMs.get()) && !maxWarmUpMs.compareAndSet(max, cost)) {
+        // retry
+      }
+
+      idle.offerLast(new Entry(bridge, callback, now));
+      idleCount.incrementAndGet();
+      if (shutdown) {
+        drainIdle();
+      }
+    });
+  }
+
+  private boolean isExpired(Entry e, long now) {
+    return ttlMs > 0 && now - e.readyAtMillis >= ttlMs;
+  }
+
+  private boolean isHealthy(Entry e) {
+    if (e.callback.isClosed()) {
+      return false;
+    }
+    try {
+      return e.bridge.isHealthy();
+    } catch (Throwable ex) {
+      return false;
+    }
+  }
+
+  private void drainIdle() {
+    Entry e;
+    while ((e = idle.pollFirst()) != null) {
+      idleCount.decrementAndGet();
+      discard(e);
+    }
+  }
+
+  private void discard(Entry e) {
+    closeQuietly(e.bridge);
+  }
+
+  private static void closeQuietly(RealtimeModelBridge bridge) {
+    try {
+      bridge.close();
+    } catch (Throwable ignore) {
+    }
+  }
+
+  /**
+   * 交给会话的 bridge：connect 只下发本会话的配置，其余调用原样转发
+   */
+  private static class PooledRealtimeModelBridge implements RealtimeModelBridge {
+
+    private final WarmableRealtimeModelBridge delegate;
+
+    PooledRealtimeModelBridge(WarmableRealtimeModelBridge delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Void> connect(RealtimeSetup setup) {
+      return delegate.applySetup(setup);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
+      return delegate.sendPcm16k(pcm16k);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPcm16k(byte[] buf, int off, int len) {
+      return delegate.sendPcm16k(buf, off, len);
+    }
+
+    @Override
+    public CompletableFuture<Void> endAudioInput() {
+      return delegate.endAudioInput();
+    }
+
+    @Override
+    public CompletableFuture<Void> sendText(String text) {
+      return delegate.sendText(text);
+    }
+
+    @Override
+    public CompletableFuture<Void> close() {
+      return delegate.close();
+    }
+  }
+}
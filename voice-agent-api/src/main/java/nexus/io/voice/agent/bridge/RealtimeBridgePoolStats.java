@@ -0,0 +1,31 @@
+package nexus.io.voice.agent.bridge;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of {@link RealtimeBridgePool} counters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RealtimeBridgePoolStats {
+  private String name;
+  private int minIdle;
+  private int maxIdle;
+  // connected and configured, waiting for a session
+  private int idle;
+  // warm-up in flight
+  private int warming;
+  // checkouts served from the pool
+  private long hits;
+  // checkouts that found the pool empty and connected on demand
+  private long misses;
+  private long warmed;
+  private long warmFailures;
+  private long expired;
+  private long unhealthy;
+  private long avgWarmUpMs;
+  private long maxWarmUpMs;
+}
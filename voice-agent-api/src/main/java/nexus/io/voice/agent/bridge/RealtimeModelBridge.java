@@ -1,5 +1,6 @@
 package nexus.io.voice.agent.bridge;
 
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -20,6 +21,15 @@ public interface RealtimeModelBridge {
    */
   CompletableFuture<Void> sendPcm16k(byte[] pcm16k);
 
+  /**
+   * 发送 buf[off, off+len) 这一段上行音频。调用方会在返回后复用 buf，实现方不得持有它。
+   * 默认每次拷贝一份再走 {@link #sendPcm16k(byte[])}：异步发送、需要持有数组的实现（如 Gemini 的 Blob）只能如此。
+   * 能在返回前用完数据的实现应覆盖此方法，调用方复用缓冲区只有在这种实现上才真正免分配。
+   */
+  default CompletableFuture<Void> sendPcm16k(byte[] buf, int off, int len) {
+    return sendPcm16k(Arrays.copyOfRange(buf, off, off + len));
+  }
+
   /**
    * 结束当前音频输入/触发模型生成：
    * - Gemini：sendAudioStreamEnd()
@@ -1,6 +1,7 @@
 package nexus.io.voice.agent.bridge;
 
 import java.util.List;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,6 +21,11 @@ public class RealtimeSetup {
 
   private List<SimpleChatMessage> messages;
 
+  /**
+   * 预先拼好的各平台 instructions，key 为平台，bridge 有对应值时不再拼接
+   */
+  private Map<String, String> instructions;
+
   public RealtimeSetup(String system_prompt, String user_prompt) {
     this.system_prompt = system_prompt;
     this.user_prompt = user_prompt;
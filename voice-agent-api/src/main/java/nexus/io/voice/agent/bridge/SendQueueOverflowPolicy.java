@@ -0,0 +1,15 @@
+package nexus.io.voice.agent.bridge;
+
+/**
+ * What a {@link SerialSendQueue} does with droppable tasks when it is full.
+ */
+public enum SendQueueOverflowPolicy {
+  /**
+   * Drop the oldest queued droppable task, the upstream model hears the most recent audio.
+   */
+  DROP_OLDEST,
+  /**
+   * Drop the task being offered.
+   */
+  DROP_NEWEST
+}
@@ -0,0 +1,188 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每个会话一个的串行发送队列（actor mailbox）。
+ *
+ * - 同一队列中的任务严格按提交顺序、一次一个地在 executor 上执行，上行音频不会乱序
+ * - 各会话之间只共享 executor，慢会话只会堆积自己的队列
+ * - {@link #offer(Runnable)} 提交可丢弃任务（音频块），超过容量按 {@link SendQueueOverflowPolicy} 丢弃
+ * - {@link #submit(Runnable)} 提交控制任务（connect/commit/close 等），不受容量限制，永不丢弃
+ * - {@link #shutdown()} 之后提交的任务直接失败，已在队列中的任务照常执行
+ */
+public class SerialSendQueue {
+
+  private final String name;
+  private final Executor executor;
+  private final int capacity;
+  private final SendQueueOverflowPolicy overflowPolicy;
+
+  private final ConcurrentLinkedDeque<Task> tasks = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger droppableCount = new AtomicInteger(0);
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private final AtomicLong droppedCount = new AtomicLong(0L);
+  private volatile boolean shutdown = false;
+
+  public SerialSendQueue(String name, Executor executor, int capacity, SendQueueOverflowPolicy overflowPolicy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+    }
+    this.name = name;
+    this.executor = executor;
+    this.capacity = capacity;
+    this.overflowPolicy = overflowPolicy == null ? SendQueueOverflowPolicy.DROP_OLDEST : overflowPolicy;
+  }
+
+  /**
+   * 提交控制任务，永不丢弃
+   */
+  public CompletableFuture<Void> submit(Runnable runnable) {
+    return enqueue(runnable, false);
+  }
+
+  /**
+   * 提交可丢弃任务；被丢弃的任务其 future 以 null 正常完成
+   */
+  public CompletableFuture<Void> offer(Runnable runnable) {
+    return enqueue(runnable, true);
+  }
+
+  private CompletableFuture<Void> enqueue(Runnable runnable, boolean droppable) {
+    Task task = new Task(runnable, droppable);
+    if (shutdown) {
+      task.future.completeExceptionally(new RejectedExecutionException("send queue " + name + " is shut down"));
+      return task.future;
+    }
+
+    if (droppable && droppableCount.get() >= capacity) {
+      if (overflowPolicy == SendQueueOverflowPolicy.DROP_NEWEST || !dropOldest()) {
+        droppedCount.incrementAndGet();
+        task.future.complete(null);
+        return task.future;
+      }
+    }
+
+    if (droppable) {
+      droppableCount.incrementAndGet();
+    }
+    tasks.offer(task);
+    schedule();
+    return task.future;
+  }
+
+  private boolean dropOldest() {
+    Iterator<Task> it = tasks.iterator();
+    while (it.hasNext()) {
+      Task t = it.next();
+      if (t.droppable && tasks.removeFirstOccurrence(t)) {
+        droppableCount.decrementAndGet();
+        droppedCount.incrementAndGet();
+        t.future.complete(null);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        scheduled.set(false);
+        failAll(e);
+      }
+    }
+  }
+
+  private void drain() {
+    try {
+      Task task;
+      while ((task = tasks.poll()) != null) {
+        if (task.droppable) {
+          droppableCount.decrementAndGet();
+        }
+        try {
+          task.runnable.run();
+          task.future.complete(null);
+        } catch (Throwable e) {
+          task.future.completeExceptionally(e);
+        }
+      }
+    } finally {
+      scheduled.set(false);
+      // 释放标记之后又有任务进来
+      if (!tasks.isEmpty()) {
+        schedule();
+      }
+    }
+  }
+
+  private void failAll(Throwable e) {
+    Task task;
+    while ((task = tasks.poll()) != null) {
+      if (task.droppable) {
+        droppableCount.decrementAndGet();
+      }
+      task.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * 拒绝后续任务，已入队的任务继续执行
+   */
+  public void shutdown() {
+    shutdown = true;
+  }
+
+  /**
+   * 拒绝后续任务，并丢弃队列中尚未执行的可丢弃任务
+   */
+  public void shutdownAndDropPending() {
+    shutdown = true;
+    Iterator<Task> it = tasks.iterator();
+    while (it.hasNext()) {
+      Task t = it.next();
+      if (t.droppable && tasks.removeFirstOccurrence(t)) {
+        droppableCount.decrementAndGet();
+        droppedCount.incrementAndGet();
+        t.future.complete(null);
+      }
+    }
+  }
+
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  public int size() {
+    return tasks.size();
+  }
+
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private static final class Task {
+    final Runnable runnable;
+    final boolean droppable;
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    Task(Runnable runnable, boolean droppable) {
+      this.runnable = runnable;
+      this.droppable = droppable;
+    }
+  }
+}
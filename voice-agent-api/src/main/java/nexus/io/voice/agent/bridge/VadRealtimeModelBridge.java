@@ -0,0 +1,214 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.concurrent.CompletableFuture;
+
+import lombok.extern.slf4j.Slf4j;
+import nexus.io.voice.agent.audio.EnergyVad;
+import nexus.io.voice.agent.audio.PcmKernels;
+import nexus.io.voice.agent.audio.VadEvent;
+
+/**
+ * 上行 VAD：在 sendPcm16k 之前按帧检测语音，把说话开始/结束通知给 callback，并可丢弃静音帧以节省上行带宽和模型计费。
+ *
+ * - 说话开始时先补发 preRollMs 的缓存音频，保证开头的辅音不被切掉
+ * - 说话结束前有 hangover（由 {@link EnergyVad} 控制），模型侧的 VAD 仍能看到足够的尾部静音来判断轮次结束
+ * - suppressSilence 为 false 时只检测不丢帧
+ *
+ * 不足一帧的数据留在内部缓冲区等待下一次调用，数据同步拷贝，调用方可以立即复用自己的数组。
+ */
+@Slf4j
+public class VadRealtimeModelBridge implements RealtimeModelBridge {
+
+  private static final int BYTES_PER_SAMPLE = 2;
+
+  private final RealtimeModelBridge delegate;
+  private final EnergyVad vad;
+  private final RealtimeBridgeCallback callback;
+  private final boolean suppressSilence;
+
+  private final Object lock = new Object();
+  private final byte[] frame;
+  private final short[] samples;
+  private int frameLength = 0;
+
+  // 静音期间最近 preRollMs 的音频，环形缓冲
+  private final byte[] preRoll;
+  private int preRollStart = 0;
+  private int preRollLength = 0;
+  private byte[] preRollOut = new byte[0];
+
+  private boolean closed = false;
+  private volatile long framesIn = 0L;
+  private volatile long framesDropped = 0L;
+
+  /**
+   * @param delegate        下游 bridge
+   * @param vad             检测器，帧长决定内部缓冲区大小
+   * @param callback        接收说话开始/结束事件，可以为 null
+   * @param suppressSilence 是否丢弃静音帧
+   * @param preRollMs       说话开始时补发的音频长度
+   */
+  public VadRealtimeModelBridge(RealtimeModelBridge delegate, EnergyVad vad, RealtimeBridgeCallback callback,
+      boolean suppressSilence, int preRollMs) {
+    this.delegate = delegate;
+    this.vad = vad;
+    this.callback = callback;
+    this.suppressSilence = suppressSilence;
+    this.samples = new short[vad.getFrameSamples()];
+    this.frame = new byte[samples.length * BYTES_PER_SAMPLE];
+    int preRollFrames = (int) ((long) Math.max(0, preRollMs) * vad.getSampleRate() / 1000L / samples.length);
+    this.preRoll = new byte[preRollFrames * frame.length];
+  }
+
+  @Override
+  public CompletableFuture<Void> connect(RealtimeSetup setup) {
+    return delegate.connect(setup);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
+    if (pcm16k == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return sendPcm16k(pcm16k, 0, pcm16k.length);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendPcm16k(byte[] buf, int off, int len) {
+    CompletableFuture<Void> last = null;
+    synchronized (lock) {
+      if (closed || buf == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+      while (len > 0) {
+        int n = Math.min(frame.length - frameLength, len);
+        System.arraycopy(buf, off, frame, frameLength, n);
+        frameLength += n;
+        off += n;
+        len -= n;
+        if (frameLength == frame.length) {
+          CompletableFuture<Void> f = processFrameLocked();
+          if (f != null) {
+            last = f;
+          }
+          frameLength = 0;
+        }
+      }
+    }
+    return last != null ? last : CompletableFuture.completedFuture(null);
+  }
+
+  private CompletableFuture<Void> processFrameLocked() {
+    framesIn++;
+    PcmKernels.bytesToShorts(frame, 0, samples, 0, samples.length);
+    VadEvent event = vad.process(samples, 0);
+
+    if (event == VadEvent.SPEECH_START) {
+      notifyStart();
+      if (preRollLength > 0) {
+        delegate.sendPcm16k(drainPreRollLocked(), 0, preRollLength);
+        preRollLength = 0;
+        preRollStart = 0;
+      }
+      return delegate.sendPcm16k(frame, 0, frame.length);
+    }
+    if (event == VadEvent.SPEECH_STOP) {
+      // 最后一帧 hangover 仍然发送
+      CompletableFuture<Void> f = delegate.sendPcm16k(frame, 0, frame.length);
+      notifyStop(vad.getSpeechMs());
+      return f;
+    }
+    if (vad.isSpeaking() || !suppressSilence) {
+      return delegate.sendPcm16k(frame, 0, frame.length);
+    }
+
+    framesDropped++;
+    pushPreRollLocked();
+    return null;
+  }
+
+  private void pushPreRollLocked() {
+    if (preRoll.length == 0) {
+      return;
+    }
+    // 以整帧为单位存储，满了覆盖最老的一帧
+    int end = (preRollStart + preRollLength) % preRoll.length;
+    System.arraycopy(frame, 0, preRoll, end, frame.length);
+    if (preRollLength < preRoll.length) {
+      preRollLength += frame.length;
+    } else {
+      preRollStart = (preRollStart + frame.length) % preRoll.length;
+    }
+  }
+
+  private byte[] drainPreRollLocked() {
+    if (preRollOut.length < preRollLength) {
+      preRollOut = new byte[preRoll.length];
+    }
+    int first = Math.min(preRollLength, preRoll.length - preRollStart);
+    System.arraycopy(preRoll, preRollStart, preRollOut, 0, first);
+    System.arraycopy(preRoll, 0, preRollOut, first, preRollLength - first);
+    return preRollOut;
+  }
+
+  private void notifyStart() {
+    if (callback == null) {
+      return;
+    }
+    try {
+      callback.onLocalSpeechStart();
+    } catch (Exception e) {
+      log.warn("onLocalSpeechStart failed", e);
+    }
+  }
+
+  private void notifyStop(long speechMs) {
+    if (callback == null) {
+      return;
+    }
+    try {
+      callback.onLocalSpeechStop(speechMs, vad.getHangoverMs());
+    } catch (Exception e) {
+      log.warn("onLocalSpeechStop failed", e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> endAudioInput() {
+    synchronized (lock) {
+      // 不足一帧的尾巴在说话中或不丢静音时照常发送
+      if (!closed && frameLength > 0 && (vad.isSpeaking() || !suppressSilence)) {
+        delegate.sendPcm16k(frame, 0, frameLength);
+      }
+      frameLength = 0;
+    }
+    return delegate.endAudioInput();
+  }
+
+  @Override
+  public CompletableFuture<Void> sendText(String text) {
+    return delegate.sendText(text);
+  }
+
+  @Override
+  public CompletableFuture<Void> close() {
+    synchronized (lock) {
+      closed = true;
+      frameLength = 0;
+      preRollLength = 0;
+    }
+    return delegate.close();
+  }
+
+  public long getFramesIn() {
+    return framesIn;
+  }
+
+  public long getFramesDropped() {
+    return framesDropped;
+  }
+
+  public RealtimeModelBridge getDelegate() {
+    return delegate;
+  }
+}
@@ -0,0 +1,27 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 支持预热的 bridge：连接和与会话无关的配置可以提前完成，拿到会话后只下发本会话的提示词。
+ *
+ * 预热后的 bridge 由 {@link RealtimeBridgePool} 管理，{@link #connect(RealtimeSetup)} 等价于
+ * warmUp 之后再 applySetup。
+ */
+public interface WarmableRealtimeModelBridge extends RealtimeModelBridge {
+
+  /**
+   * 建立上游连接并完成会话无关的配置（模型、音色、VAD、转写等），失败时 future 异常完成
+   */
+  CompletableFuture<Void> warmUp();
+
+  /**
+   * 在已预热的连接上应用本会话的 system/user prompt、历史消息和开场白
+   */
+  CompletableFuture<Void> applySetup(RealtimeSetup setup);
+
+  /**
+   * 上游连接仍然可用
+   */
+  boolean isHealthy();
+}
@@ -11,4 +11,10 @@ public class CallbackExecutorService {
         t.setDaemon(true);
         return t;
       });
+
+  /**
+   * 主动介入等按会话的超时，一个线程管理所有会话，空闲时不唤醒
+   */
+  public static final HashedTimingWheel TIMING_WHEEL = new HashedTimingWheel("ws-realtime-bridge-callback-wheel", 100,
+      512);
 }
@@ -0,0 +1,274 @@
+package nexus.io.voice.agent.callback;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 哈希时间轮：单线程按 tick 推进，适合大量会话各自持有一个、且大多会被取消的超时。
+ *
+ * schedule/cancel 只入队，O(1)；到期检查只看当前槽位，空闲会话不产生任何唤醒。
+ * 精度为一个 tick，任务在时间轮线程上执行，不能阻塞。工作线程在第一次 schedule 时启动。
+ */
+@Slf4j
+public class HashedTimingWheel {
+
+  private static final int ST_INIT = 0;
+  private static final int ST_CANCELLED = 1;
+  private static final int ST_EXPIRED = 2;
+
+  /**
+   * 每个 tick 最多从队列搬入的任务数，避免一次涌入太多拖慢到期处理
+   */
+  private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+  private final String name;
+  private final long tickNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+
+  private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private final Object startLock = new Object();
+  private volatile Thread worker;
+  private volatile long startNanos;
+  private volatile boolean stopped = false;
+
+  public HashedTimingWheel(String name, long tickMs, int wheelSize) {
+    if (tickMs <= 0) {
+      throw new IllegalArgumentException("tickMs must be positive: " + tickMs);
+    }
+    int size = 1;
+    while (size < wheelSize) {
+      size <<= 1;
+    }
+    this.name = name;
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+    this.wheel = new Bucket[size];
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new Bucket();
+    }
+    this.mask = size - 1;
+  }
+
+  public Timeout schedule(Runnable task, long delayMs) {
+    if (task == null) {
+      throw new NullPointerException("task");
+    }
+    if (stopped) {
+      throw new IllegalStateException("timing wheel " + name + " is stopped");
+    }
+    start();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs)) - startNanos;
+    Timeout timeout = new Timeout(this, task, deadline);
+    pending.incrementAndGet();
+    pendingTimeouts.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * 尚未到期也未取消的任务数
+   */
+  public int pending() {
+    return pending.get();
+  }
+
+  public void stop() {
+    stopped = true;
+    Thread t = worker;
+    if (t != null) {
+      t.interrupt();
+    }
+  }
+
+  private void start() {
+    if (worker != null) {
+      return;
+    }
+    synchronized (startLock) {
+      if (worker == null) {
+        startNanos = System.nanoTime();
+        Thread t = new Thread(this::run, name);
+        t.setDaemon(true);
+        t.start();
+        worker = t;
+      }
+    }
+  }
+
+  private void run() {
+    long tick = 0;
+    while (!stopped) {
+      if (!waitForNextTick(tick)) {
+        break;
+      }
+      processCancelled();
+      transferTimeouts(tick);
+      wheel[(int) (tick & mask)].expire();
+      tick++;
+    }
+  }
+
+  /**
+   * @return 停止时返回 false
+   */
+  private boolean waitForNextTick(long tick) {
+    long deadline = tickNanos * (tick + 1);
+    for (;;) {
+      long current = System.nanoTime() - startNanos;
+      long sleepNanos = deadline - current;
+      if (sleepNanos <= 0) {
+        return true;
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+      } catch (InterruptedException e) {
+        if (stopped) {
+          return false;
+        }
+      }
+    }
+  }
+
+  private void transferTimeouts(long tick) {
+    for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+      Timeout timeout = pendingTimeouts.poll();
+      if (timeout == null) {
+        return;
+      }
+      if (timeout.state.get() == ST_CANCELLED) {
+        continue;
+      }
+      long calculated = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (calculated - tick) / wheel.length;
+      // 已经过期的放到当前槽位，本 tick 就执行
+      long ticks = Math.max(calculated, tick);
+      wheel[(int) (ticks & mask)].add(timeout);
+    }
+  }
+
+  private void processCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelledTimeouts.poll()) != null) {
+      Bucket bucket = timeout.bucket;
+      if (bucket != null) {
+        bucket.remove(timeout);
+      }
+    }
+  }
+
+  public static final class Timeout {
+    private final HashedTimingWheel wheel;
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+    // 以下字段只在时间轮线程上访问
+    long remainingRounds;
+    Timeout next;
+    Timeout prev;
+    Bucket bucket;
+
+    private Timeout(HashedTimingWheel wheel, Runnable task, long deadline) {
+      this.wheel = wheel;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * @return false 表示已经执行或已经取消
+     */
+    public boolean cancel() {
+      if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+        return false;
+      }
+      wheel.pending.decrementAndGet();
+      // 从槽位摘除交给时间轮线程，链表只由它修改
+      wheel.cancelledTimeouts.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state.get() == ST_CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state.get() == ST_EXPIRED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+        return;
+      }
+      wheel.pending.decrementAndGet();
+      try {
+        task.run();
+      } catch (Throwable e) {
+        log.error("timeout task failed on {}", wheel.name, e);
+      }
+    }
+  }
+
+  /**
+   * 槽位：双向链表，摘除 O(1)
+   */
+  private static final class Bucket {
+    private Timeout head;
+    private Timeout tail;
+
+    void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    void expire() {
+      Timeout timeout = head;
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        if (timeout.remainingRounds <= 0) {
+          // 搬入时按 deadline 选的槽位和轮数，到这里 deadline 一定不晚于当前时刻
+          remove(timeout);
+          timeout.expire();
+        } else if (timeout.isCancelled()) {
+          remove(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+
+    void remove(Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      Timeout next = timeout.next;
+      if (timeout.prev != null) {
+        timeout.prev.next = next;
+      }
+      if (next != null) {
+        next.prev = timeout.prev;
+      }
+      if (timeout == head) {
+        head = next;
+      }
+      if (timeout == tail) {
+        tail = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+  }
+}
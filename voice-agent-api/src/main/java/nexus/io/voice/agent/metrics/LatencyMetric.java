@@ -0,0 +1,29 @@
+package nexus.io.voice.agent.metrics;
+
+/**
+ * Intervals measured by {@link SessionLatencyTimeline}. "eos" is the end of user speech as seen by the local VAD
+ * (stop event minus its trailing silence), or the model's speech_stopped event when no local VAD runs; "first byte"
+ * is the first model audio handed to the client transport.
+ */
+public enum LatencyMetric {
+  // once per session: first uplink audio -> first audio sent to the client
+  MIC_TO_FIRST_AUDIO("mic_to_first_audio"),
+  // per turn: end of user speech -> first model audio received from the model
+  EOS_TO_FIRST_MODEL_AUDIO("eos_to_first_model_audio"),
+  // per turn: end of user speech -> first audio sent to the client, the main responsiveness KPI
+  EOS_TO_FIRST_BYTE("eos_to_first_byte"),
+  // per turn: first model audio received -> first audio sent (decode, encode, buffering on our side)
+  MODEL_TO_CLIENT("model_to_client"),
+  // per turn: first audio sent -> turn complete
+  FIRST_BYTE_TO_TURN_COMPLETE("first_byte_to_turn_complete");
+
+  private final String value;
+
+  LatencyMetric(String value) {
+    this.value = value;
+  }
+
+  public String getValue() {
+    return value;
+  }
+}
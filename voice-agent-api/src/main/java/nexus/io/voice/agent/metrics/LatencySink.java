@@ -0,0 +1,8 @@
+package nexus.io.voice.agent.metrics;
+
+/**
+ * Receives measured intervals, e.g. a per-platform histogram.
+ */
+public interface LatencySink {
+  void record(LatencyMetric metric, long micros);
+}
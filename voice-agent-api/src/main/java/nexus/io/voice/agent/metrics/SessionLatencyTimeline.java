@@ -0,0 +1,187 @@
+package nexus.io.voice.agent.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-session latency timeline. The socket/RTP thread marks uplink and speech events, the model SDK thread marks
+ * model audio, client audio and turn complete; intervals are pushed to the {@link LatencySink} as soon as both ends are
+ * known.
+ *
+ * The local VAD reports speech stop only after its hangover, so the model can answer before the stop event arrives.
+ * Model/client audio seen before the stop is therefore kept and matched when the stop comes in, as long as it started
+ * after the end of speech; audio from an older, barged-in answer is discarded at that point.
+ *
+ * Without a local VAD the end of speech comes from the model's server VAD ({@link #markServerSpeechStopped}). Once the
+ * local VAD has reported anything in this session, server stops are ignored: the local one is closer to the real end
+ * of speech and corrects for its own hangover.
+ *
+ * All times are {@link System#nanoTime()}.
+ */
+@Slf4j
+public class SessionLatencyTimeline {
+
+  private final LatencySink sink;
+
+  // session
+  private long firstUplinkNanos = 0L;
+  private boolean micToFirstAudioRecorded = false;
+  // the local VAD has reported speech; server VAD stops are ignored from then on
+  private boolean localVad = false;
+
+  // current turn
+  private long speechStoppedNanos = 0L;
+  private long firstModelAudioNanos = 0L;
+  private long firstClientAudioNanos = 0L;
+  private boolean modelRecorded = false;
+  private boolean clientRecorded = false;
+
+  // fast path for per-chunk marks once the turn has both values
+  private volatile boolean turnAudioSeen = false;
+  private volatile boolean uplinkSeen = false;
+
+  public SessionLatencyTimeline(LatencySink sink) {
+    this.sink = sink;
+  }
+
+  public void markUplink() {
+    if (uplinkSeen) {
+      return;
+    }
+    synchronized (this) {
+      if (firstUplinkNanos == 0L) {
+        firstUplinkNanos = System.nanoTime();
+      }
+      uplinkSeen = true;
+    }
+  }
+
+  /**
+   * User started talking: a new turn begins
+   */
+  public synchronized void markSpeechStarted() {
+    localVad = true;
+    speechStoppedNanos = 0L;
+    firstModelAudioNanos = 0L;
+    firstClientAudioNanos = 0L;
+    modelRecorded = false;
+    clientRecorded = false;
+    turnAudioSeen = false;
+  }
+
+  /**
+   * @param trailingSilenceMs how long after the real end of speech the stop was reported (VAD hangover)
+   */
+  public synchronized void markSpeechStopped(long trailingSilenceMs) {
+    localVad = true;
+    speechStopped(System.nanoTime() - trailingSilenceMs * 1_000_000L);
+  }
+
+  /**
+   * Speech stop from the model's server VAD (e.g. speech_stopped); ignored when a local VAD is running
+   */
+  public synchronized void markServerSpeechStopped() {
+    if (!localVad) {
+      speechStopped(System.nanoTime());
+    }
+  }
+
+  private void speechStopped(long eos) {
+    speechStoppedNanos = eos;
+    // audio that started before the end of speech belongs to an older answer
+    if (firstModelAudioNanos != 0L && firstModelAudioNanos < eos) {
+      firstModelAudioNanos = 0L;
+      modelRecorded = false;
+    }
+    if (firstClientAudioNanos != 0L && firstClientAudioNanos < eos) {
+      firstClientAudioNanos = 0L;
+      clientRecorded = false;
+    }
+    turnAudioSeen = firstModelAudioNanos != 0L && firstClientAudioNanos != 0L;
+    flush();
+  }
+
+  public void markModelAudio() {
+    if (turnAudioSeen) {
+      return;
+    }
+    synchronized (this) {
+      if (firstModelAudioNanos == 0L) {
+        firstModelAudioNanos = System.nanoTime();
+      }
+      turnAudioSeen = firstClientAudioNanos != 0L;
+      flush();
+    }
+  }
+
+  public void markClientAudio() {
+    if (turnAudioSeen && micToFirstAudioRecorded) {
+      return;
+    }
+    synchronized (this) {
+      long now = System.nanoTime();
+      if (!micToFirstAudioRecorded && firstUplinkNanos != 0L) {
+        micToFirstAudioRecorded = true;
+        record(LatencyMetric.MIC_TO_FIRST_AUDIO, now - firstUplinkNanos);
+      }
+      if (firstClientAudioNanos == 0L) {
+        firstClientAudioNanos = now;
+        if (firstModelAudioNanos == 0L) {
+          // the path has no separate model mark (e.g. the audio is forwarded as received)
+          firstModelAudioNanos = now;
+        }
+      }
+      turnAudioSeen = true;
+      flush();
+    }
+  }
+
+  /**
+   * The model dropped its answer (barge-in): audio seen so far does not belong to the next answer
+   */
+  public synchronized void markInterrupted() {
+    firstModelAudioNanos = 0L;
+    firstClientAudioNanos = 0L;
+    modelRecorded = false;
+    clientRecorded = false;
+    turnAudioSeen = false;
+  }
+
+  public synchronized void markTurnComplete() {
+    if (speechStoppedNanos != 0L && clientRecorded) {
+      record(LatencyMetric.FIRST_BYTE_TO_TURN_COMPLETE, System.nanoTime() - firstClientAudioNanos);
+    }
+    speechStoppedNanos = 0L;
+    firstModelAudioNanos = 0L;
+    firstClientAudioNanos = 0L;
+    modelRecorded = false;
+    clientRecorded = false;
+    turnAudioSeen = false;
+  }
+
+  private void flush() {
+    long eos = speechStoppedNanos;
+    if (eos == 0L) {
+      return;
+    }
+    if (!modelRecorded && firstModelAudioNanos != 0L) {
+      modelRecorded = true;
+      record(LatencyMetric.EOS_TO_FIRST_MODEL_AUDIO, firstModelAudioNanos - eos);
+    }
+    if (!clientRecorded && firstClientAudioNanos != 0L) {
+      clientRecorded = true;
+      record(LatencyMetric.EOS_TO_FIRST_BYTE, firstClientAudioNanos - eos);
+      record(LatencyMetric.MODEL_TO_CLIENT, firstClientAudioNanos - firstModelAudioNanos);
+    }
+  }
+
+  private void record(LatencyMetric metric, long nanos) {
+    if (sink == null || nanos < 0) {
+      return;
+    }
+    try {
+      sink.record(metric, nanos / 1000L);
+    } catch (Exception e) {
+      log.warn("latency sink failed, metric={}", metric, e);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package nexus.io.voice.agent.model;
+
+/**
+ * 浏览器 WebSocket 音频编码
+ */
+public enum WsAudioCodec {
+  // 上行 16k、下行 24k 的裸 PCM16 little-endian
+  PCM16("pcm16"),
+  // 20ms 一包的 Opus，每个 WebSocket 二进制消息一个包
+  OPUS("opus");
+
+  private final String value;
+
+  WsAudioCodec(String value) {
+    this.value = value;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * 未知或为空时返回 PCM16
+   */
+  public static WsAudioCodec parse(String value) {
+    if (value != null) {
+      for (WsAudioCodec c : values()) {
+        if (c.value.equalsIgnoreCase(value.trim())) {
+          return c;
+        }
+      }
+    }
+    return PCM16;
+  }
+}
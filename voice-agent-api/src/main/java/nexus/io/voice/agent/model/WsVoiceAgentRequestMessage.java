@@ -19,4 +19,7 @@ public class WsVoiceAgentRequestMessage {
   private String user_prompt; // 当 type == "setup" 时的用户提示
   private String greeting;// 当 type == "setup" 时的欢迎语
   private String language;
+  private Integer uplink_frame_ms; // 当 type == "setup" 时可选：上行音频合并帧长（毫秒），10~200，超出范围使用服务端默认值
+  private String audio_codec; // 当 type == "setup" 时可选：pcm16 | opus，默认 pcm16
+  private Integer binary_protocol; // 当 type == "setup" 时可选：客户端支持的二进制下行帧版本，不传表示旧协议
 }
\ No newline at end of file
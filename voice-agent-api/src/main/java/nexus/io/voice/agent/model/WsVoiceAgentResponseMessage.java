@@ -34,6 +34,10 @@ public class WsVoiceAgentResponseMessage {
   private String where;
   // function call
   private String name;
+  // SETUP_RECEIVED: 协商后的二进制下行帧版本，null 表示旧协议
+  private Integer binaryProtocol;
+  // SETUP_RECEIVED: 协商后的浏览器音频编码，pcm16 | opus
+  private String audioCodec;
 
   public WsVoiceAgentResponseMessage(String type) {
     this.type = type;
@@ -60,4 +64,78 @@ public class WsVoiceAgentResponseMessage {
   public void setTotalTokenCount(Optional<Integer> totalTokenCount) {
     this.totalTokenCount = totalTokenCount != null ? totalTokenCount.orElse(null) : null;
   }
-}
\ No newline at end of file
+
+  /**
+   * 不依赖 JSON 库的 skip-null 序列化，字段名与 JSON 工具类输出一致；timeLeft 按 ISO-8601 字符串输出（如 PT30S）
+   */
+  public String toJson() {
+    StringBuilder sb = new StringBuilder(128);
+    sb.append('{');
+    appendString(sb, "type", type);
+    appendString(sb, "sessionId", sessionId);
+    appendString(sb, "text", text);
+    appendString(sb, "turnId", turnId);
+    appendString(sb, "audioBase64", audioBase64);
+    appendString(sb, "inputText", inputText);
+    appendString(sb, "outputText", outputText);
+    appendNumber(sb, "promptTokenCount", promptTokenCount);
+    appendNumber(sb, "responseTokenCount", responseTokenCount);
+    appendNumber(sb, "totalTokenCount", totalTokenCount);
+    appendString(sb, "timeLeft", timeLeft == null ? null : timeLeft.toString());
+    appendString(sb, "message", message);
+    appendString(sb, "where", where);
+    appendString(sb, "name", name);
+    appendNumber(sb, "binaryProtocol", binaryProtocol);
+    appendString(sb, "audioCodec", audioCodec);
+    return sb.append('}').toString();
+  }
+
+  private static void appendName(StringBuilder sb, String field) {
+    if (sb.length() > 1) {
+      sb.append(',');
+    }
+    sb.append('"').append(field).append("\":");
+  }
+
+  private static void appendNumber(StringBuilder sb, String field, Integer value) {
+    if (value != null) {
+      appendName(sb, field);
+      sb.append(value.intValue());
+    }
+  }
+
+  private static void appendString(StringBuilder sb, String field, String value) {
+    if (value == null) {
+      return;
+    }
+    appendName(sb, field);
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+      case '"':
+        sb.append("\\\"");
+        break;
+      case '\\':
+        sb.append("\\\\");
+        break;
+      case '\n':
+        sb.append("\\n");
+        break;
+      case '\r':
+        sb.append("\\r");
+        break;
+      case '\t':
+        sb.append("\\t");
+        break;
+      default:
+        if (c < 0x20) {
+          sb.append(String.format("\\u%04x", (int) c));
+        } else {
+          sb.append(c);
+        }
+      }
+    }
+    sb.append('"');
+  }
+}
@@ -0,0 +1,77 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * Simple automatic gain control toward a target RMS level.
+ *
+ * - the gain is re-estimated per frame from the frame RMS and moves toward the wanted value with separate attack
+ *   (gain down) and release (gain up) smoothing
+ * - frames below the gate level, or frames marked as non speech by an earlier VAD stage, do not change the gain, so
+ *   background noise is not pumped up between words
+ * - the gain is applied in Q12 fixed point with saturation
+ */
+public class AgcStage implements AudioStage {
+
+  public static final String NAME = "agc";
+
+  private static final int GAIN_BITS = 12;
+  private static final double ATTACK = 0.5;
+  private static final double RELEASE = 0.05;
+
+  private final double targetRms;
+  private final double maxGain;
+  private final double gateRms;
+  private final boolean followVad;
+  private double gain = 1.0;
+
+  /**
+   * @param targetDbfs target RMS level, e.g. -20
+   * @param maxGainDb  upper bound of the applied gain
+   * @param gateDbfs   frames quieter than this keep the current gain
+   * @param followVad  only adapt on frames marked as speech by a VAD stage placed before this one
+   */
+  public AgcStage(double targetDbfs, double maxGainDb, double gateDbfs, boolean followVad) {
+    this.targetRms = 32768.0 * Math.pow(10, targetDbfs / 20);
+    this.maxGain = Math.pow(10, maxGainDb / 20);
+    this.gateRms = 32768.0 * Math.pow(10, gateDbfs / 20);
+    this.followVad = followVad;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) {
+    short[] s = frame.getSamples();
+    int len = frame.getLength();
+    long sum = 0L;
+    for (int i = 0; i < len; i++) {
+      sum += s[i] * s[i];
+    }
+    double rms = Math.sqrt((double) sum / len);
+    if (rms > gateRms && (!followVad || frame.isSpeech())) {
+      double wanted = Math.min(maxGain, targetRms / rms);
+      gain += (wanted - gain) * (wanted < gain ? ATTACK : RELEASE);
+    }
+
+    int g = (int) Math.round(gain * (1 << GAIN_BITS));
+    if (g == 1 << GAIN_BITS) {
+      return frame;
+    }
+    for (int i = 0; i < len; i++) {
+      int v = (s[i] * g) >> GAIN_BITS;
+      s[i] = (short) (v > Short.MAX_VALUE ? Short.MAX_VALUE : v < Short.MIN_VALUE ? Short.MIN_VALUE : v);
+    }
+    return frame;
+  }
+
+  public double getGainDb() {
+    return 20 * Math.log10(gain);
+  }
+
+  @Override
+  public void reset() {
+    gain = 1.0;
+  }
+}
@@ -0,0 +1,233 @@
+package nexus.io.voice.agent.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+import nexus.io.voice.agent.audio.PcmKernels;
+
+/**
+ * A chain of {@link AudioStage}s for one direction of one session, e.g. SIP uplink: resample -> meter -> encode.
+ *
+ * - frames come from the pipeline's own {@link PcmFramePool}, so the steady state does not allocate
+ * - every stage is timed; {@link #getStats()} shows where the time of a path goes
+ * - a stage that throws stops that frame only, the pipeline keeps running; the first failure of each stage is logged,
+ *   later ones are only counted ({@link AudioStageStats#getErrors()}, {@link AudioStageStats#getLastError()})
+ *
+ * Not thread safe: drive each pipeline from one thread at a time (RTP thread, model SDK thread, socket reader).
+ */
+@Slf4j
+public class AudioPipeline {
+
+  private static final int POOL_SIZE = 4;
+
+  private final String name;
+  private final AudioStage[] stages;
+  private final PcmFramePool pool = new PcmFramePool(POOL_SIZE);
+
+  // written by the driving thread only; readers of getStats() may see slightly stale values
+  private final long[] frames;
+  private final long[] stopped;
+  private final long[] errors;
+  private final Exception[] lastErrors;
+  private final long[] totalNanos;
+  private final long[] maxNanos;
+
+  AudioPipeline(String name, List<AudioStage> stages) {
+    this.name = name;
+    this.stages = stages.toArray(new AudioStage[0]);
+    int n = this.stages.length;
+    this.frames = new long[n];
+    this.stopped = new long[n];
+    this.errors = new long[n];
+    this.lastErrors = new Exception[n];
+    this.totalNanos = new long[n];
+    this.maxNanos = new long[n];
+  }
+
+  public static Builder builder(String name) {
+    return new Builder(name);
+  }
+
+  /**
+   * Copy {@code samples[off, off+len)} into a pooled frame and run it through the stages.
+   */
+  public void push(short[] samples, int off, int len, int sampleRate) {
+    if (samples == null || len <= 0) {
+      return;
+    }
+    PcmFrame frame = pool.acquire(len);
+    System.arraycopy(samples, off, frame.getSamples(), 0, len);
+    frame.setLength(len);
+    frame.setSampleRate(sampleRate);
+    frame.setTimestampMillis(System.currentTimeMillis());
+    process(frame);
+  }
+
+  /**
+   * Decode PCM16 LE {@code pcm[off, off+len)} into a pooled frame and run it through the stages.
+   */
+  public void pushPcm16(byte[] pcm, int off, int len, int sampleRate) {
+    int samples = len / 2;
+    if (pcm == null || samples <= 0) {
+      return;
+    }
+    PcmFrame frame = pool.acquire(samples);
+    PcmKernels.bytesToShorts(pcm, off, frame.getSamples(), 0, samples);
+    frame.setLength(samples);
+    frame.setSampleRate(sampleRate);
+    frame.setTimestampMillis(System.currentTimeMillis());
+    process(frame);
+  }
+
+  /**
+   * Run a frame taken from {@link #getPool()} through all stages and release it.
+   */
+  public void process(PcmFrame frame) {
+    PcmFrame current = frame;
+    for (int i = 0; i < stages.length && current != null; i++) {
+      long start = System.nanoTime();
+      PcmFrame next;
+      try {
+        next = stages[i].process(current, pool);
+      } catch (Exception e) {
+        // runs per frame on the media thread: log once per stage, count the rest
+        if (errors[i]++ == 0) {
+          log.warn("audio pipeline {} stage {} failed, further failures are only counted", name, stages[i].getName(), e);
+        }
+        lastErrors[i] = e;
+        next = null;
+      }
+      long cost = System.nanoTime() - start;
+      frames[i]++;
+      totalNanos[i] += cost;
+      if (cost > maxNanos[i]) {
+        maxNanos[i] = cost;
+      }
+      if (next == null) {
+        stopped[i]++;
+        pool.release(current);
+      }
+      current = next;
+    }
+    if (current != null) {
+      pool.release(current);
+    }
+  }
+
+  public void reset() {
+    for (AudioStage stage : stages) {
+      stage.reset();
+    }
+  }
+
+  public PcmFramePool getPool() {
+    return pool;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Stage names in execution order
+   */
+  public List<String> getStageNames() {
+    List<String> names = new ArrayList<>(stages.length);
+    for (AudioStage s : stages) {
+      names.add(s.getName());
+    }
+    return names;
+  }
+
+  /**
+   * First stage of the given type, null when the pipeline does not contain one
+   */
+  public <T extends AudioStage> T getStage(Class<T> type) {
+    for (AudioStage s : stages) {
+      if (type.isInstance(s)) {
+        return type.cast(s);
+      }
+    }
+    return null;
+  }
+
+  public List<AudioStageStats> getStats() {
+    List<AudioStageStats> list = new ArrayList<>(stages.length);
+    for (int i = 0; i < stages.length; i++) {
+      long n = frames[i];
+      Exception e = lastErrors[i];
+      list.add(new AudioStageStats(stages[i].getName(), n, stopped[i], errors[i], n == 0 ? 0 : totalNanos[i] / n,
+          maxNanos[i], e == null ? null : e.toString()));
+    }
+    return list;
+  }
+
+  /**
+   * Collects stages and builds the pipeline, optionally filtered and reordered by a spec such as
+   * {@code "agc,meter,record"}:
+   * - without a spec, all stages added with {@code enabled=true} run in the order they were added
+   * - with a spec, exactly the named non-terminal stages run in the spec order; unknown names are ignored
+   * - terminal stages always run last, in the order they were added
+   */
+  public static class Builder {
+    private final String name;
+    private final Map<String, AudioStage> stages = new LinkedHashMap<>();
+    private final List<String> defaults = new ArrayList<>();
+    private final List<AudioStage> terminals = new ArrayList<>();
+
+    private Builder(String name) {
+      this.name = name;
+    }
+
+    public Builder add(AudioStage stage) {
+      return add(stage, true);
+    }
+
+    /**
+     * @param enabled whether the stage runs when no spec is given
+     */
+    public Builder add(AudioStage stage, boolean enabled) {
+      if (stage.isTerminal()) {
+        terminals.add(stage);
+        return this;
+      }
+      if (stages.put(stage.getName(), stage) != null) {
+        throw new IllegalArgumentException("duplicate stage name: " + stage.getName());
+      }
+      if (enabled) {
+        defaults.add(stage.getName());
+      }
+      return this;
+    }
+
+    public AudioPipeline build() {
+      return build(null);
+    }
+
+    public AudioPipeline build(String spec) {
+      List<String> order = defaults;
+      if (spec != null && !spec.trim().isEmpty()) {
+        order = new ArrayList<>();
+        for (String s : spec.split(",")) {
+          String n = s.trim();
+          if (!n.isEmpty() && !order.contains(n)) {
+            order.add(n);
+          }
+        }
+      }
+      List<AudioStage> list = new ArrayList<>();
+      for (String n : order) {
+        AudioStage stage = stages.get(n);
+        if (stage != null) {
+          list.add(stage);
+        }
+      }
+      list.addAll(terminals);
+      return new AudioPipeline(name, Collections.unmodifiableList(list));
+    }
+  }
+}
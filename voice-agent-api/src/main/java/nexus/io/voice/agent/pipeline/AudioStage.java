@@ -0,0 +1,34 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * One step of an {@link AudioPipeline}.
+ *
+ * {@link #process(PcmFrame, PcmFramePool)} may
+ * - modify the frame in place and return it
+ * - take a new frame from the pool, release the input and return the new one
+ * - return null to stop the frame here (dropped or fully consumed); the pipeline releases the input in that case
+ *
+ * Stages keep per-stream state and are not shared between pipelines.
+ */
+public interface AudioStage {
+
+  /**
+   * Short name used in pipeline specs and stats, e.g. "resample"
+   */
+  String getName();
+
+  PcmFrame process(PcmFrame frame, PcmFramePool pool) throws Exception;
+
+  /**
+   * Terminal stages (sinks) stay at the end of the pipeline whatever order is configured.
+   */
+  default boolean isTerminal() {
+    return false;
+  }
+
+  /**
+   * Forget stream state, e.g. after a barge-in
+   */
+  default void reset() {
+  }
+}
@@ -0,0 +1,23 @@
+package nexus.io.voice.agent.pipeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-stage counters of an {@link AudioPipeline}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudioStageStats {
+  private String name;
+  private long frames;
+  // frames the stage stopped (returned null)
+  private long stopped;
+  private long errors;
+  private long avgNanos;
+  private long maxNanos;
+  // the most recent failure, null when the stage never threw
+  private String lastError;
+}
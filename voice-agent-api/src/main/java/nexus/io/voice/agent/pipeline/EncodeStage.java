@@ -0,0 +1,40 @@
+package nexus.io.voice.agent.pipeline;
+
+import nexus.io.voice.agent.audio.PcmKernels;
+
+/**
+ * Terminal stage: encodes the frame as PCM16 little-endian into a reused buffer and passes it on, e.g. to
+ * {@code RealtimeModelBridge.sendPcm16k} or a socket.
+ */
+public class EncodeStage implements AudioStage {
+
+  public static final String NAME = "encode";
+
+  private final PcmBytesSink sink;
+  private byte[] buffer = new byte[0];
+
+  public EncodeStage(PcmBytesSink sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean isTerminal() {
+    return true;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) throws Exception {
+    int bytes = frame.getLength() * 2;
+    if (buffer.length < bytes) {
+      buffer = new byte[bytes];
+    }
+    PcmKernels.shortsToBytes(frame.getSamples(), 0, buffer, 0, frame.getLength());
+    sink.accept(buffer, 0, bytes, frame.getSampleRate());
+    return frame;
+  }
+}
@@ -0,0 +1,66 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * Level meter: peak and RMS of the last frame plus totals. Passes frames through unchanged.
+ */
+public class MeterStage implements AudioStage {
+
+  public static final String NAME = "meter";
+
+  private volatile long samples = 0L;
+  private volatile long speechSamples = 0L;
+  private volatile int lastPeak = 0;
+  private volatile double lastRmsDbfs = -100.0;
+  private volatile int sampleRate = 0;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) {
+    short[] s = frame.getSamples();
+    int len = frame.getLength();
+    long sum = 0L;
+    int peak = 0;
+    for (int i = 0; i < len; i++) {
+      int v = s[i];
+      sum += v * v;
+      int a = v < 0 ? -v : v;
+      if (a > peak) {
+        peak = a;
+      }
+    }
+    lastPeak = peak;
+    lastRmsDbfs = 10 * Math.log10((double) sum / len / (32768.0 * 32768.0) + 1e-10);
+    samples += len;
+    if (frame.isSpeech()) {
+      speechSamples += len;
+    }
+    sampleRate = frame.getSampleRate();
+    return frame;
+  }
+
+  public long getSamples() {
+    return samples;
+  }
+
+  public long getDurationMs() {
+    int rate = sampleRate;
+    return rate <= 0 ? 0L : samples * 1000L / rate;
+  }
+
+  public long getSpeechMs() {
+    int rate = sampleRate;
+    return rate <= 0 ? 0L : speechSamples * 1000L / rate;
+  }
+
+  public int getLastPeak() {
+    return lastPeak;
+  }
+
+  public double getLastRmsDbfs() {
+    return lastRmsDbfs;
+  }
+}
@@ -0,0 +1,8 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * Receives PCM16 LE bytes from {@link EncodeStage}. {@code buf} is reused after the call returns.
+ */
+public interface PcmBytesSink {
+  void accept(byte[] buf, int off, int len, int sampleRate) throws Exception;
+}
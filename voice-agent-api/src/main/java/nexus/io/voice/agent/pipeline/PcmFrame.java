@@ -0,0 +1,89 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * Mono PCM16 frame passed between {@link AudioStage}s. Frames come from a {@link PcmFramePool} and are only valid
+ * during one {@link AudioPipeline#process(PcmFrame)} call; a stage that needs the data later must copy it.
+ */
+public class PcmFrame {
+
+  private short[] samples;
+  private int length;
+  private int sampleRate;
+  private long timestampMillis;
+  // set by a VAD stage, false when no VAD runs before the reader
+  private boolean speech;
+  // true while the frame sits in the pool's free list
+  boolean free;
+
+  PcmFrame(int capacity) {
+    this.samples = new short[capacity];
+  }
+
+  public short[] getSamples() {
+    return samples;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public void setLength(int length) {
+    this.length = length;
+  }
+
+  public int getCapacity() {
+    return samples.length;
+  }
+
+  /**
+   * Grow the backing array, keeping the current content
+   */
+  public short[] ensureCapacity(int capacity) {
+    if (samples.length < capacity) {
+      short[] bigger = new short[capacity];
+      System.arraycopy(samples, 0, bigger, 0, length);
+      samples = bigger;
+    }
+    return samples;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(int sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  public void setTimestampMillis(long timestampMillis) {
+    this.timestampMillis = timestampMillis;
+  }
+
+  public boolean isSpeech() {
+    return speech;
+  }
+
+  public void setSpeech(boolean speech) {
+    this.speech = speech;
+  }
+
+  /**
+   * Copy the metadata of another frame (not the samples)
+   */
+  public void copyMeta(PcmFrame from) {
+    this.sampleRate = from.sampleRate;
+    this.timestampMillis = from.timestampMillis;
+    this.speech = from.speech;
+  }
+
+  void clear() {
+    length = 0;
+    sampleRate = 0;
+    timestampMillis = 0L;
+    speech = false;
+  }
+}
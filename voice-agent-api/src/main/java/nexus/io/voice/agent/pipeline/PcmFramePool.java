@@ -0,0 +1,54 @@
+package nexus.io.voice.agent.pipeline;
+
+import java.util.ArrayDeque;
+
+/**
+ * Small free list of {@link PcmFrame}s owned by one pipeline. Not thread safe: a pipeline is driven by a single
+ * thread at a time, so the pool needs no locking.
+ */
+public class PcmFramePool {
+
+  private final int maxPooled;
+  private final ArrayDeque<PcmFrame> free = new ArrayDeque<>();
+  private long allocated = 0L;
+
+  public PcmFramePool(int maxPooled) {
+    this.maxPooled = Math.max(1, maxPooled);
+  }
+
+  public PcmFrame acquire(int minCapacity) {
+    PcmFrame f = free.pollFirst();
+    if (f == null) {
+      allocated++;
+      return new PcmFrame(minCapacity);
+    }
+    f.free = false;
+    f.ensureCapacity(minCapacity);
+    return f;
+  }
+
+  /**
+   * Return a frame to the pool. Releasing a frame twice would let two later {@link #acquire} calls share one buffer,
+   * so it is rejected.
+   */
+  public void release(PcmFrame frame) {
+    if (frame == null) {
+      return;
+    }
+    if (frame.free) {
+      throw new IllegalStateException("frame already released");
+    }
+    frame.free = true;
+    frame.clear();
+    if (free.size() < maxPooled) {
+      free.offerFirst(frame);
+    }
+  }
+
+  /**
+   * Frames created so far; stays flat once the pipeline is warm
+   */
+  public long getAllocated() {
+    return allocated;
+  }
+}
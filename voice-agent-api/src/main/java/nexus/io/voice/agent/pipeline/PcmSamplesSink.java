@@ -0,0 +1,9 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * Receives samples from {@link SamplesSinkStage}. {@code samples} belongs to a pooled frame and is reused after the
+ * call returns.
+ */
+public interface PcmSamplesSink {
+  void accept(short[] samples, int off, int len, int sampleRate) throws Exception;
+}
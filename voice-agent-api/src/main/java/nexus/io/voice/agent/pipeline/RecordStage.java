@@ -0,0 +1,42 @@
+package nexus.io.voice.agent.pipeline;
+
+import nexus.io.voice.agent.audio.PcmKernels;
+import nexus.io.voice.agent.audio.SessionAudioRecorder;
+
+/**
+ * Hands the frame to the session recorder as PCM16 LE. The bytes are a fresh array owned by the recording writer, so
+ * the pooled frame is free again as soon as this stage returns.
+ */
+public class RecordStage implements AudioStage {
+
+  public static final String NAME = "record";
+
+  public enum Role {
+    USER, MODEL
+  }
+
+  private final String sessionId;
+  private final Role role;
+
+  public RecordStage(String sessionId, Role role) {
+    this.sessionId = sessionId;
+    this.role = role;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) throws Exception {
+    byte[] pcm = new byte[frame.getLength() * 2];
+    PcmKernels.shortsToBytes(frame.getSamples(), 0, pcm, 0, frame.getLength());
+    if (role == Role.USER) {
+      SessionAudioRecorder.appendUserPcm(sessionId, pcm);
+    } else {
+      SessionAudioRecorder.appendModelPcm(sessionId, pcm);
+    }
+    return frame;
+  }
+}
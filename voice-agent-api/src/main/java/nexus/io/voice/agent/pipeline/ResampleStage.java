@@ -0,0 +1,63 @@
+package nexus.io.voice.agent.pipeline;
+
+import java.util.function.IntSupplier;
+
+import nexus.io.voice.agent.audio.PcmResampler;
+import nexus.io.voice.agent.audio.PcmResamplers;
+
+/**
+ * Converts frames to the target rate with a streaming {@link PcmResampler}. The target can be fixed or looked up per
+ * frame (e.g. the negotiated SIP rate); the resampler is rebuilt when either rate changes.
+ */
+public class ResampleStage implements AudioStage {
+
+  public static final String NAME = "resample";
+
+  private final IntSupplier targetRate;
+  private PcmResampler resampler;
+
+  public ResampleStage(int targetRate) {
+    this(() -> targetRate);
+  }
+
+  public ResampleStage(IntSupplier targetRate) {
+    this.targetRate = targetRate;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) {
+    int inRate = frame.getSampleRate();
+    int outRate = targetRate.getAsInt();
+    if (inRate == outRate || inRate <= 0 || outRate <= 0) {
+      return frame;
+    }
+    PcmResampler r = this.resampler;
+    if (r == null || r.getInputRate() != inRate || r.getOutputRate() != outRate) {
+      r = PcmResamplers.create(inRate, outRate);
+      this.resampler = r;
+    }
+    PcmFrame out = pool.acquire(r.maxOutputLength(frame.getLength()));
+    out.copyMeta(frame);
+    out.setSampleRate(outRate);
+    out.setLength(r.resample(frame.getSamples(), 0, frame.getLength(), out.getSamples(), 0));
+    if (out.getLength() == 0) {
+      // still filling the filter; the pipeline releases the input
+      pool.release(out);
+      return null;
+    }
+    pool.release(frame);
+    return out;
+  }
+
+  @Override
+  public void reset() {
+    if (resampler != null) {
+      resampler.reset();
+    }
+  }
+}
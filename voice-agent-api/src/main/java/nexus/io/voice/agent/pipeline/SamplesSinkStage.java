@@ -0,0 +1,31 @@
+package nexus.io.voice.agent.pipeline;
+
+/**
+ * Terminal stage handing the samples to a consumer that works on shorts, e.g. a playout buffer.
+ */
+public class SamplesSinkStage implements AudioStage {
+
+  public static final String NAME = "sink";
+
+  private final PcmSamplesSink sink;
+
+  public SamplesSinkStage(PcmSamplesSink sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean isTerminal() {
+    return true;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) throws Exception {
+    sink.accept(frame.getSamples(), 0, frame.getLength(), frame.getSampleRate());
+    return frame;
+  }
+}
@@ -0,0 +1,68 @@
+package nexus.io.voice.agent.pipeline;
+
+import nexus.io.voice.agent.audio.EnergyVad;
+import nexus.io.voice.agent.audio.VadEvent;
+import nexus.io.voice.agent.bridge.RealtimeBridgeCallback;
+
+/**
+ * Marks frames with {@link PcmFrame#isSpeech()} and reports speech start/stop to the callback. Frames of any length
+ * are analysed in {@link EnergyVad} sized blocks; a partial block is carried to the next frame. Nothing is dropped
+ * here: silence suppression toward the model is done by {@code VadRealtimeModelBridge}, which also owns the pre-roll.
+ */
+public class VadStage implements AudioStage {
+
+  public static final String NAME = "vad";
+
+  private final EnergyVad vad;
+  private final RealtimeBridgeCallback callback;
+  private final short[] block;
+  private int blockLength = 0;
+
+  public VadStage(EnergyVad vad, RealtimeBridgeCallback callback) {
+    this.vad = vad;
+    this.callback = callback;
+    this.block = new short[vad.getFrameSamples()];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PcmFrame process(PcmFrame frame, PcmFramePool pool) {
+    short[] s = frame.getSamples();
+    int off = 0;
+    int len = frame.getLength();
+    while (len > 0) {
+      int n = Math.min(block.length - blockLength, len);
+      System.arraycopy(s, off, block, blockLength, n);
+      blockLength += n;
+      off += n;
+      len -= n;
+      if (blockLength == block.length) {
+        blockLength = 0;
+        VadEvent event = vad.process(block, 0);
+        if (callback != null) {
+          if (event == VadEvent.SPEECH_START) {
+            callback.onLocalSpeechStart();
+          } else if (event == VadEvent.SPEECH_STOP) {
+            callback.onLocalSpeechStop(vad.getSpeechMs(), vad.getHangoverMs());
+          }
+        }
+      }
+    }
+    frame.setSpeech(vad.isSpeaking());
+    return frame;
+  }
+
+  public EnergyVad getVad() {
+    return vad;
+  }
+
+  @Override
+  public void reset() {
+    vad.reset();
+    blockLength = 0;
+  }
+}
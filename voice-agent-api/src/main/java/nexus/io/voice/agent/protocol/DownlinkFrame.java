@@ -0,0 +1,24 @@
+package nexus.io.voice.agent.protocol;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 解码后的二进制下行帧
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownlinkFrame {
+  private int version;
+  private DownlinkFrameType type;
+  private int flags;
+  private long sequence;
+  // 相对会话开始的毫秒数
+  private long timestampMs;
+  // 仅 AUDIO 有意义，其余为 0
+  private int sampleRate;
+  private String turnId;
+  private byte[] payload;
+}
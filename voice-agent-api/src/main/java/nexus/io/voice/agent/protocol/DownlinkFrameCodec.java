@@ -0,0 +1,129 @@
+package nexus.io.voice.agent.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 浏览器 WebSocket 二进制下行帧编解码，整数均为大端序。
+ *
+ * <pre>
+ * offset  size  field
+ * 0       1     version (1)
+ * 1       1     type, see {@link DownlinkFrameType}
+ * 2       1     flags
+ * 3       1     turnId length in bytes (0-255)
+ * 4       4     sequence, unsigned, per session
+ * 8       4     timestamp ms since session start, unsigned
+ * 12      4     sample rate (AUDIO only, otherwise 0)
+ * 16      n     turnId, UTF-8
+ * ..      0-3   zero padding, payload starts on a 4-byte boundary
+ * ..      ..    payload
+ * </pre>
+ *
+ * payload 4 字节对齐，浏览器可以直接在原 ArrayBuffer 上创建 Int16Array。
+ */
+public class DownlinkFrameCodec {
+
+  public static final int VERSION = 1;
+  public static final int HEADER_LENGTH = 16;
+  public static final int MAX_TURN_ID_LENGTH = 255;
+
+  public static final int FLAG_NONE = 0;
+  /**
+   * AUDIO payload 是一个 Opus 包而不是 PCM16
+   */
+  public static final int FLAG_OPUS = 1;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  /**
+   * 超过 255 字节时在字符边界截断，不会留下半个 UTF-8 字符
+   */
+  public static byte[] turnIdBytes(String turnId) {
+    if (turnId == null || turnId.isEmpty()) {
+      return EMPTY;
+    }
+    byte[] b = turnId.getBytes(StandardCharsets.UTF_8);
+    if (b.length <= MAX_TURN_ID_LENGTH) {
+      return b;
+    }
+    int n = MAX_TURN_ID_LENGTH;
+    // b[n] 是续字节 10xxxxxx 说明它所属的字符跨过了截断点，整个丢弃
+    while (n > 0 && (b[n] & 0xc0) == 0x80) {
+      n--;
+    }
+    return Arrays.copyOf(b, n);
+  }
+
+  public static int payloadOffset(int turnIdLength) {
+    return HEADER_LENGTH + ((turnIdLength + 3) & ~3);
+  }
+
+  /**
+   * 一次分配完成整帧
+   */
+  public static byte[] encode(DownlinkFrameType type, int flags, long sequence, long timestampMs, int sampleRate,
+      byte[] turnId, byte[] payload, int off, int len) {
+    int turnIdLength = turnId == null ? 0 : turnId.length;
+    if (turnIdLength > MAX_TURN_ID_LENGTH) {
+      throw new IllegalArgumentException("turnId too long: " + turnIdLength);
+    }
+    int payloadOffset = payloadOffset(turnIdLength);
+    byte[] frame = new byte[payloadOffset + len];
+    frame[0] = (byte) VERSION;
+    frame[1] = (byte) type.getCode();
+    frame[2] = (byte) flags;
+    frame[3] = (byte) turnIdLength;
+    putInt(frame, 4, (int) sequence);
+    putInt(frame, 8, (int) timestampMs);
+    putInt(frame, 12, sampleRate);
+    if (turnIdLength > 0) {
+      System.arraycopy(turnId, 0, frame, HEADER_LENGTH, turnIdLength);
+    }
+    if (len > 0) {
+      System.arraycopy(payload, off, frame, payloadOffset, len);
+    }
+    return frame;
+  }
+
+  public static DownlinkFrame decode(byte[] frame) {
+    if (frame == null || frame.length < HEADER_LENGTH) {
+      throw new IllegalArgumentException("frame too short");
+    }
+    int version = frame[0] & 0xff;
+    if (version != VERSION) {
+      throw new IllegalArgumentException("unsupported frame version: " + version);
+    }
+    DownlinkFrameType type = DownlinkFrameType.fromCode(frame[1] & 0xff);
+    if (type == null) {
+      throw new IllegalArgumentException("unknown frame type: " + (frame[1] & 0xff));
+    }
+    int turnIdLength = frame[3] & 0xff;
+    int payloadOffset = payloadOffset(turnIdLength);
+    if (frame.length < payloadOffset) {
+      throw new IllegalArgumentException("frame truncated");
+    }
+
+    DownlinkFrame f = new DownlinkFrame();
+    f.setVersion(version);
+    f.setType(type);
+    f.setFlags(frame[2] & 0xff);
+    f.setSequence(getInt(frame, 4) & 0xffffffffL);
+    f.setTimestampMs(getInt(frame, 8) & 0xffffffffL);
+    f.setSampleRate(getInt(frame, 12));
+    f.setTurnId(turnIdLength > 0 ? new String(frame, HEADER_LENGTH, turnIdLength, StandardCharsets.UTF_8) : null);
+    f.setPayload(Arrays.copyOfRange(frame, payloadOffset, frame.length));
+    return f;
+  }
+
+  private static void putInt(byte[] b, int p, int v) {
+    b[p] = (byte) (v >>> 24);
+    b[p + 1] = (byte) (v >>> 16);
+    b[p + 2] = (byte) (v >>> 8);
+    b[p + 3] = (byte) v;
+  }
+
+  private static int getInt(byte[] b, int p) {
+    return (b[p] & 0xff) << 24 | (b[p + 1] & 0xff) << 16 | (b[p + 2] & 0xff) << 8 | (b[p + 3] & 0xff);
+  }
+}
@@ -0,0 +1,82 @@
+package nexus.io.voice.agent.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话级下行帧编码器：维护序号、会话起始时间，并缓存最近一次 turnId 的 UTF-8 字节。
+ *
+ * 可被 SDK 的多个回调线程同时调用，序号按调用顺序分配。
+ */
+public class DownlinkFrameEncoder {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final long startNanos = System.nanoTime();
+  private final AtomicLong sequence = new AtomicLong();
+  private final int version;
+
+  private volatile CachedTurnId cachedTurnId = new CachedTurnId(null, EMPTY);
+
+  public DownlinkFrameEncoder(int version) {
+    if (version != DownlinkFrameCodec.VERSION) {
+      throw new IllegalArgumentException("unsupported frame version: " + version);
+    }
+    this.version = version;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public byte[] audio(String turnId, int sampleRate, byte[] pcm, int off, int len) {
+    return encode(DownlinkFrameType.AUDIO, DownlinkFrameCodec.FLAG_NONE, turnId, sampleRate, pcm, off, len);
+  }
+
+  public byte[] opus(String turnId, int sampleRate, byte[] packet) {
+    return encode(DownlinkFrameType.AUDIO, DownlinkFrameCodec.FLAG_OPUS, turnId, sampleRate, packet, 0,
+        packet.length);
+  }
+
+  /**
+   * @return null 表示该事件没有对应的二进制帧类型，调用方应继续发送 JSON
+   */
+  public byte[] event(String eventType, String turnId, String text) {
+    DownlinkFrameType type = DownlinkFrameType.fromEventType(eventType);
+    if (type == null) {
+      return null;
+    }
+    byte[] payload = text == null || text.isEmpty() ? EMPTY : text.getBytes(StandardCharsets.UTF_8);
+    return encode(type, DownlinkFrameCodec.FLAG_NONE, turnId, 0, payload, 0, payload.length);
+  }
+
+  private byte[] encode(DownlinkFrameType type, int flags, String turnId, int sampleRate, byte[] payload, int off,
+      int len) {
+    long timestampMs = (System.nanoTime() - startNanos) / 1_000_000L;
+    return DownlinkFrameCodec.encode(type, flags, sequence.getAndIncrement(), timestampMs, sampleRate,
+        turnIdBytes(turnId), payload, off, len);
+  }
+
+  private byte[] turnIdBytes(String turnId) {
+    if (turnId == null || turnId.isEmpty()) {
+      return EMPTY;
+    }
+    CachedTurnId c = cachedTurnId;
+    if (turnId.equals(c.turnId)) {
+      return c.bytes;
+    }
+    byte[] b = DownlinkFrameCodec.turnIdBytes(turnId);
+    cachedTurnId = new CachedTurnId(turnId, b);
+    return b;
+  }
+
+  private static final class CachedTurnId {
+    private final String turnId;
+    private final byte[] bytes;
+
+    private CachedTurnId(String turnId, byte[] bytes) {
+      this.turnId = turnId;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package nexus.io.voice.agent.protocol;
+
+/**
+ * 二进制下行帧类型。payload 为空的类型只是轮次标记；文本类 payload 为 UTF-8。
+ */
+public enum DownlinkFrameType {
+  // payload: PCM16 little-endian mono
+  AUDIO(1, null),
+  // payload: empty
+  ASSISTANT_TURN_START(2, "assistant_turn_start"),
+  ASSISTANT_TURN_COMPLETE(3, "assistant_turn_complete"),
+  ASSISTANT_TURN_INTERRUPT(4, "assistant_turn_interrupt"),
+  INTERRUPTED(5, "interrupted"),
+  SPEECH_STARTED(6, "speech_started"),
+  TURN_COMPLETE(7, "turn_complete"),
+  // payload: UTF-8 text
+  TRANSCRIPT_IN(16, "transcript_in"),
+  TRANSCRIPT_OUT(17, "transcript_out"),
+  TEXT(18, "text");
+
+  private static final DownlinkFrameType[] BY_CODE = new DownlinkFrameType[256];
+
+  static {
+    for (DownlinkFrameType t : values()) {
+      BY_CODE[t.code] = t;
+    }
+  }
+
+  private final int code;
+  private final String eventType;
+
+  DownlinkFrameType(int code, String eventType) {
+    this.code = code;
+    this.eventType = eventType;
+  }
+
+  public int getCode() {
+    return code;
+  }
+
+  /**
+   * 对应 WsVoiceAgentResponseMessage.type，AUDIO 为 null
+   */
+  public String getEventType() {
+    return eventType;
+  }
+
+  public static DownlinkFrameType fromCode(int code) {
+    return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+  }
+
+  /**
+   * 可以用二进制帧发送的 JSON 事件，其余事件仍走文本帧
+   */
+  public static DownlinkFrameType fromEventType(String eventType) {
+    if (eventType == null) {
+      return null;
+    }
+    switch (eventType) {
+    case "assistant_turn_start":
+      return ASSISTANT_TURN_START;
+    case "assistant_turn_complete":
+      return ASSISTANT_TURN_COMPLETE;
+    case "assistant_turn_interrupt":
+      return ASSISTANT_TURN_INTERRUPT;
+    case "interrupted":
+      return INTERRUPTED;
+    case "speech_started":
+      return SPEECH_STARTED;
+    case "turn_complete":
+      return TURN_COMPLETE;
+    case "transcript_in":
+      return TRANSCRIPT_IN;
+    case "transcript_out":
+      return TRANSCRIPT_OUT;
+    case "text":
+      return TEXT;
+    default:
+      return null;
+    }
+  }
+}
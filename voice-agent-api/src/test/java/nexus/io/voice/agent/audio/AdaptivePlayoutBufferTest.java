@@ -0,0 +1,50 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AdaptivePlayoutBufferTest {
+
+  private static final int RATE = 8000;
+  private static final int FRAME = 160;
+
+  @Test
+  public void readOnExactlyDrainedBufferEndsPlayout() {
+    AdaptivePlayoutBuffer buffer = new AdaptivePlayoutBuffer(RATE, 1000, PcmOverrunPolicy.DROP_OLDEST, 0, 0, 200);
+    short[] out = new short[FRAME];
+
+    buffer.write(new short[FRAME], 0, FRAME);
+    assertEquals(FRAME, buffer.read(out, 0, FRAME));
+    assertTrue(buffer.isPlaying());
+    assertTrue(buffer.isEmpty());
+
+    // the drained buffer has to see this read, otherwise the next answer starts without pre-buffering
+    assertEquals(0, buffer.read(out, 0, FRAME));
+    assertFalse(buffer.isPlaying());
+  }
+
+  @Test
+  public void flushOnEmptyBufferIsApplied() {
+    AdaptivePlayoutBuffer buffer = new AdaptivePlayoutBuffer(RATE, 1000, PcmOverrunPolicy.DROP_OLDEST, 0, 0, 200);
+    short[] out = new short[FRAME];
+
+    buffer.write(new short[FRAME], 0, FRAME);
+    buffer.read(out, 0, FRAME);
+    buffer.flush(0);
+    assertEquals(0, buffer.read(out, 0, FRAME));
+    assertEquals(1, buffer.getStats().getFlushes());
+    assertFalse(buffer.isPlaying());
+  }
+
+  @Test
+  public void highWatermarkIsConfigurable() {
+    AdaptivePlayoutBuffer buffer = new AdaptivePlayoutBuffer(RATE, 1000, PcmOverrunPolicy.DROP_OLDEST, 0, 0, 200, 100);
+    buffer.write(new short[RATE / 20], 0, RATE / 20);
+    assertFalse(buffer.isAboveHighWatermark());
+    buffer.write(new short[RATE / 20], 0, RATE / 20);
+    assertTrue(buffer.isAboveHighWatermark());
+  }
+}
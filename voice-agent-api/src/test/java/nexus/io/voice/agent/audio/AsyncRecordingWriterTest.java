@@ -0,0 +1,193 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncRecordingWriterTest {
+
+  private final List<RecordingHandle> handles = new ArrayList<>();
+
+  @After
+  public void tearDown() throws IOException {
+    for (RecordingHandle h : handles) {
+      h.cleanUp();
+    }
+  }
+
+  @Test
+  public void queuedWritesAreAppliedInOrderBeforeStopFinishes() throws Exception {
+    RecordingHandle handle = handle("order");
+    ManualExecutor executor = new ManualExecutor();
+    AsyncRecordingWriter writer = new AsyncRecordingWriter(handle, executor);
+
+    writer.appendUser(new byte[] { 1, 0 });
+    writer.appendModel(new byte[] { 2, 0 });
+    writer.interruptModel();
+    writer.appendUser(new byte[] { 9, 3, 0, 9 }, 1, 2);
+    writer.stop(null);
+    writer.appendUser(new byte[] { 4, 0 });
+    assertTrue(handle.events.isEmpty());
+
+    executor.runAll();
+    assertEquals(Arrays.asList("user:1", "model:2", "interrupt", "user:3", "finish"), handle.events);
+    assertEquals(0, writer.getPendingBytes());
+    assertEquals(1, executor.executed);
+  }
+
+  /**
+   * Many producers on a real pool: one drain at a time, so each producer's chunks land in its own order and the
+   * finish comes after all of them.
+   */
+  @Test
+  public void concurrentProducersKeepTheirOrder() throws Exception {
+    RecordingHandle handle = handle("concurrent");
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    AsyncRecordingWriter writer = new AsyncRecordingWriter(handle, pool);
+
+    Thread user = new Thread(() -> {
+      for (int i = 0; i < 2000; i++) {
+        writer.appendUser(new byte[] { (byte) i, (byte) (i >> 8) });
+      }
+    });
+    Thread model = new Thread(() -> {
+      for (int i = 0; i < 2000; i++) {
+        writer.appendModel(new byte[] { (byte) i, (byte) (i >> 8) });
+      }
+    });
+    user.start();
+    model.start();
+    user.join();
+    model.join();
+    writer.stop(null);
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+    List<String> events = handle.events;
+    assertEquals(4001, events.size());
+    assertEquals("finish", events.get(events.size() - 1));
+    int nextUser = 0;
+    int nextModel = 0;
+    for (String e : events.subList(0, 4000)) {
+      if (e.startsWith("user:")) {
+        assertEquals("user:" + nextUser++, e);
+      } else {
+        assertEquals("model:" + nextModel++, e);
+      }
+    }
+  }
+
+  @Test
+  public void backlogLimitDropsAndCountsChunks() throws Exception {
+    RecordingHandle handle = handle("backlog");
+    ManualExecutor executor = new ManualExecutor();
+    AsyncRecordingWriter writer = new AsyncRecordingWriter(handle, executor);
+
+    int chunk = 1024 * 1024;
+    int fits = AsyncRecordingWriter.MAX_PENDING_BYTES / chunk;
+    for (int i = 0; i < fits + 2; i++) {
+      writer.appendModel(new byte[chunk]);
+    }
+    assertEquals(AsyncRecordingWriter.MAX_PENDING_BYTES, writer.getPendingBytes());
+    assertEquals(2L * chunk, writer.getDroppedBytes());
+
+    executor.runAll();
+    assertEquals(0, writer.getPendingBytes());
+    assertEquals(fits, handle.events.size());
+
+    // the freed room takes new chunks again
+    writer.appendUser(new byte[chunk]);
+    writer.closeQuietly();
+    executor.runAll();
+    assertEquals(fits + 2, handle.events.size());
+    assertEquals("close", handle.events.get(fits + 1));
+    assertEquals(2L * chunk, writer.getDroppedBytes());
+  }
+
+  private RecordingHandle handle(String name) throws IOException {
+    RecordingHandle h = new RecordingHandle("async-writer-test-" + name);
+    handles.add(h);
+    return h;
+  }
+
+  /**
+   * Records what reaches the handle instead of writing WAV data.
+   */
+  private static final class RecordingHandle extends RecorderHandle {
+    final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingHandle(String sessionId) throws IOException {
+      super(sessionId, 16000, 24000);
+    }
+
+    @Override
+    public void writeUser(byte[] pcm, int off, int len, long arrivalNanos) {
+      events.add("user:" + sampleAt(pcm, off, len));
+    }
+
+    @Override
+    public void writeModel(byte[] pcm, int off, int len, long arrivalNanos) {
+      events.add("model:" + sampleAt(pcm, off, len));
+    }
+
+    @Override
+    public void interruptModel(long nowNanos) {
+      events.add("interrupt");
+    }
+
+    @Override
+    public Path finishAndClose(AudioFinishCallback callback) {
+      events.add("finish");
+      return combinedWav;
+    }
+
+    @Override
+    public void closeQuietly() {
+      events.add("close");
+    }
+
+    void cleanUp() throws IOException {
+      super.closeQuietly();
+      Files.deleteIfExists(userWav);
+      Files.deleteIfExists(modelWav);
+    }
+
+    private static int sampleAt(byte[] pcm, int off, int len) {
+      return len == 2 ? (pcm[off] & 0xff) | (pcm[off + 1] & 0xff) << 8 : -1;
+    }
+  }
+
+  private static final class ManualExecutor implements Executor {
+    final Queue<Runnable> tasks = new ArrayDeque<>();
+    int executed;
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runAll() {
+      Runnable r;
+      while ((r = tasks.poll()) != null) {
+        executed++;
+        r.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class EnergyVadTest {
+
+  private static final int RATE = 16000;
+  private static final int FRAME_MS = 20;
+
+  private final Random random = new Random(7);
+  private long sampleIndex = 0;
+
+  @Test
+  public void persistentNoiseAfterSpeechEndsTheSegment() {
+    EnergyVad vad = new EnergyVad(RATE, FRAME_MS, 12, 40, 1000);
+    run(vad, 2000, 0, 30);
+    assertEquals(VadEvent.SPEECH_START, firstEvent(run(vad, 1000, 300, 6000)));
+
+    // a low hum ~30 dB above the old floor starts while speaking and never stops
+    int stopAtMs = -1;
+    for (int ms = 0; ms < 20_000; ms += FRAME_MS) {
+      if (frame(vad, 150, 2000) == VadEvent.SPEECH_STOP) {
+        stopAtMs = ms;
+        break;
+      }
+    }
+    assertTrue("speech never ended, floor " + vad.getNoiseFloorDb(), stopAtMs >= 0);
+    assertTrue("stop after " + stopAtMs + " ms", stopAtMs < 8000);
+  }
+
+  @Test
+  public void pausesBetweenWordsKeepTheFloorDown() {
+    EnergyVad vad = new EnergyVad(RATE, FRAME_MS, 12, 40, 1000);
+    run(vad, 2000, 0, 30);
+    double floor = vad.getNoiseFloorDb();
+
+    boolean started = false;
+    for (int i = 0; i < 25; i++) {
+      VadEvent e = firstEvent(run(vad, 300, 300, 6000));
+      started |= e == VadEvent.SPEECH_START;
+      assertTrue("stopped in word " + i, e != VadEvent.SPEECH_STOP);
+      assertTrue("stopped in pause " + i, firstEvent(run(vad, 160, 0, 30)) != VadEvent.SPEECH_STOP);
+    }
+    assertTrue(started);
+    assertTrue(vad.isSpeaking());
+    assertEquals(floor, vad.getNoiseFloorDb(), 6.0);
+  }
+
+  @Test
+  public void resetForgetsTheFloor() {
+    EnergyVad vad = new EnergyVad(RATE, FRAME_MS, 12, 40, 1000);
+    run(vad, 3000, 150, 2000);
+    vad.reset();
+    assertEquals(-60.0, vad.getNoiseFloorDb(), 0.0);
+    assertTrue(!vad.isSpeaking());
+  }
+
+  private VadEvent[] run(EnergyVad vad, int ms, double freq, double amplitude) {
+    VadEvent[] events = new VadEvent[ms / FRAME_MS];
+    for (int i = 0; i < events.length; i++) {
+      events[i] = frame(vad, freq, amplitude);
+    }
+    return events;
+  }
+
+  /**
+   * One frame of a tone at {@code freq}, or gaussian noise when freq is 0
+   */
+  private VadEvent frame(EnergyVad vad, double freq, double amplitude) {
+    short[] s = new short[vad.getFrameSamples()];
+    for (int i = 0; i < s.length; i++, sampleIndex++) {
+      double v = freq == 0 ? random.nextGaussian() * amplitude
+          : amplitude * Math.sin(2 * Math.PI * freq * sampleIndex / RATE);
+      s[i] = (short) Math.round(v);
+    }
+    return vad.process(s, 0);
+  }
+
+  private static VadEvent firstEvent(VadEvent[] events) {
+    for (VadEvent e : events) {
+      if (e != VadEvent.NONE) {
+        return e;
+      }
+    }
+    return VadEvent.NONE;
+  }
+}
@@ -0,0 +1,159 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PcmKernelsTest {
+
+  private static final int[] LENGTHS = { 1, 2, 3, 7, 64, 67, 160, 321, 1023 };
+  private static final int[] OFFSETS = { 0, 1, 2, 3, 5 };
+
+  private final PcmKernels.Kernels[] kernels = { new PcmKernels.ScalarKernels(), new PcmKernels.BulkKernels() };
+
+  @Test
+  public void bytesToShortsMatchesReference() {
+    Random random = new Random(1);
+    for (PcmKernels.Kernels k : kernels) {
+      for (int n : LENGTHS) {
+        for (int srcOff : OFFSETS) {
+          for (int dstOff : OFFSETS) {
+            byte[] src = bytes(random, srcOff + n * 2 + 3);
+            short[] expected = new short[dstOff + n + 2];
+            short[] actual = expected.clone();
+            for (int i = 0; i < n; i++) {
+              expected[dstOff + i] = (short) ((src[srcOff + 2 * i] & 0xff) | (src[srcOff + 2 * i + 1] & 0xff) << 8);
+            }
+            k.bytesToShorts(src, srcOff, actual, dstOff, n);
+            assertArrayEquals(k.name() + " n=" + n + " src=" + srcOff + " dst=" + dstOff, expected, actual);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shortsToBytesMatchesReference() {
+    Random random = new Random(2);
+    for (PcmKernels.Kernels k : kernels) {
+      for (int n : LENGTHS) {
+        for (int srcOff : OFFSETS) {
+          for (int dstOff : OFFSETS) {
+            short[] src = shorts(random, srcOff + n + 2);
+            byte[] expected = bytes(random, dstOff + n * 2 + 3);
+            byte[] actual = expected.clone();
+            for (int i = 0; i < n; i++) {
+              expected[dstOff + 2 * i] = (byte) (src[srcOff + i] & 0xff);
+              expected[dstOff + 2 * i + 1] = (byte) ((src[srcOff + i] >> 8) & 0xff);
+            }
+            k.shortsToBytes(src, srcOff, actual, dstOff, n);
+            assertArrayEquals(k.name() + " n=" + n + " src=" + srcOff + " dst=" + dstOff, expected, actual);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void interleaveMatchesReference() {
+    Random random = new Random(3);
+    for (PcmKernels.Kernels k : kernels) {
+      for (int n : LENGTHS) {
+        for (int off : OFFSETS) {
+          for (int dstOff : OFFSETS) {
+            short[] left = shorts(random, off + n + 1);
+            short[] right = shorts(random, off + 2 * n + 1);
+            int rightOff = off + n;
+            byte[] dst = bytes(random, dstOff + n * 4 + 3);
+            checkInterleave(k, left, off, right, rightOff, dst, dstOff, n);
+            checkInterleave(k, null, 0, right, rightOff, dst, dstOff, n);
+            checkInterleave(k, left, off, null, 0, dst, dstOff, n);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void stereoToMonoMatchesReference() {
+    Random random = new Random(4);
+    for (PcmKernels.Kernels k : kernels) {
+      for (int n : LENGTHS) {
+        for (int srcOff : OFFSETS) {
+          for (int dstOff : OFFSETS) {
+            byte[] src = bytes(random, srcOff + n * 4 + 3);
+            short[] expected = new short[dstOff + n + 2];
+            short[] actual = expected.clone();
+            for (int i = 0; i < n; i++) {
+              int j = srcOff + 4 * i;
+              short l = (short) ((src[j] & 0xff) | (src[j + 1] & 0xff) << 8);
+              short r = (short) ((src[j + 2] & 0xff) | (src[j + 3] & 0xff) << 8);
+              expected[dstOff + i] = (short) ((l + r) / 2);
+            }
+            k.stereoToMono(src, srcOff, actual, dstOff, n);
+            assertArrayEquals(k.name() + " n=" + n + " src=" + srcOff + " dst=" + dstOff, expected, actual);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void extremesRoundTrip() {
+    short[] extremes = { Short.MIN_VALUE, -1, 0, 1, Short.MAX_VALUE, (short) 0x8001, (short) 0x7ffe, (short) 0x00ff };
+    for (PcmKernels.Kernels k : kernels) {
+      byte[] bytes = new byte[extremes.length * 2 + 1];
+      short[] back = new short[extremes.length + 1];
+      k.shortsToBytes(extremes, 0, bytes, 1, extremes.length);
+      k.bytesToShorts(bytes, 1, back, 1, extremes.length);
+      for (int i = 0; i < extremes.length; i++) {
+        assertEquals(k.name(), extremes[i], back[i + 1]);
+      }
+    }
+  }
+
+  @Test
+  public void publicEntryPointsUseTheSelectedImplementation() {
+    // the bulk path must pass its own load time check on this JVM unless scalar was requested
+    String requested = System.getProperty("voice.agent.pcm.kernels", PcmKernels.BULK);
+    assertEquals(requested.equalsIgnoreCase(PcmKernels.SCALAR) ? PcmKernels.SCALAR : PcmKernels.BULK,
+        PcmKernels.implementation());
+    byte[] silence = { 1, 1, 1, 1, 1 };
+    PcmKernels.interleave(null, 0, null, 0, silence, 1, 1);
+    assertArrayEquals(new byte[] { 1, 0, 0, 0, 0 }, silence);
+  }
+
+  private static void checkInterleave(PcmKernels.Kernels k, short[] left, int leftOff, short[] right, int rightOff,
+      byte[] dst, int dstOff, int n) {
+    byte[] expected = dst.clone();
+    byte[] actual = dst.clone();
+    for (int i = 0; i < n; i++) {
+      int l = left == null ? 0 : left[leftOff + i];
+      int r = right == null ? 0 : right[rightOff + i];
+      int j = dstOff + 4 * i;
+      expected[j] = (byte) (l & 0xff);
+      expected[j + 1] = (byte) ((l >> 8) & 0xff);
+      expected[j + 2] = (byte) (r & 0xff);
+      expected[j + 3] = (byte) ((r >> 8) & 0xff);
+    }
+    k.interleave(left, leftOff, right, rightOff, actual, dstOff, n);
+    assertArrayEquals(k.name() + " n=" + n + " left=" + (left != null) + " right=" + (right != null), expected, actual);
+  }
+
+  private static byte[] bytes(Random random, int n) {
+    byte[] b = new byte[n];
+    random.nextBytes(b);
+    return b;
+  }
+
+  private static short[] shorts(Random random, int n) {
+    short[] s = new short[n];
+    for (int i = 0; i < n; i++) {
+      s[i] = (short) random.nextInt();
+    }
+    return s;
+  }
+}
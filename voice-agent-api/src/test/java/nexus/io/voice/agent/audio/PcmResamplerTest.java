@@ -0,0 +1,205 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PcmResamplerTest {
+
+  private static final int[][] RATES = { { 24000, 16000 }, { 24000, 8000 }, { 8000, 16000 }, { 48000, 16000 },
+      { 16000, 8000 }, { 16000, 24000 }, { 8000, 24000 }, { 16000, 48000 }, { 44100, 16000 }, { 11025, 8000 } };
+
+  @Test
+  public void polyphaseChunkedMatchesOneShot() {
+    for (int[] r : RATES) {
+      short[] in = noise(r[0] / 2, r[0]);
+      short[] expected = oneShot(new PolyphasePcmResampler(r[0], r[1]), in);
+      short[] actual = chunked(new PolyphasePcmResampler(r[0], r[1]), in, new Random(r[0] ^ r[1]));
+      assertArrayEquals(r[0] + " -> " + r[1], expected, actual);
+    }
+  }
+
+  @Test
+  public void linearChunkedMatchesOneShot() {
+    for (int[] r : RATES) {
+      short[] in = noise(r[0] / 2, r[0]);
+      short[] expected = oneShot(new LinearPcmResampler(r[0], r[1]), in);
+      short[] actual = chunked(new LinearPcmResampler(r[0], r[1]), in, new Random(r[0] ^ r[1]));
+      assertArrayEquals(r[0] + " -> " + r[1], expected, actual);
+    }
+  }
+
+  /**
+   * Streaming linear against the old whole-array code. The streaming version interpolates from the carried sample, so
+   * its input is the old code's input with the first sample repeated; it truncates where the old code rounds.
+   */
+  @Test
+  public void linearMatchesWholeArrayReference() {
+    for (int[] r : RATES) {
+      short[] in = noise(r[0] / 4 + 7, 17);
+      short[] virtual = new short[in.length + 1];
+      virtual[0] = in[0];
+      System.arraycopy(in, 0, virtual, 1, in.length);
+      short[] reference = SessionAudioCombiner.resampleLinear(virtual, r[0], r[1]);
+      short[] actual = oneShot(new LinearPcmResampler(r[0], r[1]), in);
+
+      int length = Math.min(reference.length, actual.length);
+      assertTrue(r[0] + " -> " + r[1], Math.abs(reference.length - actual.length) <= (r[1] + r[0] - 1) / r[0] + 1);
+      for (int i = 0; i < length; i++) {
+        assertEquals(r[0] + " -> " + r[1] + " at " + i, reference[i], actual[i], 1);
+      }
+    }
+  }
+
+  /**
+   * A tone inside the pass band comes out as a clean tone at the output rate; the aliasing and interpolation error of
+   * linear interpolation is what the polyphase filter removes.
+   */
+  @Test
+  public void polyphaseToneIsCleanerThanLinear() {
+    int inRate = 24000;
+    int outRate = 16000;
+    double freq = 3000;
+    short[] in = tone(inRate * 2, inRate, freq, 12000);
+    double polyphase = residualDb(oneShot(new PolyphasePcmResampler(inRate, outRate), in), outRate, freq);
+    double linear = residualDb(oneShot(new LinearPcmResampler(inRate, outRate), in), outRate, freq);
+    assertTrue("polyphase residual " + polyphase + " dB", polyphase < -60);
+    assertTrue("linear " + linear + " dB vs polyphase " + polyphase + " dB", polyphase < linear - 20);
+  }
+
+  /**
+   * The filter delays its input by about taps / 2 samples; without flush an impulse in the last input sample never
+   * reaches the output, only the far end of the filter's skirt does.
+   */
+  @Test
+  public void flushEmitsTheDelayedTail() {
+    for (int[] r : RATES) {
+      short[] in = new short[r[0] / 10];
+      in[in.length - 1] = 16000;
+
+      PolyphasePcmResampler resampler = new PolyphasePcmResampler(r[0], r[1]);
+      short[] out = new short[resampler.maxOutputLength(in.length) + resampler.maxFlushLength()];
+      int n = resampler.resample(in, 0, in.length, out, 0);
+      int before = peak(out, 0, n);
+      int m = resampler.flush(out, n);
+      int after = peak(out, n, m);
+
+      assertTrue(m <= resampler.maxFlushLength());
+      double expectedPeak = 16000 * Math.min(1.0, (double) r[1] / r[0]);
+      assertTrue(r[0] + " -> " + r[1] + " peak after flush " + after, after > expectedPeak / 2);
+      assertTrue(r[0] + " -> " + r[1] + " peak before flush " + before, before < after / 5);
+    }
+  }
+
+  @Test
+  public void flushResetsForTheNextStream() {
+    short[] in = noise(4000, 3);
+    PolyphasePcmResampler resampler = new PolyphasePcmResampler(24000, 16000);
+    short[] out = new short[resampler.maxOutputLength(in.length) + resampler.maxFlushLength()];
+    resampler.resample(in, 0, in.length, out, 0);
+    resampler.flush(out, 0);
+    assertArrayEquals(oneShot(new PolyphasePcmResampler(24000, 16000), in), oneShot(resampler, in));
+  }
+
+  @Test
+  public void sameRateIsPassThrough() {
+    short[] in = noise(1001, 5);
+    PolyphasePcmResampler resampler = new PolyphasePcmResampler(16000, 16000);
+    assertArrayEquals(in, oneShot(resampler, in));
+    assertEquals(0, resampler.flush(new short[1], 0));
+  }
+
+  private static short[] oneShot(PcmResampler resampler, short[] in) {
+    short[] out = new short[resampler.maxOutputLength(in.length)];
+    return Arrays.copyOf(out, resampler.resample(in, 0, in.length, out, 0));
+  }
+
+  /**
+   * Feeds odd sized chunks from odd offsets into odd output offsets
+   */
+  private static short[] chunked(PcmResampler resampler, short[] in, Random random) {
+    short[] all = new short[resampler.maxOutputLength(in.length) * 2];
+    int total = 0;
+    int p = 0;
+    while (p < in.length) {
+      int len = Math.min(in.length - p, 1 + random.nextInt(499));
+      int inOff = 1 + random.nextInt(13);
+      short[] src = new short[inOff + len + 3];
+      System.arraycopy(in, p, src, inOff, len);
+      int outOff = 1 + random.nextInt(11);
+      short[] dst = new short[outOff + resampler.maxOutputLength(len)];
+      int n = resampler.resample(src, inOff, len, dst, outOff);
+      assertTrue(n <= resampler.maxOutputLength(len));
+      System.arraycopy(dst, outOff, all, total, n);
+      total += n;
+      p += len;
+    }
+    return Arrays.copyOf(all, total);
+  }
+
+  private static short[] noise(int length, long seed) {
+    Random random = new Random(seed);
+    short[] s = new short[length];
+    for (int i = 0; i < length; i++) {
+      s[i] = (short) (random.nextGaussian() * 6000);
+    }
+    return s;
+  }
+
+  private static short[] tone(int length, int rate, double freq, double amplitude) {
+    short[] s = new short[length];
+    for (int i = 0; i < length; i++) {
+      s[i] = (short) Math.round(amplitude * Math.sin(2 * Math.PI * freq * i / rate));
+    }
+    return s;
+  }
+
+  /**
+   * Energy left after a least squares fit of a sine and cosine at {@code freq}, relative to the fitted tone. The first
+   * and last 10% are skipped to stay clear of the filter start up.
+   */
+  private static double residualDb(short[] out, int rate, double freq) {
+    int from = out.length / 10;
+    int to = out.length - out.length / 10;
+    double ss = 0;
+    double cc = 0;
+    double sc = 0;
+    double ys = 0;
+    double yc = 0;
+    for (int i = from; i < to; i++) {
+      double w = 2 * Math.PI * freq * i / rate;
+      double s = Math.sin(w);
+      double c = Math.cos(w);
+      ss += s * s;
+      cc += c * c;
+      sc += s * c;
+      ys += out[i] * s;
+      yc += out[i] * c;
+    }
+    double det = ss * cc - sc * sc;
+    double a = (ys * cc - yc * sc) / det;
+    double b = (yc * ss - ys * sc) / det;
+    double signal = 0;
+    double noise = 0;
+    for (int i = from; i < to; i++) {
+      double w = 2 * Math.PI * freq * i / rate;
+      double fit = a * Math.sin(w) + b * Math.cos(w);
+      signal += fit * fit;
+      noise += (out[i] - fit) * (out[i] - fit);
+    }
+    return 10 * Math.log10(noise / signal);
+  }
+
+  private static int peak(short[] s, int off, int len) {
+    int peak = 0;
+    for (int i = off; i < off + len; i++) {
+      peak = Math.max(peak, Math.abs(s[i]));
+    }
+    return peak;
+  }
+}
@@ -0,0 +1,141 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class PcmRingBufferTest {
+
+  @Test
+  public void dropOldestKeepsOrder() {
+    PcmRingBuffer rb = new PcmRingBuffer(8, PcmOverrunPolicy.DROP_OLDEST);
+    rb.write(seq(0, 6), 0, 6);
+    rb.write(seq(6, 6), 0, 6);
+    assertEquals(8, rb.size());
+    assertEquals(4, rb.getOverrunSamples());
+
+    short[] out = new short[32];
+    assertEquals(8, rb.read(out, 0, 8));
+    for (int i = 0; i < 8; i++) {
+      assertEquals(i + 4, out[i]);
+    }
+  }
+
+  @Test
+  public void dropNewestKeepsHead() {
+    PcmRingBuffer rb = new PcmRingBuffer(8, PcmOverrunPolicy.DROP_NEWEST);
+    rb.write(seq(0, 6), 0, 6);
+    assertEquals(2, rb.write(seq(6, 6), 0, 6));
+
+    short[] out = new short[32];
+    assertEquals(8, rb.read(out, 0, 8));
+    for (int i = 0; i < 8; i++) {
+      assertEquals(i, out[i]);
+    }
+  }
+
+  @Test
+  public void wrapAround() {
+    PcmRingBuffer rb = new PcmRingBuffer(8, PcmOverrunPolicy.DROP_OLDEST);
+    short[] out = new short[5];
+    short next = 0;
+    for (int round = 0; round < 20; round++) {
+      rb.write(seq(round * 5, 5), 0, 5);
+      assertEquals(5, rb.read(out, 0, 5));
+      for (int i = 0; i < 5; i++) {
+        assertEquals(next++, out[i]);
+      }
+    }
+    assertTrue(rb.isEmpty());
+  }
+
+  @Test
+  public void truncateDiscardsQueued() {
+    PcmRingBuffer rb = new PcmRingBuffer(16, PcmOverrunPolicy.DROP_OLDEST);
+    rb.write(seq(0, 10), 0, 10);
+    long mark = rb.writePosition();
+    rb.write(seq(10, 3), 0, 3);
+    assertEquals(10, rb.discardUpTo(mark));
+    assertEquals(3, rb.size());
+    assertEquals(3, rb.truncate());
+    assertTrue(rb.isEmpty());
+  }
+
+  /**
+   * One producer overruns a small buffer while one consumer drains it with small reads. Each sample holds its own write
+   * position (mod 2^16), so a slot the producer overwrote under the reader holds a position {@code capacity} ahead and
+   * lies beyond what the read could have consumed.
+   */
+  @Test(timeout = 60_000)
+  public void concurrentDropOldestNeverOverwritesUnreadSamples() throws Exception {
+    final PcmRingBuffer rb = new PcmRingBuffer(64, PcmOverrunPolicy.DROP_OLDEST);
+    final long total = 20_000_000L;
+    final AtomicReference<String> error = new AtomicReference<>();
+
+    Thread producer = new Thread(() -> {
+      short[] chunk = new short[64];
+      int len = 1;
+      while (rb.writePosition() < total && error.get() == null) {
+        len = len % 63 + 1;
+        long w = rb.writePosition();
+        for (int i = 0; i < len; i++) {
+          chunk[i] = (short) (w + i);
+        }
+        rb.write(chunk, 0, len);
+      }
+    }, "ring-producer");
+
+    Thread consumer = new Thread(() -> {
+      short[] out = new short[32];
+      int len = 1;
+      while (error.get() == null) {
+        len = len % 31 + 1;
+        long before = rb.readPosition();
+        int n = rb.read(out, 0, len);
+        if (n == 0) {
+          if (producerDone) {
+            return;
+          }
+          Thread.yield();
+          continue;
+        }
+        long after = rb.readPosition();
+        long start = before + ((out[0] - (short) before) & 0xffff);
+        if (start + n > after) {
+          error.compareAndSet(null, "read [" + start + ", " + (start + n) + ") but read position is " + after);
+        }
+        for (int i = 1; i < n; i++) {
+          if (out[i] != (short) (out[i - 1] + 1)) {
+            error.compareAndSet(null, "position " + (start + i) + ": " + out[i] + " after " + out[i - 1]);
+          }
+        }
+      }
+    }, "ring-consumer");
+
+    producerDone = false;
+    consumer.start();
+    producer.start();
+    producer.join();
+    producerDone = true;
+    consumer.join();
+
+    if (error.get() != null) {
+      fail(error.get());
+    }
+    assertTrue(rb.getOverrunSamples() > 0);
+  }
+
+  private volatile boolean producerDone;
+
+  private static short[] seq(int from, int n) {
+    short[] s = new short[n];
+    for (int i = 0; i < n; i++) {
+      s[i] = (short) (from + i);
+    }
+    return s;
+  }
+}
@@ -0,0 +1,129 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PostProcessSchedulerTest {
+
+  private static final String BLOCK = "block";
+  private static final String RECORD = "record";
+
+  private final Path spillDir;
+  private final List<String> ran = new CopyOnWriteArrayList<>();
+  private final CountDownLatch blockerStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+
+  public PostProcessSchedulerTest() throws IOException {
+    spillDir = Files.createTempDirectory("post-process-spill");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    releaseBlocker.countDown();
+    try (Stream<Path> files = Files.walk(spillDir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  /**
+   * One worker held by a blocking job and room for one job in memory: the rest spill to disk and must come back
+   * highest priority first, in submit order within a priority, with their params and callbacks.
+   */
+  @Test
+  public void spilledJobsReloadInPriorityOrder() throws Exception {
+    PostProcessScheduler scheduler = scheduler(1);
+    scheduler.submit(PostProcessJob.of(BLOCK, PostProcessPriority.LOW, "blocker"));
+    assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+
+    CountDownLatch done = new CountDownLatch(6);
+    List<Path> callbacks = new CopyOnWriteArrayList<>();
+    String[][] jobs = { { "a", "LOW" }, { "b", "NORMAL" }, { "c", "LOW" }, { "d", "HIGH" }, { "e", "NORMAL" },
+        { "f", "HIGH" } };
+    for (String[] j : jobs) {
+      PostProcessJob job = PostProcessJob.of(RECORD, PostProcessPriority.valueOf(j[1]), j[0]).param("out", j[0]);
+      job.setCallback(path -> {
+        callbacks.add(path);
+        done.countDown();
+      });
+      scheduler.submit(job);
+    }
+
+    // "a" took the only in-memory slot, the other five are on disk
+    PostProcessStats stats = scheduler.getStats();
+    assertEquals(1, stats.getQueued());
+    assertEquals(5, stats.getSpilled());
+    assertEquals(5, spillFiles());
+
+    releaseBlocker.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("blocker", "a", "d", "f", "b", "e", "c"), ran);
+    // params and callbacks survive the round trip through the spill file
+    assertEquals(6, callbacks.size());
+    assertEquals(spillDir.resolve("d"), callbacks.get(1));
+    assertEquals(0, spillFiles());
+    assertEquals(0, scheduler.getStats().getSpilled());
+  }
+
+  @Test
+  public void failingJobIsCountedAndDoesNotStopTheWorker() throws Exception {
+    PostProcessScheduler scheduler = scheduler(2);
+    scheduler.registerHandler("fail", job -> {
+      throw new IOException("disk full");
+    });
+    scheduler.submit(PostProcessJob.of("fail", PostProcessPriority.HIGH, "x"));
+    scheduler.submit(PostProcessJob.of("unknown", PostProcessPriority.HIGH, "y"));
+    scheduler.submit(PostProcessJob.of(RECORD, PostProcessPriority.HIGH, "z"));
+
+    awaitRan(1);
+    long deadline = System.currentTimeMillis() + 5000;
+    while (scheduler.getStats().getFailed() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(2, scheduler.getStats().getFailed());
+    assertEquals(Arrays.asList("z"), ran);
+  }
+
+  private PostProcessScheduler scheduler(int maxQueued) {
+    PostProcessScheduler scheduler = new PostProcessScheduler("test-post", 1, maxQueued, spillDir);
+    scheduler.registerHandler(BLOCK, job -> {
+      ran.add(job.getSessionId());
+      blockerStarted.countDown();
+      releaseBlocker.await();
+    });
+    scheduler.registerHandler(RECORD, job -> {
+      ran.add(job.getSessionId());
+      if (job.getCallback() != null) {
+        job.getCallback().done(spillDir.resolve(job.getParam("out")));
+      }
+    });
+    return scheduler;
+  }
+
+  private void awaitRan(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (ran.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(count, ran.size());
+  }
+
+  private long spillFiles() throws IOException {
+    try (Stream<Path> files = Files.list(spillDir)) {
+      return files.count();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RecordingClockTest {
+
+  private static final long MS = 1_000_000L;
+
+  /**
+   * A 2 s answer arrives in the first 100 ms and is cut at 500 ms; the next answer at 3 s must start at 3 s, not at
+   * the end of the dropped burst.
+   */
+  @Test
+  public void interruptMovesPlayoutBackToNow() {
+    RecordingClock clock = new RecordingClock(0L);
+    RecordingClock.Channel model = clock.playout(16000);
+    for (int i = 0; i < 10; i++) {
+      model.place(3200, i * 10 * MS);
+    }
+    assertEquals(32000, model.getPosition());
+
+    assertEquals(24000, model.interrupt(500 * MS));
+    assertEquals(8000, model.getPosition());
+    assertEquals(24000, model.getDiscardedSamples());
+
+    assertEquals(40000, model.place(1600, 3000 * MS));
+    assertEquals(49600, model.getPosition());
+  }
+
+  @Test
+  public void interruptAfterPlayoutIsANoop() {
+    RecordingClock clock = new RecordingClock(0L);
+    RecordingClock.Channel model = clock.playout(16000);
+    model.place(1600, 0L);
+    assertEquals(0, model.interrupt(200 * MS));
+    assertEquals(1600, model.getPosition());
+  }
+
+  @Test
+  public void realtimeChannelIgnoresInterrupt() {
+    RecordingClock clock = new RecordingClock(0L);
+    RecordingClock.Channel user = clock.realtime(16000);
+    user.place(32000, 0L);
+    assertEquals(0, user.interrupt(0L));
+    assertEquals(32000, user.getPosition());
+  }
+}
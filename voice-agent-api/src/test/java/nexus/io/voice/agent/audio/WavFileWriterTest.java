@@ -0,0 +1,59 @@
+package nexus.io.voice.agent.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class WavFileWriterTest {
+
+  @Test
+  public void discardTailInsideTheBuffer() throws Exception {
+    assertDiscard(64 * 1024);
+  }
+
+  @Test
+  public void discardTailAlreadyOnDisk() throws Exception {
+    assertDiscard(256);
+  }
+
+  private static void assertDiscard(int bufferBytes) throws Exception {
+    Path path = Files.createTempFile("wav-writer", ".wav");
+    try {
+      byte[] a = bytes(1000, 1);
+      byte[] b = bytes(600, 2);
+      byte[] c = bytes(300, 3);
+      WavFileWriter out = new WavFileWriter(path, 16000, 1, "test", bufferBytes);
+      out.write(a, 0, a.length);
+      out.write(b, 0, b.length);
+      out.discardTail(b.length);
+      out.write(c, 0, c.length);
+      out.close();
+
+      byte[] file = Files.readAllBytes(path);
+      int dataBytes = ByteBuffer.wrap(file, file.length - a.length - c.length - 4, 4).order(ByteOrder.LITTLE_ENDIAN)
+          .getInt();
+      assertEquals(a.length + c.length, dataBytes);
+      assertEquals(file.length - 8, ByteBuffer.wrap(file, 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+      byte[] data = Arrays.copyOfRange(file, file.length - dataBytes, file.length);
+      byte[] expected = new byte[a.length + c.length];
+      System.arraycopy(a, 0, expected, 0, a.length);
+      System.arraycopy(c, 0, expected, a.length, c.length);
+      assertArrayEquals(expected, data);
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  private static byte[] bytes(int length, int value) {
+    byte[] b = new byte[length];
+    Arrays.fill(b, (byte) value);
+    return b;
+  }
+}
@@ -0,0 +1,87 @@
+package nexus.io.voice.agent.bridge;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Test;
+
+public class CoalescingRealtimeModelBridgeTest {
+
+  @Test
+  public void clientFrameSizeOutOfRangeFallsBackToDefault() {
+    assertEquals(60, CoalescingRealtimeModelBridge.resolveFrameMs(null, 60));
+    assertEquals(60, CoalescingRealtimeModelBridge.resolveFrameMs(-20, 60));
+    assertEquals(60, CoalescingRealtimeModelBridge.resolveFrameMs(0, 60));
+    assertEquals(60, CoalescingRealtimeModelBridge.resolveFrameMs(5, 60));
+    assertEquals(60, CoalescingRealtimeModelBridge.resolveFrameMs(201, 60));
+    assertEquals(60, CoalescingRealtimeModelBridge.resolveFrameMs(Integer.MAX_VALUE, 60));
+  }
+
+  @Test
+  public void clientFrameSizeIsAlignedTo10ms() {
+    assertEquals(10, CoalescingRealtimeModelBridge.resolveFrameMs(10, 60));
+    assertEquals(40, CoalescingRealtimeModelBridge.resolveFrameMs(47, 60));
+    assertEquals(200, CoalescingRealtimeModelBridge.resolveFrameMs(200, 60));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructorRejectsHugeFrame() {
+    new CoalescingRealtimeModelBridge(new RecordingBridge(), 100_000_000, 0, null);
+  }
+
+  @Test
+  public void coalescesIntoFullFrames() {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      RecordingBridge delegate = new RecordingBridge();
+      CoalescingRealtimeModelBridge bridge = new CoalescingRealtimeModelBridge(delegate, 20, 60_000, scheduler);
+      // 20 ms at 16 kHz = 640 bytes, fed in 10 ms chunks
+      byte[] chunk = new byte[320];
+      for (int i = 0; i < 5; i++) {
+        bridge.sendPcm16k(chunk, 0, chunk.length);
+      }
+      assertEquals(2, delegate.frames.size());
+      assertEquals(640, delegate.frames.get(0).intValue());
+      bridge.flush();
+      assertEquals(3, delegate.frames.size());
+      assertEquals(320, delegate.frames.get(2).intValue());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private static final class RecordingBridge implements RealtimeModelBridge {
+    final List<Integer> frames = new ArrayList<>();
+
+    @Override
+    public CompletableFuture<Void> connect(RealtimeSetup setup) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
+      frames.add(pcm16k.length);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> endAudioInput() {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendText(String text) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> close() {
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package nexus.io.voice.agent.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
+
+public class RealtimeBridgeCallbackTest {
+
+  @Test
+  public void defaultSendMessageSerializesToSendText() {
+    TextOnlyCallback callback = new TextOnlyCallback();
+    WsVoiceAgentResponseMessage msg = new WsVoiceAgentResponseMessage("transcript_out", "hi");
+    msg.setTurnId("t1");
+    callback.sendMessage(msg);
+    callback.sendMessage(null);
+
+    assertEquals(1, callback.texts.size());
+    assertEquals("{\"type\":\"transcript_out\",\"text\":\"hi\",\"turnId\":\"t1\"}", callback.texts.get(0));
+  }
+
+  @Test
+  public void defaultSendMessageEscapesText() {
+    TextOnlyCallback callback = new TextOnlyCallback();
+    callback.sendMessage(new WsVoiceAgentResponseMessage("error", "a\"b\\c\nd\u0001"));
+    String json = callback.texts.get(0);
+    assertTrue(json, json.contains("\"text\":\"a\\\"b\\\\c\\nd\\u0001\""));
+  }
+
+  /**
+   * 只实现旧接口方法的外部 callback，sendMessage 走默认实现
+   */
+  private static final class TextOnlyCallback implements RealtimeBridgeCallback {
+    final List<String> texts = new ArrayList<>();
+
+    @Override
+    public void sendText(String json) {
+      texts.add(json);
+    }
+
+    @Override
+    public void sendBinary(byte[] bytes) {
+    }
+
+    @Override
+    public void sendAudio(String turnId, String audioBase64) {
+    }
+
+    @Override
+    public void close(String reason) {
+    }
+
+    @Override
+    public void session(String sessionId) {
+    }
+
+    @Override
+    public void turnComplete(String role, String text) {
+    }
+
+    @Override
+    public void start(RealtimeSetup setup) {
+    }
+
+    @Override
+    public void onUserAudioActivity() {
+    }
+
+    @Override
+    public void onUserTextActivity(String text) {
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package nexus.io.voice.agent.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * The pool against a stand-in model bridge whose warm-up succeeds, fails or hangs on demand.
+ */
+public class RealtimeBridgePoolTest {
+
+  private enum WarmUp {
+    OK, FAIL, HANG
+  }
+
+  private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+  private final List<FakeBridge> created = new CopyOnWriteArrayList<>();
+  private volatile WarmUp mode = WarmUp.OK;
+  private RealtimeBridgePool pool;
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void warmsUpToMinIdle() {
+    pool = start(2, 4, 0, 10_000);
+    await(() -> pool.getStats().getIdle() == 2);
+
+    RealtimeBridgePoolStats stats = pool.getStats();
+    assertEquals(2, stats.getWarmed());
+    assertEquals(0, stats.getWarming());
+    assertEquals(2, created.size());
+  }
+
+  @Test
+  public void checkoutBindsTheSessionAndRefills() {
+    pool = start(1, 2, 0, 10_000);
+    await(() -> pool.getStats().getIdle() == 1);
+
+    EventLog session = new EventLog();
+    RealtimeModelBridge bridge = pool.checkout(session);
+    assertNotNull(bridge);
+    FakeBridge fake = created.get(0);
+
+    bridge.connect(new RealtimeSetup());
+    assertEquals(1, fake.applied);
+    fake.callback.sendText("{\"type\":\"setup_sent_to_model\"}");
+    assertEquals(1, session.texts.size());
+
+    await(() -> pool.getStats().getIdle() == 1);
+    RealtimeBridgePoolStats stats = pool.getStats();
+    assertEquals(1, stats.getHits());
+    assertEquals(0, stats.getMisses());
+    assertEquals(2, created.size());
+  }
+
+  @Test
+  public void demandGrowsThePoolUpToMaxIdle() {
+    pool = start(1, 3, 0, 10_000);
+    await(() -> pool.getStats().getIdle() == 1);
+
+    for (int i = 0; i < 10; i++) {
+      pool.checkout(new EventLog());
+    }
+    await(() -> pool.getStats().getIdle() == 3);
+    RealtimeBridgePoolStats stats = pool.getStats();
+    assertTrue(stats.toString(), stats.getIdle() + stats.getWarming() <= 3);
+    assertEquals(10, stats.getHits() + stats.getMisses());
+  }
+
+  @Test
+  public void expiredBridgesAreClosedAndReplaced() {
+    pool = start(1, 1, 150, 10_000);
+    await(() -> pool.getStats().getIdle() == 1);
+    FakeBridge first = created.get(0);
+
+    await(() -> first.closed && pool.getStats().getIdle() == 1);
+    assertTrue(pool.getStats().getExpired() >= 1);
+    assertTrue(created.size() >= 2);
+  }
+
+  @Test
+  public void failedWarmUpIsClosedAndNeverHandedOut() {
+    mode = WarmUp.FAIL;
+    pool = start(1, 1, 0, 10_000);
+    await(() -> pool.getStats().getWarmFailures() >= 2);
+
+    assertNull(pool.checkout(new EventLog()));
+    pool.shutdown();
+    RealtimeBridgePoolStats stats = pool.getStats();
+    assertEquals(0, stats.getIdle());
+    assertEquals(0, stats.getWarmed());
+    // one attempt per empty slot per round, not a tight retry loop
+    assertTrue(stats.toString(), created.size() < 20);
+    await(() -> created.stream().allMatch(b -> b.closed));
+  }
+
+  /**
+   * A hanging warm-up holds its warming slot until the timeout, then the slot is freed and the bridge closed. If the
+   * upstream answers after that, the bridge must still not reach the pool.
+   */
+  @Test
+  public void warmUpTimeoutFreesTheSlotAndDropsLateSuccess() {
+    mode = WarmUp.HANG;
+    pool = start(2, 2, 0, 300);
+    await(() -> pool.getStats().getWarming() == 2);
+    assertEquals(2, created.size());
+    assertNull(pool.checkout(new EventLog()));
+
+    await(() -> pool.getStats().getWarmFailures() >= 2);
+    FakeBridge late = created.get(0);
+    assertTrue(late.closed);
+
+    mode = WarmUp.OK;
+    late.warmUp.complete(null);
+    await(() -> pool.getStats().getIdle() == 2);
+    assertEquals(0, pool.getStats().getWarming());
+    for (int i = 0; i < 2; i++) {
+      RealtimeModelBridge bridge = pool.checkout(new EventLog());
+      assertNotNull(bridge);
+      bridge.connect(new RealtimeSetup());
+    }
+    assertEquals(0, late.applied);
+  }
+
+  @Test
+  public void unhealthyBridgeIsSkippedOnCheckout() {
+    pool = start(1, 1, 0, 10_000);
+    await(() -> pool.getStats().getIdle() == 1);
+    created.get(0).healthy = false;
+
+    assertNull(pool.checkout(new EventLog()));
+    assertEquals(1, pool.getStats().getUnhealthy());
+    assertTrue(created.get(0).closed);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsMaxBelowMin() {
+    new RealtimeBridgePool("test", FakeBridge::new, 3, 2, 0, 100, 100, scheduler);
+  }
+
+  private RealtimeBridgePool start(int min, int max, long ttlMs, long warmUpTimeoutMs) {
+    RealtimeBridgePool p = new RealtimeBridgePool("test", callback -> {
+      FakeBridge b = new FakeBridge(callback);
+      created.add(b);
+      return b;
+    }, min, max, ttlMs, 100, warmUpTimeoutMs, scheduler);
+    p.start();
+    return p;
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("timed out");
+      }
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  private final class FakeBridge implements WarmableRealtimeModelBridge {
+    final RealtimeBridgeCallback callback;
+    final CompletableFuture<Void> warmUp = new CompletableFuture<>();
+    volatile boolean healthy = true;
+    volatile boolean closed = false;
+    volatile int applied = 0;
+
+    FakeBridge(RealtimeBridgeCallback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp() {
+      if (mode == WarmUp.OK) {
+        warmUp.complete(null);
+      } else if (mode == WarmUp.FAIL) {
+        warmUp.completeExceptionally(new IllegalStateException("upstream refused"));
+      }
+      return warmUp;
+    }
+
+    @Override
+    public CompletableFuture<Void> applySetup(RealtimeSetup setup) {
+      applied++;
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isHealthy() {
+      return healthy && !closed;
+    }
+
+    @Override
+    public CompletableFuture<Void> connect(RealtimeSetup setup) {
+      return warmUp().thenCompose(v -> applySetup(setup));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> endAudioInput() {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendText(String text) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> close() {
+      closed = true;
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  private static final class EventLog implements RealtimeBridgeCallback {
+    final List<String> texts = new ArrayList<>();
+
+    @Override
+    public void sendText(String json) {
+      texts.add(json);
+    }
+
+    @Override
+    public void sendBinary(byte[] bytes) {
+    }
+
+    @Override
+    public void sendAudio(String turnId, String audioBase64) {
+    }
+
+    @Override
+    public void close(String reason) {
+    }
+
+    @Override
+    public void session(String sessionId) {
+    }
+
+    @Override
+    public void turnComplete(String role, String text) {
+    }
+
+    @Override
+    public void start(RealtimeSetup setup) {
+    }
+
+    @Override
+    public void onUserAudioActivity() {
+    }
+
+    @Override
+    public void onUserTextActivity(String text) {
+    }
+  }
+}
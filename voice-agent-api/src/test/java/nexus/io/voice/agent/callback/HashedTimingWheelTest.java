@@ -0,0 +1,156 @@
+package nexus.io.voice.agent.callback;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class HashedTimingWheelTest {
+
+  private static final long TICK_MS = 10;
+
+  /**
+   * Slack on top of one tick for thread scheduling on a loaded machine.
+   */
+  private static final long JITTER_MS = 40;
+
+  private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", TICK_MS, 8);
+
+  @After
+  public void tearDown() {
+    wheel.stop();
+  }
+
+  @Test
+  public void firesNoEarlierThanTheDelayAndWithinAboutOneTick() throws Exception {
+    long[] delays = { 0, 5, 25, 60 };
+    CountDownLatch done = new CountDownLatch(delays.length);
+    long[] elapsed = new long[delays.length];
+    for (int i = 0; i < delays.length; i++) {
+      int idx = i;
+      long scheduled = System.nanoTime();
+      wheel.schedule(() -> {
+        elapsed[idx] = System.nanoTime() - scheduled;
+        done.countDown();
+      }, delays[i]);
+    }
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+
+    for (int i = 0; i < delays.length; i++) {
+      long ms = TimeUnit.NANOSECONDS.toMillis(elapsed[i]);
+      assertTrue("delay " + delays[i] + " fired after " + ms + " ms", elapsed[i] >= TimeUnit.MILLISECONDS.toNanos(delays[i]));
+      assertTrue("delay " + delays[i] + " fired after " + ms + " ms", ms <= delays[i] + TICK_MS + JITTER_MS);
+    }
+  }
+
+  /**
+   * 8 slots of 10 ms make one turn 80 ms; 200 ms lands in a slot that is visited twice before the task is due.
+   */
+  @Test
+  public void delayLongerThanOneTurnWaitsForItsRounds() throws Exception {
+    CountDownLatch done = new CountDownLatch(1);
+    AtomicLong elapsed = new AtomicLong();
+    long scheduled = System.nanoTime();
+    wheel.schedule(() -> {
+      elapsed.set(System.nanoTime() - scheduled);
+      done.countDown();
+    }, 200);
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    long ms = TimeUnit.NANOSECONDS.toMillis(elapsed.get());
+    assertTrue("fired after " + ms + " ms", ms >= 200);
+    assertTrue("fired after " + ms + " ms", ms <= 200 + TICK_MS + JITTER_MS);
+  }
+
+  /**
+   * Cancelled right after schedule, the task is still in the pending queue and must be dropped on transfer.
+   */
+  @Test
+  public void cancelBeforeTransferNeverRuns() throws Exception {
+    AtomicInteger runs = new AtomicInteger();
+    HashedTimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 30);
+    assertTrue(timeout.cancel());
+    assertTrue(timeout.isCancelled());
+    assertEquals(0, wheel.pending());
+
+    Thread.sleep(30 + TICK_MS + JITTER_MS);
+    assertEquals(0, runs.get());
+    assertFalse(timeout.isExpired());
+  }
+
+  /**
+   * Cancelled after a few ticks, the task already sits in its slot (a later turn) and must be unlinked from it.
+   */
+  @Test
+  public void cancelWhileInSlotNeverRuns() throws Exception {
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch neighbour = new CountDownLatch(1);
+    HashedTimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 150);
+    wheel.schedule(neighbour::countDown, 150);
+    Thread.sleep(4 * TICK_MS);
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel());
+
+    assertTrue(neighbour.await(2, TimeUnit.SECONDS));
+    Thread.sleep(TICK_MS + JITTER_MS);
+    assertEquals(0, runs.get());
+    assertEquals(0, wheel.pending());
+  }
+
+  @Test
+  public void pendingCountsOnlyLiveTimeouts() throws Exception {
+    CountDownLatch fired = new CountDownLatch(2);
+    wheel.schedule(fired::countDown, 10);
+    wheel.schedule(fired::countDown, 20);
+    HashedTimingWheel.Timeout a = wheel.schedule(() -> {
+    }, 1000);
+    HashedTimingWheel.Timeout b = wheel.schedule(() -> {
+    }, 1000);
+    assertEquals(4, wheel.pending());
+
+    a.cancel();
+    a.cancel();
+    assertEquals(3, wheel.pending());
+
+    assertTrue(fired.await(2, TimeUnit.SECONDS));
+    awaitPending(1);
+    assertFalse(b.isExpired());
+    b.cancel();
+    assertEquals(0, wheel.pending());
+  }
+
+  @Test
+  public void failingTaskDoesNotStopTheWheel() throws Exception {
+    CountDownLatch after = new CountDownLatch(1);
+    wheel.schedule(() -> {
+      throw new IllegalStateException("boom");
+    }, 0);
+    HashedTimingWheel.Timeout next = wheel.schedule(after::countDown, 30);
+
+    assertTrue(after.await(2, TimeUnit.SECONDS));
+    assertTrue(next.isExpired());
+    assertFalse(next.cancel());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void scheduleAfterStopIsRejected() {
+    wheel.stop();
+    wheel.schedule(() -> {
+    }, 10);
+  }
+
+  private void awaitPending(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 2000;
+    while (wheel.pending() != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, wheel.pending());
+  }
+}
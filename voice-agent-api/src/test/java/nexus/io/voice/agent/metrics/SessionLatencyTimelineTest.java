@@ -0,0 +1,87 @@
+package nexus.io.voice.agent.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SessionLatencyTimelineTest {
+
+  @Test
+  public void serverSpeechStoppedStartsTheTurnWithoutLocalVad() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    SessionLatencyTimeline timeline = new SessionLatencyTimeline(sink);
+
+    timeline.markServerSpeechStopped();
+    Thread.sleep(5);
+    timeline.markModelAudio();
+    timeline.markClientAudio();
+
+    assertEquals(1, sink.count(LatencyMetric.EOS_TO_FIRST_MODEL_AUDIO));
+    assertEquals(1, sink.count(LatencyMetric.EOS_TO_FIRST_BYTE));
+    assertTrue(sink.last(LatencyMetric.EOS_TO_FIRST_BYTE) >= 5_000);
+  }
+
+  /**
+   * With a local VAD the server stop is ignored; the local stop, corrected by its hangover, sets the end of speech.
+   */
+  @Test
+  public void localVadTakesPrecedenceOverServerStop() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    SessionLatencyTimeline timeline = new SessionLatencyTimeline(sink);
+
+    timeline.markSpeechStarted();
+    timeline.markServerSpeechStopped();
+    timeline.markModelAudio();
+    assertEquals(0, sink.count(LatencyMetric.EOS_TO_FIRST_MODEL_AUDIO));
+
+    timeline.markSpeechStopped(500);
+    assertEquals(1, sink.count(LatencyMetric.EOS_TO_FIRST_MODEL_AUDIO));
+    assertTrue(sink.last(LatencyMetric.EOS_TO_FIRST_MODEL_AUDIO) > 400_000);
+  }
+
+  @Test
+  public void serverStopIsIgnoredForLaterTurnsOnceLocalVadReported() {
+    RecordingSink sink = new RecordingSink();
+    SessionLatencyTimeline timeline = new SessionLatencyTimeline(sink);
+
+    timeline.markSpeechStopped(0);
+    timeline.markTurnComplete();
+    timeline.markServerSpeechStopped();
+    timeline.markModelAudio();
+    assertEquals(0, sink.count(LatencyMetric.EOS_TO_FIRST_MODEL_AUDIO));
+  }
+
+  @Test
+  public void failingSinkDoesNotBreakTheTimeline() {
+    SessionLatencyTimeline timeline = new SessionLatencyTimeline((metric, micros) -> {
+      throw new IllegalStateException("sink down");
+    });
+    timeline.markServerSpeechStopped();
+    timeline.markModelAudio();
+    timeline.markClientAudio();
+    timeline.markTurnComplete();
+  }
+
+  private static final class RecordingSink implements LatencySink {
+    private final Map<LatencyMetric, Integer> counts = new EnumMap<>(LatencyMetric.class);
+    private final Map<LatencyMetric, Long> last = new EnumMap<>(LatencyMetric.class);
+
+    @Override
+    public void record(LatencyMetric metric, long micros) {
+      counts.merge(metric, 1, Integer::sum);
+      last.put(metric, micros);
+    }
+
+    int count(LatencyMetric metric) {
+      return counts.getOrDefault(metric, 0);
+    }
+
+    long last(LatencyMetric metric) {
+      return last.get(metric);
+    }
+  }
+}
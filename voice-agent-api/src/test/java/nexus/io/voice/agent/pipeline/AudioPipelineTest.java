@@ -0,0 +1,122 @@
+package nexus.io.voice.agent.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class AudioPipelineTest {
+
+  @Test
+  public void failingStageIsCountedAndThePipelineKeepsRunning() {
+    FlakyStage flaky = new FlakyStage();
+    int[] delivered = new int[1];
+    AudioPipeline pipeline = AudioPipeline.builder("test")
+        //
+        .add(flaky)
+        //
+        .add(new MeterStage())
+        //
+        .add(new SamplesSinkStage((samples, off, len, rate) -> delivered[0]++))
+        //
+        .build();
+
+    short[] frame = new short[160];
+    for (int i = 0; i < 10; i++) {
+      flaky.fail = i % 2 == 0;
+      pipeline.push(frame, 0, frame.length, 8000);
+    }
+
+    assertEquals(5, delivered[0]);
+    List<AudioStageStats> stats = pipeline.getStats();
+    assertEquals("flaky", stats.get(0).getName());
+    assertEquals(10, stats.get(0).getFrames());
+    assertEquals(5, stats.get(0).getErrors());
+    assertEquals(5, stats.get(0).getStopped());
+    assertEquals("java.lang.IllegalStateException: boom 8", stats.get(0).getLastError());
+    assertEquals(5, stats.get(1).getFrames());
+    assertEquals(0, stats.get(1).getErrors());
+    assertNull(stats.get(1).getLastError());
+  }
+
+  @Test
+  public void stageReturningNullReleasesTheInputOnce() {
+    AudioPipeline pipeline = AudioPipeline.builder("test")
+        //
+        .add(new AudioStage() {
+          @Override
+          public String getName() {
+            return "drop";
+          }
+
+          @Override
+          public PcmFrame process(PcmFrame frame, PcmFramePool pool) {
+            return null;
+          }
+        })
+        //
+        .build();
+
+    short[] frame = new short[160];
+    pipeline.push(frame, 0, frame.length, 8000);
+    assertEquals(1, pipeline.getStats().get(0).getStopped());
+    assertNotSame(pipeline.getPool().acquire(160), pipeline.getPool().acquire(160));
+  }
+
+  /**
+   * Downsampling one sample at a time yields nothing for most frames; each of those must be released by the pipeline
+   * only, not by the stage as well.
+   */
+  @Test
+  public void resampleStageWithNoOutputReleasesTheInputOnce() {
+    int[] delivered = new int[1];
+    AudioPipeline pipeline = AudioPipeline.builder("test")
+        //
+        .add(new ResampleStage(8000))
+        //
+        .add(new SamplesSinkStage((samples, off, len, rate) -> delivered[0] += len))
+        //
+        .build();
+
+    short[] frame = new short[1];
+    for (int i = 0; i < 600; i++) {
+      pipeline.push(frame, 0, frame.length, 48000);
+    }
+
+    AudioStageStats resample = pipeline.getStats().get(0);
+    assertEquals(0, resample.getErrors());
+    assertEquals(600, resample.getFrames());
+    assertEquals(600 - delivered[0], resample.getStopped());
+    assertNotSame(pipeline.getPool().acquire(1), pipeline.getPool().acquire(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void poolRejectsADoubleRelease() {
+    PcmFramePool pool = new PcmFramePool(4);
+    PcmFrame f = pool.acquire(160);
+    pool.release(f);
+    pool.release(f);
+  }
+
+  private static final class FlakyStage implements AudioStage {
+    boolean fail;
+    int calls;
+
+    @Override
+    public String getName() {
+      return "flaky";
+    }
+
+    @Override
+    public PcmFrame process(PcmFrame frame, PcmFramePool pool) {
+      int n = calls++;
+      if (fail) {
+        throw new IllegalStateException("boom " + n);
+      }
+      return frame;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package nexus.io.voice.agent.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class DownlinkFrameCodecTest {
+
+  @Test
+  public void everyTypeRoundTrips() {
+    byte[] payload = "你好 hello".getBytes(StandardCharsets.UTF_8);
+    for (DownlinkFrameType type : DownlinkFrameType.values()) {
+      int rate = type == DownlinkFrameType.AUDIO ? 24000 : 0;
+      byte[] frame = DownlinkFrameCodec.encode(type, DownlinkFrameCodec.FLAG_NONE, 7, 1234, rate,
+          DownlinkFrameCodec.turnIdBytes("turn-1"), payload, 0, payload.length);
+
+      DownlinkFrame f = DownlinkFrameCodec.decode(frame);
+      assertEquals(DownlinkFrameCodec.VERSION, f.getVersion());
+      assertEquals(type, f.getType());
+      assertEquals(DownlinkFrameCodec.FLAG_NONE, f.getFlags());
+      assertEquals(7, f.getSequence());
+      assertEquals(1234, f.getTimestampMs());
+      assertEquals(rate, f.getSampleRate());
+      assertEquals("turn-1", f.getTurnId());
+      assertArrayEquals(payload, f.getPayload());
+    }
+  }
+
+  @Test
+  public void opusFlagAndPayloadSliceRoundTrip() {
+    byte[] buf = { 9, 9, 1, 2, 3, 9 };
+    byte[] frame = DownlinkFrameCodec.encode(DownlinkFrameType.AUDIO, DownlinkFrameCodec.FLAG_OPUS, 0, 0, 48000,
+        null, buf, 2, 3);
+
+    DownlinkFrame f = DownlinkFrameCodec.decode(frame);
+    assertEquals(DownlinkFrameCodec.FLAG_OPUS, f.getFlags());
+    assertNull(f.getTurnId());
+    assertArrayEquals(new byte[] { 1, 2, 3 }, f.getPayload());
+  }
+
+  /**
+   * The payload must start on a 4-byte boundary for every turnId length, with zero padding in between.
+   */
+  @Test
+  public void turnIdIsPaddedToFourBytes() {
+    byte[] payload = { 1, 0, 2, 0 };
+    for (int n : new int[] { 0, 1, 2, 3, 4, 255 }) {
+      byte[] turnId = new byte[n];
+      Arrays.fill(turnId, (byte) 'a');
+      byte[] frame = DownlinkFrameCodec.encode(DownlinkFrameType.AUDIO, DownlinkFrameCodec.FLAG_NONE, 1, 1, 16000,
+          turnId, payload, 0, payload.length);
+
+      int offset = DownlinkFrameCodec.payloadOffset(n);
+      assertEquals(0, offset % 4);
+      assertEquals(offset + payload.length, frame.length);
+      assertEquals(n, frame[3] & 0xff);
+      for (int i = DownlinkFrameCodec.HEADER_LENGTH + n; i < offset; i++) {
+        assertEquals("padding at " + i + " for length " + n, 0, frame[i]);
+      }
+
+      DownlinkFrame f = DownlinkFrameCodec.decode(frame);
+      assertEquals(n == 0 ? null : new String(turnId, StandardCharsets.US_ASCII), f.getTurnId());
+      assertArrayEquals(payload, f.getPayload());
+    }
+  }
+
+  @Test
+  public void sequenceAndTimestampAreUnsigned() {
+    long seq = 0xfffffffeL;
+    long ts = (1L << 31) + 5;
+    byte[] frame = DownlinkFrameCodec.encode(DownlinkFrameType.TURN_COMPLETE, DownlinkFrameCodec.FLAG_NONE, seq, ts, 0,
+        null, new byte[0], 0, 0);
+
+    DownlinkFrame f = DownlinkFrameCodec.decode(frame);
+    assertEquals(seq, f.getSequence());
+    assertEquals(ts, f.getTimestampMs());
+    assertEquals(0, f.getPayload().length);
+  }
+
+  /**
+   * 254 ASCII bytes followed by a 3-byte character: cutting at 255 would split it, so the whole character is dropped.
+   */
+  @Test
+  public void longTurnIdIsCutOnACharacterBoundary() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 254; i++) {
+      sb.append('x');
+    }
+    sb.append("轮次");
+
+    byte[] b = DownlinkFrameCodec.turnIdBytes(sb.toString());
+    assertEquals(254, b.length);
+    assertEquals(sb.substring(0, 254), new String(b, StandardCharsets.UTF_8));
+
+    sb.setLength(252);
+    sb.append("轮");
+    b = DownlinkFrameCodec.turnIdBytes(sb.toString() + "x");
+    assertEquals(DownlinkFrameCodec.MAX_TURN_ID_LENGTH, b.length);
+    assertTrue(new String(b, StandardCharsets.UTF_8).endsWith("轮"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsTruncatedTurnId() {
+    byte[] frame = DownlinkFrameCodec.encode(DownlinkFrameType.TEXT, DownlinkFrameCodec.FLAG_NONE, 1, 1, 0,
+        DownlinkFrameCodec.turnIdBytes("turn-42"), new byte[0], 0, 0);
+    DownlinkFrameCodec.decode(Arrays.copyOf(frame, frame.length - 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsTruncatedHeader() {
+    DownlinkFrameCodec.decode(new byte[DownlinkFrameCodec.HEADER_LENGTH - 1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownVersion() {
+    byte[] frame = DownlinkFrameCodec.encode(DownlinkFrameType.TEXT, DownlinkFrameCodec.FLAG_NONE, 1, 1, 0, null,
+        new byte[0], 0, 0);
+    frame[0] = 2;
+    DownlinkFrameCodec.decode(frame);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownType() {
+    byte[] frame = DownlinkFrameCodec.encode(DownlinkFrameType.TEXT, DownlinkFrameCodec.FLAG_NONE, 1, 1, 0, null,
+        new byte[0], 0, 0);
+    frame[1] = 99;
+    DownlinkFrameCodec.decode(frame);
+  }
+}
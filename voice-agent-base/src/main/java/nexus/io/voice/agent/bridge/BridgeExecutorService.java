@@ -0,0 +1,30 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import nexus.io.tio.utils.environment.EnvUtils;
+
+/**
+ * 所有 RealtimeModelBridge 共用的发送线程（虚拟线程），每个会话通过自己的 {@link SerialSendQueue} 串行使用。
+ */
+public class BridgeExecutorService {
+
+  /**
+   * 每个会话最多排队的上行音频块数，超过后按策略丢弃
+   */
+  public static final int SEND_QUEUE_CAPACITY = EnvUtils.getInt("voice.agent.bridge.send.queue.capacity", 256);
+
+  /**
+   * 上行音频排队溢出策略：DROP_OLDEST | DROP_NEWEST
+   */
+  public static final SendQueueOverflowPolicy SEND_QUEUE_OVERFLOW_POLICY = SendQueueOverflowPolicy.valueOf(
+      EnvUtils.getStr("voice.agent.bridge.send.queue.overflow.policy", SendQueueOverflowPolicy.DROP_OLDEST.name()));
+
+  public static final ExecutorService SEND_EXECUTOR = Executors
+      .newThreadPerTaskExecutor(Thread.ofVirtual().name("realtime-bridge-send-", 0).factory());
+
+  public static SerialSendQueue newSendQueue(String name) {
+    return new SerialSendQueue(name, SEND_EXECUTOR, SEND_QUEUE_CAPACITY, SEND_QUEUE_OVERFLOW_POLICY);
+  }
+}
@@ -0,0 +1,206 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.genai.Client;
+import com.google.genai.types.ClientOptions;
+import com.google.genai.types.HttpOptions;
+
+import lombok.extern.slf4j.Slf4j;
+import nexus.io.tio.utils.environment.EnvUtils;
+import nexus.io.tio.utils.hutool.StrUtil;
+import nexus.io.voice.agent.callback.CallbackExecutorService;
+
+/**
+ * 进程内共享的 Gemini Client，按 apiKey + baseUrl 区分。
+ *
+ * Client 自带 HTTP 连接池和线程池，每个会话新建一个代价很高；这里按引用计数共享，
+ * 每个 bridge 仍然持有自己的 AsyncSession。最后一个会话释放后保留 IDLE_CLOSE_MS 再关闭，
+ * 避免通话间隙反复创建。
+ */
+@Slf4j
+public class GeminiClientRegistry {
+
+  /**
+   * 没有会话使用后多久关闭 Client，0 表示立即关闭
+   */
+  public static final int IDLE_CLOSE_MS = EnvUtils.getInt("voice.agent.gemini.client.idle.ms", 300_000);
+
+  private static final Map<String, Holder> CLIENTS = new HashMap<>();
+
+  private static class Holder {
+    final String key;
+    final String name;
+    final Client client;
+    final long createdAtMillis = System.currentTimeMillis();
+
+    // 以下字段在 CLIENTS 锁内修改
+    int refs = 0;
+    int peakRefs = 0;
+    long totalSessions = 0;
+    ScheduledFuture<?> closeTask;
+
+    final AtomicLong connects = new AtomicLong();
+    final AtomicLong connectFailures = new AtomicLong();
+    final AtomicLong totalConnectMs = new AtomicLong();
+    final AtomicLong maxConnectMs = new AtomicLong();
+
+    Holder(String key, String name, Client client) {
+      this.key = key;
+      this.name = name;
+      this.client = client;
+    }
+  }
+
+  /**
+   * 一个会话对共享 Client 的引用，release 可重复调用
+   */
+  public static class Lease {
+    private final Holder holder;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private Lease(Holder holder) {
+      this.holder = holder;
+    }
+
+    public Client client() {
+      return holder.client;
+    }
+
+    /**
+     * 记录一次 live.connect 的耗时
+     */
+    public void recordConnect(long costMs, boolean success) {
+      if (!success) {
+        holder.connectFailures.incrementAndGet();
+        return;
+      }
+      holder.connects.incrementAndGet();
+      holder.totalConnectMs.addAndGet(costMs);
+      long max;
+      while (costMs > (max = holder.maxConnectMs.get()) && !holder.maxConnectMs.compareAndSet(max, costMs)) {
+        // retry
+      }
+    }
+
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        GeminiClientRegistry.release(holder);
+      }
+    }
+  }
+
+  public static Lease acquire(String apiKey, String baseUrl) {
+    String key = apiKey + "|" + (baseUrl == null ? "" : baseUrl);
+    synchronized (CLIENTS) {
+      Holder holder = CLIENTS.get(key);
+      if (holder == null) {
+        holder = new Holder(key, name(apiKey, baseUrl), build(apiKey, baseUrl));
+        CLIENTS.put(key, holder);
+        log.info("gemini client created: {}", holder.name);
+      }
+      if (holder.closeTask != null) {
+        holder.closeTask.cancel(false);
+        holder.closeTask = null;
+      }
+      holder.refs++;
+      holder.totalSessions++;
+      if (holder.refs > holder.peakRefs) {
+        holder.peakRefs = holder.refs;
+      }
+      return new Lease(holder);
+    }
+  }
+
+  public static List<GeminiClientStats> getStats() {
+    synchronized (CLIENTS) {
+      List<GeminiClientStats> stats = new ArrayList<>(CLIENTS.size());
+      for (Holder h : CLIENTS.values()) {
+        long n = h.connects.get();
+        stats.add(new GeminiClientStats(h.name, h.createdAtMillis, h.refs, h.peakRefs, h.totalSessions, n,
+            h.connectFailures.get(), n == 0 ? 0 : h.totalConnectMs.get() / n, h.maxConnectMs.get()));
+      }
+      return stats;
+    }
+  }
+
+  public static void shutdown() {
+    synchronized (CLIENTS) {
+      for (Holder h : CLIENTS.values()) {
+        if (h.closeTask != null) {
+          h.closeTask.cancel(false);
+        }
+        closeQuietly(h);
+      }
+      CLIENTS.clear();
+    }
+  }
+
+  private static void release(Holder holder) {
+    synchronized (CLIENTS) {
+      holder.refs--;
+      if (holder.refs > 0) {
+        return;
+      }
+      if (IDLE_CLOSE_MS <= 0) {
+        closeIfIdle(holder);
+        return;
+      }
+      holder.closeTask = CallbackExecutorService.SHARED_SCHEDULER.schedule(() -> {
+        synchronized (CLIENTS) {
+          closeIfIdle(holder);
+        }
+      }, IDLE_CLOSE_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 调用方持有 CLIENTS 锁
+   */
+  private static void closeIfIdle(Holder holder) {
+    if (holder.refs > 0 || CLIENTS.get(holder.key) != holder) {
+      return;
+    }
+    CLIENTS.remove(holder.key);
+    holder.closeTask = null;
+    closeQuietly(holder);
+    log.info("gemini client closed: {}, sessions:{}", holder.name, holder.totalSessions);
+  }
+
+  private static void closeQuietly(Holder holder) {
+    try {
+      holder.client.close();
+    } catch (Exception e) {
+      log.warn("close gemini client failed: {}", holder.name, e);
+    }
+  }
+
+  private static Client build(String apiKey, String baseUrl) {
+    Client.Builder b = Client.builder().apiKey(apiKey);
+    ClientOptions clientOptions = ClientOptions.builder().build();
+    b.clientOptions(clientOptions);
+    if (StrUtil.isNotBlank(baseUrl)) {
+      b.httpOptions(HttpOptions.builder().baseUrl(baseUrl).build());
+    }
+    return b.build();
+  }
+
+  private static String name(String apiKey, String baseUrl) {
+    String masked;
+    if (apiKey == null) {
+      masked = "null";
+    } else if (apiKey.length() <= 8) {
+      masked = "****";
+    } else {
+      masked = apiKey.substring(0, 4) + "****" + apiKey.substring(apiKey.length() - 4);
+    }
+    return StrUtil.isBlank(baseUrl) ? masked : masked + "@" + baseUrl;
+  }
+}
@@ -0,0 +1,25 @@
+package nexus.io.voice.agent.bridge;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of one shared Gemini client in {@link GeminiClientRegistry}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeminiClientStats {
+  // masked api key and base url
+  private String name;
+  private long createdAtMillis;
+  // bridges currently holding the client
+  private int activeSessions;
+  private int peakSessions;
+  private long totalSessions;
+  private long connects;
+  private long connectFailures;
+  private long avgConnectMs;
+  private long maxConnectMs;
+}
@@ -7,14 +7,12 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
-import com.alibaba.dashscope.utils.JsonUtils;
 import com.google.genai.AsyncSession;
 import com.google.genai.Client;
 import com.google.genai.types.ActivityHandling;
 import com.google.genai.types.AudioTranscriptionConfig;
 import com.google.genai.types.AutomaticActivityDetection;
 import com.google.genai.types.Blob;
-import com.google.genai.types.ClientOptions;
 import com.google.genai.types.Content;
 import com.google.genai.types.EndSensitivity;
 import com.google.genai.types.LiveConnectConfig;
@@ -36,13 +34,12 @@ import lombok.extern.slf4j.Slf4j;
 import nexus.io.gemini.GeminiClient;
 import nexus.io.tio.utils.hutool.StrUtil;
 import nexus.io.voice.agent.bridge.RealtimeBridgeCallback;
-import nexus.io.voice.agent.bridge.RealtimeModelBridge;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
 import nexus.io.voice.agent.bridge.SimpleChatMessage;
 import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
 
 @Slf4j
-public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
+public class GoogleGeminiRealtimeBridge implements WarmableRealtimeModelBridge {
 
   private static final String INPUT_MIME = "audio/pcm;rate=16000";
   private static final String OUTPUT_MIME_PREFIX = "audio/pcm";
@@ -61,18 +58,25 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
   private volatile String currentAssistantTurnId;
   private volatile boolean assistantTurnOpen = false;
 
+  /**
+   * Client 进程内共享（{@link GeminiClientRegistry}），AsyncSession 仍然每个会话独立
+   */
+  private final GeminiClientRegistry.Lease clientLease;
   private final Client client;
   private volatile AsyncSession session;
+  private volatile CompletableFuture<Void> receiveFuture;
   private final RealtimeBridgeCallback callback;
 
+  /**
+   * 本会话所有上行发送串行执行，保证音频、文本、audioStreamEnd 的顺序
+   */
+  private final SerialSendQueue sendQueue = BridgeExecutorService.newSendQueue("gemini-live");
+
   public GoogleGeminiRealtimeBridge(RealtimeBridgeCallback sender, String url, String model, String voiceName) {
     this.callback = sender;
 
-    Client.Builder b = Client.builder().apiKey(GeminiClient.GEMINI_API_KEY);
-    ClientOptions clientOptions = ClientOptions.builder().build();
-    b.clientOptions(clientOptions);
-
-    this.client = b.build();
+    this.clientLease = GeminiClientRegistry.acquire(GeminiClient.GEMINI_API_KEY, url);
+    this.client = clientLease.client();
 
     if (model != null) {
       this.model = model;
@@ -88,42 +92,72 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
 
   @Override
   public CompletableFuture<Void> connect(RealtimeSetup realtimeSetup) {
+    return warmUp().thenCompose(v -> applySetup(realtimeSetup)).thenCompose(v -> receiveFuture)
+        .exceptionally(ex -> {
+          log.error("Gemini live connect failed", ex);
+          send(new WsVoiceAgentResponseMessage("error", safe(ex.getMessage())));
+          callback.close("gemini connect failed");
+          return null;
+        });
+  }
+
+  /**
+   * 建立 live 会话并开始接收，LiveConnectConfig 与会话无关，可以在池中提前完成
+   */
+  @Override
+  public CompletableFuture<Void> warmUp() {
     LiveConnectConfig config = buildLiveConfig();
 
-    return client.async.live.connect(model, config).thenCompose(sess -> {
+    long begin = System.currentTimeMillis();
+    return client.async.live.connect(model, config).whenComplete((sess, ex) -> {
+      clientLease.recordConnect(System.currentTimeMillis() - begin, ex == null);
+    }).thenAccept(sess -> {
       this.session = sess;
-      String sessionId = sess.sessionId();
-
-      callback.session(sessionId);
-      send(new WsVoiceAgentResponseMessage("gemini_connected", sessionId));
-
-      try {
-        sendPromptsIfAny(sess, realtimeSetup);
-      } catch (Exception ex) {
-        log.error("send setup prompts error(connect)", ex);
-        send(new WsVoiceAgentResponseMessage("error", safe(ex.getMessage())));
-      }
 
-      CompletableFuture<Void> receiveFuture = sess.receive(this::onGeminiMessage);
-      receiveFuture.whenComplete((v, ex) -> {
+      CompletableFuture<Void> f = sess.receive(this::onGeminiMessage);
+      f.whenComplete((v, ex) -> {
         log.info("gemini receive completed, v:{}, ex:{}", v, ex);
         if (ex != null) {
           log.error("gemini receive error", ex);
           send(new WsVoiceAgentResponseMessage("error", safe(ex.getMessage())));
         }
       });
+      this.receiveFuture = f;
+    });
+  }
 
-      return receiveFuture;
-    }).exceptionally(ex -> {
-      log.error("Gemini live connect failed", ex);
+  /**
+   * 提示词通过 client content 下发，已连接的会话上随时可以发送
+   */
+  @Override
+  public CompletableFuture<Void> applySetup(RealtimeSetup realtimeSetup) {
+    AsyncSession sess = this.session;
+    if (sess == null) {
+      return CompletableFuture.failedFuture(new IllegalStateException("gemini session is not connected"));
+    }
+    String sessionId = sess.sessionId();
+
+    callback.session(sessionId);
+    send(new WsVoiceAgentResponseMessage("gemini_connected", sessionId));
+
+    try {
+      sendPromptsIfAny(sess, realtimeSetup);
+    } catch (Exception ex) {
+      log.error("send setup prompts error(connect)", ex);
       send(new WsVoiceAgentResponseMessage("error", safe(ex.getMessage())));
-      callback.close("gemini connect failed");
-      return null;
-    });
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public boolean isHealthy() {
+    CompletableFuture<Void> f = this.receiveFuture;
+    return session != null && f != null && !f.isDone() && !sendQueue.isShutdown();
   }
 
   @Override
   public CompletableFuture<Void> close() {
+    sendQueue.shutdownAndDropPending();
     try {
       AsyncSession s = this.session;
       if (s != null) {
@@ -131,10 +165,7 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
       }
     } finally {
       closeAssistantTurnSilently();
-      try {
-        client.close();
-      } catch (Exception ignore) {
-      }
+      clientLease.release();
       try {
         callback.close("close");
       } catch (Exception ignore) {
@@ -149,7 +180,7 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
   @Override
   public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
     AsyncSession s = this.session;
-    if (s == null) {
+    if (s == null || sendQueue.isShutdown()) {
       return CompletableFuture.completedFuture(null);
     }
 
@@ -157,7 +188,8 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
 
     LiveSendRealtimeInputParameters params = LiveSendRealtimeInputParameters.builder().audio(audioBlob).build();
 
-    return s.sendRealtimeInput(params).exceptionally(ex -> {
+    // 在会话的串行队列里等待发送完成，下一块音频才会开始发送
+    return sendQueue.offer(() -> s.sendRealtimeInput(params).join()).exceptionally(ex -> {
       String message = ex.getMessage();
       log.error("sendPcm16k error: {}", message, ex);
       send(new WsVoiceAgentResponseMessage("error", safe(message)));
@@ -183,7 +215,7 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
     LiveSendClientContentParameters cc = LiveSendClientContentParameters.builder().turns(List.of(userMessage))
         .turnComplete(true).build();
 
-    return s.sendClientContent(cc).exceptionally(ex -> {
+    return sendQueue.submit(() -> s.sendClientContent(cc).join()).exceptionally(ex -> {
       log.error("sendText error: {}", ex.getMessage(), ex);
       send(new WsVoiceAgentResponseMessage("error", safe(ex.getMessage())));
       return null;
@@ -224,7 +256,7 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
       LiveSendClientContentParameters cc = LiveSendClientContentParameters.builder().turns(initialTurns)
           .turnComplete(true).build();
 
-      s.sendClientContent(cc).exceptionally(ex -> {
+      sendQueue.submit(() -> s.sendClientContent(cc).join()).exceptionally(ex -> {
         log.error("sendPromptsIfAny error: {}", ex.getMessage(), ex);
         send(new WsVoiceAgentResponseMessage("error", safe(ex.getMessage())));
         return null;
@@ -362,8 +394,8 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
           byte[] data = blob.data().orElse(null);
 
           if (data != null && mt.startsWith(OUTPUT_MIME_PREFIX)) {
-            ensureAssistantTurnStarted();
-            callback.sendBinary(data);
+            String turnId = ensureAssistantTurnStarted();
+            callback.sendBinary(turnId, data);
           }
         });
       }
@@ -463,8 +495,7 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
 
   private void send(WsVoiceAgentResponseMessage msg) {
     try {
-      String json = JsonUtils.toJson(msg);
-      callback.sendText(json);
+      callback.sendMessage(msg);
     } catch (Exception e) {
       log.error("send ws message error: {}", msg, e);
     }
@@ -489,7 +520,7 @@ public class GoogleGeminiRealtimeBridge implements RealtimeModelBridge {
 
     LiveSendRealtimeInputParameters params = LiveSendRealtimeInputParameters.builder().audioStreamEnd(true).build();
 
-    return s.sendRealtimeInput(params).exceptionally(ex -> {
+    return sendQueue.submit(() -> s.sendRealtimeInput(params).join()).exceptionally(ex -> {
       String message = ex.getMessage();
       log.error("sendAudioStreamEnd error: {}", message, ex);
       send(new WsVoiceAgentResponseMessage("error", safe(message)));
@@ -0,0 +1,48 @@
+package nexus.io.voice.agent.bridge;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Qwen 上行音频 base64 编码器：编码进会话级复用缓冲区，只生成最终交给 appendAudio 的一个 String，
+ * 不再经过 copyOfRange 和 encodeToString 的中间 byte[]。
+ *
+ * 编码统一走 JDK 的 {@link Base64.Encoder#encode(byte[], byte[])}（有 intrinsic）。它只接受整个数组，
+ * 数组中的一段（SIP 的编码缓冲、deadline 提前发送的不满帧等）先拷进复用的 slice 数组；
+ * 同一路会话的帧长基本固定，slice 只在长度变化时重新分配。
+ *
+ * 非线程安全：由调用方加锁或只在单线程中使用。
+ */
+public class QwenAudioAppendEncoder {
+
+  private byte[] slice = new byte[0];
+  private byte[] buffer = new byte[0];
+
+  /**
+   * 把 pcm[off, off+len) 编码为 base64 字符串
+   */
+  public String encodeBase64(byte[] pcm, int off, int len) {
+    byte[] src = pcm;
+    if (off != 0 || len != pcm.length) {
+      if (slice.length != len) {
+        slice = new byte[len];
+      }
+      System.arraycopy(pcm, off, slice, 0, len);
+      src = slice;
+    }
+    byte[] buf = ensureCapacity(base64Length(len));
+    int p = Base64.getEncoder().encode(src, buf);
+    return new String(buf, 0, p, StandardCharsets.ISO_8859_1);
+  }
+
+  private byte[] ensureCapacity(int length) {
+    if (buffer.length < length) {
+      buffer = new byte[Math.max(length, buffer.length * 2)];
+    }
+    return buffer;
+  }
+
+  private static int base64Length(int len) {
+    return (len + 2) / 3 * 4;
+  }
+}
@@ -16,17 +16,21 @@ import com.alibaba.dashscope.exception.NoApiKeyException;
 import com.google.gson.JsonObject;
 
 import lombok.extern.slf4j.Slf4j;
+import nexus.io.consts.ModelPlatformName;
 import nexus.io.tio.utils.environment.EnvUtils;
 import nexus.io.tio.utils.hutool.StrUtil;
-import nexus.io.tio.utils.json.JsonUtils;
 import nexus.io.voice.agent.bridge.RealtimeBridgeCallback;
-import nexus.io.voice.agent.bridge.RealtimeModelBridge;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
 import nexus.io.voice.agent.bridge.SimpleChatMessage;
 import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
 
 @Slf4j
-public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
+public class QwenOmniRealtimeBridge implements WarmableRealtimeModelBridge {
+
+  /**
+   * {@link RealtimeSetup#getInstructions()} 中本平台使用的 key
+   */
+  public static final String INSTRUCTIONS_KEY = ModelPlatformName.BAILIAN;
 
   // 中国区（北京）
   private String url = "wss://dashscope.aliyuncs.com/api-ws/v1/realtime";
@@ -38,6 +42,16 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
   private volatile OmniRealtimeConversation conversation;
   private final AtomicBoolean connected = new AtomicBoolean(false);
 
+  /**
+   * 本会话所有上行操作串行执行，保证音频顺序
+   */
+  private final SerialSendQueue sendQueue = BridgeExecutorService.newSendQueue("qwen-omni");
+
+  /**
+   * 上行音频 base64 编码，缓冲区在本会话内复用，在调用线程上加锁使用
+   */
+  private final QwenAudioAppendEncoder audioEncoder = new QwenAudioAppendEncoder();
+
   // 你前端上行是 16k PCM16；Qwen3-Omni-Flash-Realtime 下行通常是 24k PCM16（pcm24）
   // 注意：DashScope 事件里音频是 base64；你仍可给浏览器发 bytes（二进制）
   public QwenOmniRealtimeBridge(RealtimeBridgeCallback callback) {
@@ -59,36 +73,10 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
   }
 
   public CompletableFuture<Void> connect(RealtimeSetup setup) {
-    return CompletableFuture.runAsync(() -> {
+    return sendQueue.submit(() -> {
       try {
-        String apiKey = EnvUtils.getStr("DASHSCOPE_API_KEY");
-        if (StrUtil.isBlank(apiKey)) {
-          throw new IllegalStateException("DASHSCOPE_API_KEY is empty");
-        }
-
-        OmniRealtimeParam param = OmniRealtimeParam.builder().model(model).apikey(apiKey).url(url).build();
-
-        this.conversation = new OmniRealtimeConversation(param, new OmniRealtimeCallback() {
-          @Override
-          public void onOpen() {
-            connected.set(true);
-            sendJson(new WsVoiceAgentResponseMessage("qwen_connected", model));
-          }
-
-          @Override
-          public void onClose(int code, String reason) {
-            connected.set(false);
-            sendJson(new WsVoiceAgentResponseMessage("close", reason));
-            callback.close("dashscope closed: " + code + ", " + reason);
-          }
-
-          @Override
-          public void onEvent(JsonObject event) {
-            handleEvent(event);
-          }
-        });
-
-        conversation.connect();
+        openConversation();
+        sendJson(new WsVoiceAgentResponseMessage("qwen_connected", model));
 
         // 会话配置：建议默认 server_vad + text/audio + transcription
         OmniRealtimeConfig cfg = buildSessionConfig(setup);
@@ -108,8 +96,89 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
     });
   }
 
+  /**
+   * 建立连接并下发不含 instructions 的会话配置，失败时 future 异常完成
+   */
+  @Override
+  public CompletableFuture<Void> warmUp() {
+    return sendQueue.submit(() -> {
+      try {
+        openConversation();
+        conversation.updateSession(buildSessionConfig(null));
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  /**
+   * 已预热的连接上再发一次 session.update，只补上本会话的 instructions
+   */
+  @Override
+  public CompletableFuture<Void> applySetup(RealtimeSetup setup) {
+    return sendQueue.submit(() -> {
+      OmniRealtimeConversation c = this.conversation;
+      if (c == null || !connected.get()) {
+        sendError("connect_error", "conversation is not connected");
+        callback.close("connect failed");
+        return;
+      }
+      try {
+        sendJson(new WsVoiceAgentResponseMessage("qwen_connected", model));
+        c.updateSession(buildSessionConfig(setup));
+        sendJson(new WsVoiceAgentResponseMessage("setup_sent_to_model"));
+      } catch (Exception e) {
+        log.error("apply setup error", e);
+        sendError("connect_error", e.getMessage());
+        callback.close("connect failed");
+      }
+    });
+  }
+
+  @Override
+  public boolean isHealthy() {
+    return connected.get() && !sendQueue.isShutdown();
+  }
+
+  private void openConversation() throws Exception {
+    String apiKey = EnvUtils.getStr("DASHSCOPE_API_KEY");
+    if (StrUtil.isBlank(apiKey)) {
+      throw new IllegalStateException("DASHSCOPE_API_KEY is empty");
+    }
+
+    OmniRealtimeParam param = OmniRealtimeParam.builder().model(model).apikey(apiKey).url(url).build();
+
+    this.conversation = new OmniRealtimeConversation(param, new OmniRealtimeCallback() {
+      @Override
+      public void onOpen() {
+        // 预热时还没有会话，qwen_connected 由 connect/applySetup 在绑定会话后发送
+        connected.set(true);
+      }
+
+      @Override
+      public void onClose(int code, String reason) {
+        connected.set(false);
+        sendJson(new WsVoiceAgentResponseMessage("close", reason));
+        callback.close("dashscope closed: " + code + ", " + reason);
+      }
+
+      @Override
+      public void onEvent(JsonObject event) {
+        handleEvent(event);
+      }
+    });
+
+    conversation.connect();
+  }
+
   public CompletableFuture<Void> close() {
-    return CompletableFuture.runAsync(() -> {
+    if (sendQueue.isShutdown()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    // 尚未发送的音频没有意义了，直接丢弃，close 排在已执行的任务之后
+    CompletableFuture<Void> f = sendQueue.submit(() -> {
       try {
         OmniRealtimeConversation c = this.conversation;
         if (c != null) {
@@ -121,6 +190,8 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
         callback.close("close");
       }
     });
+    sendQueue.shutdownAndDropPending();
+    return f;
   }
 
   /**
@@ -128,14 +199,31 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
    * input_audio_buffer.append 事件发送（SDK 封装为 appendAudio）。
    */
   public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
-    return CompletableFuture.runAsync(() -> {
+    if (pcm16k == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return sendPcm16k(pcm16k, 0, pcm16k.length);
+  }
+
+  /**
+   * 在调用线程上直接把 buf[off, off+len) 编码成 base64 再入队，返回后调用方即可复用 buf，不需要拷贝一份 byte[]
+   */
+  @Override
+  public CompletableFuture<Void> sendPcm16k(byte[] buf, int off, int len) {
+    if (sendQueue.isShutdown() || buf == null || len <= 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    String audio;
+    synchronized (audioEncoder) {
+      audio = audioEncoder.encodeBase64(buf, off, len);
+    }
+    return sendQueue.offer(() -> {
       OmniRealtimeConversation c = this.conversation;
-      if (c == null || !connected.get() || pcm16k == null || pcm16k.length == 0) {
+      if (c == null || !connected.get()) {
         return;
       }
       try {
-        String b64 = Base64.getEncoder().encodeToString(pcm16k);
-        c.appendAudio(b64);
+        c.appendAudio(audio);
       } catch (Exception e) {
         log.error("appendAudio failed", e);
         sendError("append_audio_failed", e.getMessage());
@@ -148,7 +236,7 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
    * server_vad，可不调用这个方法。
    */
   public CompletableFuture<Void> commitAndCreateResponse() {
-    return CompletableFuture.runAsync(() -> {
+    return sendQueue.submit(() -> {
       OmniRealtimeConversation c = this.conversation;
       if (c == null || !connected.get())
         return;
@@ -172,8 +260,12 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
   }
 
   private OmniRealtimeConfig buildSessionConfig(RealtimeSetup setup) {
-    // 把你的 setup 组合成 instructions
-    String instructions = buildInstructions(setup);
+    // 把你的 setup 组合成 instructions，预编译的 prompt bundle 已经拼好时直接使用
+    String instructions = setup == null || setup.getInstructions() == null ? null
+        : setup.getInstructions().get(INSTRUCTIONS_KEY);
+    if (instructions == null) {
+      instructions = buildInstructions(setup);
+    }
 
     // server_vad（通话模式）：enableTurnDetection(true)
     // manual（按下即说）：enableTurnDetection(false)，并在 audio_end 时 commit+createResponse
@@ -197,7 +289,7 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
     return b.build();
   }
 
-  private String buildInstructions(RealtimeSetup setup) {
+  public static String buildInstructions(RealtimeSetup setup) {
     if (setup == null) {
       return null;
     }
@@ -273,7 +365,8 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
         String b64 = event.has("delta") ? event.get("delta").getAsString() : "";
         if (StrUtil.notBlank(b64)) {
           byte[] pcm = Base64.getDecoder().decode(b64);
-          callback.sendBinary(pcm);
+          String responseId = event.has("response_id") ? event.get("response_id").getAsString() : null;
+          callback.sendBinary(responseId, pcm);
         }
         break;
       }
@@ -305,10 +398,9 @@ public class QwenOmniRealtimeBridge implements RealtimeModelBridge {
 
   private void sendJson(WsVoiceAgentResponseMessage msg) {
     try {
-      String json = JsonUtils.toSkipNullJson(msg);
-      callback.sendText(json);
+      callback.sendMessage(msg);
     } catch (Exception e) {
-      callback.sendText("{\"type\":\"error\",\"message\":\"serialize error\"}");
+      log.error("send ws message error: {}", msg, e);
     }
   }
 
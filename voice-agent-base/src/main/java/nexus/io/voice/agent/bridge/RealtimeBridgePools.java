@@ -0,0 +1,105 @@
+package nexus.io.voice.agent.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import nexus.io.tio.utils.environment.EnvUtils;
+import nexus.io.tio.utils.hutool.StrUtil;
+import nexus.io.voice.agent.callback.CallbackExecutorService;
+
+/**
+ * 按平台的预热连接池，{@link RealtimeModelBridgeFactory} 优先从这里取连接，取不到再现连。
+ *
+ * 默认关闭：空闲连接也会占用上游的并发额度，需要时显式开启。
+ */
+@Slf4j
+public class RealtimeBridgePools {
+
+  public static final boolean ENABLED = EnvUtils.getBoolean("voice.agent.pool.enabled", false);
+
+  /**
+   * 需要预热的平台，逗号分隔，默认只预热 vioce.agent.platform
+   */
+  public static final String PLATFORMS = EnvUtils.getStr("voice.agent.pool.platforms",
+      EnvUtils.getStr("vioce.agent.platform"));
+
+  public static final int MIN_IDLE = EnvUtils.getInt("voice.agent.pool.min.idle", 1);
+
+  public static final int MAX_IDLE = EnvUtils.getInt("voice.agent.pool.max.idle", 4);
+
+  /**
+   * 空闲连接最长保留时间，需小于上游的会话时长上限和空闲断开时间
+   */
+  public static final int TTL_MS = EnvUtils.getInt("voice.agent.pool.ttl.ms", 240_000);
+
+  /**
+   * 巡检间隔：淘汰过期/断开的连接并补足数量
+   */
+  public static final int CHECK_MS = EnvUtils.getInt("voice.agent.pool.check.ms", 5000);
+
+  public static final int WARMUP_TIMEOUT_MS = EnvUtils.getInt("voice.agent.pool.warmup.timeout.ms", 10_000);
+
+  private static final Map<String, RealtimeBridgePool> POOLS = new ConcurrentHashMap<>();
+
+  public static void init() {
+    if (!ENABLED || StrUtil.isBlank(PLATFORMS)) {
+      return;
+    }
+    for (String s : PLATFORMS.split(",")) {
+      String platform = s.trim();
+      if (platform.isEmpty() || POOLS.containsKey(platform)) {
+        continue;
+      }
+      RealtimeBridgePool pool = new RealtimeBridgePool(platform, callback -> create(platform, callback), MIN_IDLE,
+          MAX_IDLE, TTL_MS, CHECK_MS, WARMUP_TIMEOUT_MS, CallbackExecutorService.SHARED_SCHEDULER);
+      POOLS.put(platform, pool);
+      pool.start();
+      log.info("realtime bridge pool started, platform:{}, min:{}, max:{}, ttl:{}ms", platform, MIN_IDLE, MAX_IDLE,
+          TTL_MS);
+    }
+  }
+
+  /**
+   * @return 已绑定 callback 的预热连接，该平台没有池或池为空时返回 null
+   */
+  public static RealtimeModelBridge checkout(String platform, RealtimeBridgeCallback callback) {
+    if (platform == null) {
+      return null;
+    }
+    RealtimeBridgePool pool = POOLS.get(platform);
+    if (pool == null) {
+      return null;
+    }
+    RealtimeModelBridge bridge = pool.checkout(callback);
+    if (bridge == null) {
+      log.info("realtime bridge pool empty, platform:{}", platform);
+    }
+    return bridge;
+  }
+
+  public static List<RealtimeBridgePoolStats> getStats() {
+    List<RealtimeBridgePoolStats> stats = new ArrayList<>(POOLS.size());
+    for (RealtimeBridgePool pool : POOLS.values()) {
+      stats.add(pool.getStats());
+    }
+    return stats;
+  }
+
+  public static void shutdown() {
+    for (RealtimeBridgePool pool : POOLS.values()) {
+      pool.shutdown();
+    }
+    POOLS.clear();
+  }
+
+  private static WarmableRealtimeModelBridge create(String platform, RealtimeBridgeCallback callback) {
+    RealtimeModelBridge bridge = RealtimeModelBridgeFactory.createModelBridge(platform, callback);
+    if (bridge instanceof WarmableRealtimeModelBridge) {
+      return (WarmableRealtimeModelBridge) bridge;
+    }
+    throw new IllegalStateException("platform does not support warm-up: " + platform);
+  }
+}
@@ -2,15 +2,88 @@ package nexus.io.voice.agent.bridge;
 
 import nexus.io.consts.ModelPlatformName;
 import nexus.io.tio.utils.environment.EnvUtils;
+import nexus.io.voice.agent.audio.EnergyVad;
 import nexus.io.voice.agent.bridge.RealtimeBridgeCallback;
 import nexus.io.voice.agent.bridge.RealtimeModelBridge;
+import nexus.io.voice.agent.callback.CallbackExecutorService;
 
 public class RealtimeModelBridgeFactory {
 
+  /**
+   * 上行音频合并帧长（毫秒），0 表示不合并，逐块直发；有效范围 10~200
+   */
+  public static final int UPLINK_FRAME_MS = Math.min(EnvUtils.getInt("voice.agent.uplink.frame.ms", 60),
+      CoalescingRealtimeModelBridge.MAX_FRAME_MS);
+
+  /**
+   * 上行缓冲最老数据的最大等待时间（毫秒），到期未攒满也发送
+   */
+  public static final int UPLINK_DEADLINE_MS = EnvUtils.getInt("voice.agent.uplink.deadline.ms", 80);
+
+  /**
+   * 上行本地 VAD 总开关，默认关闭
+   */
+  public static final boolean VAD_ENABLED = EnvUtils.getBoolean("voice.agent.vad.enabled", false);
+
+  /**
+   * 是否丢弃静音帧，默认 false：只检测并上报说话开始/结束，音频照常全部发给模型
+   */
+  public static final boolean VAD_SUPPRESS_SILENCE = EnvUtils.getBoolean("voice.agent.vad.suppress", false);
+
+  /**
+   * 高于噪声底多少 dB 视为语音
+   */
+  public static final int VAD_THRESHOLD_DB = EnvUtils.getInt("voice.agent.vad.threshold.db", 12);
+
+  /**
+   * 说话结束后继续发送的时长，需覆盖模型侧判断轮次结束所需的静音
+   */
+  public static final int VAD_HANGOVER_MS = EnvUtils.getInt("voice.agent.vad.hangover.ms", 1000);
+
+  /**
+   * 说话开始时补发的缓存音频时长
+   */
+  public static final int VAD_PREROLL_MS = EnvUtils.getInt("voice.agent.vad.preroll.ms", 300);
+
+  private static final int VAD_FRAME_MS = 20;
+  private static final int VAD_ONSET_MS = 40;
+  private static final int VAD_SAMPLE_RATE = 16000;
+
   public static RealtimeModelBridge createBridge(String platform, RealtimeBridgeCallback callback) {
+    return createBridge(platform, callback, null);
+  }
+
+  /**
+   * @param uplinkFrameMs 本会话的上行合并帧长（来自客户端），null 或超出允许范围时使用 {@link #UPLINK_FRAME_MS}
+   */
+  public static RealtimeModelBridge createBridge(String platform, RealtimeBridgeCallback callback,
+      Integer uplinkFrameMs) {
     if (platform == null) {
       platform = EnvUtils.getStr("vioce.agent.platform");
     }
+    // 优先使用预热好的连接，connect 时只下发本会话的提示词
+    RealtimeModelBridge bridge = RealtimeBridgePools.checkout(platform, callback);
+    if (bridge == null) {
+      bridge = createModelBridge(platform, callback);
+    }
+
+    int frameMs = CoalescingRealtimeModelBridge.resolveFrameMs(uplinkFrameMs, UPLINK_FRAME_MS);
+    if (bridge != null && frameMs >= CoalescingRealtimeModelBridge.MIN_FRAME_MS) {
+      bridge = new CoalescingRealtimeModelBridge(bridge, frameMs, Math.max(frameMs, UPLINK_DEADLINE_MS),
+          CallbackExecutorService.SHARED_SCHEDULER);
+    }
+    if (bridge != null && VAD_ENABLED) {
+      // VAD 在最外层，被丢弃的静音帧不进入合并缓冲区
+      EnergyVad vad = new EnergyVad(VAD_SAMPLE_RATE, VAD_FRAME_MS, VAD_THRESHOLD_DB, VAD_ONSET_MS, VAD_HANGOVER_MS);
+      bridge = new VadRealtimeModelBridge(bridge, vad, callback, VAD_SUPPRESS_SILENCE, VAD_PREROLL_MS);
+    }
+    return bridge;
+  }
+
+  /**
+   * 只创建模型连接本身，不带 VAD 和上行合并
+   */
+  public static RealtimeModelBridge createModelBridge(String platform, RealtimeBridgeCallback callback) {
     RealtimeModelBridge bridge = null;
     if (ModelPlatformName.GOOGLE.equals(platform)) {
       bridge = new GoogleGeminiRealtimeBridge(callback);
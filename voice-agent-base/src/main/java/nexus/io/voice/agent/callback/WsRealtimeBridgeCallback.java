@@ -1,9 +1,6 @@
 package nexus.io.voice.agent.callback;
 
 import java.util.Base64;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
@@ -16,13 +13,20 @@ import nexus.io.voice.agent.audio.SessionAudioRecorder;
 import nexus.io.voice.agent.bridge.RealtimeBridgeCallback;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
 import nexus.io.voice.agent.callback.CallbackExecutorService;
+import nexus.io.voice.agent.codec.OpusCodecPool;
+import nexus.io.voice.agent.codec.OpusSessionCodec;
 import nexus.io.voice.agent.consts.VoiceAgentConst;
+import nexus.io.voice.agent.metrics.SessionLatencyTimeline;
 import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
+import nexus.io.voice.agent.protocol.DownlinkFrameEncoder;
 
 @Slf4j
 public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
 
-  private volatile ScheduledFuture<?> proactiveFuture;
+  /**
+   * 等待用户回答时在时间轮上挂一个超时，用户开口或会话关闭时取消
+   */
+  private volatile HashedTimingWheel.Timeout proactiveTimeout;
 
   private final ChannelContext channelContext;
   private final AudioFinishCallback audioFinishCallback;
@@ -93,7 +97,25 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
    */
   private volatile Consumer<String> modelTextSender;
 
-  private final AtomicBoolean proactiveTaskStarted = new AtomicBoolean(false);
+  /**
+   * SETUP 时协商成功才创建；为 null 时沿用旧协议（JSON 事件 + 裸 PCM）
+   */
+  private volatile DownlinkFrameEncoder downlinkFrameEncoder;
+
+  /**
+   * 模型下行音频采样率，写入二进制帧头
+   */
+  private volatile int modelSampleRate = 24000;
+
+  /**
+   * SETUP 协商为 opus 时持有，关闭时归还 {@link OpusCodecPool}
+   */
+  private volatile OpusSessionCodec opusCodec;
+
+  /**
+   * 会话延迟时间线，未绑定时只打点不上报
+   */
+  private volatile SessionLatencyTimeline latencyTimeline = new SessionLatencyTimeline(null);
 
   public WsRealtimeBridgeCallback(ChannelContext channelContext, AudioFinishCallback audioFinishCallback) {
     this.channelContext = channelContext;
@@ -105,6 +127,29 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
     this.modelTextSender = modelTextSender;
   }
 
+  public void bindLatencyTimeline(SessionLatencyTimeline latencyTimeline) {
+    this.latencyTimeline = latencyTimeline;
+  }
+
+  /**
+   * 启用二进制下行帧：音频、轮次标记和字幕都以带帧头的二进制消息发送，不再经过 base64
+   */
+  public void enableBinaryProtocol(int version, int modelSampleRate) {
+    this.modelSampleRate = modelSampleRate;
+    this.downlinkFrameEncoder = new DownlinkFrameEncoder(version);
+  }
+
+  /**
+   * 启用 Opus：下行音频编码成 20ms 的 Opus 包发送，上行由 handler 通过 {@link #getOpusCodec()} 解码
+   */
+  public void enableOpus(OpusSessionCodec codec) {
+    this.opusCodec = codec;
+  }
+
+  public OpusSessionCodec getOpusCodec() {
+    return opusCodec;
+  }
+
   public void configureProactiveIntervention(boolean enabled, long timeoutMs, long repeatMs) {
     this.proactiveInterventionEnabled = enabled;
     if (timeoutMs > 0) {
@@ -121,6 +166,23 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
    */
   public void onUserAudioActivity() {
     this.lastActivityAt = System.currentTimeMillis();
+    latencyTimeline.markUplink();
+  }
+
+  /**
+   * 本地 VAD 检测到真实语音，立即结束“等待用户回答”，不必等模型的 speech_started / transcript_in
+   */
+  @Override
+  public void onLocalSpeechStart() {
+    latencyTimeline.markSpeechStarted();
+    markRealUserSpeechActivity("local_vad");
+  }
+
+  @Override
+  public void onLocalSpeechStop(long speechMs, long trailingSilenceMs) {
+    latencyTimeline.markSpeechStopped(trailingSilenceMs);
+    this.lastActivityAt = System.currentTimeMillis();
+    log.debug("local vad speech stop, sessionId:{}, speechMs:{}", sessionId, speechMs);
   }
 
   /**
@@ -139,8 +201,34 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
     Tio.send(channelContext, wsResp);
   }
 
+  @Override
+  public void sendMessage(WsVoiceAgentResponseMessage message) {
+    if (message == null) {
+      return;
+    }
+    onServerEvent(message);
+    onOpusTurnEvent(message);
+
+    DownlinkFrameEncoder encoder = this.downlinkFrameEncoder;
+    if (encoder != null) {
+      byte[] frame = encoder.event(message.getType(), message.getTurnId(), message.getText());
+      if (frame != null) {
+        Tio.send(channelContext, WebSocketResponse.fromBytes(frame));
+        return;
+      }
+    }
+
+    WebSocketResponse wsResp = WebSocketResponse.fromText(JsonUtils.toSkipNullJson(message), VoiceAgentConst.CHARSET);
+    Tio.send(channelContext, wsResp);
+  }
+
   @Override
   public void sendBinary(byte[] bytes) {
+    sendBinary(null, bytes);
+  }
+
+  @Override
+  public void sendBinary(String turnId, byte[] bytes) {
     try {
       SessionAudioRecorder.appendModelPcm(sessionId, bytes);
     } catch (Exception ex) {
@@ -148,21 +236,74 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
     }
 
     markAssistantActivity();
+    latencyTimeline.markModelAudio();
+
+    OpusSessionCodec codec = this.opusCodec;
+    if (codec != null) {
+      try {
+        codec.encodeDownlink(bytes, 0, bytes.length, packet -> sendOpusPacket(turnId, packet));
+      } catch (Exception e) {
+        log.warn("opus encode failed, sessionId:{}, {}", sessionId, e.getMessage());
+      }
+      return;
+    }
 
+    DownlinkFrameEncoder encoder = this.downlinkFrameEncoder;
+    if (encoder != null) {
+      bytes = encoder.audio(turnId, modelSampleRate, bytes, 0, bytes.length);
+    }
     WebSocketResponse wsResp = WebSocketResponse.fromBytes(bytes);
     Tio.send(channelContext, wsResp);
+    latencyTimeline.markClientAudio();
+  }
+
+  private void sendOpusPacket(String turnId, byte[] packet) {
+    DownlinkFrameEncoder encoder = this.downlinkFrameEncoder;
+    if (encoder != null) {
+      packet = encoder.opus(turnId, modelSampleRate, packet);
+    }
+    Tio.send(channelContext, WebSocketResponse.fromBytes(packet));
+    latencyTimeline.markClientAudio();
+  }
+
+  /**
+   * 一轮结束时把不足 20ms 的尾巴发出去，打断时直接丢弃，都必须在对应事件发给客户端之前完成
+   */
+  private void onOpusTurnEvent(WsVoiceAgentResponseMessage message) {
+    OpusSessionCodec codec = this.opusCodec;
+    String type = message.getType();
+    if (codec == null || type == null) {
+      return;
+    }
+    switch (type) {
+    case "assistant_turn_complete":
+    case "turn_complete":
+      try {
+        String turnId = message.getTurnId();
+        codec.flushDownlink(packet -> sendOpusPacket(turnId, packet));
+      } catch (Exception e) {
+        log.warn("opus flush failed, sessionId:{}, {}", sessionId, e.getMessage());
+      }
+      break;
+    case "assistant_turn_interrupt":
+    case "interrupted":
+      codec.resetDownlink();
+      break;
+    default:
+      break;
+    }
   }
 
   @Override
   public void close(String reason) {
     closed = true;
 
-    try {
-      if (proactiveFuture != null) {
-        proactiveFuture.cancel(true);
-      }
-    } catch (Exception e) {
-      log.warn("shutdown scheduler failed: {}", e.getMessage());
+    cancelProactiveTimeout();
+
+    OpusSessionCodec codec = this.opusCodec;
+    if (codec != null) {
+      this.opusCodec = null;
+      OpusCodecPool.release(codec);
     }
 
     SessionAudioRecorder.stop(sessionId, audioFinishCallback);
@@ -193,54 +334,72 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
 
   @Override
   public void start(RealtimeSetup setup) {
-    if (!proactiveInterventionEnabled) {
+    // 主动介入在进入等待用户回答时才挂超时，这里不需要启动任何定时任务
+  }
+
+  private synchronized void armProactiveTimeout(long delayMs) {
+    cancelProactiveTimeout();
+    if (closed || !proactiveInterventionEnabled) {
       return;
     }
-    startProactiveTaskIfNeeded();
+    this.proactiveTimeout = CallbackExecutorService.TIMING_WHEEL.schedule(this::onProactiveTimeout, delayMs);
   }
 
-  private void startProactiveTaskIfNeeded() {
-    if (!proactiveTaskStarted.compareAndSet(false, true)) {
-      return;
+  private synchronized void cancelProactiveTimeout() {
+    HashedTimingWheel.Timeout t = this.proactiveTimeout;
+    if (t != null) {
+      this.proactiveTimeout = null;
+      t.cancel();
     }
+  }
 
-    proactiveFuture = CallbackExecutorService.SHARED_SCHEDULER.scheduleAtFixedRate(() -> {
-      try {
-        checkAndTriggerProactiveIntervention();
-      } catch (Throwable e) {
-        log.warn("checkAndTriggerProactiveIntervention error, sessionId:{}", sessionId, e);
-      }
-    }, 1, 1, TimeUnit.SECONDS);
+  /**
+   * 在时间轮线程上执行，只做判断和提交发送，不能阻塞
+   */
+  private void onProactiveTimeout() {
+    long nextDelayMs;
+    try {
+      nextDelayMs = checkAndTriggerProactiveIntervention();
+    } catch (Throwable e) {
+      log.warn("checkAndTriggerProactiveIntervention error, sessionId:{}", sessionId, e);
+      nextDelayMs = proactiveInterventionRepeatMs;
+    }
+    if (nextDelayMs > 0 && waitingForUserAnswer) {
+      armProactiveTimeout(nextDelayMs);
+    }
   }
 
-  private void checkAndTriggerProactiveIntervention() {
+  /**
+   * @return 下一次检查的延迟（毫秒），不需要再检查时返回 -1
+   */
+  private long checkAndTriggerProactiveIntervention() {
     if (closed) {
-      return;
+      return -1;
     }
 
     if (!waitingForUserAnswer) {
-      return;
+      return -1;
     }
 
     Consumer<String> sender = this.modelTextSender;
     if (sender == null) {
-      return;
+      return 1000L;
     }
 
     if (lastAssistantTurnCompleteAt <= 0L) {
-      return;
+      return -1;
     }
 
     long now = System.currentTimeMillis();
     long idleMs = now - lastAssistantTurnCompleteAt;
 
     if (idleMs < proactiveInterventionTimeoutMs) {
-      return;
+      return proactiveInterventionTimeoutMs - idleMs;
     }
 
     long sinceLastIntervention = now - lastProactiveInterventionAt;
     if (lastProactiveInterventionAt > 0L && sinceLastIntervention < proactiveInterventionRepeatMs) {
-      return;
+      return proactiveInterventionRepeatMs - sinceLastIntervention;
     }
 
     String interventionPrompt = CallbackPromptUtils.buildProactiveInterventionPrompt(lastAssistantText, lastUserText,
@@ -258,8 +417,13 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
     } catch (Exception e) {
       log.warn("modelTextSender.accept failed, sessionId:{}, prompt:{}", sessionId, interventionPrompt, e);
     }
+    // 模型没有回应时按间隔重复；回应完成会重新进入等待并重新计时
+    return proactiveInterventionRepeatMs;
   }
 
+  /**
+   * 仅用于 sendText 传入的原始 JSON，bridge 走 sendMessage 时不会进入这里
+   */
   private void inspectServerEvent(String json) {
     if (json == null || json.isEmpty()) {
       return;
@@ -267,52 +431,61 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
 
     try {
       WsVoiceAgentResponseMessage msg = JsonUtils.parse(json, WsVoiceAgentResponseMessage.class);
-      if (msg == null || msg.getType() == null) {
-        return;
-      }
-
-      String type = msg.getType();
-
-      if ("transcript_in".equalsIgnoreCase(type)) {
-        this.lastUserText = safeText(msg.getText());
-        markRealUserSpeechActivity("transcript_in");
-        return;
-      }
-
-      if ("speech_started".equalsIgnoreCase(type)) {
-        markRealUserSpeechActivity("speech_started");
-        return;
-      }
-
-      if ("transcript_out".equalsIgnoreCase(type) || "text".equalsIgnoreCase(type)) {
-        this.lastAssistantText = safeText(msg.getText());
-        markAssistantActivity();
-        return;
-      }
-
-      if ("assistant_turn_start".equalsIgnoreCase(type)) {
-        markAssistantActivity();
-        return;
-      }
-
-      if ("assistant_turn_complete".equalsIgnoreCase(type) || "turn_complete".equalsIgnoreCase(type)) {
-        enterWaitingForUserAnswer(type);
-        return;
-      }
-
-      if ("assistant_turn_interrupt".equalsIgnoreCase(type) || "interrupted".equalsIgnoreCase(type)) {
-        markRealUserSpeechActivity(type);
-        return;
-      }
-
-      if ("error".equalsIgnoreCase(type) || "go_away".equalsIgnoreCase(type)) {
-        markAssistantActivity();
+      if (msg != null) {
+        onServerEvent(msg);
       }
     } catch (Exception e) {
       log.debug("inspectServerEvent parse failed, sessionId:{}, json:{}", sessionId, json);
     }
   }
 
+  private void onServerEvent(WsVoiceAgentResponseMessage msg) {
+    String type = msg.getType();
+    if (type == null) {
+      return;
+    }
+
+    switch (type) {
+    case "transcript_in":
+      this.lastUserText = safeText(msg.getText());
+      markRealUserSpeechActivity("transcript_in");
+      break;
+    case "speech_started":
+      markRealUserSpeechActivity("speech_started");
+      break;
+    case "speech_stopped":
+      // 未启用本地 VAD 时以模型的 server VAD 作为说话结束
+      latencyTimeline.markServerSpeechStopped();
+      break;
+    case "transcript_out":
+    case "text":
+      this.lastAssistantText = safeText(msg.getText());
+      markAssistantActivity();
+      break;
+    case "assistant_turn_start":
+      markAssistantActivity();
+      break;
+    case "assistant_turn_complete":
+    case "turn_complete":
+      latencyTimeline.markTurnComplete();
+      enterWaitingForUserAnswer(type);
+      break;
+    case "assistant_turn_interrupt":
+    case "interrupted":
+      latencyTimeline.markInterrupted();
+      markRealUserSpeechActivity(type);
+      // 客户端丢弃了尚未播放的模型音频，录音的模型声道同步回退
+      SessionAudioRecorder.interruptModel(sessionId);
+      break;
+    case "error":
+    case "go_away":
+      markAssistantActivity();
+      break;
+    default:
+      break;
+    }
+  }
+
   private void enterWaitingForUserAnswer(String reason) {
     long now = System.currentTimeMillis();
     this.waitingForUserAnswer = true;
@@ -321,6 +494,10 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
 
     log.info("enter waitingForUserAnswer, sessionId:{}, reason:{}, proactiveEnabled:{}, lastAssistantText:{}",
         sessionId, reason, proactiveInterventionEnabled, shortText(lastAssistantText));
+
+    if (proactiveInterventionEnabled) {
+      armProactiveTimeout(proactiveInterventionTimeoutMs);
+    }
   }
 
   private void markRealUserSpeechActivity(String reason) {
@@ -329,6 +506,7 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
       this.lastRealUserSpeechAt = now;
       this.lastActivityAt = now;
       this.waitingForUserAnswer = false;
+      cancelProactiveTimeout();
 
       log.info("mark real user speech activity, sessionId:{}, reason:{}, lastUserText:{}", sessionId, reason,
           shortText(lastUserText));
@@ -360,6 +538,18 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
       return;
     }
 
+    if (downlinkFrameEncoder != null || opusCodec != null) {
+      byte[] bytes;
+      try {
+        bytes = Base64.getDecoder().decode(audioBase64);
+      } catch (IllegalArgumentException ex) {
+        log.warn("decode model audio failed: {}", ex.getMessage());
+        return;
+      }
+      sendBinary(turnId, bytes);
+      return;
+    }
+
     try {
       byte[] bytes = Base64.getDecoder().decode(audioBase64);
       SessionAudioRecorder.appendModelPcm(sessionId, bytes);
@@ -368,6 +558,7 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
     }
 
     markAssistantActivity();
+    latencyTimeline.markModelAudio();
 
     WsVoiceAgentResponseMessage resp = new WsVoiceAgentResponseMessage("audio_chunk");
     resp.setTurnId(turnId);
@@ -376,6 +567,6 @@ public class WsRealtimeBridgeCallback implements RealtimeBridgeCallback {
     WebSocketResponse wsResp = WebSocketResponse.fromText(JsonUtils.toSkipNullJson(resp), VoiceAgentConst.CHARSET);
 
     Tio.send(channelContext, wsResp);
-
+    latencyTimeline.markClientAudio();
   }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package nexus.io.voice.agent.codec;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.jaredmdobson.concentus.OpusApplication;
+import io.github.jaredmdobson.concentus.OpusDecoder;
+import io.github.jaredmdobson.concentus.OpusEncoder;
+import io.github.jaredmdobson.concentus.OpusException;
+import io.github.jaredmdobson.concentus.OpusSignal;
+import lombok.extern.slf4j.Slf4j;
+import nexus.io.tio.utils.environment.EnvUtils;
+
+/**
+ * Opus 编解码状态池。创建 OpusEncoder/OpusDecoder 需要分配较大的内部表，会话结束后重置并放回池中给下一个会话使用。
+ *
+ * 池里只放 encoder/decoder，每个会话拿到的 {@link OpusSessionCodec} 都是新对象：归还时先在会话的上下行锁内摘下
+ * encoder/decoder，之后旧会话残留线程的调用都是空操作，不会碰到已经交给别的会话的状态。
+ */
+@Slf4j
+public class OpusCodecPool {
+
+  /**
+   * 下行编码码率（bit/s）
+   */
+  public static final int BITRATE = EnvUtils.getInt("voice.agent.opus.bitrate", 24000);
+
+  /**
+   * 编码复杂度 0-10，越高越耗 CPU
+   */
+  public static final int COMPLEXITY = EnvUtils.getInt("voice.agent.opus.complexity", 5);
+
+  /**
+   * 每种采样率最多保留的空闲 encoder / decoder
+   */
+  public static final int MAX_IDLE = EnvUtils.getInt("voice.agent.opus.pool.max.idle", 32);
+
+  private static final ConcurrentHashMap<Integer, Queue<OpusEncoder>> IDLE_ENCODERS = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Integer, AtomicInteger> IDLE_ENCODER_COUNT = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Integer, Queue<OpusDecoder>> IDLE_DECODERS = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Integer, AtomicInteger> IDLE_DECODER_COUNT = new ConcurrentHashMap<>();
+
+  public static OpusSessionCodec acquire(int downlinkSampleRate, int uplinkSampleRate) throws OpusException {
+    OpusEncoder encoder = poll(IDLE_ENCODERS, IDLE_ENCODER_COUNT, downlinkSampleRate);
+    if (encoder == null) {
+      encoder = newEncoder(downlinkSampleRate);
+    }
+    OpusDecoder decoder = poll(IDLE_DECODERS, IDLE_DECODER_COUNT, uplinkSampleRate);
+    if (decoder == null) {
+      decoder = new OpusDecoder(uplinkSampleRate, 1);
+    }
+    return new OpusSessionCodec(downlinkSampleRate, encoder, uplinkSampleRate, decoder);
+  }
+
+  /**
+   * 关闭会话的编解码器，等正在进行的编码/解码结束后把 encoder/decoder 重置放回池中
+   */
+  public static void release(OpusSessionCodec codec) {
+    if (codec == null) {
+      return;
+    }
+    OpusEncoder encoder = codec.detachEncoder();
+    if (encoder != null) {
+      encoder.resetState();
+      offer(IDLE_ENCODERS, IDLE_ENCODER_COUNT, codec.getDownlinkSampleRate(), encoder);
+    }
+    OpusDecoder decoder = codec.detachDecoder();
+    if (decoder != null) {
+      try {
+        decoder.resetState();
+      } catch (Exception e) {
+        log.warn("reset opus decoder failed: {}", e.getMessage());
+        return;
+      }
+      offer(IDLE_DECODERS, IDLE_DECODER_COUNT, codec.getUplinkSampleRate(), decoder);
+    }
+  }
+
+  static OpusEncoder newEncoder(int sampleRate) throws OpusException {
+    OpusEncoder encoder = new OpusEncoder(sampleRate, 1, OpusApplication.OPUS_APPLICATION_VOIP);
+    encoder.setBitrate(BITRATE);
+    encoder.setComplexity(COMPLEXITY);
+    encoder.setSignalType(OpusSignal.OPUS_SIGNAL_VOICE);
+    return encoder;
+  }
+
+  private static <T> T poll(ConcurrentHashMap<Integer, Queue<T>> idle, ConcurrentHashMap<Integer, AtomicInteger> counts,
+      int sampleRate) {
+    Queue<T> queue = idle.get(sampleRate);
+    if (queue == null) {
+      return null;
+    }
+    T t = queue.poll();
+    if (t != null) {
+      counts.get(sampleRate).decrementAndGet();
+    }
+    return t;
+  }
+
+  private static <T> void offer(ConcurrentHashMap<Integer, Queue<T>> idle, ConcurrentHashMap<Integer, AtomicInteger> counts,
+      int sampleRate, T t) {
+    AtomicInteger count = counts.computeIfAbsent(sampleRate, k -> new AtomicInteger());
+    if (count.incrementAndGet() > MAX_IDLE) {
+      count.decrementAndGet();
+      return;
+    }
+    idle.computeIfAbsent(sampleRate, k -> new ConcurrentLinkedQueue<>()).offer(t);
+  }
+}
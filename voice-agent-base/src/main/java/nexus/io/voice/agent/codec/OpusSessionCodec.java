@@ -0,0 +1,179 @@
+package nexus.io.voice.agent.codec;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import io.github.jaredmdobson.concentus.OpusDecoder;
+import io.github.jaredmdobson.concentus.OpusEncoder;
+import io.github.jaredmdobson.concentus.OpusException;
+
+/**
+ * 一个浏览器会话的 Opus 编解码状态，encoder/decoder 来自 {@link OpusCodecPool}，本对象只属于一个会话。
+ *
+ * - downlink：模型 PCM16 按 20ms 切帧编码，一帧对应一个 Opus 包；不足一帧的尾巴留到下一次或 flush 时补零发出
+ * - uplink：一个 WebSocket 二进制消息是一个 Opus 包，解码成 PCM16 little-endian 写进复用缓冲区
+ *
+ * 上下行各自加锁，可以分别在 SDK 回调线程和 Tio 线程上调用。归还到池之后（encoder/decoder 已摘下）所有调用都是空操作。
+ */
+public class OpusSessionCodec {
+
+  public static final int FRAME_MS = 20;
+
+  /**
+   * Opus 单包最长 120ms
+   */
+  private static final int MAX_PACKET_MS = 120;
+
+  /**
+   * 推荐的单包最大字节数
+   */
+  private static final int MAX_PACKET_BYTES = 1275;
+
+  private final int downlinkSampleRate;
+  private final int uplinkSampleRate;
+
+  // ---- downlink ----
+  private final Object downlinkLock = new Object();
+  private OpusEncoder encoder;
+  private final short[] downlinkFrame;
+  private final byte[] packetBuffer = new byte[MAX_PACKET_BYTES];
+  private int downlinkFill = 0;
+  // 上一块 PCM 以半个采样结尾时留下的低字节，-1 表示没有
+  private int pendingLowByte = -1;
+
+  // ---- uplink ----
+  private final Object uplinkLock = new Object();
+  private OpusDecoder decoder;
+  private final short[] uplinkSamples;
+  private final byte[] uplinkPcm;
+
+  OpusSessionCodec(int downlinkSampleRate, OpusEncoder encoder, int uplinkSampleRate, OpusDecoder decoder) {
+    this.downlinkSampleRate = downlinkSampleRate;
+    this.uplinkSampleRate = uplinkSampleRate;
+
+    this.encoder = encoder;
+    this.downlinkFrame = new short[downlinkSampleRate * FRAME_MS / 1000];
+
+    this.decoder = decoder;
+    this.uplinkSamples = new short[uplinkSampleRate * MAX_PACKET_MS / 1000];
+    this.uplinkPcm = new byte[uplinkSamples.length * 2];
+  }
+
+  public int getDownlinkSampleRate() {
+    return downlinkSampleRate;
+  }
+
+  public int getUplinkSampleRate() {
+    return uplinkSampleRate;
+  }
+
+  /**
+   * 编码下行 PCM16 little-endian，每凑满 20ms 交给 sink 一个独立的 Opus 包
+   */
+  public void encodeDownlink(byte[] pcm, int off, int len, Consumer<byte[]> sink) throws OpusException {
+    synchronized (downlinkLock) {
+      if (encoder == null) {
+        return;
+      }
+      int end = off + len;
+      int p = off;
+      if (pendingLowByte >= 0 && p < end) {
+        appendSample((short) (pendingLowByte | (pcm[p++] << 8)), sink);
+        pendingLowByte = -1;
+      }
+      while (p + 1 < end) {
+        appendSample((short) ((pcm[p] & 0xff) | (pcm[p + 1] << 8)), sink);
+        p += 2;
+      }
+      if (p < end) {
+        pendingLowByte = pcm[p] & 0xff;
+      }
+    }
+  }
+
+  private void appendSample(short sample, Consumer<byte[]> sink) throws OpusException {
+    downlinkFrame[downlinkFill++] = sample;
+    if (downlinkFill == downlinkFrame.length) {
+      encodeFrame(sink);
+    }
+  }
+
+  private void encodeFrame(Consumer<byte[]> sink) throws OpusException {
+    int n = encoder.encode(downlinkFrame, 0, downlinkFrame.length, packetBuffer, 0, packetBuffer.length);
+    downlinkFill = 0;
+    sink.accept(Arrays.copyOf(packetBuffer, n));
+  }
+
+  /**
+   * 一轮回复结束：把不足 20ms 的尾巴补静音后发出
+   */
+  public void flushDownlink(Consumer<byte[]> sink) throws OpusException {
+    synchronized (downlinkLock) {
+      pendingLowByte = -1;
+      if (encoder == null || downlinkFill == 0) {
+        return;
+      }
+      Arrays.fill(downlinkFrame, downlinkFill, downlinkFrame.length, (short) 0);
+      encodeFrame(sink);
+    }
+  }
+
+  /**
+   * 打断：丢弃未发出的尾巴，并重置编码器预测状态
+   */
+  public void resetDownlink() {
+    synchronized (downlinkLock) {
+      downlinkFill = 0;
+      pendingLowByte = -1;
+      if (encoder != null) {
+        encoder.resetState();
+      }
+    }
+  }
+
+  /**
+   * 解码一个上行 Opus 包到 {@link #getUplinkPcm()}，返回写入的字节数，已归还时返回 0。缓冲区在下一次调用时会被覆盖。
+   */
+  public int decodeUplink(byte[] packet, int off, int len) throws OpusException {
+    synchronized (uplinkLock) {
+      if (decoder == null) {
+        return 0;
+      }
+      int samples = decoder.decode(packet, off, len, uplinkSamples, 0, uplinkSamples.length, false);
+      for (int i = 0, j = 0; i < samples; i++, j += 2) {
+        int v = uplinkSamples[i];
+        uplinkPcm[j] = (byte) v;
+        uplinkPcm[j + 1] = (byte) (v >>> 8);
+      }
+      return samples * 2;
+    }
+  }
+
+  public byte[] getUplinkPcm() {
+    return uplinkPcm;
+  }
+
+  /**
+   * 摘下 encoder 交还给池，会等正在进行的编码结束
+   */
+  OpusEncoder detachEncoder() {
+    synchronized (downlinkLock) {
+      OpusEncoder e = encoder;
+      encoder = null;
+      downlinkFill = 0;
+      pendingLowByte = -1;
+      return e;
+    }
+  }
+
+  /**
+   * 摘下 decoder 交还给池，会等正在进行的解码结束
+   */
+  OpusDecoder detachDecoder() {
+    synchronized (uplinkLock) {
+      OpusDecoder d = decoder;
+      decoder = null;
+      return d;
+    }
+  }
+}
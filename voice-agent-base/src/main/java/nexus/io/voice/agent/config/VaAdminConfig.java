@@ -1,8 +1,10 @@
 package nexus.io.voice.agent.config;
 
+import java.nio.file.Paths;
 import java.util.Optional;
 
 import com.google.genai.ApiClient;
+import com.litongjava.media.NativeMedia;
 
 import lombok.extern.slf4j.Slf4j;
 import nexus.io.context.BootConfiguration;
@@ -14,8 +16,14 @@ import nexus.io.tio.boot.admin.config.TioAdminMongoDbConfiguration;
 import nexus.io.tio.boot.admin.config.TioAdminRedisDbConfiguration;
 import nexus.io.tio.boot.server.TioBootServer;
 import nexus.io.tio.boot.websocket.WebSocketRouter;
+import nexus.io.tio.http.server.router.HttpRequestRouter;
 import nexus.io.tio.utils.environment.EnvUtils;
+import nexus.io.voice.agent.audio.PostProcessScheduler;
+import nexus.io.voice.agent.audio.SessionAudioExecutor;
+import nexus.io.voice.agent.bridge.RealtimeBridgePools;
+import nexus.io.voice.agent.handler.VoiceMetricsHandler;
 import nexus.io.voice.agent.handler.VoiceSocketHandler;
+import nexus.io.voice.agent.prompt.PromptBundleCache;
 
 @Slf4j
 public class VaAdminConfig implements BootConfiguration {
@@ -28,6 +36,9 @@ public class VaAdminConfig implements BootConfiguration {
     new TioAdminRedisDbConfiguration().config();
     new TioAdminMongoDbConfiguration().config();
     configInterceptor();
+    configPostProcess();
+    RealtimeBridgePools.init();
+    PromptBundleCache.init();
     configHandler(server);
     configWebSocket(server);
     configGeminiProxy();
@@ -44,14 +55,34 @@ public class VaAdminConfig implements BootConfiguration {
   }
 
   private void configInterceptor() {
-    String[] permitUrl = { "/api/v1/voice/agent", "/api/v1/livekit/token" };
+    String[] permitUrl = { "/api/v1/voice/agent", "/api/v1/livekit/token", "/api/v1/voice/metrics" };
     new TioAdminInterceptorConfiguration(permitUrl).config();
   }
 
+  private void configPostProcess() {
+    int parallelism = EnvUtils.getInt("voice.agent.postprocess.parallelism",
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    int maxQueued = EnvUtils.getInt("voice.agent.postprocess.queue.max", 200);
+    String spillDir = EnvUtils.getStr("voice.agent.postprocess.spill.dir", "temp/voice-postprocess");
+    SessionAudioExecutor.configurePostProcess(parallelism, maxQueued, Paths.get(spillDir));
+
+    PostProcessScheduler scheduler = SessionAudioExecutor.postProcess();
+    scheduler.registerHandler(VoiceSocketHandler.JOB_MP3, job -> NativeMedia.toMp3(job.getParam("path")));
+    // 上次进程退出时还在磁盘上排队的任务
+    scheduler.recoverSpilled();
+    log.info("post-process parallelism:{}, queue:{}, spill:{}", parallelism, maxQueued, spillDir);
+  }
+
   private void configHandler(TioBootServer server) {
     new TioAdminHandlerConfiguration().config();
 
     new TioAdminControllerConfiguration().config();
+
+    HttpRequestRouter router = server.getRequestRouter();
+    if (router != null) {
+      VoiceMetricsHandler metricsHandler = new VoiceMetricsHandler();
+      router.add("/api/v1/voice/metrics", metricsHandler::index);
+    }
   }
 
   private void configWebSocket(TioBootServer server) {
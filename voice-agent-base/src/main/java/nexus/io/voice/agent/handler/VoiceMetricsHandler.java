@@ -0,0 +1,39 @@
+package nexus.io.voice.agent.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import nexus.io.tio.boot.http.TioRequestContext;
+import nexus.io.tio.http.common.HttpRequest;
+import nexus.io.tio.http.common.HttpResponse;
+import nexus.io.tio.http.server.util.Resps;
+import nexus.io.voice.agent.audio.SessionAudioExecutor;
+import nexus.io.voice.agent.bridge.GeminiClientRegistry;
+import nexus.io.voice.agent.bridge.RealtimeBridgePools;
+import nexus.io.voice.agent.metrics.LatencyMetrics;
+
+/**
+ * GET /api/v1/voice/metrics
+ *
+ * - latency：按平台的延迟分位数（毫秒），见 {@link LatencyMetrics}
+ * - postprocess：通话结束后合成/转码队列状态
+ * - pool：各平台预热连接池的命中和淘汰情况
+ * - gemini：共享 Gemini Client 的会话数和建连耗时
+ *
+ * 带 reset=true 时读取后清零延迟统计，便于按采集周期拉取。
+ */
+public class VoiceMetricsHandler {
+
+  public HttpResponse index(HttpRequest request) {
+    boolean reset = "true".equalsIgnoreCase(request.getParam("reset"));
+
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("latency", LatencyMetrics.snapshot(reset));
+    data.put("postprocess", SessionAudioExecutor.postProcess().getStats());
+    data.put("pool", RealtimeBridgePools.getStats());
+    data.put("gemini", GeminiClientRegistry.getStats());
+
+    HttpResponse response = TioRequestContext.getResponse();
+    return Resps.json(response, data);
+  }
+}
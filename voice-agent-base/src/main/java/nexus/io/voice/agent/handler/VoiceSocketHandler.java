@@ -4,28 +4,42 @@ import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import com.litongjava.media.NativeMedia;
-
 import lombok.extern.slf4j.Slf4j;
 import nexus.io.tio.consts.TioConst;
 import nexus.io.tio.core.ChannelContext;
 import nexus.io.tio.core.Tio;
 import nexus.io.tio.http.common.HttpRequest;
 import nexus.io.tio.http.common.HttpResponse;
+import nexus.io.tio.utils.environment.EnvUtils;
 import nexus.io.tio.utils.json.JsonUtils;
 import nexus.io.tio.websocket.common.WebSocketRequest;
 import nexus.io.tio.websocket.common.WebSocketResponse;
 import nexus.io.tio.websocket.common.WebSocketSessionContext;
 import nexus.io.tio.websocket.server.handler.IWebSocketHandler;
 import nexus.io.voice.agent.audio.AudioFinishCallback;
+import nexus.io.voice.agent.audio.PostProcessJob;
+import nexus.io.voice.agent.audio.PostProcessPriority;
+import nexus.io.voice.agent.audio.RecordingMode;
+import nexus.io.voice.agent.audio.SessionAudioExecutor;
 import nexus.io.voice.agent.audio.SessionAudioRecorder;
 import nexus.io.voice.agent.bridge.RealtimeModelBridge;
 import nexus.io.voice.agent.bridge.RealtimeModelBridgeFactory;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
 import nexus.io.voice.agent.callback.WsRealtimeBridgeCallback;
+import nexus.io.voice.agent.codec.OpusCodecPool;
+import nexus.io.voice.agent.codec.OpusSessionCodec;
+import nexus.io.voice.agent.metrics.LatencyMetrics;
+import nexus.io.voice.agent.metrics.SessionLatencyTimeline;
+import nexus.io.voice.agent.model.WsAudioCodec;
 import nexus.io.voice.agent.model.WsVoiceAgentRequestMessage;
 import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
 import nexus.io.voice.agent.model.WsVoiceAgentType;
+import nexus.io.voice.agent.pipeline.AgcStage;
+import nexus.io.voice.agent.pipeline.AudioPipeline;
+import nexus.io.voice.agent.pipeline.EncodeStage;
+import nexus.io.voice.agent.pipeline.MeterStage;
+import nexus.io.voice.agent.pipeline.RecordStage;
+import nexus.io.voice.agent.protocol.DownlinkFrameCodec;
 
 @Slf4j
 public class VoiceSocketHandler implements IWebSocketHandler {
@@ -40,6 +54,16 @@ public class VoiceSocketHandler implements IWebSocketHandler {
    */
   private static final Map<String, WsRealtimeBridgeCallback> CALLBACKS = new ConcurrentHashMap<>();
 
+  /**
+   * 一个前端连接一条上行处理链（录音、电平、编码发送给 bridge）
+   */
+  private static final Map<String, AudioPipeline> UPLINKS = new ConcurrentHashMap<>();
+
+  /**
+   * 上行处理链，可用阶段：agc, meter, record；编码发送固定在最后
+   */
+  private static final String UPLINK_PIPELINE = EnvUtils.getStr("voice.agent.pipeline.uplink", "meter,record");
+
   /**
    * 主动介入总开关
    */
@@ -55,6 +79,27 @@ public class VoiceSocketHandler implements IWebSocketHandler {
    */
   private static final long PROACTIVE_INTERVENTION_REPEAT_MS = 8_000L;
 
+  /**
+   * 浏览器上行 / 模型输入采样率
+   */
+  private static final int USER_INPUT_SAMPLE_RATE = 16000;
+
+  /**
+   * 模型下行音频采样率
+   */
+  private static final int MODEL_OUTPUT_SAMPLE_RATE = 24000;
+
+  /**
+   * 录音方式：SEPARATE（通话结束后合成）| LIVE_STEREO（边录边合成）
+   */
+  private static final RecordingMode RECORDING_MODE = RecordingMode
+      .valueOf(EnvUtils.getStr("voice.agent.recording.mode", RecordingMode.SEPARATE.name()));
+
+  /**
+   * 录音转 mp3 的后处理任务类型，处理器在 VaAdminConfig 中注册
+   */
+  public static final String JOB_MP3 = "mp3";
+
   @Override
   public Object onClose(WebSocketRequest wsRequest, byte[] bytes, ChannelContext channelContext) throws Exception {
     String sessionKey = channelContext.getId();
@@ -72,19 +117,23 @@ public class VoiceSocketHandler implements IWebSocketHandler {
       callback.onUserAudioActivity();
     }
 
-    try {
-      SessionAudioRecorder.appendUserPcm(sessionKey, bytes);
-    } catch (Exception ex) {
-      log.warn("appendUserPcm failed: {}", ex.getMessage());
-    }
-
-    RealtimeModelBridge bridge = BRIDGES.get(sessionKey);
-    if (bridge != null) {
+    byte[] pcm = bytes;
+    int pcmLength = bytes.length;
+    OpusSessionCodec opusCodec = callback != null ? callback.getOpusCodec() : null;
+    if (opusCodec != null) {
       try {
-        bridge.sendPcm16k(bytes);
+        pcmLength = opusCodec.decodeUplink(bytes, 0, bytes.length);
+        pcm = opusCodec.getUplinkPcm();
       } catch (Exception e) {
-        log.error("bridge.sendPcm16k error, sessionKey:{}", sessionKey, e);
+        log.warn("opus decode failed, sessionKey:{}, {}", sessionKey, e.getMessage());
+        return null;
       }
+    }
+
+    AudioPipeline uplink = UPLINKS.get(sessionKey);
+    if (uplink != null) {
+      // 录音和发送都在处理链里完成，Opus 解码缓冲区在返回前已经用完
+      uplink.pushPcm16(pcm, 0, pcmLength, USER_INPUT_SAMPLE_RATE);
     } else {
       log.warn("bridge not found when onBytes, sessionKey:{}", sessionKey);
     }
@@ -125,10 +174,17 @@ public class VoiceSocketHandler implements IWebSocketHandler {
 
         RealtimeSetup realtimeSetup = new RealtimeSetup(systemPrompt, userPrompt, greeting);
 
-        connectLLM(channelContext, platform, realtimeSetup);
+        Integer binaryProtocol = negotiateBinaryProtocol(msg.getBinary_protocol());
+
+        WsAudioCodec audioCodec = WsAudioCodec.parse(msg.getAudio_codec());
+
+        audioCodec = connectLLM(channelContext, platform, realtimeSetup, msg.getUplink_frame_ms(), binaryProtocol,
+            audioCodec);
 
         WsVoiceAgentResponseMessage resp = new WsVoiceAgentResponseMessage(WsVoiceAgentType.SETUP_RECEIVED.name());
         resp.setSessionId(sessionKey);
+        resp.setBinaryProtocol(binaryProtocol);
+        resp.setAudioCodec(audioCodec.getValue());
 
         String json = toJson(resp);
         Tio.send(channelContext, WebSocketResponse.fromText(json, TioConst.UTF_8));
@@ -190,28 +246,57 @@ public class VoiceSocketHandler implements IWebSocketHandler {
     return null;
   }
 
-  private void connectLLM(ChannelContext channelContext, String platform, RealtimeSetup setup) {
+  /**
+   * 客户端声明支持的版本不低于服务端版本时启用二进制下行帧，否则返回 null 使用旧协议
+   */
+  private Integer negotiateBinaryProtocol(Integer requested) {
+    if (requested == null || requested < DownlinkFrameCodec.VERSION) {
+      return null;
+    }
+    return DownlinkFrameCodec.VERSION;
+  }
+
+  /**
+   * @return 实际启用的音频编码，Opus 初始化失败时退回 PCM16
+   */
+  private WsAudioCodec connectLLM(ChannelContext channelContext, String platform, RealtimeSetup setup,
+      Integer uplinkFrameMs, Integer binaryProtocol, WsAudioCodec audioCodec) {
     String sessionKey = channelContext.getId();
 
     AudioFinishCallback audioFinishCallback = new AudioFinishCallback() {
       @Override
       public void done(Path audioFile) {
-        String wavFilePath = audioFile.toString();
-        NativeMedia.toMp3(wavFilePath);
+        // 转码排在合成之后，不占用合成任务的线程
+        PostProcessJob job = PostProcessJob.of(JOB_MP3, PostProcessPriority.LOW, sessionKey);
+        job.param("path", audioFile);
+        SessionAudioExecutor.postProcess().submit(job);
       }
     };
 
     WsRealtimeBridgeCallback callback = new WsRealtimeBridgeCallback(channelContext, audioFinishCallback);
+    String metricsPlatform = platform != null ? platform : EnvUtils.getStr("vioce.agent.platform");
+    callback.bindLatencyTimeline(new SessionLatencyTimeline(LatencyMetrics.sink(metricsPlatform)));
     callback.configureProactiveIntervention(ENABLE_PROACTIVE_INTERVENTION, PROACTIVE_INTERVENTION_TIMEOUT_MS,
         PROACTIVE_INTERVENTION_REPEAT_MS);
+    if (binaryProtocol != null) {
+      callback.enableBinaryProtocol(binaryProtocol, MODEL_OUTPUT_SAMPLE_RATE);
+    }
+    if (audioCodec == WsAudioCodec.OPUS) {
+      try {
+        callback.enableOpus(OpusCodecPool.acquire(MODEL_OUTPUT_SAMPLE_RATE, USER_INPUT_SAMPLE_RATE));
+      } catch (Exception e) {
+        log.warn("create opus codec failed, fall back to pcm16, sessionKey:{}", sessionKey, e);
+        audioCodec = WsAudioCodec.PCM16;
+      }
+    }
 
     try {
-      SessionAudioRecorder.start(sessionKey, 16000, 24000);
+      SessionAudioRecorder.start(sessionKey, USER_INPUT_SAMPLE_RATE, MODEL_OUTPUT_SAMPLE_RATE, RECORDING_MODE);
     } catch (Exception e) {
       log.warn("start recorder failed: {}", e.getMessage());
     }
 
-    RealtimeModelBridge bridge = RealtimeModelBridgeFactory.createBridge(platform, callback);
+    RealtimeModelBridge bridge = RealtimeModelBridgeFactory.createBridge(platform, callback, uplinkFrameMs);
 
     callback.bindModelTextSender(prompt -> {
       try {
@@ -230,6 +315,7 @@ public class VoiceSocketHandler implements IWebSocketHandler {
 
     CALLBACKS.put(sessionKey, callback);
     BRIDGES.put(sessionKey, bridge);
+    UPLINKS.put(sessionKey, buildUplink(sessionKey, bridge));
 
     try {
       bridge.connect(setup);
@@ -237,9 +323,34 @@ public class VoiceSocketHandler implements IWebSocketHandler {
       log.error("bridge.connect error, sessionKey:{}", sessionKey, e);
       cleanupSession(channelContext, sessionKey, "bridge connect failed");
     }
+    return audioCodec;
+  }
+
+  private AudioPipeline buildUplink(String sessionKey, RealtimeModelBridge bridge) {
+    return AudioPipeline.builder("ws-uplink-" + sessionKey)
+        //
+        .add(new AgcStage(-20, 20, -50, false), false)
+        //
+        .add(new MeterStage())
+        //
+        .add(new RecordStage(sessionKey, RecordStage.Role.USER))
+        //
+        .add(new EncodeStage((buf, off, len, rate) -> {
+          try {
+            bridge.sendPcm16k(buf, off, len);
+          } catch (Exception e) {
+            log.error("bridge.sendPcm16k error, sessionKey:{}", sessionKey, e);
+          }
+        }))
+        //
+        .build(UPLINK_PIPELINE);
   }
 
   private void cleanupSession(ChannelContext channelContext, String sessionKey, String reason) {
+    AudioPipeline uplink = UPLINKS.remove(sessionKey);
+    if (uplink != null) {
+      log.info("uplink pipeline stats, sessionKey:{}, stats:{}", sessionKey, uplink.getStats());
+    }
     WsRealtimeBridgeCallback callback = CALLBACKS.remove(sessionKey);
     RealtimeModelBridge bridge = BRIDGES.remove(sessionKey);
 
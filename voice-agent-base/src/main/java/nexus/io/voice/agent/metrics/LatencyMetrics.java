@@ -0,0 +1,81 @@
+package nexus.io.voice.agent.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 按平台（google / bailian ...）聚合的会话延迟分位数，数据来自每个会话的 {@link SessionLatencyTimeline}。
+ *
+ * 每个平台、每个指标一个 ConcurrentHistogram，单位微秒，3 位有效数字，超过上限的值按上限记录。
+ */
+public class LatencyMetrics {
+
+  private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final double[] PERCENTILES = { 50, 90, 95, 99 };
+
+  private static final Map<String, Map<LatencyMetric, ConcurrentHistogram>> HISTOGRAMS = new ConcurrentHashMap<>();
+
+  /**
+   * 绑定平台的 sink，交给会话的 timeline 使用
+   */
+  public static LatencySink sink(String platform) {
+    String key = platform == null || platform.isEmpty() ? "default" : platform;
+    return (metric, micros) -> record(key, metric, micros);
+  }
+
+  public static void record(String platform, LatencyMetric metric, long micros) {
+    Map<LatencyMetric, ConcurrentHistogram> byMetric = HISTOGRAMS.computeIfAbsent(platform,
+        k -> new ConcurrentHashMap<>());
+    ConcurrentHistogram h = byMetric.computeIfAbsent(metric,
+        k -> new ConcurrentHistogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS));
+    h.recordValue(Math.max(0L, Math.min(micros, HIGHEST_MICROS)));
+  }
+
+  /**
+   * platform -> metric -> {count, mean, p50, p90, p95, p99, max}，时间单位毫秒
+   *
+   * @param reset 读取后清零，用于按采集周期统计
+   */
+  public static Map<String, Map<String, Map<String, Object>>> snapshot(boolean reset) {
+    Map<String, Map<String, Map<String, Object>>> result = new TreeMap<>();
+    for (Map.Entry<String, Map<LatencyMetric, ConcurrentHistogram>> p : HISTOGRAMS.entrySet()) {
+      Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+      for (LatencyMetric metric : LatencyMetric.values()) {
+        ConcurrentHistogram live = p.getValue().get(metric);
+        if (live == null) {
+          continue;
+        }
+        Histogram h = live.copy();
+        if (reset) {
+          // 拷贝与清零之间记录的少量数据会丢失，采集周期统计可以接受
+          live.reset();
+        }
+        metrics.put(metric.getValue(), summarize(h));
+      }
+      result.put(p.getKey(), metrics);
+    }
+    return result;
+  }
+
+  private static Map<String, Object> summarize(Histogram h) {
+    Map<String, Object> m = new LinkedHashMap<>();
+    m.put("count", h.getTotalCount());
+    m.put("mean", toMs(h.getMean()));
+    for (double p : PERCENTILES) {
+      m.put("p" + (int) p, toMs(h.getValueAtPercentile(p)));
+    }
+    m.put("max", toMs(h.getMaxValue()));
+    return m;
+  }
+
+  private static double toMs(double micros) {
+    return Math.round(micros / 100.0) / 10.0;
+  }
+}
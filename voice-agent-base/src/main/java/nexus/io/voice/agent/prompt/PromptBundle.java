@@ -0,0 +1,108 @@
+package nexus.io.voice.agent.prompt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import nexus.io.template.PromptEngine;
+import nexus.io.voice.agent.bridge.QwenOmniRealtimeBridge;
+import nexus.io.voice.agent.bridge.RealtimeSetup;
+import nexus.io.voice.agent.bridge.SimpleChatMessage;
+
+/**
+ * 一套提示词模板渲染后的结果，创建后不再修改。
+ *
+ * 模板文件为 {templateSet}_system_prompt.txt、_user_prompt.txt、_job_description.txt、_resume.txt、
+ * _questions.txt、_greeting.txt。各平台需要的 instructions 也在编译时拼好，通话建立时只复制引用。
+ */
+@Getter
+public class PromptBundle {
+
+  private final String templateSet;
+  private final String version;
+  private final long compiledAtMillis;
+  private final long compileCostMs;
+
+  /**
+   * 渲染后的各段内容，key 为段名
+   */
+  private final Map<String, String> sections;
+
+  private final String systemPrompt;
+  private final String userPrompt;
+  private final String greeting;
+  private final List<SimpleChatMessage> messages;
+
+  /**
+   * 各平台 instructions，见 {@link RealtimeSetup#getInstructions()}
+   */
+  private final Map<String, String> instructions;
+
+  private PromptBundle(String templateSet, String version, long compiledAtMillis, long compileCostMs,
+      Map<String, String> sections, String systemPrompt, String userPrompt, String greeting,
+      List<SimpleChatMessage> messages, Map<String, String> instructions) {
+    this.templateSet = templateSet;
+    this.version = version;
+    this.compiledAtMillis = compiledAtMillis;
+    this.compileCostMs = compileCostMs;
+    this.sections = sections;
+    this.systemPrompt = systemPrompt;
+    this.userPrompt = userPrompt;
+    this.greeting = greeting;
+    this.messages = messages;
+    this.instructions = instructions;
+  }
+
+  public static PromptBundle compile(String templateSet, String version) {
+    long begin = System.currentTimeMillis();
+
+    String systemPrompt = render(templateSet, "system_prompt");
+    String userPrompt = render(templateSet, "user_prompt");
+    String jobDescription = render(templateSet, "job_description");
+    String resume = render(templateSet, "resume");
+    String questions = render(templateSet, "questions");
+    String greeting = render(templateSet, "greeting");
+
+    Map<String, String> sections = new LinkedHashMap<>();
+    sections.put("SYSTEM_PROMPT", systemPrompt);
+    sections.put("USER_PROMPT", userPrompt);
+    sections.put("JOB_DESCRIPTION", jobDescription);
+    sections.put("RESUME", resume);
+    sections.put("QUESTIONS", questions);
+    sections.put("GREETING", greeting);
+
+    List<SimpleChatMessage> messages = new ArrayList<>();
+    messages.add(SimpleChatMessage.buildUser("JOB_DESCRIPTION", jobDescription));
+    messages.add(SimpleChatMessage.buildUser("RESUME", resume));
+    messages.add(SimpleChatMessage.buildUser("QUESTIONS", questions));
+    messages = Collections.unmodifiableList(messages);
+
+    // 与原 RealtimeSetupFactory 的构造方式保持一致
+    RealtimeSetup template = new RealtimeSetup(systemPrompt, userPrompt, greeting);
+    template.setMessages(messages);
+
+    Map<String, String> instructions = new HashMap<>();
+    instructions.put(QwenOmniRealtimeBridge.INSTRUCTIONS_KEY, QwenOmniRealtimeBridge.buildInstructions(template));
+
+    long now = System.currentTimeMillis();
+    return new PromptBundle(templateSet, version, now, now - begin, Collections.unmodifiableMap(sections),
+        systemPrompt, userPrompt, greeting, messages, Collections.unmodifiableMap(instructions));
+  }
+
+  /**
+   * 每次通话一个新的 RealtimeSetup，字段引用本 bundle 中已渲染的内容
+   */
+  public RealtimeSetup newSetup() {
+    RealtimeSetup setup = new RealtimeSetup(systemPrompt, userPrompt, greeting);
+    setup.setMessages(messages).setInstructions(instructions);
+    return setup;
+  }
+
+  private static String render(String templateSet, String section) {
+    return PromptEngine.renderToString(templateSet + "_" + section + ".txt");
+  }
+}
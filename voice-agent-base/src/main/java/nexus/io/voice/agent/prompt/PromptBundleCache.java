@@ -0,0 +1,114 @@
+package nexus.io.voice.agent.prompt;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import nexus.io.tio.utils.environment.EnvUtils;
+import nexus.io.tio.utils.hutool.StrUtil;
+
+/**
+ * 已编译的 {@link PromptBundle}，按 模板集@版本 缓存，通话建立时不再渲染模板。
+ *
+ * 模板修改后需要失效：调用 {@link #invalidate}，或配置 voice.agent.prompt.watch.dir 监听模板目录，
+ * 目录内文件变化时整体失效，下一通电话重新编译。
+ */
+@Slf4j
+public class PromptBundleCache {
+
+  public static final String DEFAULT_TEMPLATE_SET = EnvUtils.getStr("voice.agent.prompt.set", "voice_agent");
+
+  /**
+   * 模板版本，发布新模板时修改，新旧版本的缓存互不影响
+   */
+  public static final String VERSION = EnvUtils.getStr("voice.agent.prompt.version", "1");
+
+  /**
+   * 模板所在目录，配置后监听文件变化自动失效
+   */
+  public static final String WATCH_DIR = EnvUtils.getStr("voice.agent.prompt.watch.dir");
+
+  private static final Map<String, PromptBundle> BUNDLES = new ConcurrentHashMap<>();
+
+  private static volatile Thread watcher;
+
+  public static PromptBundle get() {
+    return get(DEFAULT_TEMPLATE_SET, VERSION);
+  }
+
+  public static PromptBundle get(String templateSet, String version) {
+    String key = templateSet + "@" + version;
+    PromptBundle bundle = BUNDLES.get(key);
+    if (bundle != null) {
+      return bundle;
+    }
+    return BUNDLES.computeIfAbsent(key, k -> {
+      PromptBundle b = PromptBundle.compile(templateSet, version);
+      log.info("prompt bundle compiled: {}, cost:{}ms", k, b.getCompileCostMs());
+      return b;
+    });
+  }
+
+  public static void invalidate(String templateSet, String version) {
+    if (BUNDLES.remove(templateSet + "@" + version) != null) {
+      log.info("prompt bundle invalidated: {}@{}", templateSet, version);
+    }
+  }
+
+  public static void invalidateAll() {
+    if (!BUNDLES.isEmpty()) {
+      BUNDLES.clear();
+      log.info("prompt bundles invalidated");
+    }
+  }
+
+  /**
+   * 启动时调用：配置了 WATCH_DIR 时开始监听，并预先编译默认模板集
+   */
+  public static synchronized void init() {
+    if (StrUtil.isNotBlank(WATCH_DIR) && watcher == null) {
+      Path dir = Paths.get(WATCH_DIR);
+      try {
+        WatchService ws = FileSystems.getDefault().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = Thread.ofPlatform().daemon().name("prompt-bundle-watcher").start(() -> watch(ws));
+        log.info("watching prompt templates: {}", dir.toAbsolutePath());
+      } catch (IOException e) {
+        log.warn("watch prompt dir failed: {}", dir, e);
+      }
+    }
+
+    try {
+      get();
+    } catch (Exception e) {
+      log.warn("precompile prompt bundle failed: {}@{}", DEFAULT_TEMPLATE_SET, VERSION, e);
+    }
+  }
+
+  private static void watch(WatchService ws) {
+    try {
+      while (true) {
+        WatchKey key = ws.take();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          log.info("prompt template changed: {} {}", event.kind().name(), event.context());
+        }
+        invalidateAll();
+        if (!key.reset()) {
+          log.warn("prompt dir no longer accessible, stop watching");
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
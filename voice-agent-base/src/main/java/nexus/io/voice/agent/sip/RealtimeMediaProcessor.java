@@ -1,9 +1,7 @@
 package nexus.io.voice.agent.sip;
 
 import com.litongjava.sip.model.CallSession;
-import com.litongjava.sip.rtp.codec.AudioResampler;
 import com.litongjava.sip.rtp.codec.NegotiatedAudioFormatResolver;
-import com.litongjava.sip.rtp.codec.PcmCodec;
 import com.litongjava.sip.rtp.media.AudioFrame;
 import com.litongjava.sip.rtp.media.MediaProcessor;
 
@@ -13,6 +11,7 @@ import nexus.io.tio.utils.hutool.StrUtil;
 import nexus.io.voice.agent.bridge.RealtimeModelBridge;
 import nexus.io.voice.agent.bridge.RealtimeModelBridgeFactory;
 import nexus.io.voice.agent.callback.RealtimeSetupCallback;
+import nexus.io.voice.agent.metrics.LatencyMetrics;
 
 @Slf4j
 public class RealtimeMediaProcessor implements MediaProcessor {
@@ -60,14 +59,8 @@ public class RealtimeMediaProcessor implements MediaProcessor {
       int sessionSampleRate = NegotiatedAudioFormatResolver.resolveSessionPcmSampleRate(session);
       int inputSampleRate = input.getSampleRate() > 0 ? input.getSampleRate() : sessionSampleRate;
 
-      short[] modelInputSamples = inputSamples;
-      if (inputSampleRate != MODEL_INPUT_SAMPLE_RATE) {
-        AudioResampler resampler = session.getOrCreateInputResampler(inputSampleRate, MODEL_INPUT_SAMPLE_RATE);
-        modelInputSamples = resampler.resample(inputSamples);
-      }
-
-      byte[] pcm16kBytes = PcmCodec.shortsToLittleEndianBytes(modelInputSamples);
-      sipSession.sendToModel(pcm16kBytes);
+      // 重采样、字节转换都写入本路通话的复用缓冲区
+      sipSession.sendToModel(inputSamples, inputSamples.length, inputSampleRate);
 
       short[] outputSamples = sipSession.takeOutputFrame(inputSamples.length);
       if (outputSamples == null) {
@@ -103,7 +96,7 @@ public class RealtimeMediaProcessor implements MediaProcessor {
   }
 
   private SipRealtimeSession createSipSession(String callId) {
-    SipRealtimeBridgeCallback callback = new SipRealtimeBridgeCallback(callId);
+    SipRealtimeBridgeCallback callback = new SipRealtimeBridgeCallback(callId, LatencyMetrics.sink(platform));
     RealtimeModelBridge bridge = RealtimeModelBridgeFactory.createBridge(platform, callback);
     SipRealtimeSession sipSession = new SipRealtimeSession(callId, bridge, callback, realtimeSetupCallback);
     callback.bind(sipSession);
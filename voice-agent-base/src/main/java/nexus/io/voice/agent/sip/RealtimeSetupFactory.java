@@ -1,11 +1,7 @@
 package nexus.io.voice.agent.sip;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import nexus.io.template.PromptEngine;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
-import nexus.io.voice.agent.bridge.SimpleChatMessage;
+import nexus.io.voice.agent.prompt.PromptBundleCache;
 
 public final class RealtimeSetupFactory {
 
@@ -13,21 +9,10 @@ public final class RealtimeSetupFactory {
 
   }
 
+  /**
+   * 模板在 {@link PromptBundleCache} 中只渲染一次，这里只创建引用已渲染内容的 RealtimeSetup
+   */
   public static RealtimeSetup buildFromEnv() {
-    String systemPrompt = PromptEngine.renderToString("voice_agent_system_prompt.txt");
-    String userPrompt = PromptEngine.renderToString("voice_agent_user_prompt.txt");
-    String jobDescription = PromptEngine.renderToString("voice_agent_job_description.txt");
-    String resume = PromptEngine.renderToString("voice_agent_resume.txt");
-    String questions = PromptEngine.renderToString("voice_agent_questions.txt");
-    String greeting = PromptEngine.renderToString("voice_agent_greeting.txt");
-
-    List<SimpleChatMessage> messages = new ArrayList<>();
-    messages.add(SimpleChatMessage.buildUser("JOB_DESCRIPTION", jobDescription));
-    messages.add(SimpleChatMessage.buildUser("RESUME", resume));
-    messages.add(SimpleChatMessage.buildUser("QUESTIONS", questions));
-    
-    RealtimeSetup realtimeSetup = new RealtimeSetup(systemPrompt, userPrompt,greeting);
-    realtimeSetup.setMessages(messages);
-    return realtimeSetup;
+    return PromptBundleCache.get().newSetup();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package nexus.io.voice.agent.sip;
+
+/**
+ * 一路通话复用的媒体缓冲区，稳定运行后 RTP 热路径不再分配数组。
+ *
+ * 上下行的重采样和编码缓冲由 SipRealtimeSession 的 AudioPipeline 帧池负责，这里只剩输出帧：
+ * - outputFrame：RTP 线程使用，返回的 AudioFrame 在下一次 process 之前必须已经编码发送
+ */
+public class SipMediaBuffers {
+
+  private short[] outputFrame = new short[0];
+
+  /**
+   * 输出帧要求精确长度，帧长变化时重新分配
+   */
+  public short[] outputFrame(int length) {
+    if (outputFrame.length != length) {
+      outputFrame = new short[length];
+    }
+    return outputFrame;
+  }
+}
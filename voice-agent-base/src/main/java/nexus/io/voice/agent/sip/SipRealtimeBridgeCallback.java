@@ -4,17 +4,31 @@ import java.util.Base64;
 
 import lombok.extern.slf4j.Slf4j;
 import nexus.io.tio.utils.hutool.StrUtil;
+import nexus.io.tio.utils.json.JsonUtils;
 import nexus.io.voice.agent.bridge.RealtimeBridgeCallback;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
+import nexus.io.voice.agent.metrics.LatencySink;
+import nexus.io.voice.agent.metrics.SessionLatencyTimeline;
+import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
 
 @Slf4j
 public class SipRealtimeBridgeCallback implements RealtimeBridgeCallback {
 
   private final String callId;
   private volatile SipRealtimeSession sipSession;
+  private final SessionLatencyTimeline latencyTimeline;
 
   public SipRealtimeBridgeCallback(String callId) {
+    this(callId, null);
+  }
+
+  public SipRealtimeBridgeCallback(String callId, LatencySink latencySink) {
     this.callId = callId;
+    this.latencyTimeline = new SessionLatencyTimeline(latencySink);
+  }
+
+  public SessionLatencyTimeline getLatencyTimeline() {
+    return latencyTimeline;
   }
 
   public void bind(SipRealtimeSession sipSession) {
@@ -30,6 +44,56 @@ public class SipRealtimeBridgeCallback implements RealtimeBridgeCallback {
   public void sendText(String text) {
     if (StrUtil.isNotBlank(text)) {
       log.debug("realtime text event, callId={}, text={}", callId, text);
+      inspectServerEvent(text);
+    }
+  }
+
+  @Override
+  public void sendMessage(WsVoiceAgentResponseMessage message) {
+    if (message != null) {
+      onServerEvent(message.getType());
+    }
+  }
+
+  private void inspectServerEvent(String json) {
+    try {
+      WsVoiceAgentResponseMessage msg = JsonUtils.parse(json, WsVoiceAgentResponseMessage.class);
+      if (msg != null) {
+        onServerEvent(msg.getType());
+      }
+    } catch (Exception e) {
+      log.debug("inspectServerEvent parse failed, callId:{}, json:{}", callId, json);
+    }
+  }
+
+  /**
+   * 和 WebSocket 路径一致：模型侧打断或用户开口时，立即丢弃还没播出去的音频
+   */
+  private void onServerEvent(String type) {
+    if (type == null) {
+      return;
+    }
+    switch (type) {
+    case "assistant_turn_complete":
+    case "turn_complete":
+      latencyTimeline.markTurnComplete();
+      break;
+    case "speech_stopped":
+      // 未启用本地 VAD 时以模型的 server VAD 作为说话结束
+      latencyTimeline.markServerSpeechStopped();
+      break;
+    case "interrupted":
+    case "assistant_turn_interrupt":
+      latencyTimeline.markInterrupted();
+      // fall through
+    case "speech_started":
+      SipRealtimeSession session = this.sipSession;
+      if (session != null) {
+        session.interruptPlayout(type);
+      }
+      break;
+    default:
+      break;
     }
   }
 
@@ -39,6 +103,7 @@ public class SipRealtimeBridgeCallback implements RealtimeBridgeCallback {
     if (session == null || bytes == null || bytes.length == 0) {
       return;
     }
+    latencyTimeline.markModelAudio();
     session.appendModelAudio(bytes);
   }
 
@@ -66,14 +131,23 @@ public class SipRealtimeBridgeCallback implements RealtimeBridgeCallback {
     if (session == null || bytes == null || bytes.length == 0) {
       return;
     }
+    latencyTimeline.markModelAudio();
     session.appendModelAudio(bytes);
-
   }
 
   @Override
   public void onUserAudioActivity() {
-    // TODO Auto-generated method stub
-    
+    latencyTimeline.markUplink();
+  }
+
+  @Override
+  public void onLocalSpeechStart() {
+    latencyTimeline.markSpeechStarted();
+  }
+
+  @Override
+  public void onLocalSpeechStop(long speechMs, long trailingSilenceMs) {
+    latencyTimeline.markSpeechStopped(trailingSilenceMs);
   }
 
   @Override
@@ -1,30 +1,92 @@
 package nexus.io.voice.agent.sip;
 
-import java.util.Arrays;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.litongjava.sip.model.CallSession;
-import com.litongjava.sip.rtp.codec.AudioResampler;
-import com.litongjava.sip.rtp.codec.PcmCodec;
 
 import lombok.extern.slf4j.Slf4j;
+import nexus.io.tio.utils.environment.EnvUtils;
+import nexus.io.voice.agent.audio.AdaptivePlayoutBuffer;
+import nexus.io.voice.agent.audio.PcmOverrunPolicy;
+import nexus.io.voice.agent.audio.PlayoutBufferStats;
+import nexus.io.voice.agent.audio.SessionAudioRecorder;
 import nexus.io.voice.agent.bridge.RealtimeModelBridge;
 import nexus.io.voice.agent.bridge.RealtimeSetup;
 import nexus.io.voice.agent.callback.RealtimeSetupCallback;
+import nexus.io.voice.agent.pipeline.AgcStage;
+import nexus.io.voice.agent.pipeline.AudioPipeline;
+import nexus.io.voice.agent.pipeline.EncodeStage;
+import nexus.io.voice.agent.pipeline.MeterStage;
+import nexus.io.voice.agent.pipeline.ResampleStage;
+import nexus.io.voice.agent.pipeline.SamplesSinkStage;
 
 @Slf4j
 public class SipRealtimeSession {
 
+  private static final int MODEL_INPUT_SAMPLE_RATE = 16000;
   private static final int MODEL_OUTPUT_SAMPLE_RATE = 24000;
   private static final int DEFAULT_SESSION_SAMPLE_RATE = 8000;
 
+  /**
+   * 播放缓冲最大时长，超过后按 overrun 策略丢弃
+   */
+  private static final int PLAYOUT_BUFFER_MAX_MS = EnvUtils.getInt("sip.playout.buffer.max.ms", 30_000);
+
+  /**
+   * 播放缓冲 overrun 策略：DROP_OLDEST | DROP_NEWEST
+   */
+  private static final PcmOverrunPolicy PLAYOUT_OVERRUN_POLICY = PcmOverrunPolicy
+      .valueOf(EnvUtils.getStr("sip.playout.buffer.overrun.policy", PcmOverrunPolicy.DROP_OLDEST.name()));
+
+  /**
+   * 播放缓冲高水位，超过时记录告警
+   */
+  private static final int PLAYOUT_HIGH_WATERMARK_MS = EnvUtils.getInt("sip.playout.buffer.high.watermark.ms", 20_000);
+
+  /**
+   * 自适应预缓冲深度：下限 / 初始值 / 上限
+   */
+  private static final int PLAYOUT_TARGET_MIN_MS = EnvUtils.getInt("sip.playout.target.min.ms", 40);
+  private static final int PLAYOUT_TARGET_INITIAL_MS = EnvUtils.getInt("sip.playout.target.initial.ms", 100);
+  private static final int PLAYOUT_TARGET_MAX_MS = EnvUtils.getInt("sip.playout.target.max.ms", 600);
+
+  /**
+   * 打断时对正在播放的音频做淡出的时长，0 表示直接截断
+   */
+  private static final int BARGE_IN_FADE_MS = EnvUtils.getInt("sip.playout.bargein.fade.ms", 10);
+
+  /**
+   * 上下行处理链，可用阶段：resample, agc, meter；编码/写入播放缓冲固定在最后
+   */
+  private static final String UPLINK_PIPELINE = EnvUtils.getStr("sip.pipeline.uplink", "resample,meter");
+  private static final String DOWNLINK_PIPELINE = EnvUtils.getStr("sip.pipeline.downlink", "resample,meter");
+
   private final String callId;
   private final RealtimeModelBridge bridge;
   private final SipRealtimeBridgeCallback callback;
   private final RealtimeSetupCallback realtimeSetupCallback;
   private final AtomicBoolean connected = new AtomicBoolean(false);
-  private final ConcurrentLinkedQueue<Short> outputQueue = new ConcurrentLinkedQueue<>();
+
+  /**
+   * 模型下行音频（会话采样率）的播放缓冲：SDK 回调线程写，RTP 线程读
+   */
+  private volatile AdaptivePlayoutBuffer outputBuffer;
+  private volatile boolean highWatermarkReported = false;
+
+  /**
+   * 本路通话复用的输出帧
+   */
+  private final SipMediaBuffers mediaBuffers = new SipMediaBuffers();
+
+  /**
+   * RTP 上行：会话采样率 -> 16k -> 模型，RTP 线程驱动
+   */
+  private final AudioPipeline uplink;
+
+  /**
+   * 模型下行：24k -> 会话采样率 -> 播放缓冲，模型 SDK 回调线程驱动
+   */
+  private final AudioPipeline downlink;
 
   private volatile CallSession callSession;
 
@@ -34,6 +96,28 @@ public class SipRealtimeSession {
     this.bridge = bridge;
     this.callback = callback;
     this.realtimeSetupCallback = realtimeSetupCallback;
+
+    this.uplink = AudioPipeline.builder("sip-uplink-" + callId)
+        //
+        .add(new ResampleStage(MODEL_INPUT_SAMPLE_RATE))
+        //
+        .add(new AgcStage(-20, 20, -50, false), false)
+        //
+        .add(new MeterStage())
+        //
+        .add(new EncodeStage((buf, off, len, rate) -> sendPcm16k(buf, off, len)))
+        //
+        .build(UPLINK_PIPELINE);
+
+    this.downlink = AudioPipeline.builder("sip-downlink-" + callId)
+        //
+        .add(new ResampleStage(this::resolveSessionSampleRate))
+        //
+        .add(new MeterStage())
+        //
+        .add(new SamplesSinkStage((samples, off, len, rate) -> writePlayout(samples, off, len, rate)))
+        //
+        .build(DOWNLINK_PIPELINE);
   }
 
   public void ensureConnected(CallSession session) {
@@ -64,27 +148,57 @@ public class SipRealtimeSession {
     });
   }
 
-  public void appendModelAudio(byte[] pcmBytes) {
-    if (pcmBytes == null || pcmBytes.length == 0) {
+  /**
+   * RTP 上行：会话采样率的 PCM 经 {@link #uplink} 重采样到 16k 并编码发送，全程使用复用缓冲区
+   */
+  public void sendToModel(short[] samples, int length, int sampleRate) {
+    if (samples == null || length <= 0) {
       return;
     }
+    callback.onUserAudioActivity();
+    uplink.push(samples, 0, length, sampleRate);
+  }
 
-    short[] pcm24k = PcmCodec.littleEndianBytesToShorts(pcmBytes);
-    if (pcm24k.length == 0) {
+  private void sendPcm16k(byte[] buf, int off, int len) {
+    bridge.sendPcm16k(buf, off, len).exceptionally(ex -> {
+      log.warn("sendPcm16k failed, callId={}", callId, ex);
+      return null;
+    });
+  }
+
+  public void appendModelAudio(byte[] pcmBytes) {
+    if (pcmBytes == null || pcmBytes.length == 0) {
       return;
     }
+    downlink.pushPcm16(pcmBytes, 0, pcmBytes.length, MODEL_OUTPUT_SAMPLE_RATE);
+  }
 
-    int sessionSampleRate = resolveSessionSampleRate();
+  private void writePlayout(short[] samples, int off, int len, int sampleRate) {
+    AdaptivePlayoutBuffer buffer = getOrCreateOutputBuffer(sampleRate);
+    int written = buffer.write(samples, off, len);
+    if (written < len) {
+      log.warn("playout buffer overrun, callId={}, dropped={}, policy={}", callId, len - written,
+          buffer.getOverrunPolicy());
+    }
 
-    short[] pcmSessionRate = pcm24k;
-    if (MODEL_OUTPUT_SAMPLE_RATE != sessionSampleRate) {
-      AudioResampler resampler = callSession.getOrCreateOutputResampler(MODEL_OUTPUT_SAMPLE_RATE, sessionSampleRate);
-      pcmSessionRate = resampler.resample(pcm24k);
+    if (buffer.isAboveHighWatermark()) {
+      if (!highWatermarkReported) {
+        highWatermarkReported = true;
+        log.warn("playout buffer above high watermark, callId={}, stats={}", callId, buffer.getStats());
+      }
+    } else if (buffer.isBelowLowWatermark()) {
+      highWatermarkReported = false;
     }
+  }
 
-    for (short sample : pcmSessionRate) {
-      outputQueue.offer(sample);
+  private AdaptivePlayoutBuffer getOrCreateOutputBuffer(int sessionSampleRate) {
+    AdaptivePlayoutBuffer buffer = this.outputBuffer;
+    if (buffer == null) {
+      buffer = new AdaptivePlayoutBuffer(sessionSampleRate, PLAYOUT_BUFFER_MAX_MS, PLAYOUT_OVERRUN_POLICY,
+          PLAYOUT_TARGET_MIN_MS, PLAYOUT_TARGET_INITIAL_MS, PLAYOUT_TARGET_MAX_MS, PLAYOUT_HIGH_WATERMARK_MS);
+      this.outputBuffer = buffer;
     }
+    return buffer;
   }
 
 
@@ -106,24 +220,20 @@ public class SipRealtimeSession {
       return null;
     }
 
-    if (outputQueue.peek() == null) {
+    AdaptivePlayoutBuffer buffer = this.outputBuffer;
+    if (buffer == null) {
       return null;
     }
 
-    short[] out = new short[frameSamples];
-    int i = 0;
-    for (; i < frameSamples; i++) {
-      Short value = outputQueue.poll();
-      if (value == null) {
-        break;
-      }
-      out[i] = value;
-    }
-
-    if (i < frameSamples) {
-      Arrays.fill(out, i, frameSamples, (short) 0);
+    // 空缓冲也要调用 read：由 buffer 记录耗尽（underrun 统计、重新预缓冲）并执行挂起的打断 flush
+    // 预缓冲阶段不出声，达到目标深度后才开始播放；中途耗尽时由 buffer 补零
+    // 返回的是复用数组，调用方需在下一帧之前用完
+    short[] out = mediaBuffers.outputFrame(frameSamples);
+    int played = buffer.read(out, 0, frameSamples);
+    if (played == 0) {
+      return null;
     }
-
+    callback.getLatencyTimeline().markClientAudio();
     return out;
   }
 
@@ -133,11 +243,51 @@ public class SipRealtimeSession {
     } catch (Exception e) {
       log.warn("bridge.close failed, callId={}", callId, e);
     } finally {
-      outputQueue.clear();
+      AdaptivePlayoutBuffer buffer = this.outputBuffer;
+      if (buffer != null) {
+        log.info("playout stats on close, callId={}, stats={}", callId, buffer.getStats());
+        log.info("pipeline stats on close, callId={}, uplink={}, downlink={}", callId, uplink.getStats(),
+            downlink.getStats());
+        buffer.clear();
+      }
       connected.set(false);
     }
   }
 
+  /**
+   * 用户打断（interrupted / speech_started）：丢弃已排队但尚未播放的模型音频
+   */
+  public void interruptPlayout(String reason) {
+    // 录音的模型声道回退到当前时刻，与丢弃的播放内容保持一致
+    SessionAudioRecorder.interruptModel(callId);
+    AdaptivePlayoutBuffer buffer = this.outputBuffer;
+    if (buffer == null) {
+      return;
+    }
+    int queued = buffer.size();
+    buffer.flush(BARGE_IN_FADE_MS * buffer.getSampleRate() / 1000);
+    if (queued > 0) {
+      log.info("barge-in flush playout, callId={}, reason={}, droppedMs={}", callId, reason,
+          queued * 1000L / buffer.getSampleRate());
+    }
+  }
+
+  /**
+   * 当前通话的播放缓冲统计，尚未收到模型音频时返回 null
+   */
+  public PlayoutBufferStats getPlayoutStats() {
+    AdaptivePlayoutBuffer buffer = this.outputBuffer;
+    return buffer == null ? null : buffer.getStats();
+  }
+
+  public AudioPipeline getUplinkPipeline() {
+    return uplink;
+  }
+
+  public AudioPipeline getDownlinkPipeline() {
+    return downlink;
+  }
+
   public String getCallId() {
     return callId;
   }
@@ -78,6 +78,54 @@ const activeSources = new Set();
 const INPUT_RATE = 16000;
 const OUTPUT_RATE = 24000;
 
+/** ---------- Binary downlink frames ---------- */
+// 与服务端 DownlinkFrameCodec 保持一致
+const BINARY_PROTOCOL_VERSION = 1;
+const FRAME_HEADER_LENGTH = 16;
+const FRAME_TYPES = {
+	1: "audio",
+	2: "assistant_turn_start",
+	3: "assistant_turn_complete",
+	4: "assistant_turn_interrupt",
+	5: "interrupted",
+	6: "speech_started",
+	7: "turn_complete",
+	16: "transcript_in",
+	17: "transcript_out",
+	18: "text"
+};
+const utf8Decoder = new TextDecoder("utf-8");
+
+// SETUP_RECEIVED 中服务端确认后才按帧解析二进制消息
+let binaryProtocol = null;
+
+function decodeDownlinkFrame(buf) {
+	if (buf.byteLength < FRAME_HEADER_LENGTH) return null;
+	const view = new DataView(buf);
+	if (view.getUint8(0) !== BINARY_PROTOCOL_VERSION) return null;
+
+	const type = FRAME_TYPES[view.getUint8(1)];
+	if (!type) return null;
+
+	const turnIdLength = view.getUint8(3);
+	const payloadOffset = FRAME_HEADER_LENGTH + ((turnIdLength + 3) & ~3);
+	if (buf.byteLength < payloadOffset) return null;
+
+	const turnId = turnIdLength > 0
+		? utf8Decoder.decode(new Uint8Array(buf, FRAME_HEADER_LENGTH, turnIdLength))
+		: null;
+
+	return {
+		type,
+		flags: view.getUint8(2),
+		seq: view.getUint32(4),
+		timestampMs: view.getUint32(8),
+		sampleRate: view.getUint32(12),
+		turnId,
+		payload: new Uint8Array(buf, payloadOffset)
+	};
+}
+
 function pcm16ToFloat32(int16) {
 	const f32 = new Float32Array(int16.length);
 	for (let i = 0; i < int16.length; i++) {
@@ -193,7 +241,7 @@ function resetPlaybackRouting() {
 	updatePlayState();
 }
 
-function schedulePcmPlayback(pcmInt16_24k, turnId) {
+function schedulePcmPlayback(pcmInt16_24k, turnId, sampleRate = OUTPUT_RATE) {
 	if (!playCtx || !masterGain) return;
 
 	// 不是当前 turn 的音频，直接丢弃
@@ -204,7 +252,7 @@ function schedulePcmPlayback(pcmInt16_24k, turnId) {
 	}
 
 	const f32_24k = pcm16ToFloat32(pcmInt16_24k);
-	const f32 = resampleLinear(f32_24k, OUTPUT_RATE, playCtx.sampleRate);
+	const f32 = resampleLinear(f32_24k, sampleRate, playCtx.sampleRate);
 
 	const buffer = playCtx.createBuffer(1, f32.length, playCtx.sampleRate);
 	buffer.copyToChannel(f32, 0);
@@ -264,6 +312,7 @@ function connectWs() {
 		setUiConnected(true);
 		setSessionDisconnected(false);
 		resetPlaybackRouting();
+		binaryProtocol = null;
 		await ensurePlaybackContext();
 
 		try {
@@ -279,7 +328,8 @@ function connectWs() {
 				job_description: jobDescription,
 				resume: resume,
 				questions: questions,
-				greeting: greeting
+				greeting: greeting,
+				binary_protocol: BINARY_PROTOCOL_VERSION
 			};
 
 			ws.send(JSON.stringify(setupMsg));
@@ -310,124 +360,160 @@ function connectWs() {
 
 	ws.onmessage = async (evt) => {
 		if (typeof evt.data === "string") {
+			let obj;
 			try {
-				const obj = JSON.parse(evt.data);
-
-				if (obj.type === "SETUP_RECEIVED") {
-					setSessionId(obj.sessionId || "-");
-					setSessionDisconnected(false);
-					logLine(`[setup_received] sessionId=${obj.sessionId || ""}`);
-				} else if (obj.type === "assistant_turn_start") {
-					const turnId = obj.turnId || null;
-
-					// 新 turn 开始时，先把旧播放彻底打断，避免两轮重叠
-					if (activeAssistantTurnId && activeAssistantTurnId !== turnId) {
-						interruptPlayback("new assistant_turn_start replaces previous turn", activeAssistantTurnId);
-					}
-
-					activeAssistantTurnId = turnId;
-
-					// 新 turn 到来时，把同名 turn 从历史失效集合中清理掉
-					if (turnId) {
-						interruptedTurnIds.delete(turnId);
-						completedTurnIds.delete(turnId);
-					}
-
-					logLine(`[turn] assistant_turn_start turnId=${turnId || ""}`);
-					updatePlayState();
-				} else if (obj.type === "assistant_turn_interrupt") {
-					const turnId = obj.turnId || null;
-					if (turnId) interruptedTurnIds.add(turnId);
-
-					logLine(`[turn] assistant_turn_interrupt turnId=${turnId || ""}`);
-					interruptPlayback("assistant_turn_interrupt", turnId);
-				} else if (obj.type === "assistant_turn_complete") {
-					const turnId = obj.turnId || null;
-					if (turnId) completedTurnIds.add(turnId);
-
-					logLine(`[turn] assistant_turn_complete turnId=${turnId || ""}`);
-
-					// complete 只关闭路由，不主动 stop；
-					// 已经进来的最后一小段正常播完，complete 之后若还有残留包会被丢弃
-					if (turnId && activeAssistantTurnId === turnId) {
-						activeAssistantTurnId = null;
-					}
-
-					updatePlayState();
-				} else if (obj.type === "speech_started") {
-					logLine("[event] speech_started");
-
-					// 用户开始说话，属于打断信号
-					if (activeAssistantTurnId) {
-						interruptedTurnIds.add(activeAssistantTurnId);
-					}
-					interruptPlayback("speech_started", activeAssistantTurnId);
-				} else if (obj.type === "interrupted") {
-					logLine("[event] interrupted");
-
-					if (activeAssistantTurnId) {
-						interruptedTurnIds.add(activeAssistantTurnId);
-					}
-					interruptPlayback("interrupted", activeAssistantTurnId);
-				} else if (obj.type === "transcript_in") {
-					logLine(`[in ] ${obj.text || ""}`);
-				} else if (obj.type === "transcript_out") {
-					logLine(`[out] ${obj.text || ""}`);
-				} else if (obj.type === "text") {
-					logLine(`[txt] ${obj.text || ""}`);
-				} else if (obj.type === "turn_transcript") {
-					logLine(`[turn_transcript] in=${obj.inputText || ""} | out=${obj.outputText || ""}`);
-				} else if (obj.type === "turn_complete") {
-					logLine("[turn] complete");
-				} else if (obj.type === "setup_complete") {
-					logLine("[setup] complete");
-				} else if (obj.type === "setup_sent_to_model") {
-					logLine("[setup] sent_to_model");
-				} else if (obj.type === "gemini_connected") {
-					if (obj.sessionId) {
-						setSessionId(obj.sessionId);
-						setSessionDisconnected(false);
-					}
-					logLine(`[gemini] connected sessionId=${obj.sessionId || ""}`);
-				} else if (obj.type === "usage") {
-					logLine(
-						`[usage] prompt=${obj.promptTokenCount} response=${obj.responseTokenCount} total=${obj.totalTokenCount}`
-					);
-				} else if (obj.type === "go_away") {
-					logLine(`[goAway] timeLeft=${obj.timeLeft}`);
-				} else if (obj.type === "error") {
-					logLine(`[err] ${obj.where || ""}: ${obj.message || obj.text || ""}`);
-				} else {
-					logLine(`[evt] ${evt.data}`);
-				}
+				obj = JSON.parse(evt.data);
 			} catch {
 				logLine(`[text] ${evt.data}`);
+				return;
 			}
+			handleServerEvent(obj, evt.data);
 			return;
 		}
 
-		// 二进制：24k 16-bit PCM mono
-		if (evt.data instanceof ArrayBuffer) {
-			// 没有激活中的 assistant turn，说明这包音频没有合法归属，直接丢弃
-			const turnId = activeAssistantTurnId;
+		if (!(evt.data instanceof ArrayBuffer)) return;
+
+		if (binaryProtocol) {
+			const frame = decodeDownlinkFrame(evt.data);
+			if (!frame) {
+				logLine(`[bin] undecodable frame, ${evt.data.byteLength} bytes`);
+				return;
+			}
+			if (frame.type !== "audio") {
+				const text = frame.payload.byteLength > 0 ? utf8Decoder.decode(frame.payload) : undefined;
+				handleServerEvent({ type: frame.type, turnId: frame.turnId, text }, null);
+				return;
+			}
+
+			const turnId = frame.turnId || activeAssistantTurnId;
 			if (!turnId) {
 				droppedChunks++;
 				updatePlayState();
 				return;
 			}
-
-			const bytes = new Uint8Array(evt.data);
-			const i16 = new Int16Array(bytes.buffer, bytes.byteOffset, Math.floor(bytes.byteLength / 2));
-
+			const i16 = new Int16Array(frame.payload.buffer, frame.payload.byteOffset,
+				Math.floor(frame.payload.byteLength / 2));
 			if (playCtx && playCtx.state === "suspended") {
 				await playCtx.resume();
 			}
+			schedulePcmPlayback(i16, turnId, frame.sampleRate || OUTPUT_RATE);
+			return;
+		}
 
-			schedulePcmPlayback(i16, turnId);
+		// 旧协议二进制：24k 16-bit PCM mono
+		// 没有激活中的 assistant turn，说明这包音频没有合法归属，直接丢弃
+		const turnId = activeAssistantTurnId;
+		if (!turnId) {
+			droppedChunks++;
+			updatePlayState();
+			return;
 		}
+
+		const bytes = new Uint8Array(evt.data);
+		const i16 = new Int16Array(bytes.buffer, bytes.byteOffset, Math.floor(bytes.byteLength / 2));
+
+		if (playCtx && playCtx.state === "suspended") {
+			await playCtx.resume();
+		}
+
+		schedulePcmPlayback(i16, turnId);
 	};
 }
 
+/**
+ * JSON 事件与二进制帧中的事件共用同一套处理逻辑
+ */
+function handleServerEvent(obj, raw) {
+	if (obj.type === "SETUP_RECEIVED") {
+		binaryProtocol = obj.binaryProtocol || null;
+		setSessionId(obj.sessionId || "-");
+		setSessionDisconnected(false);
+		logLine(`[setup_received] sessionId=${obj.sessionId || ""}, binaryProtocol=${binaryProtocol || "off"}`);
+	} else if (obj.type === "assistant_turn_start") {
+		const turnId = obj.turnId || null;
+
+		// 新 turn 开始时，先把旧播放彻底打断，避免两轮重叠
+		if (activeAssistantTurnId && activeAssistantTurnId !== turnId) {
+			interruptPlayback("new assistant_turn_start replaces previous turn", activeAssistantTurnId);
+		}
+
+		activeAssistantTurnId = turnId;
+
+		// 新 turn 到来时，把同名 turn 从历史失效集合中清理掉
+		if (turnId) {
+			interruptedTurnIds.delete(turnId);
+			completedTurnIds.delete(turnId);
+		}
+
+		logLine(`[turn] assistant_turn_start turnId=${turnId || ""}`);
+		updatePlayState();
+	} else if (obj.type === "assistant_turn_interrupt") {
+		const turnId = obj.turnId || null;
+		if (turnId) interruptedTurnIds.add(turnId);
+
+		logLine(`[turn] assistant_turn_interrupt turnId=${turnId || ""}`);
+		interruptPlayback("assistant_turn_interrupt", turnId);
+	} else if (obj.type === "assistant_turn_complete") {
+		const turnId = obj.turnId || null;
+		if (turnId) completedTurnIds.add(turnId);
+
+		logLine(`[turn] assistant_turn_complete turnId=${turnId || ""}`);
+
+		// complete 只关闭路由，不主动 stop；
+		// 已经进来的最后一小段正常播完，complete 之后若还有残留包会被丢弃
+		if (turnId && activeAssistantTurnId === turnId) {
+			activeAssistantTurnId = null;
+		}
+
+		updatePlayState();
+	} else if (obj.type === "speech_started") {
+		logLine("[event] speech_started");
+
+		// 用户开始说话，属于打断信号
+		if (activeAssistantTurnId) {
+			interruptedTurnIds.add(activeAssistantTurnId);
+		}
+		interruptPlayback("speech_started", activeAssistantTurnId);
+	} else if (obj.type === "interrupted") {
+		logLine("[event] interrupted");
+
+		if (activeAssistantTurnId) {
+			interruptedTurnIds.add(activeAssistantTurnId);
+		}
+		interruptPlayback("interrupted", activeAssistantTurnId);
+	} else if (obj.type === "transcript_in") {
+		logLine(`[in ] ${obj.text || ""}`);
+	} else if (obj.type === "transcript_out") {
+		logLine(`[out] ${obj.text || ""}`);
+	} else if (obj.type === "text") {
+		logLine(`[txt] ${obj.text || ""}`);
+	} else if (obj.type === "turn_transcript") {
+		logLine(`[turn_transcript] in=${obj.inputText || ""} | out=${obj.outputText || ""}`);
+	} else if (obj.type === "turn_complete") {
+		logLine("[turn] complete");
+	} else if (obj.type === "setup_complete") {
+		logLine("[setup] complete");
+	} else if (obj.type === "setup_sent_to_model") {
+		logLine("[setup] sent_to_model");
+	} else if (obj.type === "gemini_connected") {
+		if (obj.sessionId) {
+			setSessionId(obj.sessionId);
+			setSessionDisconnected(false);
+		}
+		logLine(`[gemini] connected sessionId=${obj.sessionId || ""}`);
+	} else if (obj.type === "usage") {
+		logLine(
+			`[usage] prompt=${obj.promptTokenCount} response=${obj.responseTokenCount} total=${obj.totalTokenCount}`
+		);
+	} else if (obj.type === "go_away") {
+		logLine(`[goAway] timeLeft=${obj.timeLeft}`);
+	} else if (obj.type === "error") {
+		logLine(`[err] ${obj.where || ""}: ${obj.message || obj.text || ""}`);
+	} else {
+		logLine(`[evt] ${raw || JSON.stringify(obj)}`);
+	}
+}
+
 /** ---------- Mic Capture ---------- */
 async function startMic() {
 	if (!ws || ws.readyState !== WebSocket.OPEN) {
@@ -0,0 +1,65 @@
+package nexus.io.voice.agent.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nexus.io.tio.utils.json.JsonUtils;
+import nexus.io.voice.agent.model.WsVoiceAgentResponseMessage;
+
+/**
+ * One bridge -> callback server event (a transcript delta), up to the JSON text that goes to the client.
+ *
+ * - textPath: the bridge serializes, the callback parses the JSON back to read the type (sendText)
+ * - typedPath: the callback reads the type from the object and serializes once (WsRealtimeBridgeCallback.sendMessage)
+ * - defaultSendMessage: the interface default, {@link WsVoiceAgentResponseMessage#toJson()} handed to sendText
+ *
+ * Run with {@code -prof gc} and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BridgeEventBenchmark {
+
+  private WsVoiceAgentResponseMessage message;
+
+  // the type and JSON escape here, so nothing is eliminated
+  private volatile String type;
+  private volatile String sink;
+
+  @Setup
+  public void setup() {
+    message = new WsVoiceAgentResponseMessage("transcript_out", "好的，我帮您查一下明天上午的航班。");
+    message.setTurnId("turn_7f3a2c");
+  }
+
+  @Benchmark
+  public void textPath() {
+    String json = JsonUtils.toSkipNullJson(message);
+    type = JsonUtils.parse(json, WsVoiceAgentResponseMessage.class).getType();
+    sink = json;
+  }
+
+  @Benchmark
+  public void typedPath() {
+    type = message.getType();
+    sink = JsonUtils.toSkipNullJson(message);
+  }
+
+  @Benchmark
+  public void defaultSendMessage() {
+    sink = message.toJson();
+  }
+}
@@ -0,0 +1,110 @@
+package nexus.io.voice.agent.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nexus.io.voice.agent.audio.PcmKernels;
+
+/**
+ * {@link PcmKernels} at a 20 ms frame (160 samples at 8 kHz, the SIP tick) and at a combiner block (8192 frames).
+ *
+ * The implementation is picked once per JVM, so each operation runs twice: in the default fork, where
+ * {@code -Dvoice.agent.pcm.kernels.bulk.min=0} forces bulk even for short frames, and in a fork with
+ * {@code -Dvoice.agent.pcm.kernels=scalar}. The gap at 160 frames is what {@link PcmKernels#BULK_MIN_SAMPLES} gives up
+ * to keep the media path allocation free. Offsets are odd on purpose, as in the recording paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dvoice.agent.pcm.kernels.bulk.min=0")
+public class PcmKernelsBenchmark {
+
+  private static final String SCALAR = "-Dvoice.agent.pcm.kernels=scalar";
+
+  @Param({ "160", "8192" })
+  public int frames;
+
+  private short[] left;
+  private short[] right;
+  private byte[] mono;
+  private byte[] stereo;
+  private short[] out;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    left = new short[frames + 1];
+    right = new short[frames + 1];
+    for (int i = 0; i < left.length; i++) {
+      left[i] = (short) random.nextInt();
+      right[i] = (short) random.nextInt();
+    }
+    mono = new byte[frames * 2 + 1];
+    stereo = new byte[frames * 4 + 1];
+    random.nextBytes(mono);
+    random.nextBytes(stereo);
+    out = new short[frames + 1];
+  }
+
+  @Benchmark
+  public short[] bytesToShorts() {
+    PcmKernels.bytesToShorts(mono, 1, out, 1, frames);
+    return out;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = SCALAR)
+  public short[] bytesToShortsScalar() {
+    return bytesToShorts();
+  }
+
+  @Benchmark
+  public byte[] shortsToBytes() {
+    PcmKernels.shortsToBytes(left, 1, mono, 1, frames);
+    return mono;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = SCALAR)
+  public byte[] shortsToBytesScalar() {
+    return shortsToBytes();
+  }
+
+  @Benchmark
+  public byte[] interleave() {
+    PcmKernels.interleave(left, 1, right, 1, stereo, 1, frames);
+    return stereo;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = SCALAR)
+  public byte[] interleaveScalar() {
+    return interleave();
+  }
+
+  @Benchmark
+  public short[] stereoToMono() {
+    PcmKernels.stereoToMono(stereo, 1, out, 1, frames);
+    return out;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = SCALAR)
+  public short[] stereoToMonoScalar() {
+    return stereoToMono();
+  }
+}
@@ -0,0 +1,70 @@
+package nexus.io.voice.agent.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nexus.io.voice.agent.audio.LinearPcmResampler;
+import nexus.io.voice.agent.audio.PcmResampler;
+import nexus.io.voice.agent.audio.PolyphasePcmResampler;
+
+/**
+ * One 20 ms frame through a streaming resampler, for the rate pairs of the media paths.
+ *
+ * - linear: {@link LinearPcmResampler}, the old default
+ * - polyphase: {@link PolyphasePcmResampler}, the current default
+ *
+ * Both write into a caller owned array; gc.alloc.rate.norm should be 0 for both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PcmResamplerBenchmark {
+
+  @Param({ "8000:16000", "24000:16000", "24000:8000" })
+  public String rates;
+
+  private short[] frame;
+  private short[] out;
+  private PcmResampler linear;
+  private PcmResampler polyphase;
+
+  @Setup
+  public void setup() {
+    String[] r = rates.split(":");
+    int inRate = Integer.parseInt(r[0]);
+    int outRate = Integer.parseInt(r[1]);
+    frame = new short[inRate / 50];
+    Random random = new Random(1);
+    for (int i = 0; i < frame.length; i++) {
+      frame[i] = (short) (random.nextGaussian() * 6000);
+    }
+    linear = new LinearPcmResampler(inRate, outRate);
+    polyphase = new PolyphasePcmResampler(inRate, outRate);
+    out = new short[Math.max(linear.maxOutputLength(frame.length), polyphase.maxOutputLength(frame.length))];
+  }
+
+  @Benchmark
+  public int linear() {
+    return linear.resample(frame, 0, frame.length, out, 0);
+  }
+
+  @Benchmark
+  public int polyphase() {
+    return polyphase.resample(frame, 0, frame.length, out, 0);
+  }
+}
@@ -0,0 +1,79 @@
+package nexus.io.voice.agent.benchmark;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nexus.io.voice.agent.bridge.QwenAudioAppendEncoder;
+
+/**
+ * Qwen uplink: one coalesced frame of PCM16 16 kHz, handed over as buf[off, off+len), turned into the base64 String
+ * that appendAudio takes.
+ *
+ * - copyAndEncodeToString: the old path, default sendPcm16k(buf, off, len) copy plus Base64.encodeToString
+ * - encoderFromOffset: QwenAudioAppendEncoder on a slice of a larger array (copied into the reused slice array, e.g.
+ *   the SIP encode buffer or a deadline flush)
+ * - encoderWholeArray: QwenAudioAppendEncoder on a whole array (the coalescer's full frames)
+ *
+ * Run with {@code -prof gc} and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QwenAudioAppendBenchmark {
+
+  private static final int BYTES_PER_MS_16K = 32;
+
+  @Param({ "20", "60" })
+  public int frameMs;
+
+  private byte[] buf;
+  private byte[] whole;
+  private int off;
+  private int len;
+  private QwenAudioAppendEncoder encoder;
+
+  // the String escapes here, so nothing is eliminated
+  private volatile String sink;
+
+  @Setup
+  public void setup() {
+    len = frameMs * BYTES_PER_MS_16K;
+    off = 6;
+    buf = new byte[off + len + 10];
+    new Random(1).nextBytes(buf);
+    whole = Arrays.copyOfRange(buf, off, off + len);
+    encoder = new QwenAudioAppendEncoder();
+  }
+
+  @Benchmark
+  public void copyAndEncodeToString() {
+    sink = Base64.getEncoder().encodeToString(Arrays.copyOfRange(buf, off, off + len));
+  }
+
+  @Benchmark
+  public void encoderFromOffset() {
+    sink = encoder.encodeBase64(buf, off, len);
+  }
+
+  @Benchmark
+  public void encoderWholeArray() {
+    sink = encoder.encodeBase64(whole, 0, whole.length);
+  }
+}
@@ -0,0 +1,224 @@
+package nexus.io.voice.agent.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nexus.io.voice.agent.audio.PcmResampler;
+import nexus.io.voice.agent.audio.PcmResamplers;
+import nexus.io.voice.agent.bridge.CoalescingRealtimeModelBridge;
+import nexus.io.voice.agent.bridge.RealtimeModelBridge;
+import nexus.io.voice.agent.bridge.RealtimeSetup;
+import nexus.io.voice.agent.pipeline.AudioPipeline;
+import nexus.io.voice.agent.pipeline.EncodeStage;
+import nexus.io.voice.agent.pipeline.MeterStage;
+import nexus.io.voice.agent.pipeline.PcmBytesSink;
+import nexus.io.voice.agent.pipeline.ResampleStage;
+
+/**
+ * SIP uplink per RTP tick: one 20 ms RTP payload decoded to PCM (G.711 u-law or L16), resampled to 16 kHz and encoded
+ * as PCM16 LE, for 8 kHz and 16 kHz sessions. In production the SIP stack decodes the payload into the AudioFrame; it
+ * is done here into a reused array so the whole tick is measured.
+ *
+ * - allocatingUplink: the old path, new arrays for the decoded and resampled samples and the bytes of every frame
+ * - pipelineToSink: the per-call AudioPipeline up to the encoded bytes, which is where reuse ends; 0 B/op
+ * - pipelineToBridge / pipelineToCoalescedBridge: the same into a bridge, to show the copy a bridge still needs when it
+ *   keeps the array (default sendPcm16k(buf, off, len)), per frame or per merged 60 ms frame
+ *
+ * A 16 kHz session needs no resampling, the pipeline passes the frame through. Run with {@code -prof gc} and compare
+ * gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SipUplinkBenchmark {
+
+  private static final int MODEL_RATE = 16000;
+  private static final short[] ULAW = ulawTable();
+
+  @Param({ "8000", "16000" })
+  public int rate;
+
+  @Param({ "PCMU", "L16" })
+  public String codec;
+
+  private int frameSamples;
+  private boolean ulaw;
+  private byte[] payload;
+  private short[] frame;
+  private PcmResampler resampler;
+  private AudioPipeline toSink;
+  private AudioPipeline toBridge;
+  private AudioPipeline toCoalesced;
+  private ScheduledExecutorService scheduler;
+
+  // the encoded or copied frame escapes here, so nothing is eliminated
+  private volatile byte[] sink;
+
+  @Setup
+  public void setup() {
+    frameSamples = rate / 50;
+    ulaw = "PCMU".equals(codec);
+    payload = new byte[ulaw ? frameSamples : frameSamples * 2];
+    for (int i = 0; i < frameSamples; i++) {
+      short v = (short) (8000 * Math.sin(2 * Math.PI * 440 * i / rate));
+      if (ulaw) {
+        payload[i] = linearToUlaw(v);
+      } else {
+        payload[2 * i] = (byte) (v >> 8);
+        payload[2 * i + 1] = (byte) v;
+      }
+    }
+    frame = new short[frameSamples];
+    // same resampler as ResampleStage, so only the buffer handling differs
+    resampler = PcmResamplers.create(rate, MODEL_RATE);
+    toSink = pipeline((buf, off, len, rate) -> sink = buf);
+
+    RealtimeModelBridge bridge = new NoopBridge();
+    toBridge = pipeline((buf, off, len, rate) -> bridge.sendPcm16k(buf, off, len));
+
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    RealtimeModelBridge coalesced = new CoalescingRealtimeModelBridge(bridge, 60, 60_000, scheduler);
+    toCoalesced = pipeline((buf, off, len, rate) -> coalesced.sendPcm16k(buf, off, len));
+  }
+
+  @TearDown
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Benchmark
+  public byte[] allocatingUplink() {
+    short[] pcm = new short[frameSamples];
+    decode(pcm);
+    short[] up = pcm;
+    int n = frameSamples;
+    if (rate != MODEL_RATE) {
+      up = new short[resampler.maxOutputLength(frameSamples)];
+      n = resampler.resample(pcm, 0, frameSamples, up, 0);
+    }
+    byte[] bytes = new byte[n * 2];
+    for (int i = 0; i < n; i++) {
+      bytes[2 * i] = (byte) up[i];
+      bytes[2 * i + 1] = (byte) (up[i] >> 8);
+    }
+    return bytes;
+  }
+
+  @Benchmark
+  public void pipelineToSink() {
+    decode(frame);
+    toSink.push(frame, 0, frameSamples, rate);
+  }
+
+  @Benchmark
+  public void pipelineToBridge() {
+    decode(frame);
+    toBridge.push(frame, 0, frameSamples, rate);
+  }
+
+  @Benchmark
+  public void pipelineToCoalescedBridge() {
+    decode(frame);
+    toCoalesced.push(frame, 0, frameSamples, rate);
+  }
+
+  /**
+   * RTP payload to PCM: G.711 u-law through a table, L16 in network byte order
+   */
+  private void decode(short[] out) {
+    if (ulaw) {
+      for (int i = 0; i < frameSamples; i++) {
+        out[i] = ULAW[payload[i] & 0xff];
+      }
+    } else {
+      for (int i = 0; i < frameSamples; i++) {
+        out[i] = (short) ((payload[2 * i] << 8) | (payload[2 * i + 1] & 0xff));
+      }
+    }
+  }
+
+  private static short[] ulawTable() {
+    short[] table = new short[256];
+    for (int i = 0; i < 256; i++) {
+      int u = ~i & 0xff;
+      int t = (((u & 0x0f) << 3) + 0x84) << ((u & 0x70) >> 4);
+      table[i] = (short) ((u & 0x80) != 0 ? 0x84 - t : t - 0x84);
+    }
+    return table;
+  }
+
+  private static byte linearToUlaw(short sample) {
+    int sign = (sample >> 8) & 0x80;
+    int v = sign != 0 ? -sample : sample;
+    v = Math.min(v, 32635) + 0x84;
+    int exponent = 7;
+    for (int mask = 0x4000; (v & mask) == 0 && exponent > 0; mask >>= 1) {
+      exponent--;
+    }
+    int mantissa = (v >> (exponent + 3)) & 0x0f;
+    return (byte) ~(sign | (exponent << 4) | mantissa);
+  }
+
+  private static AudioPipeline pipeline(PcmBytesSink sink) {
+    return AudioPipeline.builder("bench")
+        //
+        .add(new ResampleStage(MODEL_RATE))
+        //
+        .add(new MeterStage())
+        //
+        .add(new EncodeStage(sink))
+        //
+        .build();
+  }
+
+  /**
+   * Keeps the array like the SDK bridges do, without any I/O
+   */
+  private final class NoopBridge implements RealtimeModelBridge {
+    private final CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+
+    @Override
+    public CompletableFuture<Void> connect(RealtimeSetup setup) {
+      return done;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPcm16k(byte[] pcm16k) {
+      sink = pcm16k;
+      return done;
+    }
+
+    @Override
+    public CompletableFuture<Void> endAudioInput() {
+      return done;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendText(String text) {
+      return done;
+    }
+
+    @Override
+    public CompletableFuture<Void> close() {
+      return done;
+    }
+  }
+}